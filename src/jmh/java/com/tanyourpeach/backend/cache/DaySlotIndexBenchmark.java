@@ -0,0 +1,94 @@
+package com.tanyourpeach.backend.cache;
+
+import com.tanyourpeach.backend.model.Availability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Availability overlap check at realistic per-day slot counts. AvailabilityService builds a
+// DaySlotIndex from the day's locked rows on every write, so the build is measured with the
+// lookup, next to a lookup on a prebuilt index and a linear scan over the entities.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DaySlotIndexBenchmark {
+
+    // 15-minute slots from 8:00; 48 fills a 12-hour day
+    @Param({"8", "16", "48"})
+    public int slotsPerDay;
+
+    private DaySlotIndex index;
+    private long[] ids;
+    private int[] starts;
+    private int[] ends;
+    private List<Availability> slots;
+    private int freeStart;
+    private int freeEnd;
+
+    @Setup
+    public void setUp() {
+        slots = new ArrayList<>();
+        for (int i = 0; i < slotsPerDay; i++) {
+            // leave the middle slot free so the check has to look at its neighbours
+            if (i == slotsPerDay / 2) continue;
+            LocalTime start = LocalTime.of(8, 0).plusMinutes(15L * i);
+            LocalTime end = start.plusMinutes(15);
+
+            Availability slot = new Availability();
+            slot.setSlotId((long) i + 1);
+            slot.setStartTime(start);
+            slot.setEndTime(end);
+            slots.add(slot);
+        }
+        ids = new long[slots.size()];
+        starts = new int[slots.size()];
+        ends = new int[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            ids[i] = slots.get(i).getSlotId();
+            starts[i] = slots.get(i).getStartTime().toSecondOfDay();
+            ends[i] = slots.get(i).getEndTime().toSecondOfDay();
+        }
+        index = DaySlotIndex.of(ids, starts, ends);
+
+        LocalTime free = LocalTime.of(8, 0).plusMinutes(15L * (slotsPerDay / 2));
+        freeStart = free.toSecondOfDay();
+        freeEnd = free.plusMinutes(15).toSecondOfDay();
+    }
+
+    @Benchmark
+    public boolean indexOverlapsFree() {
+        return index.overlaps(freeStart, freeEnd, -1);
+    }
+
+    @Benchmark
+    public boolean indexOverlapsTaken() {
+        return index.overlaps(freeStart - 600, freeStart + 60, -1);
+    }
+
+    @Benchmark
+    public boolean linearScanFree() {
+        LocalTime start = LocalTime.ofSecondOfDay(freeStart);
+        LocalTime end = LocalTime.ofSecondOfDay(freeEnd);
+        for (Availability slot : slots) {
+            if (slot.getStartTime().isBefore(end) && slot.getEndTime().isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean buildAndOverlapsFree() {
+        return DaySlotIndex.of(ids, starts, ends).overlaps(freeStart, freeEnd, -1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tanyourpeach.backend.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.model.ServiceType;
+import com.tanyourpeach.backend.model.TanService;
+import com.tanyourpeach.backend.repository.TanServiceRepository;
+import com.tanyourpeach.backend.service.ServiceCatalogCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Public catalog: entity -> DTO mapping, mapping plus Jackson, and the pre-serialized cache read
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ServiceResponseDtoBenchmark {
+
+    @Param({"12", "48"})
+    public int serviceCount;
+
+    private List<TanService> services;
+    private ObjectMapper objectMapper;
+    private ServiceCatalogCache catalogCache;
+
+    @Setup
+    public void setUp() {
+        services = new ArrayList<>();
+        for (int i = 0; i < serviceCount; i++) {
+            services.add(service(i));
+        }
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        TanServiceRepository repository = mock(TanServiceRepository.class);
+        when(repository.findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE))
+                .thenReturn(services);
+        when(repository.findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.ADD_ON))
+                .thenReturn(List.of());
+        catalogCache = new ServiceCatalogCache(repository, objectMapper, Long.MAX_VALUE / 2);
+        catalogCache.mainServices();
+    }
+
+    @Benchmark
+    public List<ServiceResponseDto> mapToDtos() {
+        return services.stream().map(ServiceResponseDto::new).toList();
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(services.stream().map(ServiceResponseDto::new).toList());
+    }
+
+    @Benchmark
+    public byte[] cachedCatalog() {
+        return catalogCache.mainServices().body();
+    }
+
+    private static TanService service(int i) {
+        TanService service = new TanService();
+        service.setServiceId((long) i + 1);
+        service.setName("Signature Tan " + i);
+        service.setSlug("signature-tan-" + i);
+        service.setShortDescription("A natural, streak-free glow.");
+        service.setDescription("Custom-blended solution applied by hand, tailored to your skin tone. ".repeat(4));
+        service.setBasePrice(45.0 + i);
+        service.setDurationMinutes(45);
+        service.setServiceType(ServiceType.MAIN_SERVICE);
+        service.setCardImageUrl("https://cdn.example.com/services/" + i + "/card.jpg");
+        service.setHeroImageUrl("https://cdn.example.com/services/" + i + "/hero.jpg");
+        service.setDisplayOrder(i);
+        service.setRinseTimeMinHours(4.0);
+        service.setRinseTimeMaxHours(8.0);
+        service.setIsActive(true);
+        return service;
+    }
+}
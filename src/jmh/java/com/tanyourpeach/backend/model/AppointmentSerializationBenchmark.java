@@ -0,0 +1,90 @@
+package com.tanyourpeach.backend.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the appointment lists the admin and "my appointments" endpoints return
+// (appointment -> user, service, availability), configured like Spring Boot's ObjectMapper.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AppointmentSerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int appointmentCount;
+
+    private ObjectMapper objectMapper;
+    private List<Appointment> appointments;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        User user = new User();
+        user.setUserId(7L);
+        user.setName("Benchmark Client");
+        user.setEmail("client@example.com");
+        user.setAddress("123 Peach St");
+        user.setIsAdmin(false);
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 0));
+
+        TanService service = new TanService();
+        service.setServiceId(3L);
+        service.setName("Signature Tan");
+        service.setSlug("signature-tan");
+        service.setDescription("Custom-blended solution applied by hand.");
+        service.setBasePrice(55.0);
+        service.setDurationMinutes(45);
+        service.setServiceType(ServiceType.MAIN_SERVICE);
+
+        appointments = new ArrayList<>();
+        LocalDate day = LocalDate.of(2025, 6, 2);
+        for (int i = 0; i < appointmentCount; i++) {
+            Availability slot = new Availability();
+            slot.setSlotId((long) i + 1);
+            slot.setDate(day.plusDays(i / 8));
+            slot.setStartTime(LocalTime.of(9 + i % 8, 0));
+            slot.setEndTime(LocalTime.of(9 + i % 8, 45));
+            slot.setIsBooked(true);
+
+            Appointment appointment = new Appointment();
+            appointment.setAppointmentId((long) i + 1);
+            appointment.setUser(user);
+            appointment.setService(service);
+            appointment.setAvailability(slot);
+            appointment.setClientName("Benchmark Client");
+            appointment.setClientEmail("client@example.com");
+            appointment.setClientAddress("123 Peach St, Springfield");
+            appointment.setAppointmentDateTime(LocalDateTime.of(slot.getDate(), slot.getStartTime()));
+            appointment.setDistanceMiles(6.5);
+            appointment.setTravelFee(10.0);
+            appointment.setBasePrice(55.0);
+            appointment.setTotalPrice(65.0);
+            appointment.setStatus(Appointment.Status.CONFIRMED);
+            appointment.setNotes("Gate code 1234");
+            appointment.setCreatedAt(LocalDateTime.of(2025, 5, 20, 12, 0));
+            appointments.add(appointment);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeAppointments() throws Exception {
+        return objectMapper.writeValueAsBytes(appointments);
+    }
+}
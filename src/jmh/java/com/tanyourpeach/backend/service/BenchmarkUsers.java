@@ -0,0 +1,26 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.User;
+
+import java.time.LocalDateTime;
+
+// Shared fixtures for the service benchmarks
+final class BenchmarkUsers {
+
+    static final String EMAIL = "client@example.com";
+
+    private BenchmarkUsers() {
+    }
+
+    static User user() {
+        User user = new User();
+        user.setUserId(42L);
+        user.setName("Benchmark Client");
+        user.setEmail(EMAIL);
+        user.setPasswordHash("$2a$10$abcdefghijklmnopqrstuv");
+        user.setAddress("123 Peach St");
+        user.setIsAdmin(false);
+        user.setCreatedAt(LocalDateTime.of(2025, 1, 1, 9, 0));
+        return user;
+    }
+}
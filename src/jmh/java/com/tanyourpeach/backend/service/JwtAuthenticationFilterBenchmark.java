@@ -0,0 +1,84 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.repository.TokenRevocationRepository;
+import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Full authenticated pass through the filter with warm claims and principal caches.
+// The repository mocks are only hit during setup; the chain is a no-op.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtService jwtService = JwtServiceBenchmark.newJwtService();
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(BenchmarkUsers.EMAIL)).thenReturn(Optional.of(BenchmarkUsers.user()));
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(userDetailsService, "userRepository", userRepository);
+
+        // no revocations on record, loaded once as on startup
+        TokenRevocationService tokenRevocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(tokenRevocationService, "tokenRevocationRepository", mock(TokenRevocationRepository.class));
+        tokenRevocationService.reload();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "customUserDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+
+        authorization = "Bearer " + jwtService.generateToken(BenchmarkUsers.user());
+        chain = (request, response) -> { };
+
+        // warm both caches, and fail fast if the request would not authenticate
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternal(request(), response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        if (response.getStatus() != 200 || authentication == null
+                || !(authentication.getPrincipal() instanceof AuthenticatedUser)) {
+            throw new IllegalStateException("Warm-up request did not authenticate: status " + response.getStatus()
+                    + ", authentication " + authentication);
+        }
+    }
+
+    @Benchmark
+    public void authenticatedRequest(Blackhole bh) throws Exception {
+        filter.doFilterInternal(request(), new MockHttpServletResponse(), chain);
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointments/my");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
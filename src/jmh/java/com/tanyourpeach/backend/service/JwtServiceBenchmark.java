@@ -0,0 +1,58 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue on login and the per-request parse/validate path (claims cache warm)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "MzI3NjM0NzVENEY2NDU1NzY4NTY2QjU5NzAzMzczMzY3NjM5NzkyNDQyMjY0NTI5NDg0MDRENjM1MTY2NTQ2QQ==";
+
+    private JwtService jwtService;
+    private User user;
+    private AuthenticatedUser principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService();
+        user = BenchmarkUsers.user();
+        principal = AuthenticatedUser.from(user);
+        token = jwtService.generateToken(user);
+    }
+
+    static JwtService newJwtService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "expirationMs", 86_400_000L);
+        return service;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, principal);
+    }
+}
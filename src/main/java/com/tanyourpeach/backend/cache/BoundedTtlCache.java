@@ -0,0 +1,71 @@
+package com.tanyourpeach.backend.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// Small thread-safe LRU cache where every entry also carries its own expiry time.
+// Expired entries are dropped lazily on read and eagerly when they reach the LRU tail.
+public class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long defaultTtlMs;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public BoundedTtlCache(int maxEntries, long defaultTtlMs) {
+        this(maxEntries, defaultTtlMs, System::currentTimeMillis);
+    }
+
+    public BoundedTtlCache(int maxEntries, long defaultTtlMs, LongSupplier clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.defaultTtlMs = defaultTtlMs;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedTtlCache.this.maxEntries
+                        || eldest.getValue().expiresAt <= BoundedTtlCache.this.clock.getAsLong();
+            }
+        };
+    }
+
+    // Get a live value, or null if missing or expired
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    // Store a value using the default time-to-live
+    public void put(K key, V value) {
+        put(key, value, clock.getAsLong() + defaultTtlMs);
+    }
+
+    // Store a value that expires at the given epoch millis
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        if (value == null || expiresAtMillis <= clock.getAsLong()) return;
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
@@ -0,0 +1,78 @@
+package com.tanyourpeach.backend.cache;
+
+import java.util.Arrays;
+
+// Immutable interval index for the slots of a single day.
+// Start/end times are seconds of day kept in parallel int arrays sorted by start, so once the
+// day's rows are loaded an overlap check is a binary search plus a short backward scan.
+public final class DaySlotIndex {
+
+    private static final DaySlotIndex EMPTY = new DaySlotIndex(new long[0], new int[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] starts;
+    private final int[] ends;
+    // maxEnds[i] = largest end among slots 0..i, lets the backward scan stop early
+    private final int[] maxEnds;
+
+    private DaySlotIndex(long[] ids, int[] starts, int[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new int[ends.length];
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+    }
+
+    public static DaySlotIndex empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // True if [start, end) intersects any slot other than excludeId (touching edges do not count)
+    public boolean overlaps(int start, int end, long excludeId) {
+        // last slot that starts before the candidate ends
+        int i = upperBound(end - 1);
+        for (; i >= 0 && maxEnds[i] > start; i--) {
+            if (ends[i] > start && ids[i] != excludeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Index over slots already ordered by start time (ties in any order); built in one pass
+    public static DaySlotIndex of(long[] ids, int[] starts, int[] ends) {
+        if (ids.length != starts.length || starts.length != ends.length) {
+            throw new IllegalArgumentException("ids, starts and ends must have the same length");
+        }
+        for (int i = 1; i < starts.length; i++) {
+            if (starts[i] < starts[i - 1]) {
+                throw new IllegalArgumentException("slots must be ordered by start time");
+            }
+        }
+        return ids.length == 0 ? EMPTY : new DaySlotIndex(ids.clone(), starts.clone(), ends.clone());
+    }
+
+    // Index of the last slot whose start <= value, or -1
+    private int upperBound(int value) {
+        int lo = 0, hi = starts.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[mid] <= value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "DaySlotIndex[starts=" + Arrays.toString(starts) + ", ends=" + Arrays.toString(ends) + "]";
+    }
+}
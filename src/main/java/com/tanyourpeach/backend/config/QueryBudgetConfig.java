@@ -0,0 +1,38 @@
+package com.tanyourpeach.backend.config;
+
+import com.tanyourpeach.backend.web.QueryBudgetFilter;
+import com.tanyourpeach.backend.web.QueryCountingListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class QueryBudgetConfig {
+
+    // Attach the statement counter to every Hibernate session
+    @Bean
+    public HibernatePropertiesCustomizer queryCountingListener() {
+        return props -> props.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryCountingListener.class.getName());
+    }
+
+    // Headers are opt-in and never sent under the prod profile, whatever the property says
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+            Environment environment,
+            @Value("${query-budget.max-statements:25}") int maxStatements,
+            @Value("${query-budget.expose-headers:false}") boolean exposeHeaders) {
+        boolean headers = exposeHeaders && !environment.matchesProfiles("prod");
+
+        FilterRegistrationBean<QueryBudgetFilter> reg = new FilterRegistrationBean<>();
+        reg.setFilter(new QueryBudgetFilter(maxStatements, headers));
+        reg.setName("queryBudgetFilter");
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 1); // just inside the correlation id, so warnings carry it
+        reg.setAsyncSupported(true);
+        return reg;
+    }
+}
@@ -0,0 +1,55 @@
+package com.tanyourpeach.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.web.RateLimitFilter;
+import com.tanyourpeach.backend.web.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+// Token-bucket limits for the anonymous endpoints; rate-limit.enabled=false turns all of them off
+@Configuration
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Value("${rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ObjectMapper objectMapper,
+            @Value("${rate-limit.booking.capacity:10}") int bookingCapacity,
+            @Value("${rate-limit.booking.refill-per-minute:10}") int bookingRefill,
+            @Value("${rate-limit.login.capacity:10}") int loginCapacity,
+            @Value("${rate-limit.login.refill-per-minute:10}") int loginRefill,
+            @Value("${rate-limit.register.capacity:5}") int registerCapacity,
+            @Value("${rate-limit.register.refill-per-minute:2}") int registerRefill) {
+        List<RateLimitFilter.Rule> rules = List.of(
+                new RateLimitFilter.Rule("POST", "/api/appointments",
+                        new TokenBucketLimiter(bookingCapacity, bookingRefill, maxClients)),
+                new RateLimitFilter.Rule("POST", "/api/auth/login",
+                        new TokenBucketLimiter(loginCapacity, loginRefill, maxClients)),
+                new RateLimitFilter.Rule("POST", "/api/auth/register",
+                        new TokenBucketLimiter(registerCapacity, registerRefill, maxClients)));
+
+        FilterRegistrationBean<RateLimitFilter> reg = new FilterRegistrationBean<>();
+        reg.setFilter(new RateLimitFilter(rules, objectMapper));
+        reg.setName("rateLimitFilter");
+        reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 2); // after correlation id and query budget, before Spring Security
+        reg.setAsyncSupported(true);
+        return reg;
+    }
+
+    // Login attempts per account, so a spread-out credential-stuffing run against one email is still capped
+    @Bean
+    public TokenBucketLimiter loginAccountLimiter(
+            @Value("${rate-limit.login-account.capacity:5}") int capacity,
+            @Value("${rate-limit.login-account.refill-per-minute:5}") int refillPerMinute) {
+        return new TokenBucketLimiter(capacity, refillPerMinute, maxClients);
+    }
+}
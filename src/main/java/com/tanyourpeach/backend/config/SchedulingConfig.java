@@ -0,0 +1,10 @@
+package com.tanyourpeach.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (the outbox worker)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
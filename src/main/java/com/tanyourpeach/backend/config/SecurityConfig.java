@@ -62,6 +62,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .requestMatchers("/actuator/health", "/error", "/assets/**", "/static/**").permitAll()
+                .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                 .requestMatchers("/", "/home", "/about", "/contact").permitAll()
 
                 .requestMatchers(HttpMethod.POST, "/api/auth/**").permitAll()
@@ -1,18 +1,25 @@
 package com.tanyourpeach.backend.controller;
 
-import com.tanyourpeach.backend.repository.UserRepository;
-import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.security.CurrentUser;
 import com.tanyourpeach.backend.service.AdminStatsService;
-import com.tanyourpeach.backend.service.JwtService;
-
-import jakarta.servlet.http.HttpServletRequest;
+import com.tanyourpeach.backend.service.AppointmentService;
+import com.tanyourpeach.backend.service.DaySheetService;
+import com.tanyourpeach.backend.service.ServiceCatalogCache;
+import com.tanyourpeach.backend.service.ServiceCatalogCache.CachedJson;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.AccessDeniedException;
 
+import java.time.LocalDate;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin/stats")
 public class AdminStatsController {
@@ -21,27 +28,18 @@ public class AdminStatsController {
     private AdminStatsService adminStatsService;
 
     @Autowired
-    private JwtService jwtService;
+    private AppointmentService appointmentService;
 
     @Autowired
-    private UserRepository userRepository;
+    private DaySheetService daySheetService;
 
-    // This method checks if the user is an admin based on the JWT token in the request header.
-    private boolean isAdmin(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            String email = jwtService.extractUsername(token);
-            User user = userRepository.findByEmail(email).orElseThrow();
-            return user.getIsAdmin() != null && user.getIsAdmin();
-        } catch (Exception e) {
-            return false;
-        }
-    }
+    @Autowired
+    private CurrentUser currentUser;
 
     // Endpoints for admin statistics
     @GetMapping("/summary")
-    public ResponseEntity<?> getSummary(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getSummary() {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(adminStatsService.getDashboardSummary());
@@ -49,8 +47,8 @@ public class AdminStatsController {
 
     // Endpoint to get the last four months of statistics
     @GetMapping("/monthly")
-    public ResponseEntity<?> getMonthlyStats(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getMonthlyStats() {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(adminStatsService.getLastFourMonthsStats());
@@ -58,19 +56,60 @@ public class AdminStatsController {
 
     // Endpoint to get the last four weeks of statistics
     @GetMapping("/upcoming")
-    public ResponseEntity<?> getUpcomingAppointments(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getUpcomingAppointments() {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(adminStatsService.getUpcomingAppointments());
     }
 
+    // Endpoint to get live appointment counts (in memory, safe to poll)
+    @GetMapping("/appointments")
+    public ResponseEntity<?> getAppointmentCounts() {
+        if (!currentUser.isAdmin()) {
+            throw new AccessDeniedException("Access denied");
+        }
+        return ResponseEntity.ok(appointmentService.getAppointmentCounts());
+    }
+
+    // Endpoint to get one day's appointments, services, receipts and inventory needs as a single
+    // pre-rendered document; If-None-Match with the current ETag answers 304 without a body
+    @GetMapping("/day-sheet/{date}")
+    public ResponseEntity<byte[]> getDaySheet(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!currentUser.isAdmin()) {
+            throw new AccessDeniedException("Access denied");
+        }
+        CachedJson json = daySheetService.getDaySheet(date);
+        // private: admin data must not be kept by shared caches
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (ServiceCatalogCache.matches(ifNoneMatch, json.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(json.etag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(json.etag())
+                .cacheControl(cacheControl)
+                .body(json.body());
+    }
+
     // Endpoint to get low stock items
     @GetMapping("/low-stock")
-    public ResponseEntity<?> getLowStockItems(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getLowStockItems() {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(adminStatsService.getLowStockInventory());
     }
-}
\ No newline at end of file
+
+    // Endpoint to rebuild the monthly financial rollup from the raw log
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<?> rebuildFinancialRollup() {
+        if (!currentUser.isAdmin()) {
+            throw new AccessDeniedException("Access denied");
+        }
+        int rows = adminStatsService.rebuildFinancialRollup();
+        return ResponseEntity.ok(Map.of("rollupRows", rows));
+    }
+}
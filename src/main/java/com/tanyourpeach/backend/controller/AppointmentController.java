@@ -1,24 +1,25 @@
 package com.tanyourpeach.backend.controller;
 
 import com.tanyourpeach.backend.model.Appointment;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.model.IdempotencyKeyId;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
 import com.tanyourpeach.backend.service.AppointmentService;
-import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.IdempotencyService;
 
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.security.access.AccessDeniedException;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -28,97 +29,121 @@ public class AppointmentController {
     private AppointmentService appointmentService;
 
     @Autowired
-    private JwtService jwtService;
+    private IdempotencyService idempotencyService;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
 
-    // Helper method to check if the user is an admin
-    private boolean isAdmin(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            String email = jwtService.extractUsername(token);
-            User user = userRepository.findByEmail(email).orElseThrow();
-            return user.getIsAdmin() != null && user.getIsAdmin();
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    // Helper method to get the email of the user from the JWT token
-    private String getUserEmail(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            return jwtService.extractUsername(token);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 
-    // GET all appointments (admin only)
+    // GET appointments one keyset page at a time (admin only)
     @GetMapping
-    public ResponseEntity<?> getAllAppointments(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getAllAppointments(
+            @RequestParam(required = false) Appointment.Status status,
+            @RequestParam(required = false) Long serviceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
-        return ResponseEntity.ok(appointmentService.getAllAppointments());
+        return ResponseEntity.ok(appointmentService.getAppointmentPage(status, serviceId, from, to, cursor, limit));
     }
 
     // GET appointment by ID (user must own it or be admin)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getAppointmentById(@PathVariable Long id, HttpServletRequest request) {
+    public ResponseEntity<?> getAppointmentById(@PathVariable Long id) {
         Optional<Appointment> appointment = appointmentService.getAppointmentById(id);
         if (appointment.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found");
         }
 
-        String email = getUserEmail(request);
+        String email = currentUser.email();
         String ownerEmail = appointment.get().getClientEmail();
 
         if (ownerEmail != null && ownerEmail.equals(email)) {
             return ResponseEntity.ok(appointment.get());
         }
 
-        if (isAdmin(request)) {
+        if (currentUser.isAdmin()) {
             return ResponseEntity.ok(appointment.get());
         }
 
         throw new AccessDeniedException("Access denied");
     }
 
-    // GET all appointments for logged-in user
+    // GET the logged-in user's appointments, one page at a time (scope: upcoming, past or all)
     @GetMapping("/my-appointments")
-    public ResponseEntity<?> getUserAppointments(HttpServletRequest request) {
-        String email = getUserEmail(request);
+    public ResponseEntity<?> getUserAppointments(
+            @RequestParam(defaultValue = "all") String scope,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        String email = currentUser.email();
         if (email == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
         }
 
-        List<Appointment> userAppointments = appointmentService.getAllAppointments().stream()
-                .filter(a -> a.getClientEmail() != null && a.getClientEmail().equals(email))
-                .collect(Collectors.toList());
+        AppointmentService.HistoryScope historyScope;
+        try {
+            historyScope = AppointmentService.HistoryScope.valueOf(scope.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "scope must be upcoming, past or all");
+        }
 
-        return ResponseEntity.ok(userAppointments);
+        Long userId = currentUser.get().map(AuthenticatedUser::getUserId).orElse(null);
+        return ResponseEntity.ok(appointmentService.getClientAppointmentPage(email, userId, historyScope, cursor, limit));
     }
 
-    // POST create appointment (open to anonymous or logged-in)
+    // POST create appointment (open to anonymous or logged-in).
+    // With an Idempotency-Key, a retry of a booking that already went through gets the
+    // original response back without locking the slot again.
     @PostMapping
-    public ResponseEntity<Appointment> createAppointment(@Valid @RequestBody Appointment appointment, HttpServletRequest request) {
-        Optional<Appointment> created = appointmentService.createAppointment(appointment, request);
-        return created
-        .map(ResponseEntity::ok)
-        .orElseThrow(() -> new ResponseStatusException(
-                HttpStatus.BAD_REQUEST,
-                "Unable to create appointment"
-        ));
+    public ResponseEntity<?> createAppointment(
+            @Valid @RequestBody Appointment appointment,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey == null) {
+            return appointmentService.createAppointment(appointment)
+                .map(ResponseEntity::ok)
+                .orElseThrow(AppointmentController::unableToCreate);
+        }
+
+        IdempotencyKeyId key = idempotencyService.scopedKey(idempotencyKey, appointment.getClientEmail());
+        String requestHash = idempotencyService.requestHash(appointment);
+        Optional<byte[]> replay = idempotencyService.findResponse(key, requestHash);
+        if (replay.isPresent()) {
+            return replayed(replay.get());
+        }
+
+        Optional<Appointment> created = appointmentService.createAppointment(appointment, key, requestHash);
+        if (created.isPresent()) {
+            return ResponseEntity.ok(created.get());
+        }
+
+        // A concurrent retry with the same key may have booked the slot while this one waited on it
+        return idempotencyService.findResponse(key, requestHash)
+            .map(AppointmentController::replayed)
+            .orElseThrow(AppointmentController::unableToCreate);
+    }
+
+    private static ResponseEntity<byte[]> replayed(byte[] body) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(IdempotencyService.REPLAYED_HEADER, "true")
+            .body(body);
+    }
+
+    private static ResponseStatusException unableToCreate() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unable to create appointment");
     }
 
     // PUT update appointment (admins or user that owns it)
     @PutMapping("/{id}")
     public ResponseEntity<?> updateAppointment(
             @PathVariable Long id,
-            @Valid @RequestBody Appointment updated,
-            HttpServletRequest request
+            @Valid @RequestBody Appointment updated
     ) {
         Optional<Appointment> existing = appointmentService.getAppointmentById(id);
         if (existing.isEmpty()) {
@@ -127,10 +152,10 @@ public class AppointmentController {
 
         Appointment existingAppointment = existing.get();
 
-        String email = getUserEmail(request);
+        String email = currentUser.email();
         String ownerEmail = existingAppointment.getClientEmail();
 
-        boolean admin = isAdmin(request);
+        boolean admin = currentUser.isAdmin();
         boolean owner = ownerEmail != null && ownerEmail.equals(email);
 
         if (!admin && !owner) {
@@ -178,7 +203,7 @@ public class AppointmentController {
             }
         }
 
-        return appointmentService.updateAppointment(id, updated, request)
+        return appointmentService.updateAppointment(id, updated)
                 .map(ResponseEntity::ok)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.BAD_REQUEST,
@@ -188,8 +213,8 @@ public class AppointmentController {
 
     // DELETE appointment (admin only)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteAppointment(@PathVariable Long id, HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> deleteAppointment(@PathVariable Long id) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
 
@@ -3,8 +3,10 @@ package com.tanyourpeach.backend.controller;
 import com.tanyourpeach.backend.dto.AuthenticationRequest;
 import com.tanyourpeach.backend.dto.AuthenticationResponse;
 import com.tanyourpeach.backend.dto.RegisterRequest;
+import com.tanyourpeach.backend.service.JwtService;
 import com.tanyourpeach.backend.service.UserAuthService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +20,9 @@ public class AuthController {
     @Autowired
     private UserAuthService userAuthService;
 
+    @Autowired
+    private JwtService jwtService;
+
     // Endpoint for user registration
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponse> register(@Valid @RequestBody RegisterRequest request) {
@@ -29,4 +34,11 @@ public class AuthController {
     public ResponseEntity<AuthenticationResponse> login(@Valid @RequestBody AuthenticationRequest request) {
         return ResponseEntity.ok(userAuthService.authenticate(request));
     }
+
+    // Endpoint for logout: the bearer token stops working on every node within seconds
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        userAuthService.logout(jwtService.extractToken(request));
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.tanyourpeach.backend.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.tanyourpeach.backend.dto.AvailabilityTemplateRequest;
+import com.tanyourpeach.backend.dto.AvailabilityTemplateResult;
 import com.tanyourpeach.backend.model.Availability;
 import com.tanyourpeach.backend.service.AvailabilityService;
 
@@ -38,6 +41,18 @@ public class AvailabilityController {
         }
     }
 
+    // GET available slots for a date window (inclusive), e.g. a whole week of the booking page
+    @GetMapping("/range")
+    public ResponseEntity<List<Availability>> getAvailableSlotsInRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<Availability> slots = availabilityService.getAvailableSlotsInRange(from, to);
+        if (slots == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+        }
+        return ResponseEntity.ok(slots);
+    }
+
     // POST create new slot
     @PostMapping
     public ResponseEntity<Availability> createAvailability(@Valid @RequestBody Availability availability) {
@@ -48,6 +63,16 @@ public class AvailabilityController {
         return ResponseEntity.ok(saved);
     }
 
+    // POST expand a weekly schedule template into slots in one request
+    @PostMapping("/template")
+    public ResponseEntity<AvailabilityTemplateResult> generateFromTemplate(@Valid @RequestBody AvailabilityTemplateRequest template) {
+        AvailabilityTemplateResult result = availabilityService.generateFromTemplate(template);
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid availability template");
+        }
+        return ResponseEntity.ok(result);
+    }
+
     // PUT update slot
     @PutMapping("/{id}")
     public ResponseEntity<Availability> updateAvailability(@PathVariable Long id, @Valid @RequestBody Availability updated) {
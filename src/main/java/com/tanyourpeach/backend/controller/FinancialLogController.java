@@ -1,20 +1,24 @@
 package com.tanyourpeach.backend.controller;
 
 import com.tanyourpeach.backend.model.FinancialLog;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.security.CurrentUser;
+import com.tanyourpeach.backend.service.FinancialLogExportService;
 import com.tanyourpeach.backend.service.FinancialLogService;
-import com.tanyourpeach.backend.service.JwtService;
-
-import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -25,36 +29,58 @@ public class FinancialLogController {
     private FinancialLogService financialLogService;
 
     @Autowired
-    private JwtService jwtService;
+    private FinancialLogExportService financialLogExportService;
 
     @Autowired
-    private UserRepository userRepository;
-
-    // Helper method to check if the user is an admin
-    private boolean isAdmin(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            String email = jwtService.extractUsername(token);
-            User user = userRepository.findByEmail(email).orElseThrow();
-            return user.getIsAdmin() != null && user.getIsAdmin();
-        } catch (Exception e) {
-            return false;
-        }
-    }
+    private CurrentUser currentUser;
 
     // Endpoint to get all financial logs (admin only)
     @GetMapping
-    public ResponseEntity<?> getAllLogs(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getAllLogs() {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(financialLogService.getAllLogs());
     }
 
+    // Streams the log as CSV or NDJSON for a date range (admin only); from and to are inclusive
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) FinancialLog.Type type,
+            @RequestParam(defaultValue = "csv") String format) {
+        if (!currentUser.isAdmin()) {
+            throw new AccessDeniedException("Access denied");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+
+        FinancialLogExportService.Format exportFormat;
+        try {
+            exportFormat = FinancialLogExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        }
+
+        String filename = "financial-log"
+                + (from != null ? "-" + from : "")
+                + (to != null ? "-" + to : "")
+                + "." + exportFormat.extension();
+
+        StreamingResponseBody body = out -> financialLogExportService.export(from, to, type, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
     // Endpoint to create a new financial log entry
     @GetMapping("/{id}")
-    public ResponseEntity<?> getLogById(@PathVariable Long id, HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getLogById(@PathVariable Long id) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
 
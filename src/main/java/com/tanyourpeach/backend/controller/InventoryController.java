@@ -8,12 +8,10 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.tanyourpeach.backend.model.Inventory;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.security.CurrentUser;
+import com.tanyourpeach.backend.service.InventoryForecastService;
 import com.tanyourpeach.backend.service.InventoryService;
-import com.tanyourpeach.backend.service.JwtService;
 
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import java.math.BigDecimal;
@@ -27,22 +25,10 @@ public class InventoryController {
     private InventoryService inventoryService;
 
     @Autowired
-    private JwtService jwtService;
+    private InventoryForecastService inventoryForecastService;
 
     @Autowired
-    private UserRepository userRepository;
-
-    // Helper method to check if the user is an admin
-    private boolean isAdmin(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            String email = jwtService.extractUsername(token);
-            User user = userRepository.findByEmail(email).orElseThrow();
-            return user.getIsAdmin() != null && user.getIsAdmin();
-        } catch (Exception e) {
-            return false;
-        }
-    }
+    private CurrentUser currentUser;
 
     // GET all items (allowed for all)
     @GetMapping
@@ -50,6 +36,15 @@ public class InventoryController {
         return inventoryService.getAllInventory();
     }
 
+    // GET projected low-stock and stock-out dates from booked appointments (admin only)
+    @GetMapping("/forecast")
+    public ResponseEntity<?> getForecast() {
+        if (!currentUser.isAdmin()) {
+            throw new AccessDeniedException("Access denied");
+        }
+        return ResponseEntity.ok(inventoryForecastService.getForecast());
+    }
+
     // GET by ID (allowed for all)
     @GetMapping("/{id}")
     public ResponseEntity<Inventory> getInventoryById(@PathVariable Long id) {
@@ -63,8 +58,8 @@ public class InventoryController {
 
     // POST create (admin only)
     @PostMapping
-    public ResponseEntity<?> createInventory(@Valid @RequestBody Inventory inventory, HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> createInventory(@Valid @RequestBody Inventory inventory) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(inventoryService.createInventory(inventory));
@@ -72,8 +67,8 @@ public class InventoryController {
 
     // PUT update (admin only)
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateInventory(@PathVariable Long id, @Valid @RequestBody Inventory updated, HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> updateInventory(@PathVariable Long id, @Valid @RequestBody Inventory updated) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return inventoryService.updateInventory(id, updated)
@@ -86,8 +81,8 @@ public class InventoryController {
 
     // DELETE (admin only)
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteInventory(@PathVariable Long id, HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> deleteInventory(@PathVariable Long id) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
 
@@ -114,9 +109,8 @@ public class InventoryController {
     @PutMapping("/add-stock/{id}")
     public ResponseEntity<?> addStock(@PathVariable Long id,
                                     @RequestParam int quantity,
-                                    @RequestParam BigDecimal unitCost,
-                                    HttpServletRequest request) {
-        if (!isAdmin(request)) {
+                                    @RequestParam BigDecimal unitCost) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
 
@@ -131,9 +125,8 @@ public class InventoryController {
     // PUT remove stock (admin only)
     @PutMapping("/remove-stock/{id}")
     public ResponseEntity<?> removeStock(@PathVariable Long id,
-                                        @RequestParam int quantity,
-                                        HttpServletRequest request) {
-        if (!isAdmin(request)) {
+                                        @RequestParam int quantity) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
 
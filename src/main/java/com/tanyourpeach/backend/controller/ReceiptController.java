@@ -1,13 +1,12 @@
 package com.tanyourpeach.backend.controller;
 
+import com.tanyourpeach.backend.dto.ReceiptLookupRequest;
+import com.tanyourpeach.backend.dto.ReceiptSummary;
 import com.tanyourpeach.backend.model.Receipt;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
-import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
 import com.tanyourpeach.backend.service.ReceiptService;
 
-import jakarta.servlet.http.HttpServletRequest;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +14,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.validation.Valid;
+
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -25,46 +27,43 @@ public class ReceiptController {
     private ReceiptService receiptService;
 
     @Autowired
-    private JwtService jwtService;
+    private CurrentUser currentUser;
 
-    @Autowired
-    private UserRepository userRepository;
-
-    // Helper method to check if the user is an admin
-    private boolean isAdmin(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            String email = jwtService.extractUsername(token);
-            User user = userRepository.findByEmail(email).orElseThrow();
-            return user.getIsAdmin() != null && user.getIsAdmin();
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    // Helper method to get the email of the user from the JWT token
-    private String getUserEmail(HttpServletRequest request) {
-        try {
-            String token = request.getHeader("Authorization").substring(7);
-            return jwtService.extractUsername(token);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 
     // GET all receipts (admin only)
     @GetMapping
-    public ResponseEntity<?> getAllReceipts(HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getAllReceipts() {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
         return ResponseEntity.ok(receiptService.getAllReceipts());
     }
 
+    // GET receipts for many appointments at once: /api/receipts?appointmentIds=1,2,3.
+    // Admins see every receipt; other users only those for their own appointments.
+    @GetMapping(params = "appointmentIds")
+    public ResponseEntity<?> getReceiptsByAppointmentIds(@RequestParam List<Long> appointmentIds) {
+        return ResponseEntity.ok(lookup(appointmentIds));
+    }
+
+    // POST variant of the bulk lookup for id lists too long for a URL
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupReceipts(@Valid @RequestBody ReceiptLookupRequest request) {
+        return ResponseEntity.ok(lookup(request.getAppointmentIds()));
+    }
+
+    // One authorization check for the whole batch
+    private List<ReceiptSummary> lookup(List<Long> appointmentIds) {
+        AuthenticatedUser principal = currentUser.get()
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+        return receiptService.getReceiptsByAppointmentIds(
+                appointmentIds, principal.isAdmin() ? null : principal.getEmail());
+    }
+
     // GET receipt by receipt ID (admin only)
     @GetMapping("/{id}")
-    public ResponseEntity<?> getReceiptById(@PathVariable Long id, HttpServletRequest request) {
-        if (!isAdmin(request)) {
+    public ResponseEntity<?> getReceiptById(@PathVariable Long id) {
+        if (!currentUser.isAdmin()) {
             throw new AccessDeniedException("Access denied");
         }
 
@@ -78,8 +77,8 @@ public class ReceiptController {
 
     // GET receipt by appointment ID (user can only fetch their own)
     @GetMapping("/appointment/{appointmentId}")
-    public ResponseEntity<?> getReceiptByAppointmentId(@PathVariable Long appointmentId, HttpServletRequest request) {
-        String email = getUserEmail(request);
+    public ResponseEntity<?> getReceiptByAppointmentId(@PathVariable Long appointmentId) {
+        String email = currentUser.email();
         if (email == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
         }
@@ -96,7 +95,7 @@ public class ReceiptController {
         }
 
         // Only admins can access someone else's receipt
-        if (isAdmin(request)) {
+        if (currentUser.isAdmin()) {
             return ResponseEntity.ok(receipt);
         }
 
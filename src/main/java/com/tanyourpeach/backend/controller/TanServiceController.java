@@ -3,9 +3,14 @@ package com.tanyourpeach.backend.controller;
 import com.tanyourpeach.backend.dto.ServiceCreateRequest;
 import com.tanyourpeach.backend.dto.ServiceResponseDto;
 import com.tanyourpeach.backend.dto.ServiceUpdateRequest;
+import com.tanyourpeach.backend.service.ServiceCatalogCache;
+import com.tanyourpeach.backend.service.ServiceCatalogCache.CachedJson;
 import com.tanyourpeach.backend.service.TanServiceService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -17,19 +22,25 @@ import java.util.List;
 public class TanServiceController {
 
     private final TanServiceService serviceService;
+    private final ServiceCatalogCache catalogCache;
 
-    public TanServiceController(TanServiceService serviceService) {
+    public TanServiceController(TanServiceService serviceService, ServiceCatalogCache catalogCache) {
         this.serviceService = serviceService;
+        this.catalogCache = catalogCache;
     }
 
+    // Public catalog views are served from pre-serialized JSON with ETag revalidation
+
     @GetMapping
-    public List<ServiceResponseDto> getActiveMainServices() {
-        return serviceService.getActiveMainServices();
+    public ResponseEntity<byte[]> getActiveMainServices(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedJson(catalogCache.mainServices(), ifNoneMatch);
     }
 
     @GetMapping("/add-ons")
-    public List<ServiceResponseDto> getActiveAddOns() {
-        return serviceService.getActiveAddOns();
+    public ResponseEntity<byte[]> getActiveAddOns(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return cachedJson(catalogCache.addOns(), ifNoneMatch);
     }
 
     @GetMapping("/admin")
@@ -38,23 +49,25 @@ public class TanServiceController {
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<ServiceResponseDto> getServiceBySlug(@PathVariable String slug) {
-        return serviceService.getActiveServiceBySlug(slug)
-                .map(ResponseEntity::ok)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Service not found"
-                ));
+    public ResponseEntity<byte[]> getServiceBySlug(
+            @PathVariable String slug,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CachedJson json = catalogCache.activeBySlug(slug);
+        if (json == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Service not found");
+        }
+        return cachedJson(json, ifNoneMatch);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ServiceResponseDto> getServiceById(@PathVariable Long id) {
-        return serviceService.getActiveServiceById(id)
-                .map(ResponseEntity::ok)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Service not found"
-                ));
+    public ResponseEntity<byte[]> getServiceById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CachedJson json = catalogCache.activeById(id);
+        if (json == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Service not found");
+        }
+        return cachedJson(json, ifNoneMatch);
     }
 
     @PostMapping
@@ -97,4 +110,19 @@ public class TanServiceController {
 
         return ResponseEntity.noContent().build();
     }
+
+    // 304 when the client already has these bytes; clients must revalidate before reuse
+    private ResponseEntity<byte[]> cachedJson(CachedJson json, String ifNoneMatch) {
+        if (ServiceCatalogCache.matches(ifNoneMatch, json.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(json.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(json.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(json.body());
+    }
 }
@@ -0,0 +1,48 @@
+package com.tanyourpeach.backend.dto;
+
+import java.util.Map;
+
+// Live appointment counts for the admin dashboard, read from memory (see AppointmentCounters)
+public class AppointmentCounts {
+
+    private final long total;
+
+    private final long guestAppointments;
+
+    private final long registeredAppointments;
+
+    private final Map<String, Long> byStatus;
+
+    private final Map<Long, Long> byService;
+
+    public AppointmentCounts(long total, long guestAppointments, long registeredAppointments,
+                             Map<String, Long> byStatus, Map<Long, Long> byService) {
+        this.total = total;
+        this.guestAppointments = guestAppointments;
+        this.registeredAppointments = registeredAppointments;
+        this.byStatus = byStatus;
+        this.byService = byService;
+    }
+
+    // Getters
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getGuestAppointments() {
+        return guestAppointments;
+    }
+
+    public long getRegisteredAppointments() {
+        return registeredAppointments;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public Map<Long, Long> getByService() {
+        return byService;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tanyourpeach.backend.dto;
+
+import java.util.List;
+
+public class AppointmentPage {
+
+    private List<AppointmentSummary> items;
+
+    // Opaque cursor for the next page, or null when this is the last page
+    private String nextCursor;
+
+    public AppointmentPage(List<AppointmentSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+
+    public List<AppointmentSummary> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,86 @@
+package com.tanyourpeach.backend.dto;
+
+import com.tanyourpeach.backend.model.Appointment;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// One row of an appointment list, selected directly by the repository (JPQL constructor expression).
+// Carries only what the list views show; open the appointment by id for the full record.
+public class AppointmentSummary {
+
+    private Long appointmentId;
+    private String clientName;
+    private String clientEmail;
+    private Long userId;
+    private Long serviceId;
+    private String serviceName;
+    private Long slotId;
+    private LocalDateTime appointmentDateTime;
+    private LocalTime slotEndTime;
+    private Appointment.Status status;
+    private Double totalPrice;
+
+    public AppointmentSummary(Long appointmentId, String clientName, String clientEmail, Long userId,
+                              Long serviceId, String serviceName, Long slotId,
+                              LocalDateTime appointmentDateTime, LocalTime slotEndTime,
+                              Appointment.Status status, Double totalPrice) {
+        this.appointmentId = appointmentId;
+        this.clientName = clientName;
+        this.clientEmail = clientEmail;
+        this.userId = userId;
+        this.serviceId = serviceId;
+        this.serviceName = serviceName;
+        this.slotId = slotId;
+        this.appointmentDateTime = appointmentDateTime;
+        this.slotEndTime = slotEndTime;
+        this.status = status;
+        this.totalPrice = totalPrice;
+    }
+
+    // Getters
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public String getClientName() {
+        return clientName;
+    }
+
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public Long getSlotId() {
+        return slotId;
+    }
+
+    public LocalDateTime getAppointmentDateTime() {
+        return appointmentDateTime;
+    }
+
+    public LocalTime getSlotEndTime() {
+        return slotEndTime;
+    }
+
+    public Appointment.Status getStatus() {
+        return status;
+    }
+
+    public Double getTotalPrice() {
+        return totalPrice;
+    }
+}
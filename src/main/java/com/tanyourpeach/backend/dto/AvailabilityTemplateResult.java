@@ -0,0 +1,24 @@
+package com.tanyourpeach.backend.dto;
+
+public class AvailabilityTemplateResult {
+
+    private int created;
+
+    // Template slots left out because they overlap an existing slot
+    private int skipped;
+
+    public AvailabilityTemplateResult(int created, int skipped) {
+        this.created = created;
+        this.skipped = skipped;
+    }
+
+    // Getters
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+}
@@ -0,0 +1,78 @@
+package com.tanyourpeach.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+// Everything an admin needs for one calendar day, served pre-rendered (see DaySheetService)
+public class DaySheet {
+
+    // One appointment with its service and receipt; receipt is null until one is issued
+    public record Entry(Long appointmentId,
+                        LocalDateTime startsAt,
+                        LocalTime endsAt,
+                        String status,
+                        boolean guest,
+                        String clientName,
+                        String clientEmail,
+                        String clientAddress,
+                        String notes,
+                        Long serviceId,
+                        String serviceName,
+                        Integer durationMinutes,
+                        Double totalPrice,
+                        ReceiptSummary receipt,
+                        boolean paid) {}
+
+    // Inventory the day's non-cancelled appointments will use
+    public record InventoryNeed(Long itemId, String itemName, long requiredQuantity) {}
+
+    private final LocalDate date;
+
+    private final int appointmentCount;
+
+    private final int paidCount;
+
+    private final double expectedRevenue;
+
+    private final List<Entry> appointments;
+
+    private final List<InventoryNeed> inventory;
+
+    public DaySheet(LocalDate date, int appointmentCount, int paidCount, double expectedRevenue,
+                    List<Entry> appointments, List<InventoryNeed> inventory) {
+        this.date = date;
+        this.appointmentCount = appointmentCount;
+        this.paidCount = paidCount;
+        this.expectedRevenue = expectedRevenue;
+        this.appointments = appointments;
+        this.inventory = inventory;
+    }
+
+    // Getters
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getAppointmentCount() {
+        return appointmentCount;
+    }
+
+    public int getPaidCount() {
+        return paidCount;
+    }
+
+    public double getExpectedRevenue() {
+        return expectedRevenue;
+    }
+
+    public List<Entry> getAppointments() {
+        return appointments;
+    }
+
+    public List<InventoryNeed> getInventory() {
+        return inventory;
+    }
+}
@@ -0,0 +1,81 @@
+package com.tanyourpeach.backend.dto;
+
+import java.time.LocalDate;
+
+// Projected stock for one inventory item from the bookings already on the calendar
+public class InventoryForecast {
+
+    private final Long itemId;
+
+    private final String itemName;
+
+    private final int quantityOnHand;
+
+    private final Integer lowStockThreshold;
+
+    // Units future PENDING bookings will take when they are confirmed
+    private final long pendingDemand;
+
+    // Units of future CONFIRMED bookings; already deducted from quantityOnHand
+    private final long confirmedDemand;
+
+    private final long projectedRemaining;
+
+    // First day the projected quantity is at or below the threshold (today if it already is)
+    private final LocalDate lowStockDate;
+
+    // First day whose bookings cannot be covered
+    private final LocalDate stockOutDate;
+
+    public InventoryForecast(Long itemId, String itemName, int quantityOnHand, Integer lowStockThreshold,
+                             long pendingDemand, long confirmedDemand, long projectedRemaining,
+                             LocalDate lowStockDate, LocalDate stockOutDate) {
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.quantityOnHand = quantityOnHand;
+        this.lowStockThreshold = lowStockThreshold;
+        this.pendingDemand = pendingDemand;
+        this.confirmedDemand = confirmedDemand;
+        this.projectedRemaining = projectedRemaining;
+        this.lowStockDate = lowStockDate;
+        this.stockOutDate = stockOutDate;
+    }
+
+    // Getters
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public int getQuantityOnHand() {
+        return quantityOnHand;
+    }
+
+    public Integer getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public long getPendingDemand() {
+        return pendingDemand;
+    }
+
+    public long getConfirmedDemand() {
+        return confirmedDemand;
+    }
+
+    public long getProjectedRemaining() {
+        return projectedRemaining;
+    }
+
+    public LocalDate getLowStockDate() {
+        return lowStockDate;
+    }
+
+    public LocalDate getStockOutDate() {
+        return stockOutDate;
+    }
+}
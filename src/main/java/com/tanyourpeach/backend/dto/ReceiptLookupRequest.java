@@ -0,0 +1,22 @@
+package com.tanyourpeach.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+// Body of POST /api/receipts/lookup, for id lists too long for a query string
+public class ReceiptLookupRequest {
+
+    @NotEmpty(message = "At least one appointment id is required")
+    private List<Long> appointmentIds;
+
+    // Getters and Setters
+
+    public List<Long> getAppointmentIds() {
+        return appointmentIds;
+    }
+
+    public void setAppointmentIds(List<Long> appointmentIds) {
+        this.appointmentIds = appointmentIds;
+    }
+}
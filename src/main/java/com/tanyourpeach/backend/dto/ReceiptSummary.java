@@ -0,0 +1,43 @@
+package com.tanyourpeach.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Receipt status for one appointment, selected directly by the repository for the bulk lookup
+public class ReceiptSummary {
+
+    private Long receiptId;
+    private Long appointmentId;
+    private BigDecimal totalAmount;
+    private String paymentMethod;
+    private LocalDateTime dateIssued;
+
+    public ReceiptSummary(Long receiptId, Long appointmentId, BigDecimal totalAmount,
+                          String paymentMethod, LocalDateTime dateIssued) {
+        this.receiptId = receiptId;
+        this.appointmentId = appointmentId;
+        this.totalAmount = totalAmount;
+        this.paymentMethod = paymentMethod;
+        this.dateIssued = dateIssued;
+    }
+
+    public Long getReceiptId() {
+        return receiptId;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public LocalDateTime getDateIssued() {
+        return dateIssued;
+    }
+}
@@ -133,7 +133,9 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<ErrorResponse> handleResponseStatus(ResponseStatusException ex, HttpServletRequest req) {
         HttpStatus status = HttpStatus.valueOf(ex.getStatusCode().value());
-        return build(req, status, ex.getReason(), null, false, ex);
+        ResponseEntity<ErrorResponse> response = build(req, status, ex.getReason(), null, false, ex);
+        // keep headers the exception carries (e.g. Retry-After on a 429)
+        return ResponseEntity.status(status).headers(ex.getHeaders()).body(response.getBody());
     }
 
     // 405/415: useful but optional
@@ -16,12 +16,14 @@ public class Appointment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long appointmentId;
 
-    @ManyToOne
+    // Lazy so list and write paths load only what they use (see the entity graphs in AppointmentRepository).
+    // The targets ignore hibernateLazyInitializer/handler so uninitialized proxies still serialize.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
     @NotNull(message = "Service must be selected")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id", nullable = false)
     private TanService service;
 
@@ -57,7 +59,7 @@ public class Appointment {
     private LocalDateTime createdAt;
 
     @NotNull(message = "Availability slot must be selected")
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "availability_slot_id", nullable = false)
     private Availability availability;
 
@@ -0,0 +1,54 @@
+package com.tanyourpeach.backend.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+// Running totals of financial_log per (month, type, source), kept in step with every log write
+@Entity
+@Table(name = "financial_monthly_rollup")
+public class FinancialMonthlyRollup {
+
+    @EmbeddedId
+    private FinancialMonthlyRollupKey id;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount = 0L;
+
+    public FinancialMonthlyRollup() {}
+
+    public FinancialMonthlyRollup(FinancialMonthlyRollupKey id, BigDecimal totalAmount, Long entryCount) {
+        this.id = id;
+        this.totalAmount = totalAmount;
+        this.entryCount = entryCount;
+    }
+
+    // Getters and setters
+
+    public FinancialMonthlyRollupKey getId() {
+        return id;
+    }
+
+    public void setId(FinancialMonthlyRollupKey id) {
+        this.id = id;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(Long entryCount) {
+        this.entryCount = entryCount;
+    }
+}
@@ -0,0 +1,75 @@
+package com.tanyourpeach.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class FinancialMonthlyRollupKey implements Serializable {
+
+    // Calendar month as YYYY-MM
+    @Column(name = "rollup_month", length = 7)
+    private String month;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type")
+    private FinancialLog.Type type;
+
+    // Empty string stands in for logs without a source
+    @Column(name = "source", length = 100)
+    private String source;
+
+    public FinancialMonthlyRollupKey() {}
+
+    // Constructor with parameters
+    public FinancialMonthlyRollupKey(String month, FinancialLog.Type type, String source) {
+        this.month = month;
+        this.type = type;
+        this.source = source;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public FinancialLog.Type getType() {
+        return type;
+    }
+
+    public void setType(FinancialLog.Type type) {
+        this.type = type;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    // Override equals and hashCode for proper comparison in collections
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FinancialMonthlyRollupKey)) return false;
+        FinancialMonthlyRollupKey that = (FinancialMonthlyRollupKey) o;
+        return Objects.equals(month, that.month) &&
+               type == that.type &&
+               Objects.equals(source, that.source);
+    }
+
+    // Ensure that the hashCode method is consistent with equals
+    @Override
+    public int hashCode() {
+        return Objects.hash(month, type, source);
+    }
+}
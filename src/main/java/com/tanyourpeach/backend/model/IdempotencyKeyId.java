@@ -0,0 +1,59 @@
+package com.tanyourpeach.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.util.Objects;
+
+// An Idempotency-Key together with the caller it belongs to ("user:<id>" or "guest:<email>")
+@Embeddable
+public class IdempotencyKeyId implements Serializable {
+
+    @Column(name = "owner", length = 110)
+    private String owner;
+
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+
+    public IdempotencyKeyId() {}
+
+    public IdempotencyKeyId(String owner, String key) {
+        this.owner = owner;
+        this.key = key;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IdempotencyKeyId)) return false;
+        IdempotencyKeyId that = (IdempotencyKeyId) o;
+        return Objects.equals(owner, that.owner) &&
+               Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(owner, key);
+    }
+
+    @Override
+    public String toString() {
+        return owner + "/" + key;
+    }
+}
@@ -43,6 +43,12 @@ public class Inventory {
     @Column(name = "low_stock_threshold")
     private Integer lowStockThreshold;
 
+    // Computed and indexed by the database (quantity <= low_stock_threshold), so it is right after
+    // every write, including bulk SQL updates. Only queried; the entity never writes it.
+    @Column(name = "is_low_stock", insertable = false, updatable = false,
+            columnDefinition = "BOOLEAN GENERATED ALWAYS AS (quantity <= low_stock_threshold)")
+    private Boolean lowStock;
+
     // Auto-update timestamp
     @PrePersist
     @PreUpdate
@@ -115,4 +121,9 @@ public class Inventory {
     public void setLowStockThreshold(Integer lowStockThreshold) {
         this.lowStockThreshold = lowStockThreshold;
     }
-}
\ No newline at end of file
+
+    // Same rule as the is_low_stock column; an unknown quantity or threshold is not low
+    public static boolean isLowStock(Integer quantity, Integer lowStockThreshold) {
+        return quantity != null && lowStockThreshold != null && quantity <= lowStockThreshold;
+    }
+}
@@ -13,7 +13,7 @@ public class Receipt {
     private Long receiptId;
 
     @OneToOne
-    @JoinColumn(name = "appointment_id")
+    @JoinColumn(name = "appointment_id", unique = true)
     private Appointment appointment;
 
     @Column(precision = 6, scale = 2)
@@ -0,0 +1,71 @@
+package com.tanyourpeach.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// A revoked token (jti set) or a per-user watermark (userId set): that user's tokens issued before revokedAt
+@Entity
+@Table(name = "token_revocations")
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "revocation_id")
+    private Long revocationId;
+
+    @Column(length = 36)
+    private String jti;
+
+    // No foreign key: the row has to outlive a deleted user
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false, columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Getters and setters
+
+    public Long getRevocationId() {
+        return revocationId;
+    }
+
+    public void setRevocationId(Long revocationId) {
+        this.revocationId = revocationId;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -1,15 +1,104 @@
 package com.tanyourpeach.backend.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.model.Appointment;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
-        List<Appointment> findByAppointmentDateTimeAfterOrderByAppointmentDateTimeAsc(LocalDateTime dateTime);
         List<Appointment> findByUser_UserIdOrderByAppointmentDateTimeDesc(Long userId);
-        long countByUserIsNull();       // Guest bookings
-        long countByUserIsNotNull();   // Registered user bookings
-}
\ No newline at end of file
+        // Seed and reconcile for AppointmentCounters: {status, isGuest, serviceId, count} in one pass
+        @Query("SELECT a.status, CASE WHEN a.user IS NULL THEN true ELSE false END, a.service.serviceId, COUNT(a) " +
+               "FROM Appointment a " +
+               "GROUP BY a.status, CASE WHEN a.user IS NULL THEN true ELSE false END, a.service.serviceId")
+        List<Object[]> countGroupedByStatusGuestAndService();
+
+        // List rows: appointment columns plus service name and slot end, in one joined select
+        String SUMMARY_SELECT = "SELECT new com.tanyourpeach.backend.dto.AppointmentSummary(" +
+               "a.appointmentId, a.clientName, a.clientEmail, u.userId, s.serviceId, s.name, av.slotId, " +
+               "a.appointmentDateTime, av.endTime, a.status, a.totalPrice) " +
+               "FROM Appointment a LEFT JOIN a.user u LEFT JOIN a.service s LEFT JOIN a.availability av ";
+
+        // Full record for the detail view and the ownership checks around it
+        @EntityGraph(attributePaths = {"user", "service", "availability"})
+        Optional<Appointment> findDetailedByAppointmentId(Long appointmentId);
+
+        // Update and delete only touch the slot; the service is re-read by id and the user is never changed
+        @EntityGraph(attributePaths = {"availability"})
+        Optional<Appointment> findWithAvailabilityByAppointmentId(Long appointmentId);
+
+        // Upcoming appointments for the admin dashboard, soonest first
+        @Query(SUMMARY_SELECT +
+               "WHERE a.appointmentDateTime > :after " +
+               "ORDER BY a.appointmentDateTime ASC, a.appointmentId ASC")
+        List<AppointmentSummary> findUpcomingSummaries(@Param("after") LocalDateTime after);
+
+        // One calendar day's appointments with their service and slot, for the admin day sheet
+        @Query("SELECT a FROM Appointment a JOIN FETCH a.service LEFT JOIN FETCH a.availability " +
+               "WHERE a.appointmentDateTime >= :from AND a.appointmentDateTime < :to " +
+               "ORDER BY a.appointmentDateTime ASC, a.appointmentId ASC")
+        List<Appointment> findDaySheetAppointments(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+        // Bookings from a point in time onward, counted per calendar day, service and status:
+        // {LocalDate day, Long serviceId, Status status, Long count} rows for the inventory forecast
+        @Query("SELECT CAST(a.appointmentDateTime AS LocalDate), a.service.serviceId, a.status, COUNT(a) " +
+               "FROM Appointment a " +
+               "WHERE a.appointmentDateTime >= :from AND a.status IN :statuses " +
+               "GROUP BY CAST(a.appointmentDateTime AS LocalDate), a.service.serviceId, a.status")
+        List<Object[]> countGroupedByDayServiceAndStatus(@Param("from") LocalDateTime from,
+                                                         @Param("statuses") Collection<Appointment.Status> statuses);
+
+        // Keyset page ordered by (appointment_date, appointment_id); a null filter or cursor is ignored
+        @Query(SUMMARY_SELECT +
+               "WHERE (:status IS NULL OR a.status = :status) " +
+               "AND (:serviceId IS NULL OR s.serviceId = :serviceId) " +
+               "AND (:from IS NULL OR a.appointmentDateTime >= :from) " +
+               "AND (:to IS NULL OR a.appointmentDateTime < :to) " +
+               "AND (:afterDateTime IS NULL OR a.appointmentDateTime > :afterDateTime " +
+               "     OR (a.appointmentDateTime = :afterDateTime AND a.appointmentId > :afterId)) " +
+               "ORDER BY a.appointmentDateTime ASC, a.appointmentId ASC")
+        List<AppointmentSummary> findPage(@Param("status") Appointment.Status status,
+                                          @Param("serviceId") Long serviceId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("afterDateTime") LocalDateTime afterDateTime,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+        // One client's appointments from a point in time onward, oldest first (keyset on date, id)
+        @Query(SUMMARY_SELECT +
+               "WHERE (a.clientEmail = :email OR (:userId IS NOT NULL AND u.userId = :userId)) " +
+               "AND a.appointmentDateTime >= :from " +
+               "AND (:afterDateTime IS NULL OR a.appointmentDateTime > :afterDateTime " +
+               "     OR (a.appointmentDateTime = :afterDateTime AND a.appointmentId > :afterId)) " +
+               "ORDER BY a.appointmentDateTime ASC, a.appointmentId ASC")
+        List<AppointmentSummary> findClientPageAscending(@Param("email") String email,
+                                                         @Param("userId") Long userId,
+                                                         @Param("from") LocalDateTime from,
+                                                         @Param("afterDateTime") LocalDateTime afterDateTime,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+
+        // One client's appointments before a point in time (or all of them), newest first
+        @Query(SUMMARY_SELECT +
+               "WHERE (a.clientEmail = :email OR (:userId IS NOT NULL AND u.userId = :userId)) " +
+               "AND (:before IS NULL OR a.appointmentDateTime < :before) " +
+               "AND (:afterDateTime IS NULL OR a.appointmentDateTime < :afterDateTime " +
+               "     OR (a.appointmentDateTime = :afterDateTime AND a.appointmentId < :afterId)) " +
+               "ORDER BY a.appointmentDateTime DESC, a.appointmentId DESC")
+        List<AppointmentSummary> findClientPageDescending(@Param("email") String email,
+                                                          @Param("userId") Long userId,
+                                                          @Param("before") LocalDateTime before,
+                                                          @Param("afterDateTime") LocalDateTime afterDateTime,
+                                                          @Param("afterId") Long afterId,
+                                                          Pageable pageable);
+}
@@ -10,6 +10,7 @@ import com.tanyourpeach.backend.model.Availability;
 import jakarta.persistence.LockModeType;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,5 +22,20 @@ public interface AvailabilityRepository extends JpaRepository<Availability, Long
 
     List<Availability> findByDate(LocalDate date);
 
+    List<Availability> findByDateBetween(LocalDate from, LocalDate to);
+
+    // A day's slots in start order, locked until the transaction ends; on InnoDB the date index gap
+    // is locked too, so a slot inserted for that day by any instance waits for this transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Availability a where a.date = :date order by a.startTime")
+    List<Availability> findByDateForUpdate(@Param("date") LocalDate date);
+
+    // Same for the days a template fills, ordered by date then start; only those days are locked
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Availability a where a.date in :dates order by a.date, a.startTime")
+    List<Availability> findByDateInForUpdate(@Param("dates") Collection<LocalDate> dates);
+
     List<Availability> findByIsBookedFalseAndDate(LocalDate date);
+
+    List<Availability> findByIsBookedFalseAndDateBetweenOrderByDateAscStartTimeAsc(LocalDate from, LocalDate to);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.tanyourpeach.backend.repository;
 import com.tanyourpeach.backend.model.FinancialLog;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -17,4 +18,10 @@ public interface FinancialLogRepository extends JpaRepository<FinancialLog, Long
     @Query("SELECT SUM(f.amount) FROM FinancialLog f " +
        "WHERE f.type = :type AND FUNCTION('DATE_FORMAT', f.logDate, '%Y-%m') = :month")
     BigDecimal sumByTypeAndMonth(FinancialLog.Type type, String month);
+
+    // Rows of {year, month, type, source, sum, count}, used to rebuild the monthly rollup
+    @Query("SELECT YEAR(f.logDate), MONTH(f.logDate), f.type, f.source, SUM(f.amount), COUNT(f) " +
+           "FROM FinancialLog f " +
+           "GROUP BY YEAR(f.logDate), MONTH(f.logDate), f.type, f.source")
+    List<Object[]> aggregateByMonthTypeAndSource();
 }
\ No newline at end of file
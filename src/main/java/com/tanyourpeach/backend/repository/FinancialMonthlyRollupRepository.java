@@ -0,0 +1,40 @@
+package com.tanyourpeach.backend.repository;
+
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.model.FinancialMonthlyRollup;
+import com.tanyourpeach.backend.model.FinancialMonthlyRollupKey;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FinancialMonthlyRollupRepository extends JpaRepository<FinancialMonthlyRollup, FinancialMonthlyRollupKey> {
+
+    // Atomically add a (possibly negative) delta, creating the row on first use
+    @Modifying
+    @Query(value = "INSERT INTO financial_monthly_rollup (rollup_month, type, source, total_amount, entry_count) " +
+                   "VALUES (:month, :type, :source, :amount, :count) " +
+                   "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), " +
+                   "entry_count = entry_count + VALUES(entry_count)",
+           nativeQuery = true)
+    int applyDelta(@Param("month") String month,
+                   @Param("type") String type,
+                   @Param("source") String source,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    @Query("SELECT SUM(r.totalAmount) FROM FinancialMonthlyRollup r WHERE r.id.type = :type")
+    BigDecimal sumByType(@Param("type") FinancialLog.Type type);
+
+    // Rows of {month, type, total} for the given months
+    @Query("SELECT r.id.month, r.id.type, SUM(r.totalAmount) FROM FinancialMonthlyRollup r " +
+           "WHERE r.id.month IN :months GROUP BY r.id.month, r.id.type")
+    List<Object[]> sumByMonthAndType(@Param("months") Collection<String> months);
+}
@@ -0,0 +1,36 @@
+package com.tanyourpeach.backend.repository;
+
+import com.tanyourpeach.backend.model.IdempotencyKey;
+import com.tanyourpeach.backend.model.IdempotencyKeyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKeyId> {
+
+    // A plain INSERT rather than save(): save() merges on an assigned id and would overwrite
+    // a key another node just stored. A duplicate live key fails here and rolls the booking back.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (owner, idempotency_key, request_hash, response_body, created_at, expires_at) " +
+                   "VALUES (:owner, :key, :requestHash, :responseBody, :createdAt, :expiresAt)", nativeQuery = true)
+    int insert(@Param("owner") String owner,
+               @Param("key") String key,
+               @Param("requestHash") String requestHash,
+               @Param("responseBody") String responseBody,
+               @Param("createdAt") LocalDateTime createdAt,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    // Frees one key that has expired but not been purged yet, so it can be used again
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.expiresAt <= :now")
+    int deleteIfExpired(@Param("id") IdempotencyKeyId id, @Param("now") LocalDateTime now);
+}
@@ -1,7 +1,9 @@
 package com.tanyourpeach.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tanyourpeach.backend.model.Inventory;
@@ -10,8 +12,25 @@ import java.util.List;
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
-    @Query("SELECT i FROM Inventory i WHERE i.quantity <= i.lowStockThreshold")
+    // Served by the index on the generated is_low_stock column instead of comparing two columns per row
+    @Query("SELECT i FROM Inventory i WHERE i.lowStock = true")
     List<Inventory> findItemsBelowThreshold();
 
     Inventory findByItemName(String itemName);  // can help prevent duplicates
+
+    // Take one use of a service out of every item it consumes, in a single statement.
+    // Items that cannot cover their quantity are left alone; returns the number of items deducted.
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE inventory
+            SET quantity = quantity - (
+                SELECT u.quantity_used FROM service_inventory_usage u
+                WHERE u.item_id = inventory.item_id AND u.service_id = :serviceId)
+            WHERE item_id IN (
+                SELECT u.item_id FROM service_inventory_usage u WHERE u.service_id = :serviceId)
+              AND quantity >= (
+                SELECT u.quantity_used FROM service_inventory_usage u
+                WHERE u.item_id = inventory.item_id AND u.service_id = :serviceId)
+            """, nativeQuery = true)
+    int deductUsageForService(@Param("serviceId") Long serviceId);
 }
\ No newline at end of file
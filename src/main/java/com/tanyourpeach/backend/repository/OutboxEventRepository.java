@@ -0,0 +1,38 @@
+package com.tanyourpeach.backend.repository;
+
+import com.tanyourpeach.backend.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Ids of pending events whose next attempt is due, oldest first
+    @Query("SELECT e.eventId FROM OutboxEvent e WHERE e.status = com.tanyourpeach.backend.model.OutboxEvent.Status.PENDING " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.eventId")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // The event row locked until the transaction ends, so two workers never apply the same event
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.eventId = :eventId")
+    Optional<OutboxEvent> findByEventIdForUpdate(@Param("eventId") Long eventId);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    // Applied events have nothing left to do; FAILED ones are kept for inspection
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.tanyourpeach.backend.model.OutboxEvent.Status.DONE " +
+           "AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
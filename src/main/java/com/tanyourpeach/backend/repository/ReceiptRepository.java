@@ -1,17 +1,34 @@
 package com.tanyourpeach.backend.repository;
 
+import com.tanyourpeach.backend.dto.ReceiptSummary;
 import com.tanyourpeach.backend.model.Receipt;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
 
     Receipt findByAppointment_AppointmentId(Long appointmentId);
 
+    // Receipt status for a batch of appointments in one IN query
+    @Query("SELECT new com.tanyourpeach.backend.dto.ReceiptSummary(" +
+           "r.receiptId, a.appointmentId, r.totalAmount, r.paymentMethod, r.dateIssued) " +
+           "FROM Receipt r JOIN r.appointment a WHERE a.appointmentId IN :appointmentIds")
+    List<ReceiptSummary> findSummariesByAppointmentIds(@Param("appointmentIds") Collection<Long> appointmentIds);
+
+    // Same, limited to appointments booked under the given client email
+    @Query("SELECT new com.tanyourpeach.backend.dto.ReceiptSummary(" +
+           "r.receiptId, a.appointmentId, r.totalAmount, r.paymentMethod, r.dateIssued) " +
+           "FROM Receipt r JOIN r.appointment a WHERE a.appointmentId IN :appointmentIds AND a.clientEmail = :email")
+    List<ReceiptSummary> findSummariesByAppointmentIdsAndClientEmail(@Param("appointmentIds") Collection<Long> appointmentIds,
+                                                                     @Param("email") String email);
+
     @Query("SELECT SUM(r.totalAmount) FROM Receipt r")
     BigDecimal sumTotalRevenue();
 }
\ No newline at end of file
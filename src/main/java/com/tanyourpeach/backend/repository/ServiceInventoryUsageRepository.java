@@ -1,10 +1,16 @@
 package com.tanyourpeach.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.tanyourpeach.backend.model.ServiceInventoryUsage;
 import com.tanyourpeach.backend.model.ServiceInventoryUsageKey;
 
+import jakarta.persistence.LockModeType;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface ServiceInventoryUsageRepository extends JpaRepository<ServiceInventoryUsage, ServiceInventoryUsageKey> {
@@ -12,6 +18,15 @@ public interface ServiceInventoryUsageRepository extends JpaRepository<ServiceIn
     // Find all usage records for a specific service
     List<ServiceInventoryUsage> findByService_ServiceId(Long serviceId);
 
+    // Usage rows for several services with their items and services (the service link is eager)
+    @Query("select u from ServiceInventoryUsage u join fetch u.item join fetch u.service where u.service.serviceId in :serviceIds")
+    List<ServiceInventoryUsage> findWithItemsByServiceIdIn(@Param("serviceIds") Collection<Long> serviceIds);
+
+    // Usage rows for a service with their inventory items, locking both until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from ServiceInventoryUsage u join fetch u.item where u.service.serviceId = :serviceId")
+    List<ServiceInventoryUsage> findByServiceIdForUpdate(@Param("serviceId") Long serviceId);
+
     // Find all usage records for a specific inventory item
     List<ServiceInventoryUsage> findByItem_ItemId(Long itemId);
 }
\ No newline at end of file
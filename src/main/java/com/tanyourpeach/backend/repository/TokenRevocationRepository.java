@@ -0,0 +1,25 @@
+package com.tanyourpeach.backend.repository;
+
+import com.tanyourpeach.backend.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    // Everything still in force, loaded once at startup
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+
+    // Rows written since the last reload, by this node or any other
+    List<TokenRevocation> findByRevokedAtAfter(LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
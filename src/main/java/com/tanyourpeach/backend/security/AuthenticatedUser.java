@@ -0,0 +1,70 @@
+package com.tanyourpeach.backend.security;
+
+import com.tanyourpeach.backend.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+// Immutable principal resolved once per request and shared with controllers and services.
+// Instances are cached, so this intentionally does not implement CredentialsContainer:
+// ProviderManager would otherwise erase the password hash on the shared instance after login.
+public final class AuthenticatedUser implements UserDetails {
+
+    private final Long userId;
+    private final String email;
+    private final String passwordHash;
+    private final boolean admin;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String email, String passwordHash, boolean admin) {
+        this.userId = userId;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.admin = admin;
+        // roles are prefixed with ROLE_ by convention
+        this.authorities = List.of(new SimpleGrantedAuthority(admin ? "ROLE_ADMIN" : "ROLE_USER"));
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+                user.getUserId(),
+                user.getEmail(),
+                user.getPasswordHash(),
+                Boolean.TRUE.equals(user.getIsAdmin()));
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser[userId=" + userId + ", email=" + email + ", admin=" + admin + "]";
+    }
+}
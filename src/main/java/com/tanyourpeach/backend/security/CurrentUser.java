@@ -0,0 +1,89 @@
+package com.tanyourpeach.backend.security;
+
+import com.tanyourpeach.backend.service.CustomUserDetailsService;
+import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+// Reads the principal the JWT filter already resolved for this request.
+// Callers should use this instead of re-parsing the token or querying the users table.
+@Component
+public class CurrentUser {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUser.class.getName() + ".principal";
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    public Optional<AuthenticatedUser> get() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return Optional.of(principal);
+        }
+        return fromBearerToken();
+    }
+
+    // Email of the signed-in user, or null for anonymous requests
+    public String email() {
+        return get().map(AuthenticatedUser::getEmail).orElse(null);
+    }
+
+    public boolean isAdmin() {
+        return get().map(AuthenticatedUser::isAdmin).orElse(false);
+    }
+
+    // Fallback for requests that did not pass through the JWT filter (e.g. MockMvc without filters).
+    // Resolves the token the same way the filter does, and is remembered for the rest of the request.
+    private Optional<AuthenticatedUser> fromBearerToken() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return Optional.empty();
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getAttribute(REQUEST_ATTRIBUTE) instanceof AuthenticatedUser principal) {
+            return Optional.of(principal);
+        }
+
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+
+        Claims claims = jwtService.extractVerifiedClaims(authHeader.substring(7).trim());
+        if (claims == null || claims.getSubject() == null) {
+            return Optional.empty();
+        }
+
+        try {
+            UserDetails userDetails = jwtService.principalFrom(claims);
+            if (userDetails == null) {
+                userDetails = customUserDetailsService.loadUserByUsername(claims.getSubject());
+            }
+            if (userDetails instanceof AuthenticatedUser principal
+                    && !tokenRevocationService.isRevoked(claims, principal.getUserId())
+                    && jwtService.isTokenValid(claims, principal)) {
+                request.setAttribute(REQUEST_ATTRIBUTE, principal);
+                return Optional.of(principal);
+            }
+        } catch (UsernameNotFoundException e) {
+            // token for a user that no longer exists
+        }
+        return Optional.empty();
+    }
+}
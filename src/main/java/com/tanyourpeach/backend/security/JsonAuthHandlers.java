@@ -16,15 +16,16 @@ public final class JsonAuthHandlers {
         private JsonAuthHandlers() {} // util class
 
     public static AuthenticationEntryPoint authenticationEntryPoint(ObjectMapper om) {
-        return (request, response, authException) -> write(response, request, om, HttpStatus.UNAUTHORIZED, "Authentication required");
+        return (request, response, authException) -> writeError(response, request, om, HttpStatus.UNAUTHORIZED, "Authentication required");
     }
 
     public static AccessDeniedHandler accessDeniedHandler(ObjectMapper om) {
-        return (request, response, accessDeniedException) -> write(response, request, om, HttpStatus.FORBIDDEN, "Access denied");
+        return (request, response, accessDeniedException) -> writeError(response, request, om, HttpStatus.FORBIDDEN, "Access denied");
     }
 
-    private static void write(HttpServletResponse res, HttpServletRequest req, ObjectMapper om,
-                              HttpStatus status, String message) throws IOException {
+    // Same JSON error shape as GlobalExceptionHandler, for code that runs outside Spring MVC
+    public static void writeError(HttpServletResponse res, HttpServletRequest req, ObjectMapper om,
+                                  HttpStatus status, String message) throws IOException {
         if (res.isCommitted()) return;
 
         // Correlation id from MDC (set by CorrelationIdFilter)
@@ -1,13 +1,13 @@
 package com.tanyourpeach.backend.service;
 
 import com.tanyourpeach.backend.dto.AdminDashboardSummary;
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.dto.MonthlyStats;
-import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.FinancialLog;
 import com.tanyourpeach.backend.model.Inventory;
 import com.tanyourpeach.backend.repository.AppointmentRepository;
 import com.tanyourpeach.backend.repository.InventoryRepository;
-import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.repository.FinancialMonthlyRollupRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -15,7 +15,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class AdminStatsService {
@@ -27,14 +29,17 @@ public class AdminStatsService {
     private InventoryRepository inventoryRepository;
 
     @Autowired
-    private FinancialLogRepository financialLogRepository;
+    private FinancialMonthlyRollupRepository rollupRepository;
 
-    // Retrieves the summary for the admin dashboard
+    @Autowired
+    private FinancialRollupService financialRollupService;
+
+    // Retrieves the summary for the admin dashboard (reads the monthly rollup, not the raw log)
     public AdminDashboardSummary getDashboardSummary() {
         AdminDashboardSummary summary = new AdminDashboardSummary();
 
-        BigDecimal revenue = financialLogRepository.sumByType(FinancialLog.Type.revenue);
-        BigDecimal expenses = financialLogRepository.sumByType(FinancialLog.Type.expense);
+        BigDecimal revenue = rollupRepository.sumByType(FinancialLog.Type.revenue);
+        BigDecimal expenses = rollupRepository.sumByType(FinancialLog.Type.expense);
         BigDecimal profit = (revenue != null ? revenue : BigDecimal.ZERO)
                 .subtract(expenses != null ? expenses : BigDecimal.ZERO);
 
@@ -50,16 +55,25 @@ public class AdminStatsService {
         List<MonthlyStats> monthlyStatsList = new ArrayList<>();
         YearMonth currentMonth = YearMonth.now();
 
+        List<String> dbMonths = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            dbMonths.add(currentMonth.minusMonths(i).toString()); // "YYYY-MM"
+        }
+
+        // One query for all four months: {month, type, total}
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (Object[] row : rollupRepository.sumByMonthAndType(dbMonths)) {
+            totals.put(row[0] + ":" + row[1], (BigDecimal) row[2]);
+        }
+
         // Loop through the last 4 months
         for (int i = 1; i <= 4; i++) {
             YearMonth month = currentMonth.minusMonths(i);
             String monthStr = String.format("%02d-%d", month.getMonthValue(), month.getYear()); // MM-YYYY
-
-            // Still pass the original format ("YYYY-MM") to the DB query
             String dbFormat = month.toString(); // "YYYY-MM"
 
-            BigDecimal revenue = financialLogRepository.sumByTypeAndMonth(FinancialLog.Type.revenue, dbFormat);
-            BigDecimal expenses = financialLogRepository.sumByTypeAndMonth(FinancialLog.Type.expense, dbFormat);
+            BigDecimal revenue = totals.get(dbFormat + ":" + FinancialLog.Type.revenue);
+            BigDecimal expenses = totals.get(dbFormat + ":" + FinancialLog.Type.expense);
             BigDecimal profit = (revenue != null ? revenue : BigDecimal.ZERO)
                     .subtract(expenses != null ? expenses : BigDecimal.ZERO);
 
@@ -76,8 +90,13 @@ public class AdminStatsService {
     }
 
     // Retrieves upcoming appointments
-    public List<Appointment> getUpcomingAppointments() {
-        return appointmentRepository.findByAppointmentDateTimeAfterOrderByAppointmentDateTimeAsc(LocalDateTime.now());
+    public List<AppointmentSummary> getUpcomingAppointments() {
+        return appointmentRepository.findUpcomingSummaries(LocalDateTime.now());
+    }
+
+    // Recomputes the monthly financial rollup from the raw log; returns the number of rollup rows
+    public int rebuildFinancialRollup() {
+        return financialRollupService.rebuild();
     }
 
     // Retrieves inventory items that are below the low stock threshold
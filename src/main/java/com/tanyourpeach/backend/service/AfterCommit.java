@@ -0,0 +1,25 @@
+package com.tanyourpeach.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Cache invalidation for services whose writes may or may not run in a transaction
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    // Runs once the current transaction commits, or now outside one; never on rollback
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.dto.AppointmentCounts;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live appointment counts by status, guest vs registered, and service, so dashboards that
+// poll every few seconds read memory instead of scanning the appointments table.
+// Seeded from one grouped query, moved by AppointmentService after each write commits, and
+// periodically reset to the table. A write that commits while a reconcile is running can be
+// counted twice or not at all; the next reconcile corrects it.
+@Service
+public class AppointmentCounters {
+
+    // What an appointment contributes to the counts
+    public record Key(Appointment.Status status, boolean guest, Long serviceId) {
+
+        // null for an appointment that is not counted yet (e.g. before it was saved)
+        public static Key of(Appointment appointment) {
+            if (appointment == null || appointment.getStatus() == null) {
+                return null;
+            }
+            return new Key(appointment.getStatus(), appointment.getUser() == null,
+                    appointment.getService() != null ? appointment.getService().getServiceId() : null);
+        }
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final Map<Appointment.Status, LongAdder> byStatus = new EnumMap<>(Appointment.Status.class);
+    private final LongAdder guest = new LongAdder();
+    private final LongAdder registered = new LongAdder();
+    private final Map<Long, LongAdder> byService = new ConcurrentHashMap<>();
+
+    public AppointmentCounters() {
+        for (Appointment.Status status : Appointment.Status.values()) {
+            byStatus.put(status, new LongAdder());
+        }
+    }
+
+    @PostConstruct
+    void seedOnStartup() {
+        reconcile();
+    }
+
+    // Move an appointment from one key to another once the current transaction commits;
+    // before is null for a create, after is null for a delete. Nothing happens on rollback.
+    public void afterCommit(Key before, Key after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            apply(before, -1);
+            apply(after, 1);
+        });
+    }
+
+    public AppointmentCounts snapshot() {
+        Map<String, Long> statuses = new HashMap<>();
+        byStatus.forEach((status, count) -> statuses.put(status.name(), count.sum()));
+        Map<Long, Long> services = new TreeMap<>();
+        byService.forEach((serviceId, count) -> {
+            long sum = count.sum();
+            if (sum != 0) services.put(serviceId, sum);
+        });
+        long guests = guest.sum();
+        long registeredCount = registered.sum();
+        return new AppointmentCounts(guests + registeredCount, guests, registeredCount, statuses, services);
+    }
+
+    // Reset every counter to the table: one grouped query, {status, isGuest, serviceId, count} rows
+    @Scheduled(fixedDelayString = "${appointment-counters.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<Appointment.Status, Long> statuses = new EnumMap<>(Appointment.Status.class);
+        Map<Long, Long> services = new HashMap<>();
+        long guests = 0;
+        long registeredCount = 0;
+        for (Object[] row : appointmentRepository.countGroupedByStatusGuestAndService()) {
+            long count = ((Number) row[3]).longValue();
+            if (row[0] != null) statuses.merge((Appointment.Status) row[0], count, Long::sum);
+            if (Boolean.TRUE.equals(row[1])) guests += count; else registeredCount += count;
+            if (row[2] != null) services.merge(((Number) row[2]).longValue(), count, Long::sum);
+        }
+
+        byStatus.forEach((status, adder) -> resetTo(adder, statuses.getOrDefault(status, 0L)));
+        resetTo(guest, guests);
+        resetTo(registered, registeredCount);
+        byService.forEach((serviceId, adder) -> resetTo(adder, services.getOrDefault(serviceId, 0L)));
+        services.forEach((serviceId, count) -> {
+            if (!byService.containsKey(serviceId)) resetTo(adder(serviceId), count);
+        });
+    }
+
+    private void apply(Key key, int delta) {
+        if (key == null) {
+            return;
+        }
+        byStatus.get(key.status()).add(delta);
+        (key.guest() ? guest : registered).add(delta);
+        if (key.serviceId() != null) {
+            adder(key.serviceId()).add(delta);
+        }
+    }
+
+    private LongAdder adder(Long serviceId) {
+        return byService.computeIfAbsent(serviceId, id -> new LongAdder());
+    }
+
+    // Adds the difference rather than reset(), so increments racing this call are not lost
+    private static void resetTo(LongAdder adder, long value) {
+        adder.add(value - adder.sum());
+    }
+}
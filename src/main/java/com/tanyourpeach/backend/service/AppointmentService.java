@@ -1,33 +1,48 @@
 package com.tanyourpeach.backend.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.tanyourpeach.backend.dto.AppointmentCounts;
+import com.tanyourpeach.backend.dto.AppointmentPage;
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.AppointmentStatusHistory;
 import com.tanyourpeach.backend.model.Availability;
-import com.tanyourpeach.backend.model.FinancialLog;
-import com.tanyourpeach.backend.model.Receipt;
+import com.tanyourpeach.backend.model.IdempotencyKeyId;
+import com.tanyourpeach.backend.model.Inventory;
+import com.tanyourpeach.backend.model.OutboxEvent;
 import com.tanyourpeach.backend.model.ServiceInventoryUsage;
 import com.tanyourpeach.backend.model.TanService;
 import com.tanyourpeach.backend.repository.AppointmentRepository;
 import com.tanyourpeach.backend.repository.AppointmentStatusHistoryRepository;
 import com.tanyourpeach.backend.repository.AvailabilityRepository;
 import com.tanyourpeach.backend.repository.InventoryRepository;
-import com.tanyourpeach.backend.repository.ReceiptRepository;
+import com.tanyourpeach.backend.repository.OutboxEventRepository;
 import com.tanyourpeach.backend.repository.ServiceInventoryUsageRepository;
 import com.tanyourpeach.backend.repository.TanServiceRepository;
 import com.tanyourpeach.backend.repository.UserRepository;
-import com.tanyourpeach.backend.repository.FinancialLogRepository;
-import jakarta.servlet.http.HttpServletRequest;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
 
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AppointmentService {
@@ -38,9 +53,6 @@ public class AppointmentService {
     @Autowired
     private AvailabilityRepository availabilityRepository;
 
-    @Autowired
-    private FinancialLogRepository financialLogRepository;
-
     @Autowired
     private TanServiceRepository tanServiceRepository;
 
@@ -51,17 +63,39 @@ public class AppointmentService {
     private InventoryRepository inventoryRepository;
 
     @Autowired
-    private ReceiptRepository receiptRepository;
+    private OutboxEventRepository outboxEventRepository;
 
     @Autowired
     private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
 
     @Autowired
-    private JwtService jwtService;
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CurrentUser currentUser;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private DaySheetService daySheetService;
+
+    @Autowired
+    private InventoryForecastService inventoryForecastService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+
+    static final int MAX_PAGE_SIZE = 200;
+
     // Enum for appointment status
     public enum Status {
         PENDING,
@@ -69,42 +103,146 @@ public class AppointmentService {
         CANCELLED
     }
 
+    // Which part of a client's history to list
+    public enum HistoryScope {
+        UPCOMING,
+        PAST,
+        ALL
+    }
+
     // GET all appointments
     public List<Appointment> getAllAppointments() {
         return appointmentRepository.findAll();
     }
 
+    // GET one keyset page of appointments ordered by (date, id), with optional filters.
+    // Dates are inclusive; the cursor is the opaque nextCursor from the previous page.
+    @Transactional(readOnly = true)
+    public AppointmentPage getAppointmentPage(Appointment.Status status, Long serviceId,
+                                              LocalDate from, LocalDate to,
+                                              String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        CursorPosition after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+
+        // Fetch one extra row to learn whether another page exists
+        List<AppointmentSummary> rows = appointmentRepository.findPage(
+                status,
+                serviceId,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                after != null ? after.dateTime() : null,
+                after != null ? after.appointmentId() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        return toPage(rows, pageSize);
+    }
+
+    // GET one client's appointments, matched by client email or by their account.
+    // UPCOMING runs oldest first from now; PAST and ALL run newest first.
+    @Transactional(readOnly = true)
+    public AppointmentPage getClientAppointmentPage(String email, Long userId, HistoryScope scope,
+                                                    String cursor, Integer limit) {
+        int pageSize = resolvePageSize(limit);
+        CursorPosition after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        LocalDateTime afterDateTime = after != null ? after.dateTime() : null;
+        Long afterId = after != null ? after.appointmentId() : null;
+        LocalDateTime now = LocalDateTime.now();
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+
+        List<AppointmentSummary> rows = switch (scope) {
+            case UPCOMING -> appointmentRepository.findClientPageAscending(
+                    email, userId, now, afterDateTime, afterId, firstRows);
+            case PAST -> appointmentRepository.findClientPageDescending(
+                    email, userId, now, afterDateTime, afterId, firstRows);
+            case ALL -> appointmentRepository.findClientPageDescending(
+                    email, userId, null, afterDateTime, afterId, firstRows);
+        };
+
+        return toPage(rows, pageSize);
+    }
+
+    private static int resolvePageSize(Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    // rows holds up to pageSize + 1 results; the extra one only signals that more exist
+    private static AppointmentPage toPage(List<AppointmentSummary> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new AppointmentPage(rows, null);
+        }
+
+        List<AppointmentSummary> items = rows.subList(0, pageSize);
+        AppointmentSummary last = items.get(items.size() - 1);
+        return new AppointmentPage(items, encodeCursor(last.getAppointmentDateTime(), last.getAppointmentId()));
+    }
+
+    static String encodeCursor(LocalDateTime dateTime, Long appointmentId) {
+        String raw = dateTime + "|" + appointmentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Rejects anything we did not issue
+    static CursorPosition decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep <= 0) throw new IllegalArgumentException("Missing separator");
+            return new CursorPosition(
+                LocalDateTime.parse(raw.substring(0, sep)),
+                Long.valueOf(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    record CursorPosition(LocalDateTime dateTime, Long appointmentId) {}
+
     // GET appointment by ID
     public Optional<Appointment> getAppointmentById(Long id) {
-        return appointmentRepository.findById(id);
+        return appointmentRepository.findDetailedByAppointmentId(id);
     }
 
-    // GET appointment stats
+    // GET appointment stats, from the live counters rather than two COUNT scans
     public Map<String, Long> getGuestVsRegisteredStats() {
-        long guestCount = appointmentRepository.countByUserIsNull();
-        long registeredCount = appointmentRepository.countByUserIsNotNull();
+        AppointmentCounts counts = appointmentCounters.snapshot();
 
         Map<String, Long> stats = new HashMap<>();
-        stats.put("guestAppointments", guestCount);
-        stats.put("registeredAppointments", registeredCount);
+        stats.put("guestAppointments", counts.getGuestAppointments());
+        stats.put("registeredAppointments", counts.getRegisteredAppointments());
         return stats;
     }
 
+    // GET live counts by status, guest/registered and service
+    public AppointmentCounts getAppointmentCounts() {
+        return appointmentCounters.snapshot();
+    }
+
     private Optional<Availability> findAvailabilityForBooking(Long slotId) {
+        long start = System.nanoTime();
         Optional<Availability> lockedSlot = availabilityRepository.findBySlotIdForUpdate(slotId);
+        // Time blocked on the slot row lock; "missing" means the unlocked fallback below is used
+        Timer.builder("booking.slot.lock.wait")
+            .tag("outcome", lockedSlot.isPresent() ? "locked" : "missing")
+            .register(meterRegistry != null ? meterRegistry : Metrics.globalRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         return lockedSlot.isPresent() ? lockedSlot : availabilityRepository.findById(slotId);
     }
 
     // POST create new appointment
     @Transactional
-    public Optional<Appointment> createAppointment(Appointment appointment, HttpServletRequest request) {
-        // Attempt to extract user from JWT if logged in
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            String email = jwtService.extractUsername(token);
-            userRepository.findByEmail(email).ifPresent(appointment::setUser);
-        }
+    public Optional<Appointment> createAppointment(Appointment appointment) {
+        // Attach the signed-in user, if any, from the principal the JWT filter already resolved
+        currentUser.get()
+            .map(AuthenticatedUser::getUserId)
+            .flatMap(userRepository::findById)
+            .ifPresent(appointment::setUser);
 
         // Validate client info
         if (appointment.getClientName() == null || appointment.getClientName().trim().isEmpty()) return Optional.empty();
@@ -165,15 +303,29 @@ public class AppointmentService {
 
         appointmentStatusHistoryRepository.save(history);
 
+        appointmentCounters.afterCommit(null, AppointmentCounters.Key.of(savedAppointment));
+        daySheetService.evictAfterCommit(savedAppointment.getAppointmentDateTime());
+        inventoryForecastService.invalidateAfterCommit();
         return Optional.of(savedAppointment);
     }
 
+    // POST create new appointment under an Idempotency-Key; the key and response are stored
+    // in the booking transaction, so a replay can never see one without the other
+    @Transactional
+    public Optional<Appointment> createAppointment(Appointment appointment, IdempotencyKeyId idempotencyKey, String requestHash) {
+        Optional<Appointment> created = createAppointment(appointment);
+        created.ifPresent(saved -> idempotencyService.record(idempotencyKey, requestHash, saved));
+        return created;
+    }
+
     // PUT update appointment
     @Transactional
-    public Optional<Appointment> updateAppointment(Long id, Appointment updated, HttpServletRequest request) {
-        Optional<Appointment> existingOpt = appointmentRepository.findById(id);
+    public Optional<Appointment> updateAppointment(Long id, Appointment updated) {
+        Optional<Appointment> existingOpt = appointmentRepository.findWithAvailabilityByAppointmentId(id);
         if (existingOpt.isEmpty()) return Optional.empty();
         Appointment existing = existingOpt.get();
+        AppointmentCounters.Key countedAs = AppointmentCounters.Key.of(existing);
+        LocalDateTime previousDateTime = existing.getAppointmentDateTime();
 
         Appointment.Status oldStatus = existing.getStatus();
         Appointment.Status newStatus = updated.getStatus() != null
@@ -195,21 +347,15 @@ public class AppointmentService {
             newService = serviceOpt.get();
         }
 
-        // Check inventory early if status is changing to CONFIRMED
-        if (oldStatus != Appointment.Status.CONFIRMED && newStatus == Appointment.Status.CONFIRMED) {
-            Long serviceId = newService != null
-                ? newService.getServiceId()
-                : (existing.getService() != null ? existing.getService().getServiceId() : null);
+        // Lock the service's inventory rows and check them once if status is changing to CONFIRMED;
+        // the locks hold until commit, so a concurrent confirmation waits instead of double-spending
+        boolean confirming = oldStatus != Appointment.Status.CONFIRMED && newStatus == Appointment.Status.CONFIRMED;
+        List<ServiceInventoryUsage> lockedUsages = List.of();
+        if (confirming) {
+            lockedUsages = usageRepository.findByServiceIdForUpdate(newService.getServiceId());
 
-            List<ServiceInventoryUsage> usages = usageRepository.findByService_ServiceId(serviceId);
-
-            boolean hasInsufficientInventory = usages.stream().anyMatch(usage -> {
-                Long itemId = usage.getItem().getItemId();
-                int quantityToDeduct = usage.getQuantityUsed();
-                return inventoryRepository.findById(itemId)
-                    .map(item -> item.getQuantity() < quantityToDeduct)
-                    .orElse(true);
-            });
+            boolean hasInsufficientInventory = lockedUsages.stream()
+                .anyMatch(usage -> usage.getItem().getQuantity() < usage.getQuantityUsed());
 
             if (hasInsufficientInventory) return Optional.empty();
         }
@@ -267,11 +413,9 @@ public class AppointmentService {
             history.setAppointment(existing);
             history.setStatus(newStatus.name());
 
-            String authHeader = request.getHeader("Authorization");
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-                String email = jwtService.extractUsername(token);
-                userRepository.findByEmail(email).ifPresent(history::setChangedByUser);
+            Optional<AuthenticatedUser> principal = currentUser.get();
+            if (principal.isPresent()) {
+                userRepository.findById(principal.get().getUserId()).ifPresent(history::setChangedByUser);
             } else {
                 history.setchangedByEmail(updated.getClientEmail());
             }
@@ -279,50 +423,42 @@ public class AppointmentService {
             appointmentStatusHistoryRepository.save(history);
         }
 
-        // Deduct inventory after confirming sufficient inventory
-        if (oldStatus != Appointment.Status.CONFIRMED && newStatus == Appointment.Status.CONFIRMED) {
-            List<ServiceInventoryUsage> usages = usageRepository.findByService_ServiceId(existing.getService().getServiceId());
-            for (ServiceInventoryUsage usage : usages) {
-                Long itemId = usage.getItem().getItemId();
-                int quantityToDeduct = usage.getQuantityUsed();
-                inventoryRepository.findById(itemId).ifPresent(item -> {
-                    item.setQuantity(item.getQuantity() - quantityToDeduct);
-                    inventoryRepository.save(item);
-                });
-            }
-
-            // Log revenue
-            FinancialLog log = new FinancialLog();
-            log.setType(FinancialLog.Type.revenue);
-            log.setSource("appointment");
-            log.setReferenceId(existing.getAppointmentId());
-            log.setAmount(BigDecimal.valueOf(existing.getTotalPrice()));
-            log.setDescription("Confirmed appointment for " + existing.getClientName());
-            financialLogRepository.save(log);
-        }
-
-        // Generate receipt if confirming for first time
-        if (newStatus == Appointment.Status.CONFIRMED) {
-            Receipt existingReceipt = receiptRepository.findByAppointment_AppointmentId(existing.getAppointmentId());
-            if (existingReceipt == null) {
-                Receipt receipt = new Receipt();
-                receipt.setAppointment(existing);
-                receipt.setTotalAmount(BigDecimal.valueOf(existing.getTotalPrice()));
-                receipt.setPaymentMethod("Unpaid");
-                receiptRepository.save(receipt);
+        // Deduct inventory with the status change, so a CONFIRMED appointment always has its stock.
+        // Revenue and receipt are applied by OutboxWorker from the event, which commits with both.
+        if (confirming) {
+            int deducted = inventoryRepository.deductUsageForService(existing.getService().getServiceId());
+            if (deducted != lockedUsages.size()) {
+                // cannot happen while the rows are locked; roll back rather than confirm on partial stock
+                throw new IllegalStateException("Inventory changed during confirmation of appointment " + id);
             }
+            publishLowStockCrossings(lockedUsages);
+            outboxEventRepository.save(OutboxEvent.appointmentConfirmed(existing));
         }
 
         existing.setStatus(newStatus);
 
         Appointment saved = appointmentRepository.save(existing);
+        appointmentCounters.afterCommit(countedAs, AppointmentCounters.Key.of(saved));
+        daySheetService.evictAfterCommit(previousDateTime, saved.getAppointmentDateTime());
+        inventoryForecastService.invalidateAfterCommit();
         return Optional.of(saved);
     }
 
+    // The bulk update does not refresh the locked rows, so they still hold the quantities before it
+    private void publishLowStockCrossings(List<ServiceInventoryUsage> lockedUsages) {
+        for (ServiceInventoryUsage usage : lockedUsages) {
+            Inventory item = usage.getItem();
+            InventoryLowStockEvent.crossing(Inventory.isLowStock(item.getQuantity(), item.getLowStockThreshold()),
+                    item.getItemId(), item.getItemName(),
+                    item.getQuantity() - usage.getQuantityUsed(), item.getLowStockThreshold())
+                .ifPresent(eventPublisher::publishEvent);
+        }
+    }
+
     // DELETE appointment
     @Transactional
     public boolean deleteAppointment(Long id) {
-        Optional<Appointment> appointmentOpt = appointmentRepository.findById(id);
+        Optional<Appointment> appointmentOpt = appointmentRepository.findWithAvailabilityByAppointmentId(id);
         if (appointmentOpt.isEmpty()) return false;
 
         Appointment appointment = appointmentOpt.get();
@@ -335,6 +471,9 @@ public class AppointmentService {
         appointmentStatusHistoryRepository.deleteAllByAppointment_AppointmentId(id);
 
         appointmentRepository.deleteById(id);
+        appointmentCounters.afterCommit(AppointmentCounters.Key.of(appointment), null);
+        daySheetService.evictAfterCommit(appointment.getAppointmentDateTime());
+        inventoryForecastService.invalidateAfterCommit();
         return true;
     }
 }
\ No newline at end of file
@@ -1,22 +1,80 @@
 package com.tanyourpeach.backend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.cache.DaySlotIndex;
+import com.tanyourpeach.backend.dto.AvailabilityTemplateRequest;
+import com.tanyourpeach.backend.dto.AvailabilityTemplateResult;
 import com.tanyourpeach.backend.model.Availability;
 import com.tanyourpeach.backend.repository.AvailabilityRepository;
 
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
+// Slot writes check for overlaps against the day's rows read with FOR UPDATE in the write's own
+// transaction, so the check sees every instance's committed slots and holds off concurrent writers
+// to the same day until commit. The rows come back in start order and go into a DaySlotIndex in
+// one pass for the interval search; nothing is kept between writes.
 @Service
 public class AvailabilityService {
 
+    // Widest window the public range endpoint will serve in one call
+    static final int MAX_RANGE_DAYS = 62;
+
+    // Limits for one schedule template request
+    static final int MAX_TEMPLATE_DAYS = 366;
+    static final int MAX_TEMPLATE_SLOTS = 10_000;
+
+    static final int TEMPLATE_BATCH_SIZE = 500;
+
+    static final int DAY_LOCK_STRIPES = 64;
+
+    private static final String INSERT_SLOT_SQL =
+            "INSERT INTO availabilities (date, start_time, end_time, is_booked, notes, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private AvailabilityRepository availabilityRepository;
 
+    // Plain JDBC for template inserts: IDENTITY ids stop Hibernate from batching saveAll()
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DaySheetService daySheetService;
+
+    // Writers to the same date in this instance queue on that date's stripe until their
+    // transaction completes instead of deadlocking on the day's gap lock; other dates are not held
+    // up. Across instances the row and gap locks still serialize, and InnoDB resolves a deadlock
+    // by rolling one writer back.
+    private final ReentrantLock[] dayLocks = new ReentrantLock[DAY_LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < dayLocks.length; i++) {
+            dayLocks[i] = new ReentrantLock();
+        }
+    }
+
     // GET all availability slots
     public List<Availability> getAllAvailabilities() {
         return availabilityRepository.findAll();
@@ -27,7 +85,17 @@ public class AvailabilityService {
         return availabilityRepository.findByIsBookedFalseAndDate(date);
     }
 
+    // GET free slots for a whole date window, ordered by date then start time (one indexed query)
+    public List<Availability> getAvailableSlotsInRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)
+                || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return null;
+        }
+        return availabilityRepository.findByIsBookedFalseAndDateBetweenOrderByDateAscStartTimeAsc(from, to);
+    }
+
     // POST create new availability slot
+    @Transactional
     public Availability createAvailability(Availability availability) {
         if (availability == null ||
                 availability.getDate() == null ||
@@ -47,21 +115,100 @@ public class AvailabilityService {
             return null; // or throw IllegalArgumentException if you prefer
         }
 
-        // Prevent overlap
-        List<Availability> overlaps = availabilityRepository.findByDate(availability.getDate()).stream()
-            .filter(existing ->
-                availability.getStartTime().isBefore(existing.getEndTime()) &&
-                availability.getEndTime().isAfter(existing.getStartTime())
-            ).toList();
+        return withDayLocks(List.of(availability.getDate()), () -> {
+            // Prevent overlap
+            if (overlaps(availability, null)) {
+                return null;
+            }
+            return availabilityRepository.save(availability);
+        });
+    }
 
-        if (!overlaps.isEmpty()) {
+    // POST expand a weekly template into slots; overlaps are checked against one query over the
+    // template's days and the new rows go in as JDBC batches. Returns null if the template is invalid.
+    @Transactional
+    public AvailabilityTemplateResult generateFromTemplate(AvailabilityTemplateRequest template) {
+        List<Availability> candidates = expandTemplate(template);
+        if (candidates == null) {
             return null;
         }
 
-        return availabilityRepository.save(availability);
+        if (candidates.isEmpty()) {
+            return new AvailabilityTemplateResult(0, 0);
+        }
+
+        Set<LocalDate> dates = new TreeSet<>();
+        for (Availability candidate : candidates) {
+            dates.add(candidate.getDate());
+        }
+
+        return withDayLocks(dates, () -> {
+            Map<LocalDate, DaySlotIndex> days = indexByDay(availabilityRepository.findByDateInForUpdate(dates));
+
+            List<Availability> toInsert = new ArrayList<>(candidates.size());
+            for (Availability candidate : candidates) {
+                DaySlotIndex day = days.getOrDefault(candidate.getDate(), DaySlotIndex.empty());
+                if (!day.overlaps(candidate.getStartTime().toSecondOfDay(), candidate.getEndTime().toSecondOfDay(), Long.MIN_VALUE)) {
+                    toInsert.add(candidate);
+                }
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(INSERT_SLOT_SQL, toInsert, TEMPLATE_BATCH_SIZE, (ps, slot) -> {
+                ps.setDate(1, Date.valueOf(slot.getDate()));
+                ps.setTime(2, Time.valueOf(slot.getStartTime()));
+                ps.setTime(3, Time.valueOf(slot.getEndTime()));
+                ps.setBoolean(4, false);
+                ps.setString(5, slot.getNotes());
+                ps.setTimestamp(6, now);
+            });
+
+            return new AvailabilityTemplateResult(toInsert.size(), candidates.size() - toInsert.size());
+        });
+    }
+
+    // Template slots in date then time order, or null if the template is invalid or too large
+    private List<Availability> expandTemplate(AvailabilityTemplateRequest template) {
+        if (template == null ||
+                template.getDaysOfWeek() == null || template.getDaysOfWeek().isEmpty() ||
+                template.getStartTime() == null || template.getEndTime() == null ||
+                template.getSlotMinutes() == null || template.getSlotMinutes() <= 0 ||
+                template.getFromDate() == null || template.getToDate() == null) {
+            return null;
+        }
+        if (!template.getEndTime().isAfter(template.getStartTime()) ||
+                template.getFromDate().isBefore(LocalDate.now()) ||
+                template.getToDate().isBefore(template.getFromDate()) ||
+                ChronoUnit.DAYS.between(template.getFromDate(), template.getToDate()) >= MAX_TEMPLATE_DAYS) {
+            return null;
+        }
+
+        int dayStart = template.getStartTime().toSecondOfDay();
+        int dayEnd = template.getEndTime().toSecondOfDay();
+        int slotSeconds = template.getSlotMinutes() * 60;
+
+        List<Availability> slots = new ArrayList<>();
+        for (LocalDate date = template.getFromDate(); !date.isAfter(template.getToDate()); date = date.plusDays(1)) {
+            if (!template.getDaysOfWeek().contains(date.getDayOfWeek())) continue;
+
+            for (int start = dayStart; start + slotSeconds <= dayEnd; start += slotSeconds) {
+                if (slots.size() == MAX_TEMPLATE_SLOTS) {
+                    return null;
+                }
+                Availability slot = new Availability();
+                slot.setDate(date);
+                slot.setStartTime(LocalTime.ofSecondOfDay(start));
+                slot.setEndTime(LocalTime.ofSecondOfDay(start + slotSeconds));
+                slot.setIsBooked(false);
+                slot.setNotes(template.getNotes());
+                slots.add(slot);
+            }
+        }
+        return slots;
     }
 
     // PUT update availability slot
+    @Transactional
     public Optional<Availability> updateAvailability(Long id, Availability updated) {
         if (updated == null ||
                 updated.getDate() == null ||
@@ -70,42 +217,118 @@ public class AvailabilityService {
             return Optional.empty();
         }
 
-        // Skip self in overlap check
-        List<Availability> overlaps = availabilityRepository.findByDate(updated.getDate()).stream()
-            .filter(existing -> !existing.getSlotId().equals(id))
-            .filter(existing ->
-                updated.getStartTime().isBefore(existing.getEndTime()) &&
-                updated.getEndTime().isAfter(existing.getStartTime())
-            ).toList();
-
-        if (!overlaps.isEmpty() ||
-            updated.getEndTime().isBefore(updated.getStartTime()) ||
-            updated.getEndTime().equals(updated.getStartTime())) {
-            return Optional.empty();
-        }
+        return withDayLocks(List.of(updated.getDate()), () -> {
+            // Skip self in overlap check
+            if (updated.getEndTime().isBefore(updated.getStartTime()) ||
+                updated.getEndTime().equals(updated.getStartTime()) ||
+                overlaps(updated, id)) {
+                return Optional.empty();
+            }
 
-        Optional<Availability> existingOpt = availabilityRepository.findById(id);
-        if (existingOpt.isEmpty()) return Optional.empty();
+            Optional<Availability> existingOpt = availabilityRepository.findById(id);
+            if (existingOpt.isEmpty()) return Optional.empty();
 
-        // Prevent past dates
-        if (updated.getDate() != null && updated.getDate().isBefore(LocalDate.now())) {
-            return Optional.empty();
-        }
+            // Prevent past dates
+            if (updated.getDate() != null && updated.getDate().isBefore(LocalDate.now())) {
+                return Optional.empty();
+            }
 
-        Availability existing = existingOpt.get();
-        existing.setDate(updated.getDate());
-        existing.setStartTime(updated.getStartTime());
-        existing.setEndTime(updated.getEndTime());
-        existing.setIsBooked(updated.getIsBooked());
-        existing.setNotes(updated.getNotes());
+            Availability existing = existingOpt.get();
+            LocalDate previousDate = existing.getDate();
+            existing.setDate(updated.getDate());
+            existing.setStartTime(updated.getStartTime());
+            existing.setEndTime(updated.getEndTime());
+            existing.setIsBooked(updated.getIsBooked());
+            existing.setNotes(updated.getNotes());
 
-        return Optional.of(availabilityRepository.save(existing));
+            Availability saved = availabilityRepository.save(existing);
+            daySheetService.evictDaysAfterCommit(previousDate, saved.getDate()); // booked slots show their end time
+            return Optional.of(saved);
+        });
     }
 
     // DELETE availability slot
     public boolean deleteAvailability(Long id) {
-        if (!availabilityRepository.existsById(id)) return false;
+        Optional<Availability> existing = availabilityRepository.findById(id);
+        if (existing.isEmpty()) return false;
         availabilityRepository.deleteById(id);
         return true;
     }
-}
\ No newline at end of file
+
+    // Authoritative check: the day's rows read under lock, then a binary search over them
+    private boolean overlaps(Availability candidate, Long excludeId) {
+        return index(availabilityRepository.findByDateForUpdate(candidate.getDate())).overlaps(
+                candidate.getStartTime().toSecondOfDay(),
+                candidate.getEndTime().toSecondOfDay(),
+                excludeId != null ? excludeId : Long.MIN_VALUE);
+    }
+
+    // Rows ordered by date then start time, one index per date
+    private static Map<LocalDate, DaySlotIndex> indexByDay(List<Availability> rows) {
+        Map<LocalDate, DaySlotIndex> days = new HashMap<>();
+        int from = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).getDate().equals(rows.get(from).getDate())) {
+                days.put(rows.get(from).getDate(), index(rows.subList(from, i)));
+                from = i;
+            }
+        }
+        return days;
+    }
+
+    // One day's rows in start order
+    private static DaySlotIndex index(List<Availability> rows) {
+        long[] ids = new long[rows.size()];
+        int[] starts = new int[rows.size()];
+        int[] ends = new int[rows.size()];
+        int n = 0;
+        for (Availability slot : rows) {
+            if (slot.getSlotId() == null || slot.getStartTime() == null || slot.getEndTime() == null) continue;
+            ids[n] = slot.getSlotId();
+            starts[n] = slot.getStartTime().toSecondOfDay();
+            ends[n] = slot.getEndTime().toSecondOfDay();
+            n++;
+        }
+        return n == rows.size()
+                ? DaySlotIndex.of(ids, starts, ends)
+                : DaySlotIndex.of(Arrays.copyOf(ids, n), Arrays.copyOf(starts, n), Arrays.copyOf(ends, n));
+    }
+
+    // Runs the write holding the stripes of these dates until the surrounding transaction has
+    // committed or rolled back; stripes are taken in index order so multi-day writers cannot deadlock
+    private <T> T withDayLocks(Collection<LocalDate> dates, Supplier<T> write) {
+        Set<Integer> stripes = new TreeSet<>();
+        for (LocalDate date : dates) {
+            stripes.add((int) Math.floorMod(date.toEpochDay(), (long) DAY_LOCK_STRIPES));
+        }
+
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        boolean releaseOnCompletion = false;
+        try {
+            for (int stripe : stripes) {
+                dayLocks[stripe].lock();
+                held.add(dayLocks[stripe]);
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        unlockAll(held);
+                    }
+                });
+                releaseOnCompletion = true;
+            }
+            return write.get();
+        } finally {
+            if (!releaseOnCompletion) {
+                unlockAll(held);
+            }
+        }
+    }
+
+    private static void unlockAll(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+}
@@ -1,16 +1,15 @@
 package com.tanyourpeach.backend.service;
 
+import com.tanyourpeach.backend.cache.BoundedTtlCache;
 import com.tanyourpeach.backend.model.User;
 import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -18,33 +17,64 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
-    // Load user by email for authentication
+    @Value("${security.user-cache.ttl-ms:60000}")
+    private long userCacheTtlMs = 60_000;
+
+    @Value("${security.user-cache.max-entries:10000}")
+    private int userCacheMaxEntries = 10_000;
+
+    private volatile BoundedTtlCache<String, AuthenticatedUser> userCache;
+
+    // Load user by email for authentication.
+    // Not @Transactional on purpose: a cache hit must not borrow a connection.
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        if (email == null) {
+        String normalizedEmail = normalize(email);
+        if (normalizedEmail == null) {
             throw new UsernameNotFoundException("User not found");
         }
-        String normalizedEmail = email.trim().toLowerCase();
-        if (normalizedEmail.isEmpty()) {
-            throw new UsernameNotFoundException("User not found");
+
+        AuthenticatedUser cached = cache().get(normalizedEmail);
+        if (cached != null) {
+            return cached;
         }
 
         User user = userRepository.findByEmail(normalizedEmail)
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        // build authorities explicitly (roles will be prefixed with ROLE_ by convention)
-        List<GrantedAuthority> authorities = List.of(
-            new SimpleGrantedAuthority(user.getIsAdmin() ? "ROLE_ADMIN" : "ROLE_USER")
-        );
-
-        return org.springframework.security.core.userdetails.User
-            .withUsername(user.getEmail())
-            .password(user.getPasswordHash())
-            .authorities(authorities)
-            // Uncomment if you have these flags on your User entity and want to enforce them:
-            // .accountLocked(!user.isAccountNonLocked())
-            // .disabled(!user.isEnabled())
-            .build();
+        AuthenticatedUser principal = AuthenticatedUser.from(user);
+        cache().put(normalizedEmail, principal);
+        return principal;
+    }
+
+    // Drop a cached principal after the user's email, password, role or existence changes
+    public void evictUser(String email) {
+        String normalizedEmail = normalize(email);
+        if (normalizedEmail != null) {
+            cache().invalidate(normalizedEmail);
+        }
+    }
+
+    public void evictAll() {
+        cache().invalidateAll();
+    }
+
+    private static String normalize(String email) {
+        if (email == null) return null;
+        String normalized = email.trim().toLowerCase();
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    private BoundedTtlCache<String, AuthenticatedUser> cache() {
+        BoundedTtlCache<String, AuthenticatedUser> c = userCache;
+        if (c == null) {
+            synchronized (this) {
+                if (userCache == null) {
+                    userCache = new BoundedTtlCache<>(userCacheMaxEntries, userCacheTtlMs);
+                }
+                c = userCache;
+            }
+        }
+        return c;
     }
-}
\ No newline at end of file
+}
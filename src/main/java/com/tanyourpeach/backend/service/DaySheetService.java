@@ -0,0 +1,192 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.cache.BoundedTtlCache;
+import com.tanyourpeach.backend.dto.DaySheet;
+import com.tanyourpeach.backend.dto.ReceiptSummary;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.ServiceInventoryUsage;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.ReceiptRepository;
+import com.tanyourpeach.backend.repository.ServiceInventoryUsageRepository;
+import com.tanyourpeach.backend.service.ServiceCatalogCache.CachedJson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One pre-rendered JSON document per calendar day for the admin day sheet: appointments with
+// their service and receipt, plus the inventory the day will use. A missing day is built with
+// three queries and kept as bytes with a strong ETag, so repeat reads do no database or Jackson
+// work. Writes evict the days they touch once they commit (appointments, receipts and slot edits
+// evict their own day; services, usages and inventory items evict every day). The TTL bounds how
+// long a write made on another instance can go unseen here.
+@Service
+public class DaySheetService {
+
+    static final String UNPAID = "Unpaid";
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private ServiceInventoryUsageRepository usageRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${day-sheet.cache.ttl-ms:60000}")
+    private long ttlMs = 60_000;
+
+    @Value("${day-sheet.cache.max-entries:400}")
+    private int maxEntries = 400;
+
+    private volatile BoundedTtlCache<LocalDate, CachedJson> sheets;
+
+    // Bumped by every eviction; a build that raced with one is served once but not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachedJson getDaySheet(LocalDate date) {
+        CachedJson cached = sheets().get(date);
+        if (cached != null) {
+            return cached;
+        }
+
+        long buildGeneration = generation.get();
+        CachedJson built = render(build(date));
+        sheets().put(date, built);
+        if (generation.get() != buildGeneration) {
+            sheets().invalidate(date);
+        }
+        return built;
+    }
+
+    // The days of these appointment times change when the current transaction commits; nulls are skipped
+    public void evictAfterCommit(LocalDateTime... appointmentTimes) {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            for (LocalDateTime time : appointmentTimes) {
+                if (time != null) {
+                    sheets().invalidate(time.toLocalDate());
+                }
+            }
+        });
+    }
+
+    // Same for writes keyed by date, like slot edits (the slot end time is shown on the sheet)
+    public void evictDaysAfterCommit(LocalDate... days) {
+        AfterCommit.run(() -> {
+            generation.incrementAndGet();
+            for (LocalDate day : days) {
+                if (day != null) {
+                    sheets().invalidate(day);
+                }
+            }
+        });
+    }
+
+    // For writes that can show up on any day (service names, usage rows, inventory items)
+    public void evictAllAfterCommit() {
+        AfterCommit.run(this::evictAll);
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        sheets().invalidateAll();
+    }
+
+    DaySheet build(LocalDate date) {
+        List<Appointment> appointments = appointmentRepository
+                .findDaySheetAppointments(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+
+        Map<Long, ReceiptSummary> receipts = new HashMap<>();
+        if (!appointments.isEmpty()) {
+            List<Long> ids = appointments.stream().map(Appointment::getAppointmentId).toList();
+            receiptRepository.findSummariesByAppointmentIds(ids)
+                    .forEach(receipt -> receipts.putIfAbsent(receipt.getAppointmentId(), receipt));
+        }
+
+        List<DaySheet.Entry> entries = new ArrayList<>(appointments.size());
+        Map<Long, Long> bookingsByService = new LinkedHashMap<>();
+        int paidCount = 0;
+        double expectedRevenue = 0;
+        for (Appointment a : appointments) {
+            ReceiptSummary receipt = receipts.get(a.getAppointmentId());
+            boolean paid = receipt != null && !UNPAID.equalsIgnoreCase(receipt.getPaymentMethod());
+            if (paid) paidCount++;
+
+            if (a.getStatus() != Appointment.Status.CANCELLED) {
+                bookingsByService.merge(a.getService().getServiceId(), 1L, Long::sum);
+                if (a.getTotalPrice() != null) expectedRevenue += a.getTotalPrice();
+            }
+
+            entries.add(new DaySheet.Entry(
+                    a.getAppointmentId(),
+                    a.getAppointmentDateTime(),
+                    a.getAvailability() != null ? a.getAvailability().getEndTime() : null,
+                    a.getStatus() != null ? a.getStatus().name() : null,
+                    a.getUser() == null,
+                    a.getClientName(),
+                    a.getClientEmail(),
+                    a.getClientAddress(),
+                    a.getNotes(),
+                    a.getService().getServiceId(),
+                    a.getService().getName(),
+                    a.getService().getDurationMinutes(),
+                    a.getTotalPrice(),
+                    receipt,
+                    paid));
+        }
+
+        // Per-service usage times the number of bookings for that service, summed by item
+        Map<Long, DaySheet.InventoryNeed> needs = new TreeMap<>();
+        if (!bookingsByService.isEmpty()) {
+            for (ServiceInventoryUsage usage : usageRepository.findWithItemsByServiceIdIn(bookingsByService.keySet())) {
+                long bookings = bookingsByService.getOrDefault(usage.getId().getServiceId(), 0L);
+                long quantity = bookings * (usage.getQuantityUsed() != null ? usage.getQuantityUsed() : 0);
+                Long itemId = usage.getItem().getItemId();
+                needs.merge(itemId,
+                        new DaySheet.InventoryNeed(itemId, usage.getItem().getItemName(), quantity),
+                        (a, b) -> new DaySheet.InventoryNeed(itemId, a.itemName(), a.requiredQuantity() + b.requiredQuantity()));
+            }
+        }
+
+        return new DaySheet(date, entries.size(), paidCount, expectedRevenue,
+                List.copyOf(entries), List.copyOf(needs.values()));
+    }
+
+    private CachedJson render(DaySheet sheet) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(sheet);
+            return new CachedJson(body, ServiceCatalogCache.etagOf(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize day sheet for " + sheet.getDate(), e);
+        }
+    }
+
+    private BoundedTtlCache<LocalDate, CachedJson> sheets() {
+        BoundedTtlCache<LocalDate, CachedJson> c = sheets;
+        if (c == null) {
+            synchronized (this) {
+                if (sheets == null) {
+                    sheets = new BoundedTtlCache<>(maxEntries, ttlMs);
+                }
+                c = sheets;
+            }
+        }
+        return c;
+    }
+}
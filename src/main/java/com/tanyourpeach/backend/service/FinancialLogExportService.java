@@ -0,0 +1,210 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.model.FinancialLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams financial_log rows straight from a forward-only result set to the response.
+// Each row is written as soon as it is read and never collected, so memory stays flat
+// however wide the date range is. The fetch size is set on this service's own JdbcTemplate
+// only: Integer.MIN_VALUE puts Connector/J in row-by-row streaming mode for these statements,
+// leaving the rest of the pool on plain client-side prepares.
+@Service
+public class FinancialLogExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    static final String CSV_HEADER = "log_id,log_date,type,source,reference_id,description,amount";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public FinancialLogExportService(DataSource dataSource,
+                                     ObjectMapper objectMapper,
+                                     @Value("${financial-log.export.fetch-size:-2147483648}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    // from and to are inclusive dates; any of the filters may be null
+    public void export(LocalDate from, LocalDate to, FinancialLog.Type type, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT log_id, log_date, type, source, reference_id, description, amount FROM financial_log WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND log_date >= ?");
+            args.add(Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            sql.append(" AND log_date < ?");
+            args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        if (type != null) {
+            sql.append(" AND type = ?");
+            args.add(type.name());
+        }
+        sql.append(" ORDER BY log_date, log_id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        try {
+            rowWriter.start();
+            jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            rowWriter.finish();
+        } catch (UncheckedIOException e) {
+            // a write failed, usually because the client went away; JdbcTemplate has closed the cursor
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    // RFC 4180: CRLF line ends, fields quoted only when they need it
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong("log_id")));
+            writer.write(',');
+            Timestamp logDate = rs.getTimestamp("log_date");
+            if (logDate != null) writer.write(logDate.toLocalDateTime().toString());
+            writer.write(',');
+            writer.write(rs.getString("type"));
+            writer.write(',');
+            writeField(rs.getString("source"));
+            writer.write(',');
+            long referenceId = rs.getLong("reference_id");
+            if (!rs.wasNull()) writer.write(Long.toString(referenceId));
+            writer.write(',');
+            writeField(rs.getString("description"));
+            writer.write(',');
+            writer.write(rs.getBigDecimal("amount").toPlainString());
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    // One JSON object per line, field names matching the JSON API
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // rows are separated by the newline written after each one, not Jackson's default space
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("logId", rs.getLong("log_id"));
+            Timestamp logDate = rs.getTimestamp("log_date");
+            generator.writeStringField("logDate", logDate != null ? logDate.toLocalDateTime().toString() : null);
+            generator.writeStringField("type", rs.getString("type"));
+            generator.writeStringField("source", rs.getString("source"));
+            long referenceId = rs.getLong("reference_id");
+            if (rs.wasNull()) {
+                generator.writeNullField("referenceId");
+            } else {
+                generator.writeNumberField("referenceId", referenceId);
+            }
+            generator.writeStringField("description", rs.getString("description"));
+            BigDecimal amount = rs.getBigDecimal("amount");
+            generator.writeNumberField("amount", amount);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.model.FinancialMonthlyRollup;
+import com.tanyourpeach.backend.model.FinancialMonthlyRollupKey;
+import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.repository.FinancialMonthlyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps financial_monthly_rollup in step with financial_log.
+// Callers record every log write here inside the same transaction as the write itself.
+@Service
+public class FinancialRollupService {
+
+    @Autowired
+    private FinancialMonthlyRollupRepository rollupRepository;
+
+    @Autowired
+    private FinancialLogRepository financialLogRepository;
+
+    // Count a newly saved log
+    @Transactional
+    public void recordCreated(FinancialLog log) {
+        applyDelta(log, log.getAmount(), 1);
+    }
+
+    // Take a log back out, before it is deleted or before its fields are changed
+    @Transactional
+    public void recordRemoved(FinancialLog log) {
+        if (log.getAmount() == null) return;
+        applyDelta(log, log.getAmount().negate(), -1);
+    }
+
+    // Recompute every rollup row from financial_log (admin-triggered repair)
+    @Transactional
+    public int rebuild() {
+        Map<FinancialMonthlyRollupKey, FinancialMonthlyRollup> rows = new LinkedHashMap<>();
+
+        for (Object[] row : financialLogRepository.aggregateByMonthTypeAndSource()) {
+            String month = row[0] != null && row[1] != null
+                    ? YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()).toString()
+                    : YearMonth.now().toString();
+            FinancialMonthlyRollupKey key = new FinancialMonthlyRollupKey(
+                    month, (FinancialLog.Type) row[2], sourceKey((String) row[3]));
+            BigDecimal amount = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+            long count = ((Number) row[5]).longValue();
+
+            // null and blank sources share the same key, so merge them
+            rows.merge(key, new FinancialMonthlyRollup(key, amount, count), (a, b) -> {
+                a.setTotalAmount(a.getTotalAmount().add(b.getTotalAmount()));
+                a.setEntryCount(a.getEntryCount() + b.getEntryCount());
+                return a;
+            });
+        }
+
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.saveAll(rows.values());
+        return rows.size();
+    }
+
+    private void applyDelta(FinancialLog log, BigDecimal amount, long count) {
+        if (log.getType() == null || amount == null) return;
+        rollupRepository.applyDelta(monthOf(log), log.getType().name(), sourceKey(log.getSource()), amount, count);
+    }
+
+    // log_date is filled in by the database on insert, so a fresh log belongs to the current month
+    static String monthOf(FinancialLog log) {
+        return log.getLogDate() != null
+                ? YearMonth.from(log.getLogDate()).toString()
+                : YearMonth.now().toString();
+    }
+
+    static String sourceKey(String source) {
+        return source != null ? source : "";
+    }
+}
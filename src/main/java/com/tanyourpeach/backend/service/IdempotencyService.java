@@ -0,0 +1,158 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.cache.BoundedTtlCache;
+import com.tanyourpeach.backend.model.IdempotencyKey;
+import com.tanyourpeach.backend.model.IdempotencyKeyId;
+import com.tanyourpeach.backend.repository.IdempotencyKeyRepository;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Optional;
+
+// Responses to completed requests, stored under the caller and their Idempotency-Key, so
+// one client's key never answers for another's. The table is the source of truth across
+// nodes; a bounded in-memory LRU in front of it answers repeated retries without a query.
+// Only successful requests are stored, so a retry after a failure runs again.
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 100;
+
+    // A stored response, and the hash of the request that produced it
+    private record StoredResponse(String requestHash, byte[] body) {}
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMs = 86_400_000;
+
+    @Value("${idempotency.cache.max-entries:10000}")
+    private int cacheMaxEntries = 10_000;
+
+    private volatile BoundedTtlCache<IdempotencyKeyId, StoredResponse> responseCache;
+
+    // Trimmed key, or 400 if it is blank or too long
+    String normalizeKey(String key) {
+        String normalized = key == null ? "" : key.trim();
+        if (normalized.isEmpty() || normalized.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        return normalized;
+    }
+
+    // The key scoped to the logged-in user, or for a guest to the email they book under;
+    // 400 if invalid
+    public IdempotencyKeyId scopedKey(String key, String guestEmail) {
+        String normalized = normalizeKey(key);
+        String owner = currentUser.get()
+                .map(user -> "user:" + user.getUserId())
+                .orElseGet(() -> "guest:" + (guestEmail == null ? "" : guestEmail.trim().toLowerCase()));
+        return new IdempotencyKeyId(owner, normalized);
+    }
+
+    // Hash of the caller and the request body as received, taken before the booking mutates it
+    public String requestHash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Long userId = currentUser.get().map(AuthenticatedUser::getUserId).orElse(null);
+            digest.update(String.valueOf(userId).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize request", e);
+        }
+    }
+
+    // The stored response for this key, if any. 422 if the key was used for a different request.
+    // Not @Transactional on purpose: a cache hit must not borrow a connection.
+    public Optional<byte[]> findResponse(IdempotencyKeyId key, String requestHash) {
+        StoredResponse stored = cache().get(key);
+        if (stored == null) {
+            Optional<IdempotencyKey> row = idempotencyKeyRepository.findById(key)
+                    .filter(k -> k.getExpiresAt().isAfter(LocalDateTime.now()));
+            if (row.isEmpty()) {
+                return Optional.empty();
+            }
+            stored = new StoredResponse(row.get().getRequestHash(),
+                    row.get().getResponseBody().getBytes(StandardCharsets.UTF_8));
+            cache().put(key, stored, row.get().getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+        }
+        return Optional.of(stored.body());
+    }
+
+    // Store the response in the caller's transaction, so the key exists exactly when the
+    // booking does. An expired row the purge has not reached yet is deleted first, in the same
+    // transaction.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(IdempotencyKeyId key, String requestHash, Object response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyKeyRepository.deleteIfExpired(key, now);
+        idempotencyKeyRepository.insert(key.getOwner(), key.getKey(), requestHash, body, now, now.plus(Duration.ofMillis(ttlMs)));
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    public void evictAll() {
+        cache().invalidateAll();
+    }
+
+    private BoundedTtlCache<IdempotencyKeyId, StoredResponse> cache() {
+        BoundedTtlCache<IdempotencyKeyId, StoredResponse> c = responseCache;
+        if (c == null) {
+            synchronized (this) {
+                if (responseCache == null) {
+                    responseCache = new BoundedTtlCache<>(cacheMaxEntries, ttlMs);
+                }
+                c = responseCache;
+            }
+        }
+        return c;
+    }
+}
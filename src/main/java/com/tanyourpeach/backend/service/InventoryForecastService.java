@@ -0,0 +1,153 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.dto.InventoryForecast;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.Inventory;
+import com.tanyourpeach.backend.model.ServiceInventoryUsage;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.InventoryRepository;
+import com.tanyourpeach.backend.repository.ServiceInventoryUsageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Stock-out projection per inventory item from the bookings already on the calendar.
+// Future bookings are counted per (day, service) in one grouped query, multiplied by each
+// service's bill of materials into per-day item demand, and walked forward day by day against
+// the stock on hand. Only PENDING bookings draw the stock down: CONFIRMED ones were deducted
+// when they were confirmed, so they are reported but not subtracted again.
+// The result is cached until a booking, stock or usage write commits; the TTL lets days that
+// have passed drop out and bounds staleness from writes on other instances.
+@Service
+public class InventoryForecastService {
+
+    private record Snapshot(List<InventoryForecast> items, long expiresAt) {}
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private ServiceInventoryUsageRepository usageRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Value("${inventory-forecast.cache.ttl-ms:300000}")
+    private long ttlMs = 300_000;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Bumped by invalidate(); a computation that raced with a write is served once but not kept
+    private final AtomicLong generation = new AtomicLong();
+
+    public List<InventoryForecast> getForecast() {
+        Snapshot s = snapshot.get();
+        if (s != null && s.expiresAt() > System.currentTimeMillis()) {
+            return s.items();
+        }
+
+        long computeGeneration = generation.get();
+        List<InventoryForecast> items = compute(LocalDateTime.now());
+        if (generation.get() == computeGeneration) {
+            snapshot.compareAndSet(s, new Snapshot(items, System.currentTimeMillis() + ttlMs));
+        }
+        return items;
+    }
+
+    public void invalidateAfterCommit() {
+        AfterCommit.run(this::invalidate);
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    List<InventoryForecast> compute(LocalDateTime now) {
+        // day -> service -> pending bookings, and service -> confirmed bookings
+        TreeMap<LocalDate, Map<Long, Long>> pendingByDay = new TreeMap<>();
+        Map<Long, Long> confirmedByService = new HashMap<>();
+        Set<Long> serviceIds = new HashSet<>();
+        for (Object[] row : appointmentRepository.countGroupedByDayServiceAndStatus(
+                now, List.of(Appointment.Status.PENDING, Appointment.Status.CONFIRMED))) {
+            LocalDate day = (LocalDate) row[0];
+            Long serviceId = ((Number) row[1]).longValue();
+            long count = ((Number) row[3]).longValue();
+            serviceIds.add(serviceId);
+            if (row[2] == Appointment.Status.PENDING) {
+                pendingByDay.computeIfAbsent(day, d -> new HashMap<>()).merge(serviceId, count, Long::sum);
+            } else {
+                confirmedByService.merge(serviceId, count, Long::sum);
+            }
+        }
+
+        // Bill of materials: service -> item -> units per booking
+        Map<Long, Map<Long, Integer>> unitsPerBooking = new HashMap<>();
+        if (!serviceIds.isEmpty()) {
+            for (ServiceInventoryUsage usage : usageRepository.findWithItemsByServiceIdIn(serviceIds)) {
+                int units = usage.getQuantityUsed() != null ? usage.getQuantityUsed() : 0;
+                unitsPerBooking.computeIfAbsent(usage.getId().getServiceId(), id -> new HashMap<>())
+                        .put(usage.getItem().getItemId(), units);
+            }
+        }
+
+        // (day x service) counts times (service x item) units = day x item demand
+        Map<LocalDate, Map<Long, Long>> demandByDay = new TreeMap<>();
+        pendingByDay.forEach((day, services) -> {
+            Map<Long, Long> demand = new HashMap<>();
+            services.forEach((serviceId, count) -> unitsPerBooking.getOrDefault(serviceId, Map.of())
+                    .forEach((itemId, units) -> demand.merge(itemId, count * units, Long::sum)));
+            demandByDay.put(day, demand);
+        });
+        Map<Long, Long> confirmedDemand = new HashMap<>();
+        confirmedByService.forEach((serviceId, count) -> unitsPerBooking.getOrDefault(serviceId, Map.of())
+                .forEach((itemId, units) -> confirmedDemand.merge(itemId, count * units, Long::sum)));
+
+        LocalDate today = now.toLocalDate();
+        List<InventoryForecast> forecasts = new ArrayList<>();
+        for (Inventory item : inventoryRepository.findAll()) {
+            Long itemId = item.getItemId();
+            int onHand = item.getQuantity() != null ? item.getQuantity() : 0;
+            Integer threshold = item.getLowStockThreshold();
+
+            long remaining = onHand;
+            LocalDate lowStockDate = Inventory.isLowStock(onHand, threshold) ? today : null;
+            LocalDate stockOutDate = null;
+            for (Map.Entry<LocalDate, Map<Long, Long>> day : demandByDay.entrySet()) {
+                long used = day.getValue().getOrDefault(itemId, 0L);
+                if (used == 0) continue;
+                remaining -= used;
+                if (lowStockDate == null && threshold != null && remaining <= threshold) {
+                    lowStockDate = day.getKey();
+                }
+                if (stockOutDate == null && remaining < 0) {
+                    stockOutDate = day.getKey();
+                }
+            }
+
+            forecasts.add(new InventoryForecast(itemId, item.getItemName(), onHand, threshold,
+                    onHand - remaining, confirmedDemand.getOrDefault(itemId, 0L), remaining,
+                    lowStockDate, stockOutDate));
+        }
+
+        // Soonest stock-out first, then soonest low stock, then by name
+        forecasts.sort(Comparator
+                .comparing(InventoryForecast::getStockOutDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(InventoryForecast::getLowStockDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(InventoryForecast::getItemName, Comparator.nullsLast(Comparator.naturalOrder())));
+        return List.copyOf(forecasts);
+    }
+}
@@ -0,0 +1,20 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.Inventory;
+
+import java.util.Optional;
+
+// Published in-process when a write takes an item from above its low-stock threshold to at or
+// below it, so alerting can react instead of polling the low-stock list. Listeners that act on
+// it should use @TransactionalEventListener: the write it reports may still roll back.
+public record InventoryLowStockEvent(Long itemId, String itemName, int quantity, int lowStockThreshold) {
+
+    // An event only for the write that crosses the threshold; staying low is not a new event
+    public static Optional<InventoryLowStockEvent> crossing(boolean wasLowStock, Long itemId, String itemName,
+                                                            Integer quantity, Integer lowStockThreshold) {
+        if (wasLowStock || !Inventory.isLowStock(quantity, lowStockThreshold)) {
+            return Optional.empty();
+        }
+        return Optional.of(new InventoryLowStockEvent(itemId, itemName, quantity, lowStockThreshold));
+    }
+}
@@ -5,6 +5,7 @@ import com.tanyourpeach.backend.model.FinancialLog;
 import com.tanyourpeach.backend.repository.InventoryRepository;
 import com.tanyourpeach.backend.repository.FinancialLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +22,18 @@ public class InventoryService {
     @Autowired
     private FinancialLogRepository financialLogRepository;
 
+    @Autowired
+    private FinancialRollupService financialRollupService;
+
+    @Autowired
+    private DaySheetService daySheetService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private InventoryForecastService inventoryForecastService;
+
     // Get all inventory items
     public List<Inventory> getAllInventory() {
         return inventoryRepository.findAll();
@@ -56,8 +69,10 @@ public class InventoryService {
             log.setAmount(startingTotalSpent);
             log.setDescription("Initial inventory purchase: " + startingQuantity + " units of " + saved.getItemName());
             financialLogRepository.save(log);
+            financialRollupService.recordCreated(log);
         }
 
+        inventoryForecastService.invalidateAfterCommit();
         return saved;
     }
 
@@ -68,12 +83,17 @@ public class InventoryService {
         if (updated.getUnitCost() != null && updated.getUnitCost().compareTo(BigDecimal.ZERO) < 0) return Optional.empty();
 
         return inventoryRepository.findById(id).map(existing -> {
+            boolean wasLowStock = Inventory.isLowStock(existing.getQuantity(), existing.getLowStockThreshold());
             existing.setItemName(updated.getItemName());
             existing.setUnitCost(updated.getUnitCost());
             existing.setNotes(updated.getNotes());
             existing.setLowStockThreshold(updated.getLowStockThreshold());
 
-            return inventoryRepository.save(existing);
+            Inventory saved = inventoryRepository.save(existing);
+            daySheetService.evictAllAfterCommit(); // item names appear on day sheets
+            publishIfCrossed(wasLowStock, existing); // a raised threshold can cross it too
+            inventoryForecastService.invalidateAfterCommit();
+            return saved;
         });
     }
 
@@ -96,9 +116,12 @@ public class InventoryService {
             log.setAmount(totalSpent);
             log.setDescription("Deleted inventory item '" + item.getItemName() + "' with " + quantity + " units remaining");
             financialLogRepository.save(log);
+            financialRollupService.recordCreated(log);
         }
 
         inventoryRepository.deleteById(id);
+        daySheetService.evictAllAfterCommit();
+        inventoryForecastService.invalidateAfterCommit();
         return true;
     }
 
@@ -112,8 +135,12 @@ public class InventoryService {
         Inventory item = optional.get();
         if (item.getQuantity() < amount) return false;
 
+        boolean wasLowStock = Inventory.isLowStock(item.getQuantity(), item.getLowStockThreshold());
         item.setQuantity(item.getQuantity() - amount);
-        return inventoryRepository.save(item) != null;
+        boolean saved = inventoryRepository.save(item) != null;
+        publishIfCrossed(wasLowStock, item);
+        inventoryForecastService.invalidateAfterCommit();
+        return saved;
     }
 
     // Add purchased stock to inventory item
@@ -144,7 +171,9 @@ public class InventoryService {
         log.setAmount(addedCost);
         log.setDescription("Added " + addedQty + " units of " + saved.getItemName());
         financialLogRepository.save(log);
+        financialRollupService.recordCreated(log);
 
+        inventoryForecastService.invalidateAfterCommit();
         return true;
     }
 
@@ -168,6 +197,7 @@ public class InventoryService {
 
         BigDecimal removedValue = unitCost.multiply(BigDecimal.valueOf(removedQty));
 
+        boolean wasLowStock = Inventory.isLowStock(currentQuantity, item.getLowStockThreshold());
         item.setQuantity(currentQuantity - removedQty);
         item.setTotalSpent(currentTotalSpent.subtract(removedValue).max(BigDecimal.ZERO));
 
@@ -181,8 +211,18 @@ public class InventoryService {
             log.setAmount(removedValue);
             log.setDescription("Removed " + removedQty + " units of " + saved.getItemName());
             financialLogRepository.save(log);
+            financialRollupService.recordCreated(log);
         }
 
+        publishIfCrossed(wasLowStock, item);
+        inventoryForecastService.invalidateAfterCommit();
         return true;
     }
-}
\ No newline at end of file
+
+    // Listeners run once the write commits (see InventoryLowStockEvent)
+    private void publishIfCrossed(boolean wasLowStock, Inventory item) {
+        InventoryLowStockEvent.crossing(wasLowStock, item.getItemId(), item.getItemName(),
+                item.getQuantity(), item.getLowStockThreshold())
+            .ifPresent(eventPublisher::publishEvent);
+    }
+}
@@ -1,6 +1,11 @@
 package com.tanyourpeach.backend.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +22,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static com.tanyourpeach.backend.security.JsonAuthHandlers.authenticationEntryPoint;
 
@@ -29,9 +37,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired(required = false)
     private ObjectMapper objectMapper;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // one timer per outcome: authenticated, anonymous, rejected
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
     // provide a safe fallback for unit tests that don't wire Spring beans
     private ObjectMapper om() {
         if (objectMapper == null) {
@@ -40,6 +57,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         return objectMapper;
     }
 
+    // Time spent in this filter only; the rest of the chain is excluded
+    private void record(long startNanos, String outcome) {
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+        timers.computeIfAbsent(outcome, o -> Timer.builder("security.jwt.filter")
+                .description("JWT authentication filter time")
+                .tag("outcome", o)
+                .register(registry))
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
     private static final AntPathMatcher PATHS = new AntPathMatcher();
     private static final String[] WHITELIST = {
         "/api/auth/**",
@@ -66,10 +93,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain)
                                     throws ServletException, IOException {
 
+        final long start = System.nanoTime();
         final String authHeader = request.getHeader("Authorization");
 
         // No bearer token → let the entry point handle it later if endpoint requires auth
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            record(start, "anonymous");
             filterChain.doFilter(request, response);
             return;
         }
@@ -77,6 +106,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7).trim();
 
         if (!StringUtils.hasText(jwt)) {
+            record(start, "rejected");
             authenticationEntryPoint(om())
                 .commence(request, response,
                     new InsufficientAuthenticationException("Missing bearer token"));
@@ -85,36 +115,58 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // If already authenticated, skip re-auth
         if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            record(start, "authenticated");
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Single verified parse; claims are reused for the validity check below
+            final Claims claims = jwtService.extractVerifiedClaims(jwt);
+            final String userEmail = claims != null ? claims.getSubject() : null;
             if (userEmail == null || userEmail.isBlank()) {
                 // invalid token: emit 401 JSON and stop
+                record(start, "rejected");
                 authenticationEntryPoint(om())
                     .commence(request, response,
                         new InsufficientAuthenticationException("Invalid token"));
                 return;
             }
 
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+            // Claims are signed, so email, id and role are trusted as issued; deletion, demotion and
+            // logout are caught by the in-memory revocation check instead of a per-request user query
+            UserDetails userDetails = jwtService.principalFrom(claims);
+            if (userDetails == null) {
+                // tokens issued before the user id was a claim still resolve through the user cache
+                userDetails = customUserDetailsService.loadUserByUsername(userEmail);
+            }
+            Long userId = userDetails instanceof AuthenticatedUser principal ? principal.getUserId() : null;
+
+            if (tokenRevocationService.isRevoked(claims, userId)) {
+                record(start, "rejected");
+                authenticationEntryPoint(om())
+                    .commence(request, response,
+                        new InsufficientAuthenticationException("Token has been revoked"));
+                return;
+            }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (jwtService.isTokenValid(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                record(start, "authenticated");
                 filterChain.doFilter(request, response);
             } else {
+                record(start, "rejected");
                 authenticationEntryPoint(om())
                     .commence(request, response,
                         new InsufficientAuthenticationException("Invalid or expired token"));
             }
         } catch (Exception ex) {
             // Covers parsing errors, expired tokens, malformed JWT, etc.
+            record(start, "rejected");
             authenticationEntryPoint(om())
                 .commence(request, response,
                     new InsufficientAuthenticationException("Invalid or expired token", ex));
@@ -1,7 +1,11 @@
 package com.tanyourpeach.backend.service;
 
+import com.tanyourpeach.backend.cache.BoundedTtlCache;
 import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -12,39 +16,85 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
+    static final String USER_ID_CLAIM = "userId";
+
+    static final String ADMIN_CLAIM = "isAdmin";
+
+    // "iat" only has whole seconds; revocation watermarks need the exact issue time
+    static final String ISSUED_AT_MS_CLAIM = "iatMs";
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration-ms:86400000}")
     private long expirationMs;
 
-    // Generate token with user info
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int claimsCacheMaxEntries = 10_000;
+
+    // Built once on first use; the secret never changes at runtime
+    private volatile Key signingKey;
+    private volatile JwtParser parser;
+    private volatile BoundedTtlCache<String, Claims> claimsCache;
+
+    // Generate token with user info; the id and role let the filter build the principal from claims alone
     public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("isAdmin", user.getIsAdmin());
+        claims.put(ADMIN_CLAIM, user.getIsAdmin());
+        if (user.getUserId() != null) {
+            claims.put(USER_ID_CLAIM, user.getUserId());
+        }
         return buildToken(claims, user.getEmail());
     }
 
-    // Generate token with extra claims
+    // Generate token with extra claims and a unique id (jti) that logout can revoke
     private String buildToken(Map<String, Object> extraClaims, String subject) {
+        long now = System.currentTimeMillis();
+        extraClaims.put(ISSUED_AT_MS_CLAIM, now);
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expirationMs))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // Principal straight from verified claims, or null for tokens issued before the user id was a claim
+    public AuthenticatedUser principalFrom(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        if (userId == null || claims.getSubject() == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, claims.getSubject(), null,
+                Boolean.TRUE.equals(claims.get(ADMIN_CLAIM, Boolean.class)));
+    }
+
+    // Issue time in epoch millis, falling back to the whole-second "iat" of older tokens
+    public static long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(ISSUED_AT_MS_CLAIM, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : 0L;
+    }
+
     // Extract token from request header
     public String extractToken(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
@@ -56,50 +106,115 @@ public class JwtService {
 
     // Extract username from token
     public String extractUsername(String token) {
-        try {
-            return extractClaim(token, Claims::getSubject);
-        } catch (Exception e) {
-            return null;
-        }
+        Claims claims = extractVerifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     // Extract user email from token
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verifiedClaims(token);
         return claimsResolver.apply(claims);
     }
 
+    // Verify signature and expiry once; repeat calls for the same token are served from cache.
+    // Returns null for malformed, tampered or expired tokens.
+    public Claims extractVerifiedClaims(String token) {
+        try {
+            return verifiedClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     // Validate token against user details
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
+        return isTokenValid(extractVerifiedClaims(token), userDetails);
+    }
+
+    // Validate already-verified claims against user details without re-parsing the token
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        if (claims == null || userDetails == null) return false;
+        final String username = claims.getSubject();
         return username != null
                 && username.equals(userDetails.getUsername())
-                && !isTokenExpired(token);
+                && !isTokenExpired(claims);
     }
 
     // Check if token is expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    // Parse and verify, caching the claims by token digest until the token itself expires
+    private Claims verifiedClaims(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Token is empty");
+        }
+
+        String digest = digest(token);
+        BoundedTtlCache<String, Claims> cache = claimsCache();
+        Claims cached = cache.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser().parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            cache.put(digest, claims, expiration.getTime());
+        }
+        return claims;
     }
 
-    // Extract expiration date from token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private JwtParser parser() {
+        JwtParser p = parser;
+        if (p == null) {
+            synchronized (this) {
+                if (parser == null) {
+                    parser = Jwts.parserBuilder().setSigningKey(getSignInKey()).build();
+                }
+                p = parser;
+            }
+        }
+        return p;
     }
 
-    // Extract all claims from token
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private BoundedTtlCache<String, Claims> claimsCache() {
+        BoundedTtlCache<String, Claims> c = claimsCache;
+        if (c == null) {
+            synchronized (this) {
+                if (claimsCache == null) {
+                    claimsCache = new BoundedTtlCache<>(claimsCacheMaxEntries, expirationMs);
+                }
+                c = claimsCache;
+            }
+        }
+        return c;
+    }
+
+    // SHA-256 of the raw token so the cache never holds usable bearer tokens
+    private static String digest(String token) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     // Get signing key for token generation
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        Key k = signingKey;
+        if (k == null) {
+            synchronized (this) {
+                if (signingKey == null) {
+                    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+                    signingKey = Keys.hmacShaKeyFor(keyBytes);
+                }
+                k = signingKey;
+            }
+        }
+        return k;
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.tanyourpeach.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Default low-stock alert: a warning once the write that crossed the threshold has committed.
+// Writes outside a transaction (fallbackExecution) are reported straight away.
+@Component
+public class LowStockAlertListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlertListener.class);
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLowStock(InventoryLowStockEvent event) {
+        log.warn("Inventory item {} ({}) is low on stock: {} left, threshold {}",
+                event.itemId(), event.itemName(), event.quantity(), event.lowStockThreshold());
+    }
+}
@@ -0,0 +1,111 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.model.OutboxEvent;
+import com.tanyourpeach.backend.model.Receipt;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.repository.OutboxEventRepository;
+import com.tanyourpeach.backend.repository.ReceiptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Applies one outbox event per transaction. The event row is locked and marked DONE in the same
+// transaction as its side effects, so an event is applied exactly once even if it is retried,
+// the worker crashes midway, or two workers pick it up together. Inventory is not one of the
+// side effects: the confirm call deducts it under lock in the transaction that writes the event,
+// so a confirmed appointment has its stock whether or not its event has been applied yet.
+@Service
+public class OutboxProcessor {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private FinancialLogRepository financialLogRepository;
+
+    @Autowired
+    private FinancialRollupService financialRollupService;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DaySheetService daySheetService;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${outbox.retry-base-delay-ms:5000}")
+    private long retryBaseDelayMs = 5000;
+
+    // Returns false if the event was already handled elsewhere
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean process(Long eventId) {
+        Optional<OutboxEvent> eventOpt = outboxEventRepository.findByEventIdForUpdate(eventId);
+        if (eventOpt.isEmpty() || eventOpt.get().getStatus() != OutboxEvent.Status.PENDING) return false;
+        OutboxEvent event = eventOpt.get();
+
+        switch (event.getEventType()) {
+            case APPOINTMENT_CONFIRMED -> applyConfirmation(event);
+        }
+
+        event.setStatus(OutboxEvent.Status.DONE);
+        event.setAttempts(event.getAttempts() + 1);
+        event.setProcessedAt(LocalDateTime.now());
+        event.setLastError(null);
+        outboxEventRepository.save(event);
+        return true;
+    }
+
+    // Runs after process() rolled back; schedules a retry with exponential backoff, or gives up
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordFailure(Long eventId, String error) {
+        outboxEventRepository.findByEventIdForUpdate(eventId).ifPresent(event -> {
+            if (event.getStatus() != OutboxEvent.Status.PENDING) return;
+
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxEvent.Status.FAILED);
+            } else {
+                long delayMs = retryBaseDelayMs << Math.min(attempts - 1, 16);
+                event.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000));
+            }
+            outboxEventRepository.save(event);
+        });
+    }
+
+    private void applyConfirmation(OutboxEvent event) {
+        // Revenue
+        FinancialLog log = new FinancialLog();
+        log.setType(FinancialLog.Type.revenue);
+        log.setSource("appointment");
+        log.setReferenceId(event.getAppointmentId());
+        log.setAmount(event.getAmount());
+        log.setDescription("Confirmed appointment for " + event.getClientName());
+        financialLogRepository.save(log);
+        financialRollupService.recordCreated(log);
+
+        // Receipt, once per appointment; skipped if the appointment was deleted in the meantime
+        if (receiptRepository.findByAppointment_AppointmentId(event.getAppointmentId()) == null
+                && appointmentRepository.existsById(event.getAppointmentId())) {
+            Receipt receipt = new Receipt();
+            receipt.setAppointment(appointmentRepository.getReferenceById(event.getAppointmentId()));
+            receipt.setTotalAmount(event.getAmount());
+            receipt.setPaymentMethod("Unpaid");
+            receiptRepository.save(receipt);
+            daySheetService.evictAfterCommit(receipt.getAppointment().getAppointmentDateTime());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Drains outbox_events in the background, a batch of due ids at a time.
+// Each event is applied in its own transaction by OutboxProcessor, so one bad event
+// is retried on its own without holding back or rolling back the rest of the batch.
+// DONE rows are purged once they are older than the retention period, so the table only
+// grows with pending and failed events.
+@Component
+public class OutboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxWorker.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxProcessor outboxProcessor;
+
+    @Value("${outbox.worker.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${outbox.retention-ms:604800000}")
+    private long retentionMs = 604_800_000;
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:1000}")
+    public void poll() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    // Applies every event that is due now; returns how many were applied
+    public int drain() {
+        int applied = 0;
+        List<Long> due;
+        do {
+            due = outboxEventRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            int failed = 0;
+            for (Long eventId : due) {
+                try {
+                    if (outboxProcessor.process(eventId)) applied++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("Outbox event {} failed: {}", eventId, e.getMessage());
+                    outboxProcessor.recordFailure(eventId, e.getMessage());
+                }
+            }
+            // a batch made only of failures is rescheduled, so stop rather than spin on it
+            if (failed == due.size()) break;
+        } while (due.size() == batchSize);
+        return applied;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeProcessed() {
+        if (enabled) {
+            int purged = outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minusNanos(retentionMs * 1_000_000));
+            if (purged > 0) {
+                log.info("Purged {} processed outbox events", purged);
+            }
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.tanyourpeach.backend.service;
 
+import com.tanyourpeach.backend.dto.ReceiptSummary;
 import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.Receipt;
 import com.tanyourpeach.backend.repository.AppointmentRepository;
 import com.tanyourpeach.backend.repository.ReceiptRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ReceiptService {
@@ -21,6 +27,11 @@ public class ReceiptService {
     @Autowired
     private AppointmentRepository appointmentRepository;
 
+    @Autowired
+    private DaySheetService daySheetService;
+
+    static final int MAX_BULK_LOOKUP = 500;
+
     // Get all receipts
     public List<Receipt> getAllReceipts() {
         return receiptRepository.findAll();
@@ -36,6 +47,22 @@ public class ReceiptService {
         return Optional.ofNullable(receiptRepository.findByAppointment_AppointmentId(appointmentId));
     }
 
+    // Receipts for a batch of appointments; appointments without one are simply absent.
+    // A null email means an admin lookup across all clients.
+    public List<ReceiptSummary> getReceiptsByAppointmentIds(Collection<Long> appointmentIds, String email) {
+        if (appointmentIds.size() > MAX_BULK_LOOKUP) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_BULK_LOOKUP + " appointment ids per lookup");
+        }
+        Set<Long> ids = new LinkedHashSet<>(appointmentIds);
+        ids.remove(null);
+        if (ids.isEmpty()) return List.of();
+
+        return email == null
+                ? receiptRepository.findSummariesByAppointmentIds(ids)
+                : receiptRepository.findSummariesByAppointmentIdsAndClientEmail(ids, email);
+    }
+
     // Create a new receipt for a specific appointment
     public Optional<Receipt> createReceipt(Long appointmentId, Receipt receiptData) {
         Optional<Appointment> appointmentOpt = appointmentRepository.findById(appointmentId);
@@ -50,7 +77,9 @@ public class ReceiptService {
             }
         }
 
-        return Optional.of(receiptRepository.save(receiptData));
+        Receipt saved = receiptRepository.save(receiptData);
+        daySheetService.evictAfterCommit(appointmentOpt.get().getAppointmentDateTime());
+        return Optional.of(saved);
     }
 
     // Update an existing receipt
@@ -61,7 +90,11 @@ public class ReceiptService {
             if (updated.getTotalAmount() != null) {
                 existing.setTotalAmount(updated.getTotalAmount());
             }
-            return receiptRepository.save(existing);
+            Receipt saved = receiptRepository.save(existing);
+            if (existing.getAppointment() != null) {
+                daySheetService.evictAfterCommit(existing.getAppointment().getAppointmentDateTime());
+            }
+            return saved;
         });
     }
 
@@ -69,6 +102,8 @@ public class ReceiptService {
     public boolean deleteReceipt(Long id) {
         if (!receiptRepository.existsById(id)) return false;
         receiptRepository.deleteById(id);
+        // the receipt's day is not known without loading it, and deletes are rare
+        daySheetService.evictAllAfterCommit();
         return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.dto.ServiceResponseDto;
+import com.tanyourpeach.backend.model.ServiceType;
+import com.tanyourpeach.backend.model.TanService;
+import com.tanyourpeach.backend.repository.TanServiceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+// Already-serialized JSON for the public catalog views, each with a strong ETag.
+// The whole snapshot is rebuilt on the first read after invalidate(), so a warm read
+// does no database or Jackson work. TanServiceService invalidates it on every write;
+// the TTL only bounds staleness across instances.
+@Component
+public class ServiceCatalogCache {
+
+    // One pre-rendered response body
+    public record CachedJson(byte[] body, String etag) {}
+
+    private record Snapshot(CachedJson mainServices,
+                            CachedJson addOns,
+                            Map<Long, CachedJson> byId,
+                            Map<String, CachedJson> bySlug,
+                            long expiresAt) {}
+
+    private final TanServiceRepository serviceRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Bumped by invalidate(); a load that raced with a write is used once but not published
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ServiceCatalogCache(TanServiceRepository serviceRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${catalog.cache.ttl-ms:300000}") long ttlMs) {
+        this(serviceRepository, objectMapper, ttlMs, System::currentTimeMillis);
+    }
+
+    ServiceCatalogCache(TanServiceRepository serviceRepository, ObjectMapper objectMapper, long ttlMs, LongSupplier clock) {
+        this.serviceRepository = serviceRepository;
+        this.objectMapper = objectMapper;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    public CachedJson mainServices() {
+        return current().mainServices();
+    }
+
+    public CachedJson addOns() {
+        return current().addOns();
+    }
+
+    // Active service by id, or null if there is none
+    public CachedJson activeById(Long id) {
+        return current().byId().get(id);
+    }
+
+    // Active service by slug, or null if there is none
+    public CachedJson activeBySlug(String slug) {
+        return current().bySlug().get(slug);
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot.get();
+        if (s != null && s.expiresAt() > clock.getAsLong()) {
+            return s;
+        }
+
+        long loadGeneration = generation.get();
+        Snapshot loaded = load();
+        if (generation.get() == loadGeneration) {
+            snapshot.compareAndSet(s, loaded);
+        }
+        return loaded;
+    }
+
+    private Snapshot load() {
+        List<TanService> mains = serviceRepository
+                .findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE);
+        List<TanService> addOns = serviceRepository
+                .findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.ADD_ON);
+
+        Map<Long, CachedJson> byId = new HashMap<>();
+        Map<String, CachedJson> bySlug = new HashMap<>();
+        for (List<TanService> group : List.of(mains, addOns)) {
+            for (TanService service : group) {
+                CachedJson json = render(new ServiceResponseDto(service));
+                byId.put(service.getServiceId(), json);
+                if (service.getSlug() != null) {
+                    bySlug.put(service.getSlug(), json);
+                }
+            }
+        }
+
+        return new Snapshot(
+                render(mains.stream().map(ServiceResponseDto::new).toList()),
+                render(addOns.stream().map(ServiceResponseDto::new).toList()),
+                Map.copyOf(byId),
+                Map.copyOf(bySlug),
+                clock.getAsLong() + ttlMs);
+    }
+
+    private CachedJson render(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            return new CachedJson(body, etagOf(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize service catalog", e);
+        }
+    }
+
+    // Strong validator: a hash of the exact bytes that are sent
+    static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored; "*" matches anything
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -23,6 +23,12 @@ public class ServiceInventoryUsageService {
     @Autowired
     private InventoryRepository inventoryRepository;
 
+    @Autowired
+    private DaySheetService daySheetService;
+
+    @Autowired
+    private InventoryForecastService inventoryForecastService;
+
     // Get all service-inventory usage records
     public List<ServiceInventoryUsage> getAllUsages() {
         return usageRepository.findAll();
@@ -60,7 +66,10 @@ public class ServiceInventoryUsageService {
         usage.setService(serviceOpt.get());
         usage.setItem(itemOpt.get());
 
-        return Optional.of(usageRepository.save(usage));
+        ServiceInventoryUsage saved = usageRepository.save(usage);
+        daySheetService.evictAllAfterCommit();
+        inventoryForecastService.invalidateAfterCommit();
+        return Optional.of(saved);
     }
 
     // Update the quantity used for a specific service-inventory usage record
@@ -73,7 +82,10 @@ public class ServiceInventoryUsageService {
 
         ServiceInventoryUsage usage = usageOpt.get();
         usage.setQuantityUsed(newQuantityUsed);
-        return Optional.of(usageRepository.save(usage));
+        ServiceInventoryUsage saved = usageRepository.save(usage);
+        daySheetService.evictAllAfterCommit();
+        inventoryForecastService.invalidateAfterCommit();
+        return Optional.of(saved);
     }
 
     // Delete a service-inventory usage record
@@ -81,6 +93,8 @@ public class ServiceInventoryUsageService {
         ServiceInventoryUsageKey key = new ServiceInventoryUsageKey(serviceId, itemId);
         if (!usageRepository.existsById(key)) return false;
         usageRepository.deleteById(key);
+        daySheetService.evictAllAfterCommit();
+        inventoryForecastService.invalidateAfterCommit();
         return true;
     }
 }
\ No newline at end of file
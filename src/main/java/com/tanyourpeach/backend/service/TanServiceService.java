@@ -17,9 +17,14 @@ import java.util.Optional;
 public class TanServiceService {
 
     private final TanServiceRepository serviceRepository;
+    private final ServiceCatalogCache catalogCache;
+    private final DaySheetService daySheetService;
 
-    public TanServiceService(TanServiceRepository serviceRepository) {
+    public TanServiceService(TanServiceRepository serviceRepository, ServiceCatalogCache catalogCache,
+                             DaySheetService daySheetService) {
         this.serviceRepository = serviceRepository;
+        this.catalogCache = catalogCache;
+        this.daySheetService = daySheetService;
     }
 
     public List<ServiceResponseDto> getActiveMainServices() {
@@ -64,7 +69,9 @@ public class TanServiceService {
         TanService service = new TanService();
         applyRequest(service, request);
 
-        return new ServiceResponseDto(serviceRepository.save(service));
+        TanService saved = serviceRepository.save(service);
+        catalogCache.invalidate();
+        return new ServiceResponseDto(saved);
     }
 
     public Optional<ServiceResponseDto> updateService(Long id, ServiceUpdateRequest request) {
@@ -79,7 +86,10 @@ public class TanServiceService {
         TanService existing = existingOpt.get();
         applyRequest(existing, request);
 
-        return Optional.of(new ServiceResponseDto(serviceRepository.save(existing)));
+        TanService saved = serviceRepository.save(existing);
+        catalogCache.invalidate();
+        daySheetService.evictAllAfterCommit(); // names and durations are copied into day sheets
+        return Optional.of(new ServiceResponseDto(saved));
     }
 
     public boolean deactivateService(Long id) {
@@ -92,6 +102,7 @@ public class TanServiceService {
         TanService service = optional.get();
         service.setIsActive(false);
         serviceRepository.save(service);
+        catalogCache.invalidate();
         return true;
     }
 
@@ -101,6 +112,8 @@ public class TanServiceService {
         }
 
         serviceRepository.deleteById(id);
+        catalogCache.invalidate();
+        daySheetService.evictAllAfterCommit();
         return true;
     }
 
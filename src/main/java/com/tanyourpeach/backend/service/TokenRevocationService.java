@@ -0,0 +1,139 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.TokenRevocation;
+import com.tanyourpeach.backend.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Lets the JWT filter trust verified claims without loading the user on every request.
+// Revoked token ids and per-user "issued before" watermarks are kept in memory; the
+// token_revocations table is the source of truth across nodes, and each node reloads the
+// rows written since its last poll. A revocation made here applies at once on this node
+// and within one reload interval on the others. Entries are dropped once every token they
+// cover has expired, so the sets stay as small as the number of live revocations.
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.expiration-ms:86400000}")
+    private long tokenLifetimeMs = 86_400_000;
+
+    // Re-read this far behind the last reload, for rows that committed late or on a node with a slower clock
+    @Value("${token-revocation.reload-overlap-ms:10000}")
+    private long reloadOverlapMs = 10_000;
+
+    // jti -> expiry of the revoked token (epoch ms)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // userId -> that user's tokens issued before this instant are revoked (epoch ms)
+    private final Map<Long, Long> userWatermarks = new ConcurrentHashMap<>();
+
+    // null until the first full load
+    private volatile LocalDateTime loadedThrough;
+
+    @PostConstruct
+    void loadOnStartup() {
+        reload();
+    }
+
+    // True if this token was logged out, or issued before its user was deleted or changed
+    public boolean isRevoked(Claims claims, Long userId) {
+        String jti = claims.getId();
+        if (jti != null && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        if (userId == null) {
+            return false;
+        }
+        Long watermark = userWatermarks.get(userId);
+        return watermark != null && JwtService.issuedAtMillis(claims) < watermark;
+    }
+
+    // Logout: only this token, until it would have expired anyway
+    @Transactional
+    public void revokeToken(String jti, Date expiresAt) {
+        LocalDateTime now = now();
+        TokenRevocation row = new TokenRevocation();
+        row.setJti(jti);
+        row.setRevokedAt(now);
+        row.setExpiresAt(toLocal(expiresAt.getTime()));
+        apply(tokenRevocationRepository.save(row));
+    }
+
+    // Every token issued to this user so far; a token lives at most tokenLifetimeMs, so the row can go after that
+    @Transactional
+    public void revokeUser(Long userId) {
+        LocalDateTime now = now();
+        TokenRevocation row = new TokenRevocation();
+        row.setUserId(userId);
+        row.setRevokedAt(now);
+        row.setExpiresAt(now.plus(tokenLifetimeMs, ChronoUnit.MILLIS));
+        apply(tokenRevocationRepository.save(row));
+    }
+
+    // Not @Transactional on purpose: one read, and no connection held between polls
+    @Scheduled(fixedDelayString = "${token-revocation.reload-interval-ms:2000}")
+    public void reload() {
+        LocalDateTime now = now();
+        LocalDateTime since = loadedThrough;
+        List<TokenRevocation> rows = since == null
+                ? tokenRevocationRepository.findByExpiresAtAfter(now)
+                : tokenRevocationRepository.findByRevokedAtAfter(since.minus(reloadOverlapMs, ChronoUnit.MILLIS));
+        rows.forEach(this::apply);
+        loadedThrough = now;
+
+        long nowMs = toEpochMs(now);
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= nowMs);
+        userWatermarks.values().removeIf(watermark -> watermark + tokenLifetimeMs <= nowMs);
+    }
+
+    @Scheduled(fixedDelayString = "${token-revocation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        tokenRevocationRepository.deleteExpired(now());
+    }
+
+    public void evictAll() {
+        revokedTokens.clear();
+        userWatermarks.clear();
+    }
+
+    // Rows are applied idempotently, so the reload overlap can see the same row twice
+    private void apply(TokenRevocation row) {
+        if (row.getJti() != null) {
+            revokedTokens.put(row.getJti(), toEpochMs(row.getExpiresAt()));
+        }
+        if (row.getUserId() != null) {
+            userWatermarks.merge(row.getUserId(), toEpochMs(row.getRevokedAt()), Math::max);
+        }
+    }
+
+    // Millisecond precision, matching the column and the token's issued-at claim
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static long toEpochMs(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault());
+    }
+}
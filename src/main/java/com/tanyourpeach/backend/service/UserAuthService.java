@@ -3,17 +3,19 @@ package com.tanyourpeach.backend.service;
 import com.tanyourpeach.backend.dto.AuthenticationRequest;
 import com.tanyourpeach.backend.dto.AuthenticationResponse;
 import com.tanyourpeach.backend.dto.RegisterRequest;
+import com.tanyourpeach.backend.exception.TooManyRequestsException;
 import com.tanyourpeach.backend.model.User;
 import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.web.TokenBucketLimiter;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Optional;
+
 @Service
 public class UserAuthService {
 
@@ -24,10 +26,15 @@ public class UserAuthService {
     private JwtService jwtService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private TokenRevocationService tokenRevocationService;
+
+    // Absent when rate-limit.enabled=false
+    @Autowired(required = false)
+    @Qualifier("loginAccountLimiter")
+    private TokenBucketLimiter loginAccountLimiter;
 
     // REGISTER
     public AuthenticationResponse register(RegisterRequest request) {
@@ -43,14 +50,16 @@ public class UserAuthService {
         if (request.getAddress() == null || request.getAddress().trim().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Address is required");
         }
-        if (userRepository.findByEmail(request.getEmail()).isPresent()) {
+        // Stored the way login looks it up (and createUser/updateUser store it)
+        String email = request.getEmail().trim().toLowerCase();
+        if (userRepository.findByEmail(email).isPresent()) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
         }
 
         User user = new User();
         user.setName(request.getName());
-        user.setEmail(request.getEmail());
-        user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+        user.setEmail(email);
+        user.setPasswordHash(passwordHashingService.encode(request.getPassword()));
         user.setAddress(request.getAddress());
         user.setIsAdmin(false);
 
@@ -60,23 +69,49 @@ public class UserAuthService {
         return new AuthenticationResponse(jwtToken);
     }
 
-    // LOGIN
+    // LOGIN: one user lookup, then the password check on the hashing pool
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-        } catch (AuthenticationException e) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password");
+        String email = request.getEmail() != null ? request.getEmail().trim().toLowerCase() : "";
+        String password = request.getPassword() != null ? request.getPassword() : "";
+
+        // Checked before the password hash is verified, which is the expensive part
+        if (loginAccountLimiter != null && !email.isEmpty()) {
+            long waitNanos = loginAccountLimiter.tryAcquire(email);
+            if (waitNanos > 0) {
+                throw new TooManyRequestsException("Too many login attempts",
+                        TokenBucketLimiter.retryAfterSeconds(waitNanos));
+            }
         }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.UNAUTHORIZED,
-                        "Invalid email or password"
-                ));
+        Optional<User> user = email.isEmpty() ? Optional.empty() : userRepository.findByEmail(email);
+        if (user.isEmpty()) {
+            passwordHashingService.matchesNothing(password);
+            throw invalidCredentials();
+        }
+        if (!passwordHashingService.matches(password, user.get().getPasswordHash())) {
+            throw invalidCredentials();
+        }
 
-        String jwtToken = jwtService.generateToken(user);
+        String jwtToken = jwtService.generateToken(user.get());
         return new AuthenticationResponse(jwtToken);
     }
+
+    // LOGOUT: revoke the presented token on every node; other sessions of the same user stay signed in
+    public void logout(String token) {
+        Claims claims = jwtService.extractVerifiedClaims(token);
+        if (claims == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid or expired token");
+        }
+        if (claims.getId() != null) {
+            tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+            return;
+        }
+        // tokens from before token ids existed can only be revoked together
+        userRepository.findByEmail(claims.getSubject())
+                .ifPresent(user -> tokenRevocationService.revokeUser(user.getUserId()));
+    }
+
+    private static ResponseStatusException invalidCredentials() {
+        return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid email or password");
+    }
 }
\ No newline at end of file
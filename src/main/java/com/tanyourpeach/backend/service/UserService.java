@@ -8,7 +8,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
 
@@ -19,7 +18,13 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -39,7 +44,7 @@ public class UserService {
         User user = new User();
         user.setName(dto.getName().trim());
         user.setEmail(email);
-        user.setPasswordHash(passwordEncoder.encode(dto.getPassword().trim()));
+        user.setPasswordHash(passwordHashingService.encode(dto.getPassword().trim()));
         user.setAddress(dto.getAddress());
         user.setIsAdmin(Boolean.TRUE.equals(dto.getIsAdmin()));
 
@@ -50,6 +55,7 @@ public class UserService {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
+        String oldEmail = user.getEmail();
         String newEmail = dto.getEmail().trim().toLowerCase();
         if (!user.getEmail().equalsIgnoreCase(newEmail)
                 && userRepository.findByEmail(newEmail).isPresent()) {
@@ -58,17 +64,33 @@ public class UserService {
 
         user.setName(dto.getName().trim());
         user.setEmail(newEmail);
-        user.setPasswordHash(passwordEncoder.encode(dto.getPassword().trim()));
+        // The API sends the password with every profile edit; keep the stored hash when it is the same one
+        String password = dto.getPassword().trim();
+        boolean passwordChanged = !passwordHashingService.matches(password, user.getPasswordHash());
+        if (passwordChanged) {
+            user.setPasswordHash(passwordHashingService.encode(password));
+        }
+        boolean wasAdmin = Boolean.TRUE.equals(user.getIsAdmin());
         user.setAddress(dto.getAddress());
         user.setIsAdmin(Boolean.TRUE.equals(dto.getIsAdmin()));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+
+        // cached principals for both addresses are now stale (password/role/email)
+        customUserDetailsService.evictUser(oldEmail);
+        customUserDetailsService.evictUser(newEmail);
+        // existing tokens carry the old email and role; a name or address edit leaves them valid
+        if (passwordChanged || !oldEmail.equals(newEmail) || wasAdmin != Boolean.TRUE.equals(saved.getIsAdmin())) {
+            tokenRevocationService.revokeUser(saved.getUserId());
+        }
+        return saved;
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        userRepository.delete(user);
+        customUserDetailsService.evictUser(user.getEmail());
+        tokenRevocationService.revokeUser(user.getUserId());
     }
 }
\ No newline at end of file
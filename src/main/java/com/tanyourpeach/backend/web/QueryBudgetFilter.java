@@ -0,0 +1,116 @@
+package com.tanyourpeach.backend.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Counts the SQL statements each request runs and warns when a route goes over budget.
+// With headers enabled (non-prod) the running count is sent as X-Query-Count / X-Query-Time;
+// headers go out when the body is first written, so lazy loads during serialization only show in the log.
+public final class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-Query-Time";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final int maxStatements;
+    private final boolean exposeHeaders;
+
+    public QueryBudgetFilter(int maxStatements, boolean exposeHeaders) {
+        this.maxStatements = maxStatements;
+        this.exposeHeaders = exposeHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Scope scope = QueryCounter.open();
+        try {
+            if (exposeHeaders) {
+                QueryHeaderResponse wrapped = new QueryHeaderResponse(response, scope);
+                chain.doFilter(request, wrapped);
+                wrapped.writeHeaders();
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            scope.close();
+            if (scope.count() > maxStatements) {
+                log.warn("{} {} ran {} SQL statements in {} ms (budget {})",
+                        request.getMethod(), route(request), scope.count(), scope.millis(), maxStatements);
+            }
+        }
+    }
+
+    // Route template when Spring MVC matched one, so warnings group by endpoint rather than by id
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    // Adds the query headers just before the response is committed
+    private static final class QueryHeaderResponse extends HttpServletResponseWrapper {
+
+        private final QueryCounter.Scope scope;
+        private boolean written;
+
+        QueryHeaderResponse(HttpServletResponse response, QueryCounter.Scope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) return;
+            written = true;
+            setHeader(COUNT_HEADER, Integer.toString(scope.count()));
+            setHeader(TIME_HEADER, Long.toString(scope.millis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
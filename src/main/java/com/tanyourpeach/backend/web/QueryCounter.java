@@ -0,0 +1,53 @@
+package com.tanyourpeach.backend.web;
+
+// Per-thread count and time of JDBC statements issued through Hibernate.
+// A scope is opened per request by QueryBudgetFilter (or by a test); scopes nest,
+// and a statement is added to every scope that is open on the thread.
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // Called by QueryCountingListener after each statement or batch
+    static void record(long nanos) {
+        for (Scope s = CURRENT.get(); s != null; s = s.parent) {
+            s.count++;
+            s.nanos += nanos;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private int count;
+        private long nanos;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public long millis() {
+            return nanos / 1_000_000;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) CURRENT.remove();
+                else CURRENT.set(parent);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tanyourpeach.backend.web;
+
+import org.hibernate.SessionEventListener;
+
+// Hibernate creates one instance per session (hibernate.session.events.auto, see QueryBudgetConfig).
+// Each executed statement or JDBC batch counts once towards the open QueryCounter scopes.
+public class QueryCountingListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryCounter.record(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryCounter.record(System.nanoTime() - batchStart);
+    }
+}
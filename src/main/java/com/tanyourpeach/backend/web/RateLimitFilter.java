@@ -0,0 +1,62 @@
+package com.tanyourpeach.backend.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.security.JsonAuthHandlers;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+// Per-client-IP admission control for the anonymous write routes (booking, login, register).
+// Runs ahead of Spring Security, so a refused request never reaches JWT parsing, the database
+// or the password encoder. The client is request.getRemoteAddr(); behind a proxy that relies on
+// server.forward-headers-strategy, never on a raw X-Forwarded-For a client could forge.
+public final class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    // One limited route: exact method and path, with its own buckets
+    public record Rule(String method, String path, TokenBucketLimiter limiter) {}
+
+    private final List<Rule> rules;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(List<Rule> rules, ObjectMapper objectMapper) {
+        this.rules = List.copyOf(rules);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Rule rule = match(request);
+        if (rule != null) {
+            long waitNanos = rule.limiter().tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                log.info("Rate limited {} {} from {}", rule.method(), rule.path(), request.getRemoteAddr());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(TokenBucketLimiter.retryAfterSeconds(waitNanos)));
+                JsonAuthHandlers.writeError(response, request, objectMapper, HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private Rule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Rule rule : rules) {
+            if (rule.method().equalsIgnoreCase(request.getMethod()) && rule.path().equals(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
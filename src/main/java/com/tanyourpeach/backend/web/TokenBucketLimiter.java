@@ -0,0 +1,85 @@
+package com.tanyourpeach.backend.web;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets keyed by client (an IP address or an account), each a single lock-free AtomicLong.
+// A bucket stores the instant it will be full again (the GCRA form of a token bucket): taking a
+// token pushes that instant one refill interval later, and a request is refused when that would put
+// it more than `capacity` intervals ahead of now. A bucket whose instant has passed is full and
+// carries no state, so a periodic sweep drops it; memory stays bounded however many addresses churn.
+public class TokenBucketLimiter {
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final int maxKeys;
+    private final long sweepIntervalNanos;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // Shared by clients that arrive while the table is full of active buckets
+    private final AtomicLong overflow;
+    private final AtomicLong nextSweepAt;
+
+    public TokenBucketLimiter(int capacity, int refillPerMinute, int maxKeys) {
+        this(capacity, refillPerMinute, maxKeys, System::nanoTime);
+    }
+
+    public TokenBucketLimiter(int capacity, int refillPerMinute, int maxKeys, LongSupplier nanoClock) {
+        if (capacity <= 0 || refillPerMinute <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("capacity, refillPerMinute and maxKeys must be positive");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+        this.maxKeys = maxKeys;
+        this.sweepIntervalNanos = Math.max(capacity * intervalNanos, TimeUnit.SECONDS.toNanos(1));
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.overflow = new AtomicLong(now);
+        this.nextSweepAt = new AtomicLong(now + sweepIntervalNanos);
+    }
+
+    // Takes a token for the key: 0 if the request may go ahead, otherwise nanos until one is available
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.size() < maxKeys ? buckets.computeIfAbsent(key, k -> new AtomicLong(now)) : overflow;
+        }
+
+        long burst = capacity * intervalNanos;
+        while (true) {
+            long fullAt = bucket.get();
+            long next = (fullAt - now < 0 ? now : fullAt) + intervalNanos;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Whole seconds for a Retry-After header, rounded up so a client that waits that long gets in
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // One caller per interval wins the CAS and drops every bucket that has refilled completely
+    private void sweepIfDue(long now) {
+        long due = nextSweepAt.get();
+        if (now - due < 0 || !nextSweepAt.compareAndSet(due, now + sweepIntervalNanos)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+}
@@ -0,0 +1,13 @@
+-- Idempotency-Key values seen on POST /api/appointments, written in the booking transaction.
+-- A retry with the same key is answered from response_body instead of booking again.
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    response_body MEDIUMTEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+-- The hourly purge of expired keys
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
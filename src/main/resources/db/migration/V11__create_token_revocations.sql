@@ -0,0 +1,17 @@
+-- Revoked JWTs, read by every node into memory and reloaded incrementally by revoked_at.
+-- A row carries either one token id (logout) or a user id whose tokens issued before
+-- revoked_at are all revoked (account deleted, or its email, password or role changed).
+CREATE TABLE token_revocations (
+    revocation_id BIGINT NOT NULL AUTO_INCREMENT,
+    jti VARCHAR(36) DEFAULT NULL,
+    user_id BIGINT DEFAULT NULL,
+    revoked_at TIMESTAMP(3) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (revocation_id)
+);
+
+-- The incremental reload
+CREATE INDEX idx_token_revocations_revoked_at ON token_revocations (revoked_at);
+
+-- The startup load and the hourly purge, once every token a row covers has expired
+CREATE INDEX idx_token_revocations_expires_at ON token_revocations (expires_at);
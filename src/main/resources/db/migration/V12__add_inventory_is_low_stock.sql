@@ -0,0 +1,8 @@
+-- Low-stock state as a stored generated column, so the dashboard reads an index instead of
+-- comparing two columns on every row. MySQL keeps it current on every write, including the
+-- bulk deduction in deductUsageForService. A NULL threshold leaves it NULL (never low).
+ALTER TABLE inventory
+    ADD COLUMN is_low_stock BOOLEAN AS (quantity <= low_stock_threshold) STORED;
+
+CREATE INDEX idx_inventory_is_low_stock
+    ON inventory (is_low_stock);
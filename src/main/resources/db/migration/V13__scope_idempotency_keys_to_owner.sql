@@ -0,0 +1,7 @@
+-- Idempotency keys are scoped to whoever sent them ("user:<id>" or "guest:<email>"), so two
+-- clients picking the same key no longer collide. Rows stored before this have an empty owner,
+-- match no lookup and are purged once they expire.
+ALTER TABLE idempotency_keys
+    ADD COLUMN owner VARCHAR(110) NOT NULL DEFAULT '' FIRST,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (owner, idempotency_key);
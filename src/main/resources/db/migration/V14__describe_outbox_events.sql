@@ -0,0 +1,5 @@
+-- Corrects V7's description, which can no longer be edited: OutboxWorker applies only the revenue
+-- log and the receipt. Inventory is deducted under lock in the confirm transaction that writes the
+-- event. The table comment keeps that description on the schema itself.
+ALTER TABLE outbox_events
+    COMMENT = 'Confirmation side effects applied after commit by OutboxWorker: revenue log and receipt. Inventory is deducted in the confirm transaction.';
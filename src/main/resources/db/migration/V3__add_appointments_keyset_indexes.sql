@@ -0,0 +1,7 @@
+-- Keyset pagination for the admin appointment list walks (appointment_date, appointment_id)
+CREATE INDEX idx_appointments_date_id
+    ON appointments (appointment_date, appointment_id);
+
+-- Same walk when the list is filtered by status
+CREATE INDEX idx_appointments_status_date_id
+    ON appointments (status, appointment_date, appointment_id);
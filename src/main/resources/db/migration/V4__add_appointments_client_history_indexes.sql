@@ -0,0 +1,6 @@
+-- "My appointments" looks up one customer's history by email or account, ordered by date
+CREATE INDEX idx_appointments_client_email_date_id
+    ON appointments (client_email, appointment_date, appointment_id);
+
+CREATE INDEX idx_appointments_user_date_id
+    ON appointments (user_id, appointment_date, appointment_id);
@@ -0,0 +1,19 @@
+-- Per-month totals of financial_log so the admin dashboard reads a handful of rows
+CREATE TABLE financial_monthly_rollup (
+    rollup_month CHAR(7) NOT NULL,
+    type ENUM('revenue', 'expense') NOT NULL,
+    source VARCHAR(100) NOT NULL DEFAULT '',
+    total_amount DECIMAL(14,2) NOT NULL DEFAULT 0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (rollup_month, type, source)
+);
+
+-- Backfill from the existing log; later writes keep it current
+INSERT INTO financial_monthly_rollup (rollup_month, type, source, total_amount, entry_count)
+SELECT DATE_FORMAT(COALESCE(log_date, CURRENT_TIMESTAMP), '%Y-%m'),
+       type,
+       COALESCE(source, ''),
+       SUM(amount),
+       COUNT(*)
+FROM financial_log
+GROUP BY DATE_FORMAT(COALESCE(log_date, CURRENT_TIMESTAMP), '%Y-%m'), type, COALESCE(source, '');
@@ -0,0 +1,7 @@
+-- Per-day slot lookups (overlap index warm-up) and the date-range booking query
+CREATE INDEX idx_availabilities_date_start
+    ON availabilities (date, start_time);
+
+-- Free slots for a date window, already in display order
+CREATE INDEX idx_availabilities_booked_date_start
+    ON availabilities (is_booked, date, start_time);
@@ -0,0 +1,21 @@
+-- Side effects of a status change, written in the same transaction as the change and
+-- applied later by OutboxWorker (inventory deduction, revenue log, receipt)
+CREATE TABLE outbox_events (
+    event_id BIGINT NOT NULL AUTO_INCREMENT,
+    event_type VARCHAR(50) NOT NULL,
+    appointment_id BIGINT NOT NULL,
+    service_id BIGINT NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    client_name VARCHAR(100) DEFAULT NULL,
+    status ENUM('PENDING', 'DONE', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500) DEFAULT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP NULL DEFAULT NULL,
+    PRIMARY KEY (event_id)
+);
+
+-- The worker's poll: due pending events, oldest first
+CREATE INDEX idx_outbox_events_status_next_attempt
+    ON outbox_events (status, next_attempt_at, event_id);
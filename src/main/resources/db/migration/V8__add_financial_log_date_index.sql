@@ -0,0 +1,3 @@
+-- Date-range export walks the log in (log_date, log_id) order without sorting it first
+CREATE INDEX idx_financial_log_date
+    ON financial_log (log_date, log_id);
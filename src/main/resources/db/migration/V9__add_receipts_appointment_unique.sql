@@ -0,0 +1,8 @@
+-- At most one receipt per appointment, so the per-appointment lookups are unique point reads.
+-- Fails if duplicates already exist; find them with
+--   SELECT appointment_id, COUNT(*) FROM receipts GROUP BY appointment_id HAVING COUNT(*) > 1;
+CREATE UNIQUE INDEX uk_receipts_appointment_id
+    ON receipts (appointment_id);
+
+-- The unique index now backs the foreign key, so the old plain index is redundant
+DROP INDEX appointment_id ON receipts;
@@ -0,0 +1,88 @@
+package com.tanyourpeach.backend.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    private AtomicLong now;
+    private BoundedTtlCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000L);
+        cache = new BoundedTtlCache<>(3, 100L, now::get);
+    }
+
+    @Test
+    void get_shouldReturnValue_beforeDefaultTtlElapses() {
+        cache.put("a", "1");
+        now.addAndGet(99);
+
+        assertEquals("1", cache.get("a"));
+    }
+
+    @Test
+    void get_shouldEvictEntry_afterDefaultTtlElapses() {
+        cache.put("a", "1");
+        now.addAndGet(100);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_withExplicitExpiry_shouldHonorEntryExpiry() {
+        cache.put("a", "1", 1_500L);
+        now.set(1_499L);
+        assertEquals("1", cache.get("a"));
+
+        now.set(1_500L);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void put_shouldIgnoreAlreadyExpiredEntriesAndNullValues() {
+        cache.put("a", "1", 999L);
+        cache.put("b", null);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsed_whenFull() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a"); // touch a so b becomes eldest
+
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("1", cache.get("a"));
+        assertEquals("4", cache.get("d"));
+    }
+
+    @Test
+    void invalidate_shouldRemoveSingleEntryAndAll() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.get("b"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTtlCache<>(0, 100L));
+    }
+}
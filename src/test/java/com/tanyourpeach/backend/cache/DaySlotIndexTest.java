@@ -0,0 +1,74 @@
+package com.tanyourpeach.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaySlotIndexTest {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static int at(int hour, int minute) {
+        return hour * 3600 + minute * 60;
+    }
+
+    private static DaySlotIndex day(long[] ids, int... startsAndEnds) {
+        int[] starts = new int[ids.length];
+        int[] ends = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            starts[i] = startsAndEnds[2 * i];
+            ends[i] = startsAndEnds[2 * i + 1];
+        }
+        return DaySlotIndex.of(ids, starts, ends);
+    }
+
+    @Test
+    void overlaps_shouldDetectIntersections_butNotTouchingEdges() {
+        DaySlotIndex day = day(new long[] {1L, 2L}, at(10, 0), at(11, 0), at(13, 0), at(14, 0));
+
+        assertTrue(day.overlaps(at(10, 30), at(11, 30), NONE));
+        assertTrue(day.overlaps(at(9, 0), at(15, 0), NONE));
+        assertTrue(day.overlaps(at(13, 15), at(13, 45), NONE));
+        assertFalse(day.overlaps(at(11, 0), at(13, 0), NONE));
+        assertFalse(day.overlaps(at(9, 0), at(10, 0), NONE));
+        assertFalse(day.overlaps(at(14, 0), at(15, 0), NONE));
+    }
+
+    @Test
+    void overlaps_shouldIgnoreExcludedSlot() {
+        DaySlotIndex day = day(new long[] {1L, 2L}, at(10, 0), at(11, 0), at(11, 0), at(12, 0));
+
+        assertFalse(day.overlaps(at(10, 15), at(10, 45), 1L));
+        assertTrue(day.overlaps(at(10, 15), at(11, 15), 1L));
+    }
+
+    @Test
+    void overlaps_shouldFindLongEarlierSlot_whenLaterSlotsEndSooner() {
+        // legacy data may already overlap; a long early slot must still be found
+        DaySlotIndex day = day(new long[] {1L, 2L}, at(8, 0), at(18, 0), at(9, 0), at(9, 30));
+
+        assertTrue(day.overlaps(at(16, 0), at(17, 0), NONE));
+    }
+
+    @Test
+    void of_shouldRejectSlotsOutOfStartOrder() {
+        assertThrows(IllegalArgumentException.class,
+                () -> day(new long[] {1L, 2L}, at(14, 0), at(15, 0), at(9, 0), at(10, 0)));
+        assertThrows(IllegalArgumentException.class,
+                () -> DaySlotIndex.of(new long[] {1L}, new int[0], new int[0]));
+    }
+
+    @Test
+    void of_shouldCopyArraysAndShareEmptyInstance() {
+        long[] ids = {1L};
+        int[] starts = {at(10, 0)};
+        int[] ends = {at(11, 0)};
+        DaySlotIndex day = DaySlotIndex.of(ids, starts, ends);
+        starts[0] = at(20, 0);
+        ends[0] = at(21, 0);
+
+        assertEquals(1, day.size());
+        assertTrue(day.overlaps(at(10, 0), at(11, 0), NONE));
+        assertSame(DaySlotIndex.empty(), DaySlotIndex.of(new long[0], new int[0], new int[0]));
+    }
+}
@@ -1,8 +1,22 @@
 package com.tanyourpeach.backend.controller;
 
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.Availability;
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.model.Inventory;
+import com.tanyourpeach.backend.model.Receipt;
+import com.tanyourpeach.backend.model.ServiceInventoryUsage;
+import com.tanyourpeach.backend.model.TanService;
 import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.repository.AvailabilityRepository;
+import com.tanyourpeach.backend.repository.InventoryRepository;
+import com.tanyourpeach.backend.repository.TanServiceRepository;
 import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.service.AppointmentService;
+import com.tanyourpeach.backend.service.FinancialLogService;
 import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.ReceiptService;
+import com.tanyourpeach.backend.service.ServiceInventoryUsageService;
 import com.tanyourpeach.backend.util.TestDataCleaner;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +27,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static com.tanyourpeach.backend.util.QueryCountAssertions.assertMaxQueries;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -33,6 +54,27 @@ class AdminStatsControllerIntegrationTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private FinancialLogService financialLogService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private TanServiceRepository tanServiceRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ServiceInventoryUsageService usageService;
+
+    @Autowired
+    private ReceiptService receiptService;
+
     private String adminToken;
     
     private String userToken;
@@ -80,6 +122,154 @@ class AdminStatsControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].profit").exists());
     }
 
+    @Test
+    void getSummary_shouldReflectLogsRecordedThroughService() throws Exception {
+        FinancialLog revenue = new FinancialLog();
+        revenue.setType(FinancialLog.Type.revenue);
+        revenue.setSource("manual");
+        revenue.setAmount(new BigDecimal("120.00"));
+        financialLogService.createLog(revenue);
+
+        FinancialLog expense = new FinancialLog();
+        expense.setType(FinancialLog.Type.expense);
+        expense.setSource("inventory");
+        expense.setAmount(new BigDecimal("20.00"));
+        FinancialLog savedExpense = financialLogService.createLog(expense);
+        financialLogService.deleteLog(savedExpense.getLogId());
+
+        mockMvc.perform(get("/api/admin/stats/summary")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRevenue").value(120.0))
+                .andExpect(jsonPath("$.totalExpenses").value(0.0))
+                .andExpect(jsonPath("$.totalProfit").value(120.0));
+    }
+
+    @Test
+    void rebuildFinancialRollup_shouldReturnRowCountForAdmin() throws Exception {
+        FinancialLog log = new FinancialLog();
+        log.setType(FinancialLog.Type.revenue);
+        log.setSource("manual");
+        log.setAmount(new BigDecimal("50.00"));
+        financialLogService.createLog(log);
+
+        mockMvc.perform(post("/api/admin/stats/rollup/rebuild")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rollupRows").value(1));
+
+        mockMvc.perform(post("/api/admin/stats/rollup/rebuild")
+                .header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getAppointmentCounts_shouldFollowWrites_withoutQueryingTheTable() throws Throwable {
+        TanService service = new TanService();
+        service.setName("Glow Up");
+        service.setBasePrice(50.0);
+        service.setDurationMinutes(30);
+        service.setIsActive(true);
+        service = tanServiceRepository.save(service);
+
+        appointmentService.createAppointment(booking(service, 9)).orElseThrow();
+        Appointment removed = appointmentService.createAppointment(booking(service, 10)).orElseThrow();
+        appointmentService.deleteAppointment(removed.getAppointmentId());
+
+        Long serviceId = service.getServiceId();
+        assertMaxQueries(0, () -> mockMvc.perform(get("/api/admin/stats/appointments")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.guestAppointments").value(1))
+                .andExpect(jsonPath("$.registeredAppointments").value(0))
+                .andExpect(jsonPath("$.byStatus.PENDING").value(1))
+                .andExpect(jsonPath("$.byStatus.CONFIRMED").value(0))
+                .andExpect(jsonPath("$.byService['" + serviceId + "']").value(1)));
+
+        mockMvc.perform(get("/api/admin/stats/appointments")
+                .header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getDaySheet_shouldServeOneCachedDocument_andFollowReceiptChanges() throws Throwable {
+        TanService service = new TanService();
+        service.setName("Glow Up");
+        service.setBasePrice(50.0);
+        service.setDurationMinutes(30);
+        service.setIsActive(true);
+        service = tanServiceRepository.save(service);
+
+        Inventory solution = new Inventory();
+        solution.setItemName("Solution");
+        solution.setQuantity(10);
+        solution = inventoryRepository.save(solution);
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setService(service);
+        usage.setItem(solution);
+        usage.setQuantityUsed(2);
+        usageService.createUsage(usage).orElseThrow();
+
+        Appointment first = appointmentService.createAppointment(booking(service, 9)).orElseThrow();
+        appointmentService.createAppointment(booking(service, 11)).orElseThrow();
+        Receipt receipt = new Receipt();
+        receipt.setPaymentMethod("Unpaid");
+        receipt = receiptService.createReceipt(first.getAppointmentId(), receipt).orElseThrow();
+
+        String url = "/api/admin/stats/day-sheet/" + LocalDate.now().plusDays(1);
+        // appointments, receipts, usages
+        String etag = assertMaxQueries(3, () -> mockMvc.perform(get(url)
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.appointmentCount").value(2))
+                .andExpect(jsonPath("$.paidCount").value(0))
+                .andExpect(jsonPath("$.appointments[0].serviceName").value("Glow Up"))
+                .andExpect(jsonPath("$.appointments[0].receipt.paymentMethod").value("Unpaid"))
+                .andExpect(jsonPath("$.appointments[1].receipt").doesNotExist())
+                .andExpect(jsonPath("$.inventory[0].itemName").value("Solution"))
+                .andExpect(jsonPath("$.inventory[0].requiredQuantity").value(4)))
+            .andReturn().getResponse().getHeader("ETag");
+
+        assertMaxQueries(0, () -> mockMvc.perform(get(url)
+                .header("Authorization", adminToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified()));
+
+        Receipt paid = new Receipt();
+        paid.setPaymentMethod("Card");
+        receiptService.updateReceipt(receipt.getReceiptId(), paid).orElseThrow();
+
+        mockMvc.perform(get(url)
+                .header("Authorization", adminToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paidCount").value(1))
+                .andExpect(jsonPath("$.appointments[0].paid").value(true));
+
+        mockMvc.perform(get(url)
+                .header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private Appointment booking(TanService service, int hour) {
+        Availability slot = new Availability();
+        slot.setDate(LocalDate.now().plusDays(1));
+        slot.setStartTime(LocalTime.of(hour, 0));
+        slot.setEndTime(LocalTime.of(hour, 30));
+        slot.setIsBooked(false);
+        slot = availabilityRepository.save(slot);
+
+        Appointment appointment = new Appointment();
+        appointment.setService(service);
+        appointment.setAvailability(slot);
+        appointment.setClientName("Guest");
+        appointment.setClientEmail("guest@example.com");
+        appointment.setClientAddress("1 Peach St");
+        return appointment;
+    }
+
     @Test
     void getUpcomingAppointments_shouldReturnOkForAdmin() throws Exception {
         mockMvc.perform(get("/api/admin/stats/upcoming")
@@ -1,13 +1,15 @@
 package com.tanyourpeach.backend.controller;
 
 import com.tanyourpeach.backend.dto.AdminDashboardSummary;
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.dto.MonthlyStats;
-import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.Inventory;
-import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.dto.AppointmentCounts;
 import com.tanyourpeach.backend.service.AdminStatsService;
-import com.tanyourpeach.backend.service.JwtService;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.service.AppointmentService;
+import com.tanyourpeach.backend.service.DaySheetService;
+import com.tanyourpeach.backend.service.ServiceCatalogCache.CachedJson;
+import com.tanyourpeach.backend.security.CurrentUser;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +20,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 
-import jakarta.servlet.http.HttpServletRequest;
-
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,50 +34,45 @@ class AdminStatsControllerTest {
     private AdminStatsService adminStatsService;
 
     @Mock
-    private JwtService jwtService;
+    private AppointmentService appointmentService;
 
     @Mock
-    private UserRepository userRepository;
+    private DaySheetService daySheetService;
 
     @Mock
-    private HttpServletRequest request;
+    private CurrentUser currentUser;
 
     @InjectMocks
     private AdminStatsController controller;
 
-    private final String jwtToken = "Bearer mocktoken";
     private final String email = "admin@example.com";
-    private User adminUser;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        adminUser = new User();
-        adminUser.setEmail(email);
-        adminUser.setIsAdmin(true);
     }
 
     @Test
     void getSummary_shouldReturn200_ifAdmin() {
         AdminDashboardSummary summaryMock = mock(AdminDashboardSummary.class);
 
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(adminStatsService.getDashboardSummary()).thenReturn(summaryMock);
 
-        ResponseEntity<?> response = controller.getSummary(request);
+        ResponseEntity<?> response = controller.getSummary();
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(summaryMock, response.getBody());
     }
 
     @Test
     void getSummary_shouldReturn403_ifTokenMissing() {
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getSummary(request)
+                () -> controller.getSummary()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -83,11 +80,12 @@ class AdminStatsControllerTest {
 
     @Test
     void getSummary_shouldReturn403_ifTokenMalformed() {
-        when(request.getHeader("Authorization")).thenReturn("badformat");
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getSummary(request)
+                () -> controller.getSummary()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -95,13 +93,12 @@ class AdminStatsControllerTest {
 
     @Test
     void getSummary_shouldReturn403_ifNotAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(new User()));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getSummary(request)
+                () -> controller.getSummary()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -109,13 +106,12 @@ class AdminStatsControllerTest {
 
     @Test
     void getSummary_shouldReturn403_ifEmailNotFound() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getSummary(request)
+                () -> controller.getSummary()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -125,25 +121,23 @@ class AdminStatsControllerTest {
     void getMonthlyStats_shouldReturn200_ifAdmin() {
         List<MonthlyStats> monthlyMock = List.of(mock(MonthlyStats.class));
 
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(adminStatsService.getLastFourMonthsStats()).thenReturn(monthlyMock);
 
-        ResponseEntity<?> response = controller.getMonthlyStats(request);
+        ResponseEntity<?> response = controller.getMonthlyStats();
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(monthlyMock, response.getBody());
     }
 
     @Test
     void getMonthlyStats_shouldReturn403_ifNotAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(new User()));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getMonthlyStats(request)
+                () -> controller.getMonthlyStats()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -151,27 +145,25 @@ class AdminStatsControllerTest {
 
     @Test
     void getUpcomingAppointments_shouldReturn200_ifAdmin() {
-        List<Appointment> upcomingMock = List.of(mock(Appointment.class));
+        List<AppointmentSummary> upcomingMock = List.of(mock(AppointmentSummary.class));
 
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(adminStatsService.getUpcomingAppointments()).thenReturn(upcomingMock);
 
-        ResponseEntity<?> response = controller.getUpcomingAppointments(request);
+        ResponseEntity<?> response = controller.getUpcomingAppointments();
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(upcomingMock, response.getBody());
     }
 
     @Test
     void getUpcomingAppointments_shouldReturn403_ifNotAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(new User()));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getUpcomingAppointments(request)
+                () -> controller.getUpcomingAppointments()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -181,27 +173,94 @@ class AdminStatsControllerTest {
     void getLowStockItems_shouldReturn200_ifAdmin() {
         List<Inventory> lowStockMock = List.of(mock(Inventory.class));
 
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(adminStatsService.getLowStockInventory()).thenReturn(lowStockMock);
 
-        ResponseEntity<?> response = controller.getLowStockItems(request);
+        ResponseEntity<?> response = controller.getLowStockItems();
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(lowStockMock, response.getBody());
     }
 
     @Test
     void getLowStockItems_shouldReturn403_ifNotAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(new User()));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getLowStockItems(request)
+                () -> controller.getLowStockItems()
         );
 
         assertEquals("Access denied", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAppointmentCounts_shouldReturn200_ifAdmin() {
+        AppointmentCounts counts = new AppointmentCounts(1, 1, 0, Map.of("PENDING", 1L), Map.of(2L, 1L));
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(appointmentService.getAppointmentCounts()).thenReturn(counts);
+
+        ResponseEntity<?> response = controller.getAppointmentCounts();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(counts, response.getBody());
+    }
+
+    @Test
+    void getAppointmentCounts_shouldReturn403_ifNotAdmin() {
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller.getAppointmentCounts());
+        verifyNoInteractions(appointmentService);
+    }
+
+    @Test
+    void getDaySheet_shouldReturnBodyWithEtag_ifAdmin() {
+        LocalDate date = LocalDate.of(2026, 10, 17);
+        byte[] body = "{\"date\":\"2026-10-17\"}".getBytes(StandardCharsets.UTF_8);
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(daySheetService.getDaySheet(date)).thenReturn(new CachedJson(body, "\"abc\""));
+
+        ResponseEntity<byte[]> response = controller.getDaySheet(date, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc\"", response.getHeaders().getETag());
+        assertArrayEquals(body, response.getBody());
+    }
+
+    @Test
+    void getDaySheet_shouldReturn304_whenEtagMatches() {
+        LocalDate date = LocalDate.of(2026, 10, 17);
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(daySheetService.getDaySheet(date)).thenReturn(new CachedJson(new byte[] {'{', '}'}, "\"abc\""));
+
+        ResponseEntity<byte[]> response = controller.getDaySheet(date, "\"abc\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void getDaySheet_shouldReturn403_ifNotAdmin() {
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller.getDaySheet(LocalDate.now(), null));
+        verifyNoInteractions(daySheetService);
+    }
+
+    @Test
+    void rebuildFinancialRollup_shouldReturnRowCount_ifAdmin() {
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(adminStatsService.rebuildFinancialRollup()).thenReturn(3);
+
+        ResponseEntity<?> response = controller.rebuildFinancialRollup();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Map.of("rollupRows", 3), response.getBody());
+    }
+
+    @Test
+    void rebuildFinancialRollup_shouldReturn403_ifNotAdmin() {
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller.rebuildFinancialRollup());
+        verify(adminStatsService, never()).rebuildFinancialRollup();
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tanyourpeach.backend.model.*;
 import com.tanyourpeach.backend.repository.*;
 import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.OutboxWorker;
 import com.tanyourpeach.backend.util.TestDataCleaner;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
+import static com.tanyourpeach.backend.util.QueryCountAssertions.assertMaxQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -69,6 +71,12 @@ class AppointmentControllerIntegrationTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private OutboxWorker outboxWorker;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
     private String adminToken;
 
     private String userToken;
@@ -135,7 +143,8 @@ class AppointmentControllerIntegrationTest {
 
         // Save appointment first, without linking the availability
         appointment.setAvailability(availability);
-        appointment = appointmentRepository.save(appointment);
+        // keep the local instance: the merged copy holds lazy proxies that cannot be serialized as a request body
+        appointmentRepository.save(appointment);
 
         availabilityRepository.save(availability);
     }
@@ -149,6 +158,25 @@ class AppointmentControllerIntegrationTest {
         return "Bearer " + jwtService.generateToken(user);
     }
 
+    private Appointment saveAppointmentAt(LocalDateTime dateTime, Appointment.Status status) {
+        Availability slot = new Availability();
+        slot.setDate(dateTime.toLocalDate());
+        slot.setStartTime(LocalTime.of(9, 0));
+        slot.setEndTime(LocalTime.of(9, 30));
+        slot.setIsBooked(true);
+        slot = availabilityRepository.save(slot);
+
+        Appointment extra = new Appointment();
+        extra.setService(service);
+        extra.setClientName("Paged Client");
+        extra.setClientEmail("paged@example.com");
+        extra.setClientAddress("456 Peach St");
+        extra.setAppointmentDateTime(dateTime);
+        extra.setStatus(status);
+        extra.setAvailability(slot);
+        return appointmentRepository.save(extra);
+    }
+
     // ---------- GET /api/appointments (admin only) ----------
 
     @Test
@@ -171,6 +199,78 @@ class AppointmentControllerIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void getAllAppointments_shouldWalkPagesWithCursor() throws Exception {
+        saveAppointmentAt(LocalDateTime.now().plusDays(3), Appointment.Status.CONFIRMED);
+        saveAppointmentAt(LocalDateTime.now().plusDays(4), Appointment.Status.PENDING);
+
+        String firstPage = mockMvc.perform(get("/api/appointments")
+                .param("limit", "2")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].appointmentId").value(appointment.getAppointmentId()))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/appointments")
+                .param("limit", "2")
+                .param("cursor", cursor)
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void getAllAppointments_shouldNotIssueQueriesPerRow() throws Throwable {
+        for (int i = 0; i < 10; i++) {
+            saveAppointmentAt(LocalDateTime.now().plusDays(3 + i), Appointment.Status.CONFIRMED);
+        }
+
+        assertMaxQueries(3, () -> mockMvc.perform(get("/api/appointments")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void getAllAppointments_shouldFilterByStatusAndDateRange() throws Exception {
+        saveAppointmentAt(LocalDateTime.now().plusDays(3), Appointment.Status.CONFIRMED);
+        saveAppointmentAt(LocalDateTime.now().plusDays(10), Appointment.Status.CONFIRMED);
+
+        mockMvc.perform(get("/api/appointments")
+                .param("status", "CONFIRMED")
+                .param("from", LocalDate.now().toString())
+                .param("to", LocalDate.now().plusDays(5).toString())
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("CONFIRMED"));
+    }
+
+    @Test
+    void getAllAppointments_shouldReturnFlatSummaries() throws Exception {
+        saveAppointmentAt(LocalDateTime.now().plusDays(3), Appointment.Status.CONFIRMED);
+
+        mockMvc.perform(get("/api/appointments")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].serviceId").value(service.getServiceId()))
+                .andExpect(jsonPath("$.items[0].serviceName").value(service.getName()))
+                .andExpect(jsonPath("$.items[0].slotId").isNumber())
+                .andExpect(jsonPath("$.items[0].service").doesNotExist());
+    }
+
+    @Test
+    void getAllAppointments_shouldReturnBadRequestForInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/appointments")
+                .param("cursor", "garbage")
+                .header("Authorization", adminToken))
+                .andExpect(status().isBadRequest());
+    }
+
     // ---------- GET /api/appointments/{id} ----------
 
     @Test
@@ -217,7 +317,65 @@ class AppointmentControllerIntegrationTest {
         mockMvc.perform(get("/api/appointments/my-appointments")
                 .header("Authorization", userToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items.length()").value(1));
+    }
+
+    @Test
+    void getUserAppointments_shouldSplitUpcomingAndPast() throws Exception {
+        Appointment past = saveAppointmentAt(LocalDateTime.now().minusDays(7), Appointment.Status.CONFIRMED);
+        past.setClientEmail(user.getEmail());
+        appointmentRepository.save(past);
+        saveAppointmentAt(LocalDateTime.now().plusDays(5), Appointment.Status.PENDING); // someone else's
+
+        mockMvc.perform(get("/api/appointments/my-appointments")
+                .param("scope", "upcoming")
+                .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].appointmentId").value(appointment.getAppointmentId()));
+
+        mockMvc.perform(get("/api/appointments/my-appointments")
+                .param("scope", "past")
+                .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].appointmentId").value(past.getAppointmentId()));
+    }
+
+    @Test
+    void getUserAppointments_shouldPageWithCursor() throws Exception {
+        Appointment later = saveAppointmentAt(LocalDateTime.now().plusDays(6), Appointment.Status.PENDING);
+        later.setClientEmail(user.getEmail());
+        appointmentRepository.save(later);
+
+        String firstPage = mockMvc.perform(get("/api/appointments/my-appointments")
+                .param("limit", "1")
+                .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].appointmentId").value(later.getAppointmentId()))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/api/appointments/my-appointments")
+                .param("limit", "1")
+                .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText())
+                .header("Authorization", userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].appointmentId").value(appointment.getAppointmentId()))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+    }
+
+    @Test
+    void getUserAppointments_shouldNotIssueQueriesPerRow() throws Throwable {
+        for (int i = 0; i < 10; i++) {
+            Appointment extra = saveAppointmentAt(LocalDateTime.now().plusDays(3 + i), Appointment.Status.PENDING);
+            extra.setClientEmail(user.getEmail());
+            appointmentRepository.save(extra);
+        }
+
+        assertMaxQueries(3, () -> mockMvc.perform(get("/api/appointments/my-appointments")
+                .header("Authorization", userToken))
+                .andExpect(status().isOk()));
     }
 
     @Test
@@ -298,6 +456,130 @@ class AppointmentControllerIntegrationTest {
             .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createAppointment_shouldReplayOriginalResponse_forSameIdempotencyKey() throws Exception {
+        String body = objectMapper.writeValueAsString(newBooking("retry@example.com"));
+
+        String first = mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-1")
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"))
+            .andReturn().getResponse().getContentAsString();
+
+        // the slot is booked now, so without the key this retry would be a 400
+        String replay = mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-1")
+                .content(body))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Idempotent-Replayed", "true"))
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(replay)).isEqualTo(objectMapper.readTree(first));
+        assertThat(appointmentRepository.findAll())
+            .filteredOn(a -> a.getClientEmail().equals("retry@example.com"))
+            .hasSize(1);
+    }
+
+    @Test
+    void createAppointment_shouldReturn422_whenIdempotencyKeyReusedForDifferentRequest() throws Exception {
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-2")
+                .content(objectMapper.writeValueAsString(newBooking("same@example.com"))))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-2")
+                .content(objectMapper.writeValueAsString(newBooking("same@example.com"))))
+            .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void createAppointment_shouldKeepIdempotencyKeysApart_forDifferentGuests() throws Exception {
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-4")
+                .content(objectMapper.writeValueAsString(newBooking("first@example.com"))))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-4")
+                .content(objectMapper.writeValueAsString(newBooking("second@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        assertThat(idempotencyKeyRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void createAppointment_shouldReuseIdempotencyKey_whoseRowExpiredButWasNotPurged() throws Exception {
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-5")
+                .content(objectMapper.writeValueAsString(newBooking("expired@example.com"))))
+            .andExpect(status().isOk());
+
+        IdempotencyKey stored = idempotencyKeyRepository.findAll().get(0);
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        idempotencyKeyRepository.save(stored);
+
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-5")
+                .content(objectMapper.writeValueAsString(newBooking("expired@example.com"))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        assertThat(idempotencyKeyRepository.findAll()).singleElement()
+            .satisfies(row -> assertThat(row.getExpiresAt()).isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void createAppointment_shouldNotStoreKey_whenBookingFails() throws Exception {
+        Appointment invalid = newBooking("fail@example.com");
+        invalid.setClientAddress(" ");
+
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "booking-3")
+                .content(objectMapper.writeValueAsString(invalid)))
+            .andExpect(status().isBadRequest());
+
+        assertThat(idempotencyKeyRepository.count()).isZero();
+    }
+
+    @Test
+    void createAppointment_shouldReturn400_whenIdempotencyKeyTooLong() throws Exception {
+        mockMvc.perform(post("/api/appointments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", "k".repeat(101))
+                .content(objectMapper.writeValueAsString(newBooking("long@example.com"))))
+            .andExpect(status().isBadRequest());
+    }
+
+    private Appointment newBooking(String clientEmail) {
+        Availability slot = new Availability();
+        slot.setDate(LocalDate.now().plusDays(4));
+        slot.setStartTime(LocalTime.of(10, 0));
+        slot.setEndTime(LocalTime.of(10, 30));
+        slot.setIsBooked(false);
+        availabilityRepository.save(slot);
+
+        Appointment booking = new Appointment();
+        booking.setService(service);
+        booking.setClientName("Retry Client");
+        booking.setClientEmail(clientEmail);
+        booking.setClientAddress("789 Retry Ln");
+        booking.setAppointmentDateTime(LocalDateTime.of(slot.getDate(), slot.getStartTime()));
+        booking.setAvailability(slot);
+        return booking;
+    }
+
     // ---------- PUT /api/appointments/{id} ----------
 
     @Test
@@ -332,6 +614,9 @@ class AppointmentControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("CONFIRMED"));
 
+        // Side effects are applied by the outbox worker after the confirmation commits
+        outboxWorker.drain();
+
         // Receipt should be created
         Receipt receipt = receiptRepository.findByAppointment_AppointmentId(appointment.getAppointmentId());
         assertThat(receipt).isNotNull();
@@ -368,7 +653,7 @@ class AppointmentControllerIntegrationTest {
         serviceInventoryUsageRepository.save(usage);
 
         appointment.setStatus(Appointment.Status.PENDING);
-        appointment = appointmentRepository.save(appointment);
+        appointmentRepository.save(appointment);
         appointment.setStatus(Appointment.Status.CONFIRMED);
 
         mockMvc.perform(put("/api/appointments/" + appointment.getAppointmentId())
@@ -437,6 +722,7 @@ class AppointmentControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(appointment)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.status").value("CONFIRMED"));
+        outboxWorker.drain();
 
         Receipt receipt = receiptRepository.findByAppointment_AppointmentId(appointment.getAppointmentId());
         assertThat(receipt).isNotNull();
@@ -470,7 +756,7 @@ class AppointmentControllerIntegrationTest {
     @Test
     void updateAppointment_shouldReturnForbidden_whenOwnerTriesToCancelConfirmedAppointment() throws Exception {
         appointment.setStatus(Appointment.Status.CONFIRMED);
-        appointment = appointmentRepository.save(appointment);
+        appointmentRepository.save(appointment);
 
         appointment.setStatus(Appointment.Status.CANCELLED);
 
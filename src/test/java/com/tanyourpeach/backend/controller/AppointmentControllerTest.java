@@ -1,12 +1,14 @@
 package com.tanyourpeach.backend.controller;
 
+import com.tanyourpeach.backend.dto.AppointmentPage;
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.model.Appointment;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.model.IdempotencyKeyId;
 import com.tanyourpeach.backend.service.AppointmentService;
-import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.IdempotencyService;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
 
-import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -31,36 +33,22 @@ class AppointmentControllerTest {
     private AppointmentService appointmentService;
 
     @Mock
-    private JwtService jwtService;
+    private IdempotencyService idempotencyService;
 
     @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private HttpServletRequest request;
+    private CurrentUser currentUser;
 
     @InjectMocks
     private AppointmentController controller;
 
-    private final String jwtToken = "Bearer mocktoken";
     private final String email = "user@example.com";
     private final String adminEmail = "admin@example.com";
-    private User adminUser;
-    private User normalUser;
     private Appointment testAppointment;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        adminUser = new User();
-        adminUser.setEmail(adminEmail);
-        adminUser.setIsAdmin(true);
-
-        normalUser = new User();
-        normalUser.setEmail(email);
-        normalUser.setIsAdmin(false);
-
         testAppointment = new Appointment();
         testAppointment.setAppointmentId(1L);
         testAppointment.setClientEmail(email);
@@ -68,24 +56,24 @@ class AppointmentControllerTest {
 
     @Test
     void getAllAppointments_shouldReturn200_ifAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(adminEmail);
-        when(userRepository.findByEmail(adminEmail)).thenReturn(Optional.of(adminUser));
-        when(appointmentService.getAllAppointments()).thenReturn(List.of(testAppointment));
+        when(currentUser.email()).thenReturn(adminEmail);
+        when(currentUser.isAdmin()).thenReturn(true);
+        AppointmentPage page = new AppointmentPage(List.of(mock(AppointmentSummary.class)), null);
+        when(appointmentService.getAppointmentPage(null, null, null, null, null, null)).thenReturn(page);
 
-        ResponseEntity<?> response = controller.getAllAppointments(request);
+        ResponseEntity<?> response = controller.getAllAppointments(null, null, null, null, null, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
     }
 
     @Test
     void getAllAppointments_shouldReturn403_ifNotAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllAppointments(request)
+                () -> controller.getAllAppointments(null, null, null, null, null, null)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -93,11 +81,12 @@ class AppointmentControllerTest {
 
     @Test
     void getAllAppointments_shouldReturn403_ifTokenMalformed() {
-        when(request.getHeader("Authorization")).thenReturn("BadTokenFormat");
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllAppointments(request)
+                () -> controller.getAllAppointments(null, null, null, null, null, null)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -105,17 +94,12 @@ class AppointmentControllerTest {
 
     @Test
     void getAllAppointments_shouldReturn403_ifUserIsAdminNull() {
-        User nullAdmin = new User();
-        nullAdmin.setEmail(adminEmail);
-        nullAdmin.setIsAdmin(null);  // explicitly null
-
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(adminEmail);
-        when(userRepository.findByEmail(adminEmail)).thenReturn(Optional.of(nullAdmin));
+        when(currentUser.email()).thenReturn(adminEmail);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllAppointments(request)
+                () -> controller.getAllAppointments(null, null, null, null, null, null)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -123,12 +107,11 @@ class AppointmentControllerTest {
 
     @Test
     void getAllAppointments_shouldReturn403_ifTokenInvalid() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenThrow(new RuntimeException("invalid token"));
+        when(currentUser.email()).thenReturn(null);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllAppointments(request)
+                () -> controller.getAllAppointments(null, null, null, null, null, null)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -137,10 +120,9 @@ class AppointmentControllerTest {
     @Test
     void getAppointmentById_shouldReturn200_ifOwner() {
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
+        when(currentUser.email()).thenReturn(email);
 
-        ResponseEntity<?> response = controller.getAppointmentById(1L, request);
+        ResponseEntity<?> response = controller.getAppointmentById(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -148,11 +130,10 @@ class AppointmentControllerTest {
     void getAppointmentById_shouldReturn200_ifAdmin() {
         testAppointment.setClientEmail("someone@example.com");
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(adminEmail);
-        when(userRepository.findByEmail(adminEmail)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(adminEmail);
+        when(currentUser.isAdmin()).thenReturn(true);
 
-        ResponseEntity<?> response = controller.getAppointmentById(1L, request);
+        ResponseEntity<?> response = controller.getAppointmentById(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -160,13 +141,12 @@ class AppointmentControllerTest {
     void getAppointmentById_shouldReturn403_ifNotOwnerOrAdmin() {
         testAppointment.setClientEmail("someone@example.com");
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAppointmentById(1L, request)
+                () -> controller.getAppointmentById(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -175,11 +155,12 @@ class AppointmentControllerTest {
     @Test
     void getAppointmentById_shouldReturn403_ifTokenMissing() {
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAppointmentById(1L, request)
+                () -> controller.getAppointmentById(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -191,7 +172,7 @@ class AppointmentControllerTest {
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getAppointmentById(1L, request)
+                () -> controller.getAppointmentById(1L)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
@@ -200,25 +181,38 @@ class AppointmentControllerTest {
 
     @Test
     void getUserAppointments_shouldReturnAppointmentsForUser() {
-        Appointment a2 = new Appointment();
-        a2.setClientEmail("someone@example.com");
-        when(appointmentService.getAllAppointments()).thenReturn(List.of(testAppointment, a2));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
+        AppointmentPage page = new AppointmentPage(List.of(mock(AppointmentSummary.class)), null);
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.get()).thenReturn(Optional.of(new AuthenticatedUser(5L, email, "hash", false)));
+        when(appointmentService.getClientAppointmentPage(email, 5L, AppointmentService.HistoryScope.UPCOMING, null, null))
+                .thenReturn(page);
 
-        ResponseEntity<?> response = controller.getUserAppointments(request);
+        ResponseEntity<?> response = controller.getUserAppointments("upcoming", null, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        List<?> list = (List<?>) response.getBody();
-        assertEquals(1, list.size());
+        assertSame(page, response.getBody());
+    }
+
+    @Test
+    void getUserAppointments_shouldReturn400_ifScopeUnknown() {
+        when(currentUser.email()).thenReturn(email);
+
+        ResponseStatusException ex = assertThrows(
+                ResponseStatusException.class,
+                () -> controller.getUserAppointments("someday", null, null)
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(appointmentService);
     }
 
     @Test
     void getUserAppointments_shouldReturn401_ifEmailNull() {
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getUserAppointments(request)
+                () -> controller.getUserAppointments("all", null, null)
         );
 
         assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
@@ -227,43 +221,86 @@ class AppointmentControllerTest {
 
     @Test
     void createAppointment_shouldReturn200_ifSuccess() {
-        when(appointmentService.createAppointment(any(), eq(request))).thenReturn(Optional.of(testAppointment));
-        ResponseEntity<Appointment> response = controller.createAppointment(testAppointment, request);
+        when(appointmentService.createAppointment(any())).thenReturn(Optional.of(testAppointment));
+        ResponseEntity<?> response = controller.createAppointment(testAppointment, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void createAppointment_shouldPass_ifAnonymous() {
-        when(appointmentService.createAppointment(any(), eq(request))).thenReturn(Optional.of(testAppointment));
+        when(appointmentService.createAppointment(any())).thenReturn(Optional.of(testAppointment));
 
-        ResponseEntity<Appointment> response = controller.createAppointment(testAppointment, request);
+        ResponseEntity<?> response = controller.createAppointment(testAppointment, null);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void createAppointment_shouldReturn400_ifFailure() {
-        when(appointmentService.createAppointment(any(), eq(request))).thenReturn(Optional.empty());
+        when(appointmentService.createAppointment(any())).thenReturn(Optional.empty());
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.createAppointment(testAppointment, request)
+                () -> controller.createAppointment(testAppointment, null)
         );
 
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
         assertEquals("Unable to create appointment", ex.getReason());
     }
 
+    @Test
+    void createAppointment_shouldReplayStoredResponse_forKnownIdempotencyKey() {
+        byte[] stored = "{\"appointmentId\":1}".getBytes();
+        IdempotencyKeyId key = new IdempotencyKeyId("guest:client@example.com", "key-1");
+        when(idempotencyService.scopedKey(" key-1 ", testAppointment.getClientEmail())).thenReturn(key);
+        when(idempotencyService.requestHash(testAppointment)).thenReturn("hash");
+        when(idempotencyService.findResponse(key, "hash")).thenReturn(Optional.of(stored));
+
+        ResponseEntity<?> response = controller.createAppointment(testAppointment, " key-1 ");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(stored, response.getBody());
+        assertEquals("true", response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verifyNoInteractions(appointmentService);
+    }
+
+    @Test
+    void createAppointment_shouldBookAndRecord_forNewIdempotencyKey() {
+        IdempotencyKeyId key = new IdempotencyKeyId("guest:client@example.com", "key-2");
+        when(idempotencyService.scopedKey("key-2", testAppointment.getClientEmail())).thenReturn(key);
+        when(idempotencyService.requestHash(testAppointment)).thenReturn("hash");
+        when(idempotencyService.findResponse(key, "hash")).thenReturn(Optional.empty());
+        when(appointmentService.createAppointment(testAppointment, key, "hash")).thenReturn(Optional.of(testAppointment));
+
+        ResponseEntity<?> response = controller.createAppointment(testAppointment, "key-2");
+
+        assertSame(testAppointment, response.getBody());
+        assertNull(response.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void createAppointment_shouldReplay_whenConcurrentRetryBookedFirst() {
+        byte[] stored = "{}".getBytes();
+        IdempotencyKeyId key = new IdempotencyKeyId("guest:client@example.com", "key-3");
+        when(idempotencyService.scopedKey("key-3", testAppointment.getClientEmail())).thenReturn(key);
+        when(idempotencyService.requestHash(testAppointment)).thenReturn("hash");
+        when(idempotencyService.findResponse(key, "hash")).thenReturn(Optional.empty(), Optional.of(stored));
+        when(appointmentService.createAppointment(testAppointment, key, "hash")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = controller.createAppointment(testAppointment, "key-3");
+
+        assertSame(stored, response.getBody());
+    }
+
     @Test
     void updateAppointment_shouldReturn200_ifAdmin() {
         Appointment updated = new Appointment();
         updated.setClientEmail("someone@example.com");
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(adminEmail);
-        when(userRepository.findByEmail(adminEmail)).thenReturn(Optional.of(adminUser));
-        when(appointmentService.updateAppointment(eq(1L), any(), eq(request))).thenReturn(Optional.of(updated));
+        when(currentUser.email()).thenReturn(adminEmail);
+        when(currentUser.isAdmin()).thenReturn(true);
+        when(appointmentService.updateAppointment(eq(1L), any())).thenReturn(Optional.of(updated));
 
-        ResponseEntity<?> response = controller.updateAppointment(1L, updated, request);
+        ResponseEntity<?> response = controller.updateAppointment(1L, updated);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -275,13 +312,12 @@ class AppointmentControllerTest {
         updated.setStatus(Appointment.Status.CANCELLED);
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
-        when(appointmentService.updateAppointment(eq(1L), eq(updated), eq(request)))
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
+        when(appointmentService.updateAppointment(eq(1L), eq(updated)))
                 .thenReturn(Optional.of(updated));
 
-        ResponseEntity<?> response = controller.updateAppointment(1L, updated, request);
+        ResponseEntity<?> response = controller.updateAppointment(1L, updated);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -291,13 +327,12 @@ class AppointmentControllerTest {
         testAppointment.setClientEmail("someone@example.com");
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateAppointment(1L, new Appointment(), request)
+                () -> controller.updateAppointment(1L, new Appointment())
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -306,11 +341,12 @@ class AppointmentControllerTest {
     @Test
     void updateAppointment_shouldReturn403_ifTokenMissing() {
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateAppointment(1L, new Appointment(), request)
+                () -> controller.updateAppointment(1L, new Appointment())
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -319,14 +355,13 @@ class AppointmentControllerTest {
     @Test
     void updateAppointment_shouldReturn400_ifUpdateFails() {
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
-        when(appointmentService.updateAppointment(eq(1L), any(), eq(request))).thenReturn(Optional.empty());
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
+        when(appointmentService.updateAppointment(eq(1L), any())).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.updateAppointment(1L, new Appointment(), request)
+                () -> controller.updateAppointment(1L, new Appointment())
         );
 
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
@@ -338,13 +373,12 @@ class AppointmentControllerTest {
         testAppointment.setClientEmail("owner@example.com");
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn("Bearer mocktoken");
-        when(jwtService.extractUsername("mocktoken")).thenReturn("unauthorized@example.com");
-        when(userRepository.findByEmail("unauthorized@example.com")).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn("unauthorized@example.com");
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateAppointment(1L, new Appointment(), request)
+                () -> controller.updateAppointment(1L, new Appointment())
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -358,17 +392,16 @@ class AppointmentControllerTest {
         updated.setStatus(Appointment.Status.CONFIRMED);
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateAppointment(1L, updated, request)
+                () -> controller.updateAppointment(1L, updated)
         );
 
         assertEquals("Only admins can change appointment status", ex.getMessage());
-        verify(appointmentService, never()).updateAppointment(eq(1L), any(), eq(request));
+        verify(appointmentService, never()).updateAppointment(eq(1L), any());
     }
 
     @Test
@@ -379,17 +412,16 @@ class AppointmentControllerTest {
         updated.setStatus(Appointment.Status.CANCELLED);
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateAppointment(1L, updated, request)
+                () -> controller.updateAppointment(1L, updated)
         );
 
         assertEquals("Only admins can change appointment status", ex.getMessage());
-        verify(appointmentService, never()).updateAppointment(eq(1L), any(), eq(request));
+        verify(appointmentService, never()).updateAppointment(eq(1L), any());
     }
 
     @Test
@@ -400,27 +432,25 @@ class AppointmentControllerTest {
         updated.setClientEmail("different@example.com");
 
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.of(testAppointment));
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateAppointment(1L, updated, request)
+                () -> controller.updateAppointment(1L, updated)
         );
 
         assertEquals("Customers can only update address, notes, or cancel pending appointments", ex.getMessage());
-        verify(appointmentService, never()).updateAppointment(eq(1L), any(), eq(request));
+        verify(appointmentService, never()).updateAppointment(eq(1L), any());
     }
 
     @Test
     void updateAppointment_shouldReturn404_whenAppointmentNotFound() {
         when(appointmentService.getAppointmentById(1L)).thenReturn(Optional.empty());
-        when(request.getHeader("Authorization")).thenReturn("Bearer mocktoken");
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.updateAppointment(1L, new Appointment(), request)
+                () -> controller.updateAppointment(1L, new Appointment())
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
@@ -429,24 +459,22 @@ class AppointmentControllerTest {
 
     @Test
     void deleteAppointment_shouldReturn204_ifAdminAndDeleted() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(adminEmail);
-        when(userRepository.findByEmail(adminEmail)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(adminEmail);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(appointmentService.deleteAppointment(1L)).thenReturn(true);
 
-        ResponseEntity<?> response = controller.deleteAppointment(1L, request);
+        ResponseEntity<?> response = controller.deleteAppointment(1L);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
     @Test
     void deleteAppointment_shouldReturn403_ifNotAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(normalUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.deleteAppointment(1L, request)
+                () -> controller.deleteAppointment(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -454,14 +482,13 @@ class AppointmentControllerTest {
 
     @Test
     void deleteAppointment_shouldReturn404_ifNotFound() {
-        when(request.getHeader("Authorization")).thenReturn(jwtToken);
-        when(jwtService.extractUsername("mocktoken")).thenReturn(adminEmail);
-        when(userRepository.findByEmail(adminEmail)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(adminEmail);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(appointmentService.deleteAppointment(1L)).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.deleteAppointment(1L, request)
+                () -> controller.deleteAppointment(1L)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
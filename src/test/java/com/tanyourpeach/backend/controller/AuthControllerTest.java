@@ -3,6 +3,7 @@ package com.tanyourpeach.backend.controller;
 import com.tanyourpeach.backend.dto.AuthenticationRequest;
 import com.tanyourpeach.backend.dto.AuthenticationResponse;
 import com.tanyourpeach.backend.dto.RegisterRequest;
+import com.tanyourpeach.backend.service.JwtService;
 import com.tanyourpeach.backend.service.UserAuthService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,6 +23,9 @@ class AuthControllerTest {
     @Mock
     private UserAuthService userAuthService;
 
+    @Mock
+    private JwtService jwtService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -98,4 +103,16 @@ class AuthControllerTest {
 
         assertEquals("bad login", ex.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void logout_shouldReturn204_afterRevokingBearerToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer mockToken");
+        when(jwtService.extractToken(request)).thenReturn("mockToken");
+
+        ResponseEntity<Void> response = authController.logout(request);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(userAuthService).logout("mockToken");
+    }
+}
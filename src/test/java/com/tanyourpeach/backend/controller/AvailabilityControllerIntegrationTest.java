@@ -1,6 +1,7 @@
 package com.tanyourpeach.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.dto.AvailabilityTemplateRequest;
 import com.tanyourpeach.backend.model.Availability;
 import com.tanyourpeach.backend.repository.AppointmentRepository;
 import com.tanyourpeach.backend.repository.AvailabilityRepository;
@@ -18,6 +19,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -88,6 +90,113 @@ class AvailabilityControllerIntegrationTest {
                 .andExpect(jsonPath("$.method").value("GET"));
     }
 
+    @Test
+    void getAvailableSlotsInRange_shouldReturnFreeSlotsInOrder() throws Exception {
+        Availability later = new Availability();
+        later.setDate(testSlot.getDate().plusDays(2));
+        later.setStartTime(LocalTime.of(9, 0));
+        later.setEndTime(LocalTime.of(10, 0));
+        later.setIsBooked(false);
+        availabilityRepository.save(later);
+
+        Availability booked = new Availability();
+        booked.setDate(testSlot.getDate().plusDays(1));
+        booked.setStartTime(LocalTime.of(9, 0));
+        booked.setEndTime(LocalTime.of(10, 0));
+        booked.setIsBooked(true);
+        availabilityRepository.save(booked);
+
+        Availability outside = new Availability();
+        outside.setDate(testSlot.getDate().plusDays(10));
+        outside.setStartTime(LocalTime.of(9, 0));
+        outside.setEndTime(LocalTime.of(10, 0));
+        outside.setIsBooked(false);
+        availabilityRepository.save(outside);
+
+        mockMvc.perform(get("/api/availabilities/range")
+                        .param("from", testSlot.getDate().toString())
+                        .param("to", testSlot.getDate().plusDays(6).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].slotId").value(testSlot.getSlotId()))
+                .andExpect(jsonPath("$[1].slotId").value(later.getSlotId()));
+    }
+
+    @Test
+    void getAvailableSlotsInRange_shouldFailForInvalidRange() throws Exception {
+        mockMvc.perform(get("/api/availabilities/range")
+                        .param("from", testSlot.getDate().toString())
+                        .param("to", testSlot.getDate().minusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/availabilities/range")
+                        .param("from", "bad-date")
+                        .param("to", testSlot.getDate().toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createAvailability_shouldFailForOverlap_afterDeleteAndRecreate() throws Exception {
+        mockMvc.perform(delete("/api/availabilities/" + testSlot.getSlotId()))
+                .andExpect(status().isNoContent());
+
+        String body = objectMapper.writeValueAsString(newSlot(10, 0, 11, 0));
+        mockMvc.perform(post("/api/availabilities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/availabilities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newSlot(10, 30, 11, 30))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void generateFromTemplate_shouldInsertSlotsAroundExistingOnes() throws Exception {
+        LocalDate day = testSlot.getDate();
+        AvailabilityTemplateRequest template = new AvailabilityTemplateRequest();
+        template.setDaysOfWeek(Set.of(day.getDayOfWeek()));
+        template.setStartTime(LocalTime.of(9, 0));
+        template.setEndTime(LocalTime.of(13, 0));
+        template.setSlotMinutes(60);
+        template.setFromDate(day);
+        template.setToDate(day.plusWeeks(2));
+
+        // three matching days with four hourly slots each; 10:00-11:00 on the first day already exists
+        mockMvc.perform(post("/api/availabilities/template")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(template)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(11))
+                .andExpect(jsonPath("$.skipped").value(1));
+
+        assertThat(availabilityRepository.findByDate(day)).hasSize(4);
+        assertThat(availabilityRepository.count()).isEqualTo(12);
+
+        // the index sees the new rows as well
+        mockMvc.perform(post("/api/availabilities")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newSlot(9, 30, 9, 45))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void generateFromTemplate_shouldFailForInvalidTemplate() throws Exception {
+        AvailabilityTemplateRequest template = new AvailabilityTemplateRequest();
+        template.setDaysOfWeek(Set.of(testSlot.getDate().getDayOfWeek()));
+        template.setStartTime(LocalTime.of(17, 0));
+        template.setEndTime(LocalTime.of(9, 0));
+        template.setSlotMinutes(60);
+        template.setFromDate(testSlot.getDate());
+        template.setToDate(testSlot.getDate().plusWeeks(1));
+
+        mockMvc.perform(post("/api/availabilities/template")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(template)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createAvailability_shouldSucceedWithValidInput() throws Exception {
         Availability newSlot = new Availability();
@@ -312,4 +421,13 @@ class AvailabilityControllerIntegrationTest {
         mockMvc.perform(delete("/api/availabilities/9999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    private Availability newSlot(int startHour, int startMinute, int endHour, int endMinute) {
+        Availability slot = new Availability();
+        slot.setDate(testSlot.getDate());
+        slot.setStartTime(LocalTime.of(startHour, startMinute));
+        slot.setEndTime(LocalTime.of(endHour, endMinute));
+        slot.setIsBooked(false);
+        return slot;
+    }
+}
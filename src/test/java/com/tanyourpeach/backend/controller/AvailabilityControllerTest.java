@@ -1,5 +1,7 @@
 package com.tanyourpeach.backend.controller;
 
+import com.tanyourpeach.backend.dto.AvailabilityTemplateRequest;
+import com.tanyourpeach.backend.dto.AvailabilityTemplateResult;
 import com.tanyourpeach.backend.model.Availability;
 import com.tanyourpeach.backend.service.AvailabilityService;
 import org.junit.jupiter.api.BeforeEach;
@@ -51,6 +53,28 @@ class AvailabilityControllerTest {
         assertEquals(testAvailability.getSlotId(), result.get(0).getSlotId());
     }
 
+    @Test
+    void getAvailableSlotsInRange_shouldReturnSlots() {
+        LocalDate from = LocalDate.of(2025, 7, 20);
+        LocalDate to = LocalDate.of(2025, 7, 26);
+        when(availabilityService.getAvailableSlotsInRange(from, to)).thenReturn(List.of(testAvailability));
+
+        ResponseEntity<List<Availability>> response = availabilityController.getAvailableSlotsInRange(from, to);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+    }
+
+    @Test
+    void getAvailableSlotsInRange_shouldThrow400_whenRangeInvalid() {
+        LocalDate from = LocalDate.of(2025, 7, 20);
+        when(availabilityService.getAvailableSlotsInRange(from, from.minusDays(1))).thenReturn(null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> availabilityController.getAvailableSlotsInRange(from, from.minusDays(1)));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
    @Test
     void getAvailableSlotsByDate_shouldReturnSlots() {
         LocalDate date = LocalDate.of(2025, 7, 20);
@@ -150,4 +174,26 @@ class AvailabilityControllerTest {
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
         assertEquals("Availability not found", ex.getReason());
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateFromTemplate_shouldReturnCounts() {
+        AvailabilityTemplateRequest template = new AvailabilityTemplateRequest();
+        when(availabilityService.generateFromTemplate(template)).thenReturn(new AvailabilityTemplateResult(40, 2));
+
+        ResponseEntity<AvailabilityTemplateResult> response = availabilityController.generateFromTemplate(template);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(40, response.getBody().getCreated());
+        assertEquals(2, response.getBody().getSkipped());
+    }
+
+    @Test
+    void generateFromTemplate_shouldThrow400_whenTemplateInvalid() {
+        AvailabilityTemplateRequest template = new AvailabilityTemplateRequest();
+        when(availabilityService.generateFromTemplate(template)).thenReturn(null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> availabilityController.generateFromTemplate(template));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+}
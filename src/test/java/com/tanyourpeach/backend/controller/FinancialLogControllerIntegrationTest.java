@@ -15,9 +15,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.math.BigDecimal;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,6 +37,9 @@ class FinancialLogControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private FinancialLogRepository financialLogRepository;
 
@@ -131,4 +142,87 @@ class FinancialLogControllerIntegrationTest {
                 .andExpect(jsonPath("$.path").value("/api/financial-log/" + testLog.getLogId()))
                 .andExpect(jsonPath("$.method").value("GET"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportLogs_shouldStreamCsv_forAdmin() throws Exception {
+        FinancialLog expense = new FinancialLog();
+        expense.setType(Type.expense);
+        expense.setSource("supplies");
+        expense.setAmount(new BigDecimal("20.50"));
+        expense.setDescription("Solution, 2 bottles");
+        financialLogRepository.save(expense);
+
+        MvcResult started = mockMvc.perform(get("/api/financial-log/export")
+                .header("Authorization", adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("attachment")))
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals("log_id,log_date,type,source,reference_id,description,amount", lines[0]);
+        assertTrue(lines[1].startsWith(testLog.getLogId() + ","));
+        assertTrue(lines[2].endsWith(",expense,supplies,,\"Solution, 2 bottles\",20.50"));
+    }
+
+    @Test
+    void exportLogs_shouldFilterByTypeAsNdjson() throws Exception {
+        FinancialLog expense = new FinancialLog();
+        expense.setType(Type.expense);
+        expense.setAmount(new BigDecimal("20.50"));
+        financialLogRepository.save(expense);
+
+        MvcResult started = mockMvc.perform(get("/api/financial-log/export")
+                .param("type", "revenue")
+                .param("format", "ndjson")
+                .header("Authorization", adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertEquals(testLog.getLogId(), row.get("logId").asLong());
+        assertEquals("revenue", row.get("type").asText());
+        assertEquals("Test description", row.get("description").asText());
+        assertEquals(0, new BigDecimal("150.00").compareTo(row.get("amount").decimalValue()));
+    }
+
+    @Test
+    void exportLogs_shouldReturnEmptyRange() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/financial-log/export")
+                .param("from", "2000-01-01")
+                .param("to", "2000-12-31")
+                .header("Authorization", adminToken))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("log_id,log_date,type,source,reference_id,description,amount\r\n"));
+    }
+
+    @Test
+    void exportLogs_shouldReturn400_forUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/financial-log/export")
+                .param("format", "xlsx")
+                .header("Authorization", adminToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("format must be csv or ndjson"));
+    }
+
+    @Test
+    void exportLogs_shouldFail_forNonAdmin() throws Exception {
+        mockMvc.perform(get("/api/financial-log/export")
+                .header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+}
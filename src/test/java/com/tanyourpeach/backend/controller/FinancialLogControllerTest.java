@@ -1,24 +1,25 @@
 package com.tanyourpeach.backend.controller;
 
 import com.tanyourpeach.backend.model.FinancialLog;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.service.FinancialLogExportService;
 import com.tanyourpeach.backend.service.FinancialLogService;
-import com.tanyourpeach.backend.service.JwtService;
-
-import jakarta.servlet.http.HttpServletRequest;
+import com.tanyourpeach.backend.security.CurrentUser;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,30 +32,21 @@ class FinancialLogControllerTest {
     private FinancialLogService financialLogService;
 
     @Mock
-    private JwtService jwtService;
-
-    @Mock
-    private UserRepository userRepository;
+    private FinancialLogExportService financialLogExportService;
 
     @Mock
-    private HttpServletRequest request;
+    private CurrentUser currentUser;
 
     @InjectMocks
     private FinancialLogController controller;
 
-    private User adminUser;
     private FinancialLog testLog;
-    private final String token = "Bearer mock-token";
     private final String email = "admin@example.com";
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        adminUser = new User();
-        adminUser.setEmail(email);
-        adminUser.setIsAdmin(true);
-
         testLog = new FinancialLog();
         testLog.setLogId(1L);
         testLog.setAmount(BigDecimal.valueOf(100.0));
@@ -62,28 +54,22 @@ class FinancialLogControllerTest {
 
     @Test
     void getAllLogs_shouldReturnLogs_ifAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(financialLogService.getAllLogs()).thenReturn(List.of(testLog));
 
-        ResponseEntity<?> response = controller.getAllLogs(request);
+        ResponseEntity<?> response = controller.getAllLogs();
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void getAllLogs_shouldReturn403_ifNotAdmin() {
-        User nonAdmin = new User();
-        nonAdmin.setEmail(email);
-        nonAdmin.setIsAdmin(false);
-
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(nonAdmin));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllLogs(request)
+                () -> controller.getAllLogs()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -91,11 +77,12 @@ class FinancialLogControllerTest {
 
     @Test
     void getAllLogs_shouldReturn403_whenAuthorizationHeaderMissing() {
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllLogs(request)
+                () -> controller.getAllLogs()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -103,12 +90,11 @@ class FinancialLogControllerTest {
 
     @Test
     void getAllLogs_shouldReturn403_whenJwtThrowsException() {
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenThrow(new RuntimeException("Bad token"));
+        when(currentUser.email()).thenReturn(null);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllLogs(request)
+                () -> controller.getAllLogs()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -116,13 +102,12 @@ class FinancialLogControllerTest {
 
     @Test
     void getAllLogs_shouldReturn403_whenUserNotFound() {
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllLogs(request)
+                () -> controller.getAllLogs()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -130,29 +115,23 @@ class FinancialLogControllerTest {
 
     @Test
     void getLogById_shouldReturnLog_ifAdmin() {
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(financialLogService.getLogById(1L)).thenReturn(Optional.of(testLog));
 
-        ResponseEntity<?> response = controller.getLogById(1L, request);
+        ResponseEntity<?> response = controller.getLogById(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(testLog, response.getBody());
     }
 
     @Test
     void getLogById_shouldReturn403_ifNotAdmin() {
-        User nonAdmin = new User();
-        nonAdmin.setEmail(email);
-        nonAdmin.setIsAdmin(false);
-
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(nonAdmin));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getLogById(1L, request)
+                () -> controller.getLogById(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -160,11 +139,12 @@ class FinancialLogControllerTest {
 
     @Test
     void getLogById_shouldReturn403_whenAuthorizationHeaderMissing() {
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getLogById(1L, request)
+                () -> controller.getLogById(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -172,17 +152,80 @@ class FinancialLogControllerTest {
 
     @Test
     void getLogById_shouldReturn404_ifNotFound() {
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
         when(financialLogService.getLogById(1L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getLogById(1L, request)
+                () -> controller.getLogById(1L)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
         assertEquals("Financial log not found", ex.getReason());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportLogs_shouldStreamCsvAttachment_ifAdmin() throws Exception {
+        when(currentUser.isAdmin()).thenReturn(true);
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 12, 31);
+
+        ResponseEntity<StreamingResponseBody> response = controller.exportLogs(from, to, FinancialLog.Type.revenue, "csv");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"financial-log-2025-01-01-2025-12-31.csv\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+
+        // nothing is read until the body is written
+        verifyNoInteractions(financialLogExportService);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(financialLogExportService).export(from, to, FinancialLog.Type.revenue, FinancialLogExportService.Format.CSV, out);
+    }
+
+    @Test
+    void exportLogs_shouldAcceptNdjson() {
+        when(currentUser.isAdmin()).thenReturn(true);
+
+        ResponseEntity<StreamingResponseBody> response = controller.exportLogs(null, null, null, "NDJSON");
+
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertEquals("attachment; filename=\"financial-log.ndjson\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void exportLogs_shouldReturn400_forUnknownFormat() {
+        when(currentUser.isAdmin()).thenReturn(true);
+
+        ResponseStatusException ex = assertThrows(
+                ResponseStatusException.class,
+                () -> controller.exportLogs(null, null, null, "xlsx")
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertEquals("format must be csv or ndjson", ex.getReason());
+    }
+
+    @Test
+    void exportLogs_shouldReturn400_whenFromAfterTo() {
+        when(currentUser.isAdmin()).thenReturn(true);
+
+        ResponseStatusException ex = assertThrows(
+                ResponseStatusException.class,
+                () -> controller.exportLogs(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1), null, "csv")
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void exportLogs_shouldReturn403_ifNotAdmin() {
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller.exportLogs(null, null, null, "csv"));
+        verifyNoInteractions(financialLogExportService);
+    }
+}
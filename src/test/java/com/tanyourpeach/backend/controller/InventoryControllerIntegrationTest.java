@@ -1,11 +1,19 @@
 package com.tanyourpeach.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.Availability;
 import com.tanyourpeach.backend.model.Inventory;
+import com.tanyourpeach.backend.model.ServiceInventoryUsage;
+import com.tanyourpeach.backend.model.TanService;
 import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.repository.AvailabilityRepository;
 import com.tanyourpeach.backend.repository.InventoryRepository;
+import com.tanyourpeach.backend.repository.TanServiceRepository;
 import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.service.AppointmentService;
 import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.ServiceInventoryUsageService;
 import com.tanyourpeach.backend.util.TestDataCleaner;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,8 +26,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
+import static com.tanyourpeach.backend.util.QueryCountAssertions.assertMaxQueries;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -49,6 +60,18 @@ class InventoryControllerIntegrationTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ServiceInventoryUsageService usageService;
+
+    @Autowired
+    private TanServiceRepository tanServiceRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
     private String adminToken;
 
     private String userToken;
@@ -502,4 +525,72 @@ class InventoryControllerIntegrationTest {
         assertEquals(7, reloaded.getQuantity());
         assertTrue(reloaded.getTotalSpent().compareTo(BigDecimal.valueOf(14.00)) == 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getForecast_shouldProjectStockOut_andFollowStockChanges() throws Throwable {
+        TanService service = new TanService();
+        service.setName("Glow Up");
+        service.setBasePrice(50.0);
+        service.setDurationMinutes(30);
+        service.setIsActive(true);
+        service = tanServiceRepository.save(service);
+
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setService(service);
+        usage.setItem(testItem);
+        usage.setQuantityUsed(5);
+        usageService.createUsage(usage).orElseThrow();
+
+        // 10 gloves, 5 per booking: low (<= 5) on day 1, out on day 3
+        LocalDate day1 = LocalDate.now().plusDays(1);
+        appointmentService.createAppointment(booking(service, day1, 9)).orElseThrow();
+        appointmentService.createAppointment(booking(service, day1.plusDays(2), 9)).orElseThrow();
+        appointmentService.createAppointment(booking(service, day1.plusDays(2), 11)).orElseThrow();
+
+        // grouped bookings, usages, items
+        assertMaxQueries(3, () -> mockMvc.perform(get("/api/inventory/forecast")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemName").value("Gloves"))
+                .andExpect(jsonPath("$[0].pendingDemand").value(15))
+                .andExpect(jsonPath("$[0].projectedRemaining").value(-5))
+                .andExpect(jsonPath("$[0].lowStockDate").value(day1.toString()))
+                .andExpect(jsonPath("$[0].stockOutDate").value(day1.plusDays(2).toString())));
+        assertMaxQueries(0, () -> mockMvc.perform(get("/api/inventory/forecast")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk()));
+
+        mockMvc.perform(put("/api/inventory/add-stock/" + testItem.getItemId())
+                .header("Authorization", adminToken)
+                .param("quantity", "10")
+                .param("unitCost", "2.00"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/inventory/forecast")
+                .header("Authorization", adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].projectedRemaining").value(5))
+                .andExpect(jsonPath("$[0].stockOutDate").doesNotExist());
+
+        mockMvc.perform(get("/api/inventory/forecast")
+                .header("Authorization", userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private Appointment booking(TanService service, LocalDate date, int hour) {
+        Availability slot = new Availability();
+        slot.setDate(date);
+        slot.setStartTime(LocalTime.of(hour, 0));
+        slot.setEndTime(LocalTime.of(hour, 30));
+        slot.setIsBooked(false);
+        slot = availabilityRepository.save(slot);
+
+        Appointment appointment = new Appointment();
+        appointment.setService(service);
+        appointment.setAvailability(slot);
+        appointment.setClientName("Guest");
+        appointment.setClientEmail("guest@example.com");
+        appointment.setClientAddress("1 Peach St");
+        return appointment;
+    }
+}
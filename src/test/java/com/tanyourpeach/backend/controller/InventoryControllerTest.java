@@ -1,12 +1,11 @@
 package com.tanyourpeach.backend.controller;
 
 import com.tanyourpeach.backend.model.Inventory;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.dto.InventoryForecast;
+import com.tanyourpeach.backend.service.InventoryForecastService;
 import com.tanyourpeach.backend.service.InventoryService;
-import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.security.CurrentUser;
 
-import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -32,20 +31,15 @@ class InventoryControllerTest {
     private InventoryService inventoryService;
 
     @Mock
-    private JwtService jwtService;
+    private InventoryForecastService inventoryForecastService;
 
     @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private HttpServletRequest request;
+    private CurrentUser currentUser;
 
     @InjectMocks
     private InventoryController controller;
 
     private Inventory testItem;
-    private User adminUser;
-    private final String token = "Bearer mock-token";
     private final String email = "admin@example.com";
 
     @BeforeEach
@@ -55,13 +49,8 @@ class InventoryControllerTest {
         testItem = new Inventory();
         testItem.setItemId(1L);
 
-        adminUser = new User();
-        adminUser.setEmail(email);
-        adminUser.setIsAdmin(true);
-
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(true);
     }
 
     @Test
@@ -93,21 +82,40 @@ class InventoryControllerTest {
         assertEquals("Inventory item not found", ex.getReason());
     }
 
+    @Test
+    void getForecast_shouldReturnForecast_ifAdmin() {
+        List<InventoryForecast> forecast = List.of(
+                new InventoryForecast(1L, "Solution", 10, 5, 4, 0, 6, null, null));
+        when(inventoryForecastService.getForecast()).thenReturn(forecast);
+
+        ResponseEntity<?> response = controller.getForecast();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(forecast, response.getBody());
+    }
+
+    @Test
+    void getForecast_shouldReturn403_ifNotAdmin() {
+        when(currentUser.isAdmin()).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller.getForecast());
+        verifyNoInteractions(inventoryForecastService);
+    }
+
     @Test
     void createInventory_shouldReturnItem_ifAdmin() {
         when(inventoryService.createInventory(testItem)).thenReturn(testItem);
 
-        ResponseEntity<?> response = controller.createInventory(testItem, request);
+        ResponseEntity<?> response = controller.createInventory(testItem);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void createInventory_shouldReturn403_ifNotAdmin() {
-        adminUser.setIsAdmin(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.createInventory(testItem, request)
+                () -> controller.createInventory(testItem)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -115,11 +123,12 @@ class InventoryControllerTest {
 
     @Test
     void createInventory_shouldReturn403_whenAuthorizationHeaderMissing() {
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.createInventory(testItem, request)
+                () -> controller.createInventory(testItem)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -127,11 +136,12 @@ class InventoryControllerTest {
 
     @Test
     void createInventory_shouldReturn403_whenAuthorizationHeaderMalformed() {
-        when(request.getHeader("Authorization")).thenReturn("bad");
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.createInventory(testItem, request)
+                () -> controller.createInventory(testItem)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -141,19 +151,18 @@ class InventoryControllerTest {
     void updateInventory_shouldReturnItem_ifFound() {
         when(inventoryService.updateInventory(eq(1L), any())).thenReturn(Optional.of(testItem));
 
-        ResponseEntity<?> response = controller.updateInventory(1L, testItem, request);
+        ResponseEntity<?> response = controller.updateInventory(1L, testItem);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void updateInventory_shouldReturn403_whenUserNotFound() {
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("mock-token")).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(currentUser.email()).thenReturn(email);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateInventory(1L, testItem, request)
+                () -> controller.updateInventory(1L, testItem)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -161,11 +170,11 @@ class InventoryControllerTest {
 
     @Test
     void updateInventory_shouldReturn403_ifNotAdmin() {
-        adminUser.setIsAdmin(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.updateInventory(1L, testItem, request)
+                () -> controller.updateInventory(1L, testItem)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -177,7 +186,7 @@ class InventoryControllerTest {
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.updateInventory(1L, testItem, request)
+                () -> controller.updateInventory(1L, testItem)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
@@ -188,17 +197,17 @@ class InventoryControllerTest {
     void deleteInventory_shouldReturn204_ifDeleted() {
         when(inventoryService.deleteInventory(1L)).thenReturn(true);
 
-        ResponseEntity<?> response = controller.deleteInventory(1L, request);
+        ResponseEntity<?> response = controller.deleteInventory(1L);
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
 
     @Test
     void deleteInventory_shouldReturn403_ifNotAdmin() {
-        adminUser.setIsAdmin(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.deleteInventory(1L, request)
+                () -> controller.deleteInventory(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -210,7 +219,7 @@ class InventoryControllerTest {
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.deleteInventory(1L, request)
+                () -> controller.deleteInventory(1L)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
@@ -242,7 +251,7 @@ class InventoryControllerTest {
     void addStock_shouldReturn200_ifSuccessAndAdmin() {
         when(inventoryService.addQuantityAndCost(1L, 5, new BigDecimal("2.50"))).thenReturn(true);
 
-        ResponseEntity<?> response = controller.addStock(1L, 5, new BigDecimal("2.50"), request);
+        ResponseEntity<?> response = controller.addStock(1L, 5, new BigDecimal("2.50"));
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -252,7 +261,7 @@ class InventoryControllerTest {
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.addStock(1L, 5, new BigDecimal("2.50"), request)
+                () -> controller.addStock(1L, 5, new BigDecimal("2.50"))
         );
 
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
@@ -261,11 +270,11 @@ class InventoryControllerTest {
 
     @Test
     void addStock_shouldReturn403_ifNotAdmin() {
-        adminUser.setIsAdmin(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.addStock(1L, 5, new BigDecimal("2.50"), request)
+                () -> controller.addStock(1L, 5, new BigDecimal("2.50"))
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -275,7 +284,7 @@ class InventoryControllerTest {
     void removeStock_shouldReturn200_ifSuccessAndAdmin() {
         when(inventoryService.removeQuantity(1L, 3)).thenReturn(true);
 
-        ResponseEntity<?> response = controller.removeStock(1L, 3, request);
+        ResponseEntity<?> response = controller.removeStock(1L, 3);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -286,7 +295,7 @@ class InventoryControllerTest {
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.removeStock(1L, 3, request)
+                () -> controller.removeStock(1L, 3)
         );
 
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
@@ -295,11 +304,11 @@ class InventoryControllerTest {
 
     @Test
     void removeStock_shouldReturn403_ifNotAdmin() {
-        adminUser.setIsAdmin(false);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.removeStock(1L, 3, request)
+                () -> controller.removeStock(1L, 3)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -0,0 +1,76 @@
+package com.tanyourpeach.backend.controller;
+
+import com.tanyourpeach.backend.util.TestAuthHelper;
+import com.tanyourpeach.backend.util.TestDataCleaner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+
+    @Autowired
+    private TestAuthHelper testAuthHelper;
+
+    private String adminToken;
+    private String userToken;
+
+    @BeforeEach
+    void setup() {
+        testDataCleaner.cleanAll();
+
+        adminToken = testAuthHelper.generateTokenFor("admin-metrics@example.com", true);
+        userToken = testAuthHelper.generateTokenFor("user-metrics@example.com", false);
+    }
+
+    @Test
+    void prometheus_shouldRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheus_shouldRejectNonAdminUser() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")
+                .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheus_shouldExposeRouteRepositoryPoolAndFilterTimers_toAdmin() throws Exception {
+        mockMvc.perform(get("/api/services"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus")
+                .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/api/services\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("security_jwt_filter_seconds_bucket")));
+    }
+
+    @Test
+    void health_shouldStayPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
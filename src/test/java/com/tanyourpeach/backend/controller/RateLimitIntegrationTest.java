@@ -0,0 +1,92 @@
+package com.tanyourpeach.backend.controller;
+
+import com.tanyourpeach.backend.util.TestDataCleaner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.register.capacity=2",
+        "rate-limit.register.refill-per-minute=1",
+        "rate-limit.login.capacity=50",
+        "rate-limit.login-account.capacity=2",
+        "rate-limit.login-account.refill-per-minute=1"
+})
+@AutoConfigureMockMvc // filters ON, so the limit applies ahead of Spring Security
+class RateLimitIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+
+    @BeforeEach
+    void setup() {
+        testDataCleaner.cleanAll();
+    }
+
+    @Test
+    void register_shouldReturn429WithRetryAfter_whenAddressExceedsLimit() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/register").with(remoteAddr("10.1.0.1"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(registration("limited" + i + "@example.com")))
+                .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/api/auth/register").with(remoteAddr("10.1.0.1"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(registration("limited2@example.com")))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists("Retry-After"))
+            .andExpect(header().exists("X-Correlation-Id"))
+            .andExpect(jsonPath("$.status").value(429))
+            .andExpect(jsonPath("$.path").value("/api/auth/register"));
+
+        // another client is not affected
+        mockMvc.perform(post("/api/auth/register").with(remoteAddr("10.1.0.2"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(registration("other@example.com")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void login_shouldReturn429_whenOneAccountIsTargetedFromManyAddresses() throws Exception {
+        String body = "{\"email\":\"victim@example.com\",\"password\":\"guess\"}";
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/login").with(remoteAddr("10.2.0." + i))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                .andExpect(status().isUnauthorized());
+        }
+
+        mockMvc.perform(post("/api/auth/login").with(remoteAddr("10.2.0.99"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().exists("Retry-After"))
+            .andExpect(jsonPath("$.message").value("Too many login attempts"));
+    }
+
+    private static RequestPostProcessor remoteAddr(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private static String registration(String email) {
+        return "{\"name\":\"Limited\",\"email\":\"" + email + "\",\"password\":\"secure123\",\"address\":\"1 Main St\"}";
+    }
+}
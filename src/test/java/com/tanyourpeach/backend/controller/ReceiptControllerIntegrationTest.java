@@ -11,14 +11,21 @@ import org.junit.jupiter.api.TestInstance;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
+import static com.tanyourpeach.backend.util.QueryCountAssertions.assertMaxQueries;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -203,4 +210,110 @@ class ReceiptControllerIntegrationTest {
             .andExpect(jsonPath("$.path").value("/api/receipts/appointment/99999"))
             .andExpect(jsonPath("$.method").value("GET"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldReturnExistingReceipts_forAdmin() throws Exception {
+        mockMvc.perform(get("/api/receipts")
+                .param("appointmentIds", userAppointment.getAppointmentId() + ",99999")
+                .header("Authorization", adminToken))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].receiptId").value(testReceipt.getReceiptId()))
+            .andExpect(jsonPath("$[0].appointmentId").value(userAppointment.getAppointmentId()))
+            .andExpect(jsonPath("$[0].paymentMethod").value("Cash"));
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldUseOneQueryForTheBatch() throws Throwable {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(saveAppointmentWithReceipt("client" + i + "@example.com").getAppointmentId());
+        }
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        // principal lookup plus the IN query, however many ids are asked for
+        assertMaxQueries(2, () -> mockMvc.perform(get("/api/receipts")
+                .param("appointmentIds", idList)
+                .header("Authorization", adminToken))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(10)));
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldOnlyReturnOwnReceipts_forUser() throws Exception {
+        Appointment other = saveAppointmentWithReceipt("someone@example.com");
+
+        mockMvc.perform(get("/api/receipts")
+                .param("appointmentIds", userAppointment.getAppointmentId() + "," + other.getAppointmentId())
+                .header("Authorization", userToken))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].appointmentId").value(userAppointment.getAppointmentId()));
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldReturn400_whenTooManyIds() throws Exception {
+        String idList = LongStream.rangeClosed(1, 501).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(post("/api/receipts/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"appointmentIds\":[" + idList + "]}")
+                .header("Authorization", adminToken))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("At most 500 appointment ids per lookup"));
+    }
+
+    @Test
+    void lookupReceipts_shouldAcceptIdsInBody() throws Exception {
+        mockMvc.perform(post("/api/receipts/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"appointmentIds\":[" + userAppointment.getAppointmentId() + "]}")
+                .header("Authorization", adminToken))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].receiptId").value(testReceipt.getReceiptId()));
+    }
+
+    @Test
+    void lookupReceipts_shouldReturn400_whenNoIds() throws Exception {
+        mockMvc.perform(post("/api/receipts/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"appointmentIds\":[]}")
+                .header("Authorization", adminToken))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void lookupReceipts_shouldReturn401_withoutToken() throws Exception {
+        mockMvc.perform(post("/api/receipts/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"appointmentIds\":[1]}"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private Appointment saveAppointmentWithReceipt(String clientEmail) {
+        Availability slot = new Availability();
+        slot.setDate(LocalDate.now().plusDays(2));
+        slot.setStartTime(LocalTime.of(11, 0));
+        slot.setEndTime(LocalTime.of(11, 30));
+        slot.setIsBooked(true);
+        availabilityRepository.save(slot);
+
+        Appointment appt = new Appointment();
+        appt.setService(userAppointment.getService());
+        appt.setClientName("Bulk Client");
+        appt.setClientEmail(clientEmail);
+        appt.setClientAddress("456 Test St");
+        appt.setStatus(Appointment.Status.CONFIRMED);
+        appt.setAppointmentDateTime(LocalDateTime.of(slot.getDate(), slot.getStartTime()));
+        appt.setAvailability(slot);
+        appt.setTotalPrice(80.0);
+        appt = appointmentRepository.save(appt);
+
+        Receipt receipt = new Receipt();
+        receipt.setAppointment(appt);
+        receipt.setTotalAmount(BigDecimal.valueOf(80.0));
+        receipt.setPaymentMethod("Unpaid");
+        receiptRepository.save(receipt);
+        return appt;
+    }
+}
@@ -1,14 +1,13 @@
 package com.tanyourpeach.backend.controller;
 
+import com.tanyourpeach.backend.dto.ReceiptLookupRequest;
+import com.tanyourpeach.backend.dto.ReceiptSummary;
 import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.Receipt;
-import com.tanyourpeach.backend.model.User;
-import com.tanyourpeach.backend.repository.UserRepository;
-import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
 import com.tanyourpeach.backend.service.ReceiptService;
 
-import jakarta.servlet.http.HttpServletRequest;
-
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -31,36 +30,19 @@ class ReceiptControllerTest {
     private ReceiptService receiptService;
 
     @Mock
-    private JwtService jwtService;
-
-    @Mock
-    private UserRepository userRepository;
-
-    @Mock
-    private HttpServletRequest request;
+    private CurrentUser currentUser;
 
     @InjectMocks
     private ReceiptController controller;
 
-    private final String token = "Bearer test-token";
     private final String email = "user@example.com";
 
-    private User adminUser;
-    private User regularUser;
     private Receipt testReceipt;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
-        adminUser = new User();
-        adminUser.setEmail(email);
-        adminUser.setIsAdmin(true);
-
-        regularUser = new User();
-        regularUser.setEmail(email);
-        regularUser.setIsAdmin(false);
-
         Appointment appt = new Appointment();
         appt.setClientEmail(email);
 
@@ -68,26 +50,25 @@ class ReceiptControllerTest {
         testReceipt.setReceiptId(1L);
         testReceipt.setAppointment(appt);
 
-        when(request.getHeader("Authorization")).thenReturn(token);
-        when(jwtService.extractUsername("test-token")).thenReturn(email);
+        when(currentUser.email()).thenReturn(email);
     }
 
     @Test
     void getAllReceipts_shouldReturnReceipts_whenAdmin() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.isAdmin()).thenReturn(true);
         when(receiptService.getAllReceipts()).thenReturn(List.of(testReceipt));
 
-        ResponseEntity<?> response = controller.getAllReceipts(request);
+        ResponseEntity<?> response = controller.getAllReceipts();
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void getAllReceipts_shouldReturn403_whenNotAdmin() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(regularUser));
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllReceipts(request)
+                () -> controller.getAllReceipts()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -95,11 +76,12 @@ class ReceiptControllerTest {
 
     @Test
     void getAllReceipts_shouldReturn403_whenTokenMalformed() {
-        when(request.getHeader("Authorization")).thenReturn("bad");
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllReceipts(request)
+                () -> controller.getAllReceipts()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -107,11 +89,11 @@ class ReceiptControllerTest {
 
     @Test
     void getAllReceipts_shouldReturn403_whenUserNotFound() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getAllReceipts(request)
+                () -> controller.getAllReceipts()
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -119,20 +101,20 @@ class ReceiptControllerTest {
 
     @Test
     void getReceiptById_shouldReturnReceipt_whenAdminAndExists() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.isAdmin()).thenReturn(true);
         when(receiptService.getReceiptById(1L)).thenReturn(Optional.of(testReceipt));
 
-        ResponseEntity<?> response = controller.getReceiptById(1L, request);
+        ResponseEntity<?> response = controller.getReceiptById(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void getReceiptById_shouldReturn403_whenNotAdmin() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(regularUser));
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getReceiptById(1L, request)
+                () -> controller.getReceiptById(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -140,12 +122,12 @@ class ReceiptControllerTest {
 
     @Test
     void getReceiptById_shouldReturn404_whenNotFound() {
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.isAdmin()).thenReturn(true);
         when(receiptService.getReceiptById(1L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getReceiptById(1L, request)
+                () -> controller.getReceiptById(1L)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
@@ -156,7 +138,7 @@ class ReceiptControllerTest {
     void getReceiptByAppointmentId_shouldReturnReceipt_whenOwner() {
         when(receiptService.getReceiptByAppointmentId(1L)).thenReturn(Optional.of(testReceipt));
 
-        ResponseEntity<?> response = controller.getReceiptByAppointmentId(1L, request);
+        ResponseEntity<?> response = controller.getReceiptByAppointmentId(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -167,19 +149,20 @@ class ReceiptControllerTest {
         testReceipt.setAppointment(otherAppt);
 
         when(receiptService.getReceiptByAppointmentId(1L)).thenReturn(Optional.of(testReceipt));
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(adminUser));
+        when(currentUser.isAdmin()).thenReturn(true);
 
-        ResponseEntity<?> response = controller.getReceiptByAppointmentId(1L, request);
+        ResponseEntity<?> response = controller.getReceiptByAppointmentId(1L);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
     @Test
     void getReceiptByAppointmentId_shouldReturn401_whenTokenMissing() {
-        when(request.getHeader("Authorization")).thenReturn(null);
+        when(currentUser.email()).thenReturn(null);
+        when(currentUser.isAdmin()).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getReceiptByAppointmentId(1L, request)
+                () -> controller.getReceiptByAppointmentId(1L)
         );
 
         assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
@@ -193,11 +176,11 @@ class ReceiptControllerTest {
         testReceipt.setAppointment(otherAppt);
 
         when(receiptService.getReceiptByAppointmentId(1L)).thenReturn(Optional.of(testReceipt));
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(regularUser));
+        when(currentUser.isAdmin()).thenReturn(false);
 
         AccessDeniedException ex = assertThrows(
                 AccessDeniedException.class,
-                () -> controller.getReceiptByAppointmentId(1L, request)
+                () -> controller.getReceiptByAppointmentId(1L)
         );
 
         assertEquals("Access denied", ex.getMessage());
@@ -209,10 +192,46 @@ class ReceiptControllerTest {
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getReceiptByAppointmentId(1L, request)
+                () -> controller.getReceiptByAppointmentId(1L)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
         assertEquals("Receipt not found", ex.getReason());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldLookUpAcrossClients_whenAdmin() {
+        List<ReceiptSummary> summaries = List.of(mock(ReceiptSummary.class));
+        when(currentUser.get()).thenReturn(Optional.of(new AuthenticatedUser(1L, "admin@example.com", "hash", true)));
+        when(receiptService.getReceiptsByAppointmentIds(List.of(1L, 2L), null)).thenReturn(summaries);
+
+        ResponseEntity<?> response = controller.getReceiptsByAppointmentIds(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(summaries, response.getBody());
+    }
+
+    @Test
+    void lookupReceipts_shouldLimitToOwnAppointments_whenNotAdmin() {
+        when(currentUser.get()).thenReturn(Optional.of(new AuthenticatedUser(2L, email, "hash", false)));
+        ReceiptLookupRequest request = new ReceiptLookupRequest();
+        request.setAppointmentIds(List.of(1L));
+
+        controller.lookupReceipts(request);
+
+        verify(receiptService).getReceiptsByAppointmentIds(List.of(1L), email);
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldReturn401_whenAnonymous() {
+        when(currentUser.get()).thenReturn(Optional.empty());
+
+        ResponseStatusException ex = assertThrows(
+                ResponseStatusException.class,
+                () -> controller.getReceiptsByAppointmentIds(List.of(1L))
+        );
+
+        assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
+        verifyNoInteractions(receiptService);
+    }
+}
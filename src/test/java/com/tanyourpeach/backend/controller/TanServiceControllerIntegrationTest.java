@@ -100,6 +100,47 @@ class TanServiceControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].serviceType").value("ADD_ON"));
     }
 
+    @Test
+    void getActiveMainServices_shouldReturn304_whenEtagMatches() throws Exception {
+        String etag = mockMvc.perform(get("/api/services"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/services").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getActiveMainServices_shouldReflectWritesImmediately() throws Exception {
+        String etag = mockMvc.perform(get("/api/services"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        ServiceUpdateRequest request = new ServiceUpdateRequest();
+        request.setName("Blackberry Cobbler");
+        request.setSlug("peach-cobbler");
+        request.setBasePrice(60.0);
+        request.setDurationMinutes(30);
+        request.setServiceType(ServiceType.MAIN_SERVICE);
+        mockMvc.perform(put("/api/services/" + mainService.getServiceId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/services").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Blackberry Cobbler"));
+
+        mockMvc.perform(delete("/api/services/" + mainService.getServiceId()))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/services/slug/peach-cobbler"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getAllServicesForAdmin_shouldReturnAllServices() throws Exception {
         mockMvc.perform(get("/api/services/admin"))
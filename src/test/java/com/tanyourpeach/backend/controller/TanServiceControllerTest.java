@@ -5,6 +5,8 @@ import com.tanyourpeach.backend.dto.ServiceResponseDto;
 import com.tanyourpeach.backend.dto.ServiceUpdateRequest;
 import com.tanyourpeach.backend.model.ServiceType;
 import com.tanyourpeach.backend.model.TanService;
+import com.tanyourpeach.backend.service.ServiceCatalogCache;
+import com.tanyourpeach.backend.service.ServiceCatalogCache.CachedJson;
 import com.tanyourpeach.backend.service.TanServiceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -26,10 +29,14 @@ class TanServiceControllerTest {
     @Mock
     private TanServiceService serviceService;
 
+    @Mock
+    private ServiceCatalogCache catalogCache;
+
     @InjectMocks
     private TanServiceController controller;
 
     private ServiceResponseDto responseDto;
+    private CachedJson json;
     private ServiceCreateRequest createRequest;
     private ServiceUpdateRequest updateRequest;
 
@@ -48,6 +55,7 @@ class TanServiceControllerTest {
         service.setIsActive(true);
 
         responseDto = new ServiceResponseDto(service);
+        json = new CachedJson("{\"name\":\"Peach Cobbler\"}".getBytes(), "\"abc123\"");
 
         createRequest = new ServiceCreateRequest();
         createRequest.setName("Peach Cobbler");
@@ -65,22 +73,37 @@ class TanServiceControllerTest {
     }
 
     @Test
-    void getActiveMainServices_shouldReturnList() {
-        when(serviceService.getActiveMainServices()).thenReturn(List.of(responseDto));
+    void getActiveMainServices_shouldReturnCachedJsonWithEtag() {
+        when(catalogCache.mainServices()).thenReturn(json);
 
-        List<ServiceResponseDto> result = controller.getActiveMainServices();
+        ResponseEntity<byte[]> response = controller.getActiveMainServices(null);
 
-        assertEquals(1, result.size());
-        assertEquals("Peach Cobbler", result.get(0).getName());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(json.body(), response.getBody());
+        assertEquals(json.etag(), response.getHeaders().getETag());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        verifyNoInteractions(serviceService);
     }
 
     @Test
-    void getActiveAddOns_shouldReturnList() {
-        when(serviceService.getActiveAddOns()).thenReturn(List.of(responseDto));
+    void getActiveMainServices_shouldReturn304_whenEtagMatches() {
+        when(catalogCache.mainServices()).thenReturn(json);
 
-        List<ServiceResponseDto> result = controller.getActiveAddOns();
+        ResponseEntity<byte[]> response = controller.getActiveMainServices("W/" + json.etag());
 
-        assertEquals(1, result.size());
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(json.etag(), response.getHeaders().getETag());
+    }
+
+    @Test
+    void getActiveAddOns_shouldReturnCachedJson() {
+        when(catalogCache.addOns()).thenReturn(json);
+
+        ResponseEntity<byte[]> response = controller.getActiveAddOns("\"stale\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(json.body(), response.getBody());
     }
 
     @Test
@@ -94,21 +117,21 @@ class TanServiceControllerTest {
 
     @Test
     void getServiceById_shouldReturnService_ifExists() {
-        when(serviceService.getActiveServiceById(1L)).thenReturn(Optional.of(responseDto));
+        when(catalogCache.activeById(1L)).thenReturn(json);
 
-        ResponseEntity<ServiceResponseDto> response = controller.getServiceById(1L);
+        ResponseEntity<byte[]> response = controller.getServiceById(1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(responseDto, response.getBody());
+        assertArrayEquals(json.body(), response.getBody());
     }
 
     @Test
     void getServiceById_shouldReturn404_ifNotFound() {
-        when(serviceService.getActiveServiceById(1L)).thenReturn(Optional.empty());
+        when(catalogCache.activeById(1L)).thenReturn(null);
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getServiceById(1L)
+                () -> controller.getServiceById(1L, null)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
@@ -117,21 +140,30 @@ class TanServiceControllerTest {
 
     @Test
     void getServiceBySlug_shouldReturnService_ifExists() {
-        when(serviceService.getActiveServiceBySlug("peach-cobbler")).thenReturn(Optional.of(responseDto));
+        when(catalogCache.activeBySlug("peach-cobbler")).thenReturn(json);
 
-        ResponseEntity<ServiceResponseDto> response = controller.getServiceBySlug("peach-cobbler");
+        ResponseEntity<byte[]> response = controller.getServiceBySlug("peach-cobbler", null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(responseDto, response.getBody());
+        assertArrayEquals(json.body(), response.getBody());
+    }
+
+    @Test
+    void getServiceBySlug_shouldReturn304_whenEtagMatches() {
+        when(catalogCache.activeBySlug("peach-cobbler")).thenReturn(json);
+
+        ResponseEntity<byte[]> response = controller.getServiceBySlug("peach-cobbler", "\"other\", " + json.etag());
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
     }
 
     @Test
     void getServiceBySlug_shouldReturn404_ifNotFound() {
-        when(serviceService.getActiveServiceBySlug("missing")).thenReturn(Optional.empty());
+        when(catalogCache.activeBySlug("missing")).thenReturn(null);
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
-                () -> controller.getServiceBySlug("missing")
+                () -> controller.getServiceBySlug("missing", null)
         );
 
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
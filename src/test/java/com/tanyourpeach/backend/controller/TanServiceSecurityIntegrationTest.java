@@ -15,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -70,6 +71,15 @@ class TanServiceSecurityIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void adminServiceList_shouldReportQueryCountHeaders() throws Exception {
+        mockMvc.perform(get("/api/services/admin")
+                .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Query-Count"))
+                .andExpect(header().exists("X-Query-Time"));
+    }
+
     @Test
     void createService_shouldRequireAuthentication() throws Exception {
         mockMvc.perform(post("/api/services")
@@ -0,0 +1,127 @@
+package com.tanyourpeach.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.dto.UserUpdateDto;
+import com.tanyourpeach.backend.model.TokenRevocation;
+import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.repository.TokenRevocationRepository;
+import com.tanyourpeach.backend.service.TokenRevocationService;
+import com.tanyourpeach.backend.util.TestAuthHelper;
+import com.tanyourpeach.backend.util.TestDataCleaner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static com.tanyourpeach.backend.util.QueryCountAssertions.assertMaxQueries;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc // filters ON: revocation is enforced by the JWT filter
+class TokenRevocationIntegrationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private TestAuthHelper testAuthHelper;
+    @Autowired private TestDataCleaner testDataCleaner;
+    @Autowired private TokenRevocationRepository tokenRevocationRepository;
+    @Autowired private TokenRevocationService tokenRevocationService;
+
+    private User admin;
+    private String adminToken;
+
+    @BeforeEach
+    void setup() {
+        testDataCleaner.cleanAll();
+        admin = testAuthHelper.createTestUser("revocation-admin@example.com", true);
+        adminToken = testAuthHelper.generateTokenFor(admin);
+    }
+
+    @Test
+    void validToken_shouldAuthenticateWithoutLoadingTheUser() throws Throwable {
+        // the only statement is the lookup of the requested user
+        assertMaxQueries(1, () -> mockMvc.perform(get("/api/users/999999")
+                .header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isNotFound()));
+    }
+
+    @Test
+    void logout_shouldRevokeOnlyThePresentedToken() throws Exception {
+        String otherSession = testAuthHelper.generateTokenFor(admin);
+
+        mockMvc.perform(post("/api/auth/logout")
+                .header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.status").value(401));
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + otherSession))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void logout_shouldReturn401_withoutValidToken() throws Exception {
+        mockMvc.perform(post("/api/auth/logout"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer not-a-token"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void demotedAdmin_shouldLoseAccess_withOldToken() throws Exception {
+        User other = testAuthHelper.createTestUser("revocation-other@example.com", true);
+        String otherToken = testAuthHelper.generateTokenFor(other);
+
+        UserUpdateDto dto = new UserUpdateDto();
+        dto.setName("Other");
+        dto.setEmail("revocation-other@example.com");
+        dto.setPassword("hashedpass");
+        dto.setIsAdmin(false);
+        mockMvc.perform(put("/api/users/" + other.getUserId())
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + otherToken))
+            .andExpect(status().isUnauthorized());
+        // the admin who made the change is unaffected
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void deletedUser_shouldLoseAccess_withOldToken() throws Exception {
+        User other = testAuthHelper.createTestUser("revocation-deleted@example.com", true);
+        String otherToken = testAuthHelper.generateTokenFor(other);
+
+        mockMvc.perform(delete("/api/users/" + other.getUserId())
+                .header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + otherToken))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void revocationWrittenByAnotherNode_shouldApplyAfterReload() throws Exception {
+        Thread.sleep(5); // the watermark must be later than the token's issue time
+        TokenRevocation row = new TokenRevocation();
+        row.setUserId(admin.getUserId());
+        row.setRevokedAt(LocalDateTime.now());
+        row.setExpiresAt(LocalDateTime.now().plusDays(1));
+        tokenRevocationRepository.save(row);
+
+        tokenRevocationService.reload();
+
+        mockMvc.perform(get("/api/users").header("Authorization", "Bearer " + adminToken))
+            .andExpect(status().isUnauthorized());
+    }
+}
@@ -81,6 +81,23 @@ class InventoryRepositoryTest {
         assertTrue(results.isEmpty());
     }
 
+    @Test
+    @DisplayName("findItemsBelowThreshold: follows quantity and threshold changes (generated column)")
+    void findItemsBelowThreshold_followsUpdates() {
+        Inventory caps = inventoryRepository.save(inv("Caps", 8, 5, "0.20", "0.00"));
+        Inventory gloves = inventoryRepository.save(inv("Gloves", 1, 5, "0.10", "0.00"));
+        inventoryRepository.flush();
+
+        caps.setQuantity(5);     // drops to the threshold
+        gloves.setQuantity(20);  // restocked
+        inventoryRepository.saveAndFlush(caps);
+        inventoryRepository.saveAndFlush(gloves);
+
+        List<Inventory> results = inventoryRepository.findItemsBelowThreshold();
+        assertEquals(1, results.size());
+        assertEquals("Caps", results.get(0).getItemName());
+    }
+
     @Test
     @DisplayName("findByItemName: returns exact match")
     void findByItemName_exactMatch() {
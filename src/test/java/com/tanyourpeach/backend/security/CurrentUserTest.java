@@ -0,0 +1,115 @@
+package com.tanyourpeach.backend.security;
+
+import com.tanyourpeach.backend.service.CustomUserDetailsService;
+import com.tanyourpeach.backend.service.JwtService;
+import com.tanyourpeach.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrentUserTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @InjectMocks
+    private CurrentUser currentUser;
+
+    private final AuthenticatedUser admin = new AuthenticatedUser(1L, "admin@example.com", "hash", true);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void get_shouldReturnPrincipalFromSecurityContext() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+
+        assertSame(admin, currentUser.get().orElseThrow());
+        assertEquals("admin@example.com", currentUser.email());
+        assertTrue(currentUser.isAdmin());
+        verifyNoInteractions(jwtService, customUserDetailsService);
+    }
+
+    @Test
+    void get_shouldBeEmpty_whenAnonymous() {
+        assertTrue(currentUser.get().isEmpty());
+        assertNull(currentUser.email());
+        assertFalse(currentUser.isAdmin());
+    }
+
+    @Test
+    void get_shouldResolveBearerTokenOncePerRequest_whenFilterDidNotRun() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Claims claims = Jwts.claims().setSubject("admin@example.com");
+        when(jwtService.extractVerifiedClaims("token")).thenReturn(claims);
+        when(customUserDetailsService.loadUserByUsername("admin@example.com")).thenReturn(admin);
+        when(jwtService.isTokenValid(claims, admin)).thenReturn(true);
+
+        assertTrue(currentUser.isAdmin());
+        assertEquals("admin@example.com", currentUser.email());
+
+        verify(jwtService, times(1)).extractVerifiedClaims("token");
+        verify(customUserDetailsService, times(1)).loadUserByUsername("admin@example.com");
+    }
+
+    @Test
+    void get_shouldBuildPrincipalFromClaims_andHonourRevocation() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Claims claims = Jwts.claims().setSubject("admin@example.com");
+        when(jwtService.extractVerifiedClaims("token")).thenReturn(claims);
+        when(jwtService.principalFrom(claims)).thenReturn(admin);
+        when(jwtService.isTokenValid(claims, admin)).thenReturn(true);
+        when(tokenRevocationService.isRevoked(claims, 1L)).thenReturn(true);
+
+        assertTrue(currentUser.get().isEmpty());
+        verifyNoInteractions(customUserDetailsService);
+    }
+
+    @Test
+    void get_shouldBeEmpty_whenTokenUserNoLongerExists() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        when(jwtService.extractVerifiedClaims("token")).thenReturn(Jwts.claims().setSubject("gone@example.com"));
+        when(customUserDetailsService.loadUserByUsername("gone@example.com"))
+                .thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertTrue(currentUser.get().isEmpty());
+    }
+}
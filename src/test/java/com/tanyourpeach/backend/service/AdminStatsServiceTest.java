@@ -1,12 +1,12 @@
 package com.tanyourpeach.backend.service;
 
 import com.tanyourpeach.backend.dto.AdminDashboardSummary;
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.dto.MonthlyStats;
-import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.FinancialLog;
 import com.tanyourpeach.backend.model.Inventory;
 import com.tanyourpeach.backend.repository.AppointmentRepository;
-import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.repository.FinancialMonthlyRollupRepository;
 import com.tanyourpeach.backend.repository.InventoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,12 +15,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 class AdminStatsServiceTest {
@@ -32,7 +33,10 @@ class AdminStatsServiceTest {
     private InventoryRepository inventoryRepository;
 
     @Mock
-    private FinancialLogRepository financialLogRepository;
+    private FinancialMonthlyRollupRepository rollupRepository;
+
+    @Mock
+    private FinancialRollupService financialRollupService;
 
     @InjectMocks
     private AdminStatsService adminStatsService;
@@ -44,8 +48,8 @@ class AdminStatsServiceTest {
 
     @Test
     void getDashboardSummary_shouldReturnCorrectProfit() {
-        when(financialLogRepository.sumByType(FinancialLog.Type.revenue)).thenReturn(BigDecimal.valueOf(500));
-        when(financialLogRepository.sumByType(FinancialLog.Type.expense)).thenReturn(BigDecimal.valueOf(200));
+        when(rollupRepository.sumByType(FinancialLog.Type.revenue)).thenReturn(BigDecimal.valueOf(500));
+        when(rollupRepository.sumByType(FinancialLog.Type.expense)).thenReturn(BigDecimal.valueOf(200));
 
         AdminDashboardSummary summary = adminStatsService.getDashboardSummary();
 
@@ -56,8 +60,8 @@ class AdminStatsServiceTest {
 
     @Test
     void getDashboardSummary_shouldHandleNullValuesSafely() {
-        when(financialLogRepository.sumByType(FinancialLog.Type.revenue)).thenReturn(null);
-        when(financialLogRepository.sumByType(FinancialLog.Type.expense)).thenReturn(null);
+        when(rollupRepository.sumByType(FinancialLog.Type.revenue)).thenReturn(null);
+        when(rollupRepository.sumByType(FinancialLog.Type.expense)).thenReturn(null);
 
         AdminDashboardSummary summary = adminStatsService.getDashboardSummary();
 
@@ -68,8 +72,10 @@ class AdminStatsServiceTest {
 
     @Test
     void getLastFourMonthsStats_shouldReturnValidStatsList() {
-        when(financialLogRepository.sumByTypeAndMonth(any(FinancialLog.Type.class), anyString()))
-                .thenReturn(BigDecimal.valueOf(100));
+        BigDecimal hundred = BigDecimal.valueOf(100);
+        stubMonthlyTotals(
+                new BigDecimal[] {hundred, hundred, hundred, hundred},
+                new BigDecimal[] {hundred, hundred, hundred, hundred});
         List<MonthlyStats> stats = adminStatsService.getLastFourMonthsStats();
 
         assertEquals(4, stats.size());
@@ -82,17 +88,9 @@ class AdminStatsServiceTest {
 
     @Test
     void getLastFourMonthsStats_shouldCalculateCorrectProfit_withMixedValues() {
-        when(financialLogRepository.sumByTypeAndMonth(eq(FinancialLog.Type.revenue), anyString()))
-            .thenReturn(BigDecimal.valueOf(150))  // Month 1
-            .thenReturn(null)                     // Month 2
-            .thenReturn(BigDecimal.ZERO)         // Month 3
-            .thenReturn(BigDecimal.valueOf(50)); // Month 4
-
-        when(financialLogRepository.sumByTypeAndMonth(eq(FinancialLog.Type.expense), anyString()))
-            .thenReturn(BigDecimal.valueOf(100))  // Month 1
-            .thenReturn(BigDecimal.valueOf(200))  // Month 2
-            .thenReturn(null)                     // Month 3
-            .thenReturn(BigDecimal.valueOf(20));  // Month 4
+        stubMonthlyTotals(
+            new BigDecimal[] {BigDecimal.valueOf(150), null, BigDecimal.ZERO, BigDecimal.valueOf(50)},
+            new BigDecimal[] {BigDecimal.valueOf(100), BigDecimal.valueOf(200), null, BigDecimal.valueOf(20)});
 
         List<MonthlyStats> stats = adminStatsService.getLastFourMonthsStats();
 
@@ -104,10 +102,7 @@ class AdminStatsServiceTest {
 
     @Test
     void getLastFourMonthsStats_shouldHandleAllNullValues() {
-        when(financialLogRepository.sumByTypeAndMonth(eq(FinancialLog.Type.revenue), anyString()))
-            .thenReturn(null, null, null, null);
-        when(financialLogRepository.sumByTypeAndMonth(eq(FinancialLog.Type.expense), anyString()))
-            .thenReturn(null, null, null, null);
+        stubMonthlyTotals(new BigDecimal[4], new BigDecimal[4]);
 
         List<MonthlyStats> stats = adminStatsService.getLastFourMonthsStats();
 
@@ -121,10 +116,8 @@ class AdminStatsServiceTest {
 
     @Test
     void getLastFourMonthsStats_shouldHandleAllZeroValues() {
-        when(financialLogRepository.sumByTypeAndMonth(eq(FinancialLog.Type.revenue), anyString()))
-            .thenReturn(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
-        when(financialLogRepository.sumByTypeAndMonth(eq(FinancialLog.Type.expense), anyString()))
-            .thenReturn(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+        BigDecimal zero = BigDecimal.ZERO;
+        stubMonthlyTotals(new BigDecimal[] {zero, zero, zero, zero}, new BigDecimal[] {zero, zero, zero, zero});
 
         List<MonthlyStats> stats = adminStatsService.getLastFourMonthsStats();
 
@@ -136,22 +129,41 @@ class AdminStatsServiceTest {
         }
     }
 
+    @Test
+    void getLastFourMonthsStats_shouldReadAllMonthsInOneRollupQuery() {
+        stubMonthlyTotals(new BigDecimal[4], new BigDecimal[4]);
+
+        adminStatsService.getLastFourMonthsStats();
+
+        YearMonth now = YearMonth.now();
+        verify(rollupRepository, times(1)).sumByMonthAndType(List.of(
+                now.minusMonths(1).toString(), now.minusMonths(2).toString(),
+                now.minusMonths(3).toString(), now.minusMonths(4).toString()));
+    }
+
+    @Test
+    void rebuildFinancialRollup_shouldDelegateToRollupService() {
+        when(financialRollupService.rebuild()).thenReturn(6);
+
+        assertEquals(6, adminStatsService.rebuildFinancialRollup());
+    }
+
     @Test
     void getUpcomingAppointments_shouldReturnList() {
-        List<Appointment> mockAppointments = List.of(new Appointment(), new Appointment());
-        when(appointmentRepository.findByAppointmentDateTimeAfterOrderByAppointmentDateTimeAsc(any()))
+        List<AppointmentSummary> mockAppointments = List.of(mock(AppointmentSummary.class), mock(AppointmentSummary.class));
+        when(appointmentRepository.findUpcomingSummaries(any()))
                 .thenReturn(mockAppointments);
 
-        List<Appointment> result = adminStatsService.getUpcomingAppointments();
+        List<AppointmentSummary> result = adminStatsService.getUpcomingAppointments();
         assertEquals(2, result.size());
     }
 
     @Test
     void getUpcomingAppointments_shouldReturnEmptyList_whenNoAppointmentsExist() {
-        when(appointmentRepository.findByAppointmentDateTimeAfterOrderByAppointmentDateTimeAsc(any()))
+        when(appointmentRepository.findUpcomingSummaries(any()))
                 .thenReturn(List.of());
 
-        List<Appointment> result = adminStatsService.getUpcomingAppointments();
+        List<AppointmentSummary> result = adminStatsService.getUpcomingAppointments();
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
@@ -173,4 +185,16 @@ class AdminStatsServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    // Rollup rows for the last four months, most recent first; null means no row for that month
+    private void stubMonthlyTotals(BigDecimal[] revenue, BigDecimal[] expenses) {
+        List<Object[]> rows = new ArrayList<>();
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i < 4; i++) {
+            String month = now.minusMonths(i + 1).toString();
+            if (revenue[i] != null) rows.add(new Object[] {month, FinancialLog.Type.revenue, revenue[i]});
+            if (expenses[i] != null) rows.add(new Object[] {month, FinancialLog.Type.expense, expenses[i]});
+        }
+        when(rollupRepository.sumByMonthAndType(anyCollection())).thenReturn(rows);
+    }
+}
@@ -0,0 +1,102 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.dto.AppointmentCounts;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AppointmentCountersTest {
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private AppointmentCounters appointmentCounters;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reconcile_shouldSeedFromGroupedRows() {
+        when(appointmentRepository.countGroupedByStatusGuestAndService()).thenReturn(List.of(
+                new Object[]{Appointment.Status.PENDING, true, 1L, 2L},
+                new Object[]{Appointment.Status.CONFIRMED, false, 1L, 3L},
+                new Object[]{Appointment.Status.CONFIRMED, true, 2L, 1L}));
+
+        appointmentCounters.reconcile();
+        AppointmentCounts counts = appointmentCounters.snapshot();
+
+        assertEquals(6, counts.getTotal());
+        assertEquals(3, counts.getGuestAppointments());
+        assertEquals(3, counts.getRegisteredAppointments());
+        assertEquals(Map.of("PENDING", 2L, "CONFIRMED", 4L, "CANCELLED", 0L), counts.getByStatus());
+        assertEquals(Map.of(1L, 5L, 2L, 1L), counts.getByService());
+        verify(appointmentRepository, times(1)).countGroupedByStatusGuestAndService();
+    }
+
+    @Test
+    void afterCommit_shouldMoveBetweenKeys_outsideTransaction() {
+        AppointmentCounters.Key pending = new AppointmentCounters.Key(Appointment.Status.PENDING, true, 1L);
+        AppointmentCounters.Key confirmed = new AppointmentCounters.Key(Appointment.Status.CONFIRMED, true, 1L);
+
+        appointmentCounters.afterCommit(null, pending);
+        appointmentCounters.afterCommit(pending, confirmed);
+        AppointmentCounts counts = appointmentCounters.snapshot();
+
+        assertEquals(1, counts.getTotal());
+        assertEquals(0L, counts.getByStatus().get("PENDING"));
+        assertEquals(1L, counts.getByStatus().get("CONFIRMED"));
+
+        appointmentCounters.afterCommit(confirmed, null);
+        assertEquals(0, appointmentCounters.snapshot().getTotal());
+        assertTrue(appointmentCounters.snapshot().getByService().isEmpty());
+    }
+
+    @Test
+    void afterCommit_shouldWaitForCommit_andIgnoreRollback() {
+        AppointmentCounters.Key key = new AppointmentCounters.Key(Appointment.Status.PENDING, false, 3L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        appointmentCounters.afterCommit(null, key);
+        assertEquals(0, appointmentCounters.snapshot().getTotal());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, appointmentCounters.snapshot().getRegisteredAppointments());
+    }
+
+    @Test
+    void reconcile_shouldCorrectDrift() {
+        appointmentCounters.afterCommit(null, new AppointmentCounters.Key(Appointment.Status.PENDING, true, 1L));
+        when(appointmentRepository.countGroupedByStatusGuestAndService()).thenReturn(List.of());
+
+        appointmentCounters.reconcile();
+
+        AppointmentCounts counts = appointmentCounters.snapshot();
+        assertEquals(0, counts.getTotal());
+        assertEquals(0L, counts.getByStatus().get("PENDING"));
+        assertTrue(counts.getByService().isEmpty());
+    }
+}
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
@@ -12,15 +14,23 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
 
+import com.tanyourpeach.backend.dto.AppointmentCounts;
+import com.tanyourpeach.backend.dto.AppointmentPage;
+import com.tanyourpeach.backend.dto.AppointmentSummary;
 import com.tanyourpeach.backend.model.*;
 import com.tanyourpeach.backend.repository.*;
-
-import jakarta.servlet.http.HttpServletRequest;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
 
 @SpringBootTest
 class AppointmentServiceTest {
@@ -33,23 +43,32 @@ class AppointmentServiceTest {
     @Mock
     private AvailabilityRepository availabilityRepository;
     @Mock
-    private FinancialLogRepository financialLogRepository;
-    @Mock
     private TanServiceRepository tanServiceRepository;
     @Mock
     private ServiceInventoryUsageRepository usageRepository;
     @Mock
     private InventoryRepository inventoryRepository;
     @Mock
-    private ReceiptRepository receiptRepository;
+    private OutboxEventRepository outboxEventRepository;
     @Mock
     private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
     @Mock
-    private JwtService jwtService;
+    private CurrentUser currentUser;
     @Mock
     private UserRepository userRepository;
     @Mock
-    private HttpServletRequest request;
+    private IdempotencyService idempotencyService;
+    @Mock
+    private AppointmentCounters appointmentCounters;
+
+    @Mock
+    private DaySheetService daySheetService;
+
+    @Mock
+    private InventoryForecastService inventoryForecastService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private Appointment testAppointment;
     private Availability testSlot;
@@ -86,12 +105,98 @@ class AppointmentServiceTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    void getAppointmentPage_shouldReturnNextCursor_whenMoreRowsExist() {
+        AppointmentSummary first = summary(10L, LocalDateTime.of(2025, 3, 1, 9, 0));
+        AppointmentSummary second = summary(11L, LocalDateTime.of(2025, 3, 1, 10, 0));
+        AppointmentSummary extra = summary(12L, LocalDateTime.of(2025, 3, 2, 9, 0));
+
+        when(appointmentRepository.findPage(eq(Appointment.Status.CONFIRMED), eq(1L),
+                eq(LocalDateTime.of(2025, 3, 1, 0, 0)), eq(LocalDateTime.of(2025, 4, 1, 0, 0)),
+                isNull(), isNull(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(first, second, extra));
+
+        AppointmentPage page = appointmentService.getAppointmentPage(Appointment.Status.CONFIRMED, 1L,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), null, 2);
+
+        assertEquals(List.of(first, second), page.getItems());
+        assertNotNull(page.getNextCursor());
+
+        AppointmentService.CursorPosition position = AppointmentService.decodeCursor(page.getNextCursor());
+        assertEquals(LocalDateTime.of(2025, 3, 1, 10, 0), position.dateTime());
+        assertEquals(11L, position.appointmentId());
+    }
+
+    @Test
+    void getAppointmentPage_shouldSeekPastCursor_andEndWithoutNextCursor() {
+        String cursor = AppointmentService.encodeCursor(LocalDateTime.of(2025, 3, 1, 10, 0), 11L);
+        AppointmentSummary last = summary(12L, LocalDateTime.of(2025, 3, 2, 9, 0));
+
+        when(appointmentRepository.findPage(isNull(), isNull(), isNull(), isNull(),
+                eq(LocalDateTime.of(2025, 3, 1, 10, 0)), eq(11L), eq(PageRequest.of(0, 51))))
+                .thenReturn(List.of(last));
+
+        AppointmentPage page = appointmentService.getAppointmentPage(null, null, null, null, cursor, null);
+
+        assertEquals(List.of(last), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getAppointmentPage_shouldRejectBadCursorLimitAndRange() {
+        assertThrows(ResponseStatusException.class,
+                () -> appointmentService.getAppointmentPage(null, null, null, null, "not-a-cursor", null));
+        assertThrows(ResponseStatusException.class,
+                () -> appointmentService.getAppointmentPage(null, null, null, null, null, 0));
+        assertThrows(ResponseStatusException.class,
+                () -> appointmentService.getAppointmentPage(null, null, null, null, null, 201));
+        assertThrows(ResponseStatusException.class,
+                () -> appointmentService.getAppointmentPage(null, null,
+                        LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1), null, null));
+
+        verify(appointmentRepository, never()).findPage(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getClientAppointmentPage_shouldQueryUpcomingAscendingFromNow() {
+        AppointmentSummary upcoming = summary(20L, LocalDateTime.now().plusDays(1));
+
+        when(appointmentRepository.findClientPageAscending(eq("client@example.com"), eq(7L), any(LocalDateTime.class),
+                isNull(), isNull(), eq(PageRequest.of(0, 11))))
+                .thenReturn(List.of(upcoming));
+
+        AppointmentPage page = appointmentService.getClientAppointmentPage(
+                "client@example.com", 7L, AppointmentService.HistoryScope.UPCOMING, null, 10);
+
+        assertEquals(List.of(upcoming), page.getItems());
+        assertNull(page.getNextCursor());
+        verify(appointmentRepository, never()).findAll();
+    }
+
+    @Test
+    void getClientAppointmentPage_shouldQueryPastDescendingBeforeNow_andAllWithoutBound() {
+        String cursor = AppointmentService.encodeCursor(LocalDateTime.of(2025, 1, 5, 9, 0), 3L);
+
+        when(appointmentRepository.findClientPageDescending(any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        appointmentService.getClientAppointmentPage("client@example.com", null,
+                AppointmentService.HistoryScope.PAST, cursor, null);
+        verify(appointmentRepository).findClientPageDescending(eq("client@example.com"), isNull(),
+                any(LocalDateTime.class), eq(LocalDateTime.of(2025, 1, 5, 9, 0)), eq(3L), eq(PageRequest.of(0, 51)));
+
+        appointmentService.getClientAppointmentPage("client@example.com", null,
+                AppointmentService.HistoryScope.ALL, null, null);
+        verify(appointmentRepository).findClientPageDescending(eq("client@example.com"), isNull(),
+                isNull(), isNull(), isNull(), eq(PageRequest.of(0, 51)));
+    }
+
     @Test
     void getAppointmentById_shouldReturnAppointmentIfExists() {
         Appointment mockAppointment = new Appointment();
         mockAppointment.setAppointmentId(1L);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(mockAppointment));
+        when(appointmentRepository.findDetailedByAppointmentId(1L)).thenReturn(Optional.of(mockAppointment));
 
         Optional<Appointment> result = appointmentService.getAppointmentById(1L);
 
@@ -101,13 +206,13 @@ class AppointmentServiceTest {
 
     @Test
     void getGuestVsRegisteredStats_shouldReturnCounts() {
-        when(appointmentRepository.countByUserIsNull()).thenReturn(3L);
-        when(appointmentRepository.countByUserIsNotNull()).thenReturn(7L);
+        when(appointmentCounters.snapshot()).thenReturn(new AppointmentCounts(10, 3, 7, Map.of(), Map.of()));
 
         Map<String, Long> stats = appointmentService.getGuestVsRegisteredStats();
 
         assertEquals(3L, stats.get("guestAppointments"));
         assertEquals(7L, stats.get("registeredAppointments"));
+        verifyNoInteractions(appointmentRepository);
     }
 
     @Test
@@ -120,12 +225,47 @@ class AppointmentServiceTest {
             return a;
         });
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
 
         assertTrue(result.isPresent());
         assertEquals(Appointment.Status.PENDING, result.get().getStatus());
         assertEquals(50.0, result.get().getBasePrice());
         assertNotNull(result.get().getAppointmentDateTime());
+        verify(appointmentCounters).afterCommit(null, AppointmentCounters.Key.of(result.get()));
+    }
+
+    @Test
+    void createAppointment_withIdempotencyKey_shouldRecordResponse() {
+        when(availabilityRepository.findBySlotIdForUpdate(1L)).thenReturn(Optional.of(testSlot));
+        when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        IdempotencyKeyId key = new IdempotencyKeyId("guest:client@example.com", "key-1");
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, key, "hash");
+
+        assertTrue(result.isPresent());
+        verify(idempotencyService).record(key, "hash", result.get());
+    }
+
+    @Test
+    void createAppointment_withIdempotencyKey_shouldNotRecordFailure() {
+        testSlot.setIsBooked(true);
+        when(availabilityRepository.findBySlotIdForUpdate(1L)).thenReturn(Optional.of(testSlot));
+
+        IdempotencyKeyId key = new IdempotencyKeyId("guest:client@example.com", "key-1");
+        assertTrue(appointmentService.createAppointment(testAppointment, key, "hash").isEmpty());
+        verifyNoInteractions(idempotencyService);
+    }
+
+    @Test
+    void createAppointment_shouldRecordSlotLockWait() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(appointmentService, "meterRegistry", registry);
+        when(availabilityRepository.findBySlotIdForUpdate(1L)).thenReturn(Optional.of(testSlot));
+        when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        appointmentService.createAppointment(testAppointment);
+
+        assertEquals(1, registry.get("booking.slot.lock.wait").tag("outcome", "locked").timer().count());
     }
 
     @Test
@@ -141,7 +281,7 @@ class AppointmentServiceTest {
             return a;
         });
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
 
         assertTrue(result.isPresent());
         verify(appointmentStatusHistoryRepository).save(argThat(history ->
@@ -151,17 +291,15 @@ class AppointmentServiceTest {
     }
 
     @Test
-    void createAppointment_shouldLinkUserIfTokenPresent() {
-        String token = "fake-jwt-token";
+    void createAppointment_shouldLinkUserIfSignedIn() {
         String email = "testuser@example.com";
 
         User mockUser = new User();
         mockUser.setUserId(42L);
         mockUser.setEmail(email);
 
-        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractUsername(token)).thenReturn(email);
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(mockUser));
+        when(currentUser.get()).thenReturn(Optional.of(new AuthenticatedUser(42L, email, "hash", false)));
+        when(userRepository.findById(42L)).thenReturn(Optional.of(mockUser));
 
         when(availabilityRepository.findBySlotIdForUpdate(1L)).thenReturn(Optional.of(testSlot));
         when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(testService));
@@ -171,7 +309,7 @@ class AppointmentServiceTest {
             return a;
         });
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
 
         assertTrue(result.isPresent());
         assertEquals(mockUser, result.get().getUser());
@@ -185,7 +323,7 @@ class AppointmentServiceTest {
         when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
         when(availabilityRepository.save(any())).thenReturn(testSlot);
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
 
         assertTrue(result.isPresent());
         assertEquals(Appointment.Status.PENDING, result.get().getStatus());
@@ -216,11 +354,9 @@ class AppointmentServiceTest {
         when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(appointmentStatusHistoryRepository.save(any())).thenReturn(null); // ignore result
 
-        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
-        when(mockRequest.getHeader("Authorization")).thenReturn(null); // No auth token
 
         // Act
-        Optional<Appointment> result = appointmentService.createAppointment(appointment, mockRequest);
+        Optional<Appointment> result = appointmentService.createAppointment(appointment);
 
         // Assert
         assertTrue(result.isPresent());
@@ -244,14 +380,14 @@ class AppointmentServiceTest {
 
         when(availabilityRepository.findBySlotIdForUpdate(123L)).thenReturn(Optional.of(slot));
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
     @Test
     void createAppointment_shouldFail_whenSlotMissing() {
         testAppointment.setAvailability(null); // no slot
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -259,7 +395,7 @@ class AppointmentServiceTest {
     void createAppointment_shouldFail_whenSlotNotFound() {
         when(availabilityRepository.findBySlotIdForUpdate(1L)).thenReturn(Optional.empty());
         when(availabilityRepository.findById(1L)).thenReturn(Optional.empty());
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -271,7 +407,7 @@ class AppointmentServiceTest {
         testAppointment.setAvailability(testSlot);
         testAppointment.setService(testService);
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -283,7 +419,7 @@ class AppointmentServiceTest {
         testAppointment.setAvailability(testSlot);
         testAppointment.setService(testService);
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -295,7 +431,7 @@ class AppointmentServiceTest {
         testAppointment.setAvailability(testSlot);
         testAppointment.setService(testService);
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -303,7 +439,7 @@ class AppointmentServiceTest {
     void createAppointment_shouldFail_whenTravelFeeNegative() {
         testAppointment.setTravelFee(-5.0);
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -316,7 +452,7 @@ class AppointmentServiceTest {
 
         testAppointment.setAvailability(null); // Missing
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -331,7 +467,7 @@ class AppointmentServiceTest {
         testAppointment.setAvailability(slot);
         testAppointment.setService(testService);
 
-        Optional<Appointment> result = appointmentService.createAppointment(testAppointment, request);
+        Optional<Appointment> result = appointmentService.createAppointment(testAppointment);
         assertTrue(result.isEmpty());
     }
 
@@ -356,20 +492,19 @@ class AppointmentServiceTest {
         updated.setAppointmentDateTime(LocalDateTime.now());
         updated.setAvailability(slot);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
         when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(testService));
         when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-        when(usageRepository.findByService_ServiceId(1L)).thenReturn(List.of());
-        when(receiptRepository.findByAppointment_AppointmentId(1L)).thenReturn(null);
+        when(usageRepository.findByServiceIdForUpdate(1L)).thenReturn(List.of());
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
 
         assertTrue(result.isPresent());
         assertEquals(Appointment.Status.CONFIRMED, result.get().getStatus());
     }
 
     @Test
-    void updateAppointment_shouldConfirmWithInventoryAndGenerateLogAndReceipt() {
+    void updateAppointment_shouldDeductInventoryAndEnqueueSideEffects() {
         Appointment existing = new Appointment();
         existing.setAppointmentId(1L);
         existing.setStatus(Appointment.Status.PENDING);
@@ -405,26 +540,32 @@ class AppointmentServiceTest {
         usage.setItem(item);
         usage.setQuantityUsed(5);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(existing));
         when(tanServiceRepository.findById(20L)).thenReturn(Optional.of(service));
-        when(usageRepository.findByService_ServiceId(20L)).thenReturn(List.of(usage));
-        when(inventoryRepository.findById(200L)).thenReturn(Optional.of(item));
+        when(usageRepository.findByServiceIdForUpdate(20L)).thenReturn(List.of(usage));
+        when(inventoryRepository.deductUsageForService(20L)).thenReturn(1);
         when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-        when(receiptRepository.findByAppointment_AppointmentId(1L)).thenReturn(null);
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
 
         assertTrue(result.isPresent());
-        verify(inventoryRepository).save(any()); // inventory deducted
-        verify(financialLogRepository).save(any()); // log generated
-        verify(receiptRepository).save(any()); // receipt generated
-
-        ArgumentCaptor<Receipt> receiptCaptor = ArgumentCaptor.forClass(Receipt.class);
-        verify(receiptRepository).save(receiptCaptor.capture());
-        Receipt savedReceipt = receiptCaptor.getValue();
-
-        assertEquals("Unpaid", savedReceipt.getPaymentMethod());
-        assertEquals(BigDecimal.valueOf(90.0), savedReceipt.getTotalAmount());
+        // inventory is deducted with the status change; revenue and receipt are left to the outbox worker
+        verify(inventoryRepository).deductUsageForService(20L);
+
+        ArgumentCaptor<OutboxEvent> eventCaptor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(eventCaptor.capture());
+        OutboxEvent event = eventCaptor.getValue();
+
+        assertEquals(OutboxEvent.Type.APPOINTMENT_CONFIRMED, event.getEventType());
+        assertEquals(1L, event.getAppointmentId());
+        assertEquals(20L, event.getServiceId());
+        assertEquals(BigDecimal.valueOf(90.0), event.getAmount());
+        assertEquals("Peachy", event.getClientName());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+
+        verify(appointmentCounters).afterCommit(
+                new AppointmentCounters.Key(Appointment.Status.PENDING, true, 20L),
+                new AppointmentCounters.Key(Appointment.Status.CONFIRMED, true, 20L));
     }
 
     @Test
@@ -461,11 +602,11 @@ class AppointmentServiceTest {
         updatedSlot.setSlotId(1L);
         updated.setAvailability(updatedSlot);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(existing));
         when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(service));
         when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
 
         assertTrue(result.isPresent());
         assertEquals(Appointment.Status.PENDING, result.get().getStatus());
@@ -493,16 +634,15 @@ class AppointmentServiceTest {
         updated.setTravelFee(0.0);
         updated.setAvailability(slot);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
         when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(testService));
         when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
 
         assertTrue(result.isPresent());
         verify(appointmentStatusHistoryRepository, never()).save(any());
-        verify(financialLogRepository, never()).save(any());
-        verify(receiptRepository, never()).save(any());
+        verify(outboxEventRepository, never()).save(any());
     }
 
     @Test
@@ -532,57 +672,17 @@ class AppointmentServiceTest {
         updated.setTravelFee(10.0);
         updated.setService(null); // Missing service triggers validation
 
-        when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(existing));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(appointmentId)).thenReturn(Optional.of(existing));
 
-        HttpServletRequest request = mock(HttpServletRequest.class);
-        when(request.getHeader("Authorization")).thenReturn(null);
 
         // Act
-        Optional<Appointment> result = appointmentService.updateAppointment(appointmentId, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(appointmentId, updated);
 
         // Assert
         assertTrue(result.isEmpty());
         verify(appointmentRepository, never()).save(any());
     }
 
-    @Test
-    void updateAppointment_shouldNotCreateReceipt_ifAlreadyExists() {
-        Appointment existing = new Appointment();
-        existing.setAppointmentId(1L);
-        existing.setStatus(Appointment.Status.PENDING);
-        existing.setBasePrice(100.0);
-        existing.setTravelFee(20.0);
-
-        Availability slot = new Availability();
-        slot.setSlotId(100L);
-        slot.setIsBooked(false);
-        existing.setAvailability(slot);
-
-        TanService service = new TanService();
-        service.setServiceId(42L);
-        existing.setService(service);
-
-        Appointment updated = new Appointment();
-        updated.setStatus(Appointment.Status.CONFIRMED);
-        updated.setService(service);
-        updated.setClientEmail("client@example.com");
-        updated.setClientName("Existing Client");
-        updated.setClientAddress("123 Peach St");
-        updated.setTravelFee(20.0);
-        updated.setAvailability(slot);
-
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(tanServiceRepository.findById(42L)).thenReturn(Optional.of(service));
-        when(usageRepository.findByService_ServiceId(42L)).thenReturn(List.of());
-        when(receiptRepository.findByAppointment_AppointmentId(1L)).thenReturn(new Receipt()); // already exists
-        when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
-
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
-
-        assertTrue(result.isPresent());
-        verify(receiptRepository, never()).save(any());
-    }
-
     @Test
     void updateAppointment_shouldNotDeductInventory_ifNotConfirmed() {
         // Arrange
@@ -619,15 +719,13 @@ class AppointmentServiceTest {
         updated.setService(service);
         updated.setAvailability(slot);
 
-        when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(existing));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(appointmentId)).thenReturn(Optional.of(existing));
         when(tanServiceRepository.findById(10L)).thenReturn(Optional.of(service));
         when(appointmentRepository.save(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        HttpServletRequest request = mock(HttpServletRequest.class);
-        when(request.getHeader("Authorization")).thenReturn(null); // No auth needed
 
         // Act
-        Optional<Appointment> result = appointmentService.updateAppointment(appointmentId, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(appointmentId, updated);
 
         // Assert
         assertTrue(result.isPresent());
@@ -636,8 +734,10 @@ class AppointmentServiceTest {
         // Make sure total price is still correct
         assertEquals(65.0, saved.getTotalPrice());
 
-        // Verify inventoryRepository was NOT called (no deduction)
-        verify(inventoryRepository, never()).save(any());
+        // No stock check or deduction, and nothing queued for the worker
+        verify(usageRepository, never()).findByServiceIdForUpdate(any());
+        verify(inventoryRepository, never()).deductUsageForService(any());
+        verify(outboxEventRepository, never()).save(any());
     }
 
     @Test
@@ -652,7 +752,7 @@ class AppointmentServiceTest {
         service.setServiceId(10L);
         existing.setService(service);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(existing));
 
         // ServiceInventoryUsage requires more than available
         Inventory item = new Inventory();
@@ -663,8 +763,7 @@ class AppointmentServiceTest {
         usage.setItem(item);
         usage.setQuantityUsed(5); // more than available
 
-        when(usageRepository.findByService_ServiceId(10L)).thenReturn(List.of(usage));
-        when(inventoryRepository.findById(100L)).thenReturn(Optional.of(item));
+        when(usageRepository.findByServiceIdForUpdate(10L)).thenReturn(List.of(usage));
 
         // Simulate client confirming the appointment
         Appointment updated = new Appointment();
@@ -672,11 +771,111 @@ class AppointmentServiceTest {
         updated.setService(service);
         updated.setClientEmail("client@example.com");
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
 
         assertTrue(result.isEmpty()); // Expect failure due to insufficient inventory
-        verify(financialLogRepository, never()).save(any());
-        verify(receiptRepository, never()).save(any());
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void updateAppointment_shouldFailConfirmation_whenStockIsShortWithValidInput() {
+        Availability slot = new Availability();
+        slot.setSlotId(100L);
+        testAppointment.setAvailability(slot);
+        testAppointment.setStatus(Appointment.Status.PENDING);
+
+        Inventory item = new Inventory();
+        item.setItemId(100L);
+        item.setQuantity(1);
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setItem(item);
+        usage.setQuantityUsed(2);
+
+        Appointment updated = new Appointment();
+        updated.setClientName("Client");
+        updated.setClientEmail("client@example.com");
+        updated.setClientAddress("456 Peach St");
+        updated.setStatus(Appointment.Status.CONFIRMED);
+        updated.setService(testService);
+        updated.setAvailability(slot);
+
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
+        when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(usageRepository.findByServiceIdForUpdate(1L)).thenReturn(List.of(usage));
+
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
+
+        assertTrue(result.isEmpty());
+        verify(inventoryRepository, never()).deductUsageForService(any());
+        verify(outboxEventRepository, never()).save(any());
+        verify(appointmentRepository, never()).save(any());
+    }
+
+    @Test
+    void updateAppointment_shouldThrow_whenDeductionMissesLockedItems() {
+        Availability slot = new Availability();
+        slot.setSlotId(100L);
+        testAppointment.setAvailability(slot);
+        testAppointment.setStatus(Appointment.Status.PENDING);
+
+        Inventory item = new Inventory();
+        item.setItemId(100L);
+        item.setQuantity(10);
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setItem(item);
+        usage.setQuantityUsed(2);
+
+        Appointment updated = new Appointment();
+        updated.setClientName("Client");
+        updated.setClientEmail("client@example.com");
+        updated.setClientAddress("456 Peach St");
+        updated.setStatus(Appointment.Status.CONFIRMED);
+        updated.setService(testService);
+        updated.setAvailability(slot);
+
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
+        when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(usageRepository.findByServiceIdForUpdate(1L)).thenReturn(List.of(usage));
+        when(inventoryRepository.deductUsageForService(1L)).thenReturn(0);
+
+        // the exception rolls back the whole confirmation
+        assertThrows(IllegalStateException.class, () -> appointmentService.updateAppointment(1L, updated));
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void updateAppointment_shouldPublishLowStockEvent_whenConfirmationCrossesThreshold() {
+        Availability slot = new Availability();
+        slot.setSlotId(100L);
+        testAppointment.setAvailability(slot);
+        testAppointment.setStatus(Appointment.Status.PENDING);
+
+        Inventory item = new Inventory();
+        item.setItemId(200L);
+        item.setItemName("Solution");
+        item.setQuantity(10);
+        item.setLowStockThreshold(5); // 10 - 5 = 5 is at the threshold
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setItem(item);
+        usage.setQuantityUsed(5);
+
+        Appointment updated = new Appointment();
+        updated.setClientName("Client");
+        updated.setClientEmail("client@example.com");
+        updated.setClientAddress("456 Peach St");
+        updated.setStatus(Appointment.Status.CONFIRMED);
+        updated.setService(testService);
+        updated.setAvailability(slot);
+
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
+        when(tanServiceRepository.findById(1L)).thenReturn(Optional.of(testService));
+        when(usageRepository.findByServiceIdForUpdate(1L)).thenReturn(List.of(usage));
+        when(inventoryRepository.deductUsageForService(1L)).thenReturn(1);
+        when(appointmentRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        assertTrue(appointmentService.updateAppointment(1L, updated).isPresent());
+
+        verify(eventPublisher).publishEvent(new InventoryLowStockEvent(200L, "Solution", 5, 5));
     }
 
     @Test
@@ -692,9 +891,9 @@ class AppointmentServiceTest {
         updated.setAvailability(null); // Missing
         updated.setService(testService);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
@@ -715,10 +914,10 @@ class AppointmentServiceTest {
         updated.setService(testService);
         updated.setAvailability(newSlot);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
         when(availabilityRepository.findBySlotIdForUpdate(456L)).thenReturn(Optional.of(newSlot));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
@@ -734,9 +933,9 @@ class AppointmentServiceTest {
         updated.setStatus(Appointment.Status.CONFIRMED);
         updated.setService(testService);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
@@ -752,9 +951,9 @@ class AppointmentServiceTest {
         updated.setStatus(Appointment.Status.CONFIRMED);
         updated.setService(testService);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
@@ -770,9 +969,9 @@ class AppointmentServiceTest {
         updated.setStatus(Appointment.Status.CONFIRMED);
         updated.setService(testService);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
@@ -787,17 +986,17 @@ class AppointmentServiceTest {
         updated.setStatus(Appointment.Status.CONFIRMED);
         updated.setTravelFee(-2.0);
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(testAppointment));
 
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
     @Test
     void updateAppointment_shouldFail_whenAppointmentNotFound() {
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.empty());
         Appointment updated = new Appointment();
-        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated, request);
+        Optional<Appointment> result = appointmentService.updateAppointment(1L, updated);
         assertTrue(result.isEmpty());
     }
 
@@ -813,7 +1012,7 @@ class AppointmentServiceTest {
         appointment.setAvailability(availability);
 
         // Mock the repository behavior
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(appointment));
 
         // Call the method
         boolean result = appointmentService.deleteAppointment(1L);
@@ -822,6 +1021,7 @@ class AppointmentServiceTest {
         assertTrue(result);
         verify(availabilityRepository).save(availability); // slot should be unbooked
         verify(appointmentRepository).deleteById(1L);
+        verify(appointmentCounters).afterCommit(AppointmentCounters.Key.of(appointment), null);
     }
 
     @Test
@@ -830,7 +1030,7 @@ class AppointmentServiceTest {
         appointment.setAppointmentId(1L);
         appointment.setAvailability(null); // no slot linked
 
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(appointment));
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.of(appointment));
 
         boolean result = appointmentService.deleteAppointment(1L);
 
@@ -841,7 +1041,7 @@ class AppointmentServiceTest {
 
     @Test
     void deleteAppointment_shouldFail_whenAppointmentNotFound() {
-        when(appointmentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(appointmentRepository.findWithAvailabilityByAppointmentId(1L)).thenReturn(Optional.empty());
 
         boolean result = appointmentService.deleteAppointment(1L);
 
@@ -849,4 +1049,9 @@ class AppointmentServiceTest {
         verify(appointmentRepository, never()).deleteById(anyLong());
         verify(availabilityRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    private static AppointmentSummary summary(Long id, LocalDateTime dateTime) {
+        return new AppointmentSummary(id, "Client", "client@example.com", null, 1L, "Glow",
+                id, dateTime, dateTime.toLocalTime().plusMinutes(30), Appointment.Status.PENDING, 50.0);
+    }
+}
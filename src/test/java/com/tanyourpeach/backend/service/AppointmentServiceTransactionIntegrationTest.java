@@ -3,7 +3,6 @@ package com.tanyourpeach.backend.service;
 import com.tanyourpeach.backend.model.*;
 import com.tanyourpeach.backend.repository.*;
 import com.tanyourpeach.backend.util.TestDataCleaner;
-import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +13,11 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +34,8 @@ class AppointmentServiceTransactionIntegrationTest {
     @Autowired private InventoryRepository inventoryRepository;
     @Autowired private ServiceInventoryUsageRepository usageRepository;
     @Autowired private FinancialLogRepository financialLogRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private OutboxWorker outboxWorker;
 
     @MockitoSpyBean
     private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
@@ -40,14 +46,9 @@ class AppointmentServiceTransactionIntegrationTest {
     @MockitoSpyBean
     private AppointmentRepository appointmentRepositorySpy;
 
-    private HttpServletRequest request;
-
     @BeforeEach
     void setUp() {
         testDataCleaner.cleanAll();
-
-        request = mock(HttpServletRequest.class);
-        when(request.getHeader("Authorization")).thenReturn(null);
     }
 
     @Test
@@ -68,7 +69,7 @@ class AppointmentServiceTransactionIntegrationTest {
                 .save(any(AppointmentStatusHistory.class));
 
         assertThrows(RuntimeException.class,
-                () -> appointmentService.createAppointment(appointment, request));
+                () -> appointmentService.createAppointment(appointment));
 
         assertTrue(appointmentRepository.findAll().isEmpty());
         assertTrue(appointmentStatusHistoryRepository.findAll().isEmpty());
@@ -80,45 +81,120 @@ class AppointmentServiceTransactionIntegrationTest {
     }
 
     @Test
-    void updateAppointment_shouldRollbackConfirmationSideEffects_whenReceiptSaveFails() {
+    void updateAppointment_shouldRollbackStatusAndOutboxEvent_whenStatusHistorySaveFails() {
+        TanService service = saveService();
+        Availability availability = saveAvailability(true);
+        Appointment appointment = savePendingAppointment(service, availability);
+
+        doThrow(new RuntimeException("forced status history failure"))
+                .when(appointmentStatusHistoryRepository)
+                .save(any(AppointmentStatusHistory.class));
+
+        assertThrows(RuntimeException.class,
+                () -> appointmentService.updateAppointment(appointment.getAppointmentId(), confirmation(service, availability)));
+
+        assertEquals(Appointment.Status.PENDING,
+                appointmentRepository.findById(appointment.getAppointmentId()).orElseThrow().getStatus());
+        assertTrue(outboxEventRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void updateAppointment_shouldDeductInventory_andLeaveRevenueAndReceiptToOutboxWorker() {
+        TanService service = saveService();
+        Availability availability = saveAvailability(true);
+        Appointment appointment = savePendingAppointment(service, availability);
+        Inventory inventory = saveInventory(10);
+        saveUsage(service, inventory, 2);
+
+        assertTrue(appointmentService.updateAppointment(appointment.getAppointmentId(), confirmation(service, availability)).isPresent());
+
+        // stock is deducted with the status change; the event is committed but not yet applied
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        assertEquals(8, inventoryRepository.findById(inventory.getItemId()).orElseThrow().getQuantity());
+        assertTrue(financialLogRepository.findAll().isEmpty());
+        assertTrue(receiptRepository.findAll().isEmpty());
+
+        assertEquals(1, outboxWorker.drain());
+        assertEquals(0, outboxWorker.drain());
+
+        assertEquals(8, inventoryRepository.findById(inventory.getItemId()).orElseThrow().getQuantity());
+        assertEquals(1, financialLogRepository.findAll().size());
+        assertEquals(1, receiptRepository.findAll().size());
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEvent.Status.DONE));
+    }
+
+    @Test
+    void outboxWorker_shouldRollbackSideEffectsAndRetryOnce_whenReceiptSaveFails() {
         TanService service = saveService();
         Availability availability = saveAvailability(true);
         Appointment appointment = savePendingAppointment(service, availability);
         Inventory inventory = saveInventory(10);
         saveUsage(service, inventory, 2);
+        assertTrue(appointmentService.updateAppointment(appointment.getAppointmentId(), confirmation(service, availability)).isPresent());
 
         doThrow(new RuntimeException("forced receipt failure"))
                 .when(receiptRepository)
                 .save(any(Receipt.class));
 
-        Appointment updated = new Appointment();
-        updated.setService(serviceRef(service));
-        updated.setAvailability(availabilityRef(availability));
-        updated.setClientName("Confirmed Client");
-        updated.setClientEmail("rollback-confirm@example.com");
-        updated.setClientAddress("456 Peach Ave");
-        updated.setAppointmentDateTime(LocalDateTime.of(availability.getDate(), availability.getStartTime()));
-        updated.setTravelFee(5.0);
-        updated.setStatus(Appointment.Status.CONFIRMED);
+        assertEquals(0, outboxWorker.drain());
 
-        assertThrows(RuntimeException.class,
-                () -> appointmentService.updateAppointment(appointment.getAppointmentId(), updated, request));
+        // the confirmation and its deduction stand; everything the event did was rolled back and it waits for a retry
+        assertEquals(Appointment.Status.CONFIRMED,
+                appointmentRepository.findById(appointment.getAppointmentId()).orElseThrow().getStatus());
+        assertEquals(8, inventoryRepository.findById(inventory.getItemId()).orElseThrow().getQuantity());
+        assertTrue(financialLogRepository.findAll().isEmpty());
+        assertTrue(receiptRepository.findAll().isEmpty());
 
-        Appointment reloadedAppointment =
-                appointmentRepository.findById(appointment.getAppointmentId()).orElseThrow();
+        OutboxEvent event = outboxEventRepository.findAll().get(0);
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals("forced receipt failure", event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
 
-        assertEquals(Appointment.Status.PENDING, reloadedAppointment.getStatus());
+        // make the retry due now and let the receipt save succeed
+        reset(receiptRepository);
+        event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(event);
 
-        Inventory reloadedInventory =
-                inventoryRepository.findById(inventory.getItemId()).orElseThrow();
+        assertEquals(1, outboxWorker.drain());
 
-        assertEquals(10, reloadedInventory.getQuantity());
+        assertEquals(8, inventoryRepository.findById(inventory.getItemId()).orElseThrow().getQuantity());
+        assertEquals(1, financialLogRepository.findAll().size());
+        assertEquals(1, receiptRepository.findAll().size());
+    }
 
-        assertTrue(financialLogRepository.findAll().isEmpty());
-        assertTrue(receiptRepository.findAll().isEmpty());
+    @Test
+    void updateAppointment_shouldDeductStockOnce_whenTwoConfirmationsRace() throws Exception {
+        TanService service = saveService();
+        Inventory inventory = saveInventory(3);
+        saveUsage(service, inventory, 2);
 
-        assertFalse(appointmentStatusHistoryRepository.findAll().stream()
-                .anyMatch(history -> "CONFIRMED".equals(history.getStatus())));
+        Availability firstSlot = saveAvailability(true);
+        Availability secondSlot = saveAvailability(true);
+        Appointment first = savePendingAppointment(service, firstSlot);
+        Appointment second = savePendingAppointment(service, secondSlot);
+
+        // the 3 units in stock cover only one; the second confirmation waits on the row lock and is rejected
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<Boolean> a = executor.submit(() -> confirmAfter(start, first, service, firstSlot));
+            Future<Boolean> b = executor.submit(() -> confirmAfter(start, second, service, secondSlot));
+            start.countDown();
+
+            assertTrue(a.get(30, TimeUnit.SECONDS) ^ b.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, inventoryRepository.findById(inventory.getItemId()).orElseThrow().getQuantity());
+        assertEquals(1, appointmentRepository.findAll().stream()
+                .filter(a -> a.getStatus() == Appointment.Status.CONFIRMED).count());
+        assertEquals(1, outboxEventRepository.count());
+
+        assertEquals(1, outboxWorker.drain());
+        assertEquals(1, financialLogRepository.findAll().size());
+        assertEquals(1, outboxEventRepository.countByStatus(OutboxEvent.Status.DONE));
     }
 
     @Test
@@ -204,6 +280,24 @@ class AppointmentServiceTransactionIntegrationTest {
         usageRepository.save(usage);
     }
 
+    private boolean confirmAfter(CountDownLatch start, Appointment appointment, TanService service, Availability slot)
+            throws InterruptedException {
+        start.await();
+        return appointmentService.updateAppointment(appointment.getAppointmentId(), confirmation(service, slot)).isPresent();
+    }
+
+    private Appointment confirmation(TanService service, Availability slot) {
+        Appointment updated = new Appointment();
+        updated.setService(serviceRef(service));
+        updated.setAvailability(availabilityRef(slot));
+        updated.setClientName("Confirmed Client");
+        updated.setClientEmail("confirm@example.com");
+        updated.setClientAddress("789 Peach Ln");
+        updated.setTravelFee(5.0);
+        updated.setStatus(Appointment.Status.CONFIRMED);
+        return updated;
+    }
+
     private TanService serviceRef(TanService service) {
         TanService ref = new TanService();
         ref.setServiceId(service.getServiceId());
@@ -1,20 +1,35 @@
 package com.tanyourpeach.backend.service;
 
+import com.tanyourpeach.backend.dto.AvailabilityTemplateRequest;
+import com.tanyourpeach.backend.dto.AvailabilityTemplateResult;
 import com.tanyourpeach.backend.model.Availability;
 import com.tanyourpeach.backend.repository.AvailabilityRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class AvailabilityServiceTest {
@@ -22,6 +37,12 @@ class AvailabilityServiceTest {
     @Mock
     private AvailabilityRepository availabilityRepository;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DaySheetService daySheetService;
+
     @InjectMocks
     private AvailabilityService availabilityService;
 
@@ -81,7 +102,7 @@ class AvailabilityServiceTest {
         adjacent.setStartTime(LocalTime.of(11, 0));
         adjacent.setEndTime(LocalTime.of(12, 0));
 
-        when(availabilityRepository.findByDate(existing.getDate()))
+        when(availabilityRepository.findByDateForUpdate(existing.getDate()))
                 .thenReturn(List.of(existing));
 
         when(availabilityRepository.save(any()))
@@ -129,7 +150,7 @@ class AvailabilityServiceTest {
         newSlot.setStartTime(LocalTime.of(10, 30)); // overlaps
         newSlot.setEndTime(LocalTime.of(11, 30));
 
-        when(availabilityRepository.findByDate(LocalDate.now().plusDays(10))).thenReturn(List.of(existingSlot));
+        when(availabilityRepository.findByDateForUpdate(LocalDate.now().plusDays(10))).thenReturn(List.of(existingSlot));
 
         Availability result = availabilityService.createAvailability(newSlot);
         assertNull(result);
@@ -167,6 +188,22 @@ class AvailabilityServiceTest {
         assertTrue(result.get().getIsBooked());
     }
 
+    @Test
+    void updateAvailability_shouldEvictDaySheetsOfOldAndNewDate() {
+        LocalDate previousDate = availability.getDate();
+        when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
+        when(availabilityRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Availability updated = new Availability();
+        updated.setDate(previousDate.plusDays(1));
+        updated.setStartTime(LocalTime.of(10, 0));
+        updated.setEndTime(LocalTime.of(11, 30));
+        updated.setIsBooked(true);
+
+        assertTrue(availabilityService.updateAvailability(1L, updated).isPresent());
+        verify(daySheetService).evictDaysAfterCommit(previousDate, previousDate.plusDays(1));
+    }
+
     @Test
     void updateAvailability_shouldUpdateAllFieldsCorrectly() {
         when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
@@ -234,7 +271,7 @@ class AvailabilityServiceTest {
         existingSlot.setEndTime(LocalTime.of(13, 0));
 
         when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
-        when(availabilityRepository.findByDate(LocalDate.now().plusDays(10))).thenReturn(List.of(availability, existingSlot));
+        when(availabilityRepository.findByDateForUpdate(LocalDate.now().plusDays(10))).thenReturn(List.of(availability, existingSlot));
 
         Availability updated = new Availability();
         updated.setDate(LocalDate.now().plusDays(10));
@@ -264,7 +301,7 @@ class AvailabilityServiceTest {
 
     @Test
     void deleteAvailability_shouldReturnTrueWhenExists() {
-        when(availabilityRepository.existsById(1L)).thenReturn(true);
+        when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
 
         boolean deleted = availabilityService.deleteAvailability(1L);
         assertTrue(deleted);
@@ -273,9 +310,208 @@ class AvailabilityServiceTest {
 
     @Test
     void deleteAvailability_shouldReturnFalseIfNotExists() {
-        when(availabilityRepository.existsById(99L)).thenReturn(false);
+        when(availabilityRepository.findById(99L)).thenReturn(Optional.empty());
 
         boolean deleted = availabilityService.deleteAvailability(99L);
         assertFalse(deleted);
+        verify(availabilityRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void deleteAvailability_shouldFreeTheIntervalForLaterCreates() {
+        LocalDate date = availability.getDate();
+        when(availabilityRepository.findByDateForUpdate(date)).thenReturn(List.of(availability));
+        when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
+
+        Availability sameTime = new Availability();
+        sameTime.setDate(date);
+        sameTime.setStartTime(LocalTime.of(10, 0));
+        sameTime.setEndTime(LocalTime.of(11, 0));
+        assertNull(availabilityService.createAvailability(sameTime));
+
+        availabilityService.deleteAvailability(1L);
+        when(availabilityRepository.findByDateForUpdate(date)).thenReturn(List.of());
+        when(availabilityRepository.save(any())).thenAnswer(i -> {
+            Availability saved = i.getArgument(0);
+            saved.setSlotId(5L);
+            return saved;
+        });
+
+        assertNotNull(availabilityService.createAvailability(sameTime));
+    }
+
+    @Test
+    void createAvailability_shouldCheckLockedRowsOnEveryWrite() {
+        LocalDate date = availability.getDate();
+        when(availabilityRepository.findByDateForUpdate(date)).thenReturn(List.of());
+        when(availabilityRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        Availability afternoon = new Availability();
+        afternoon.setDate(date);
+        afternoon.setStartTime(LocalTime.of(14, 0));
+        afternoon.setEndTime(LocalTime.of(15, 0));
+        assertNotNull(availabilityService.createAvailability(afternoon));
+
+        // a slot written by another instance in the meantime is seen by the next check
+        when(availabilityRepository.findByDateForUpdate(date)).thenReturn(List.of(availability));
+        Availability clash = new Availability();
+        clash.setDate(date);
+        clash.setStartTime(LocalTime.of(10, 30));
+        clash.setEndTime(LocalTime.of(11, 30));
+        assertNull(availabilityService.createAvailability(clash));
+
+        verify(availabilityRepository, times(2)).findByDateForUpdate(date);
+        verify(availabilityRepository, never()).findByDate(any());
+    }
+
+    @Test
+    void createAvailability_shouldNotWaitForWritersOnOtherDates() throws Exception {
+        LocalDate blockedDate = availability.getDate();
+        LocalDate otherDate = blockedDate.plusDays(1);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(availabilityRepository.findByDateForUpdate(blockedDate)).thenAnswer(i -> {
+            inside.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        when(availabilityRepository.findByDateForUpdate(otherDate)).thenReturn(List.of());
+        when(availabilityRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        Availability first = new Availability();
+        first.setDate(blockedDate);
+        first.setStartTime(LocalTime.of(14, 0));
+        first.setEndTime(LocalTime.of(15, 0));
+        Availability second = new Availability();
+        second.setDate(otherDate);
+        second.setStartTime(LocalTime.of(14, 0));
+        second.setEndTime(LocalTime.of(15, 0));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Availability> blocked = executor.submit(() -> availabilityService.createAvailability(first));
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            // runs while the first writer still holds its date's lock
+            assertNotNull(availabilityService.createAvailability(second));
+
+            release.countDown();
+            assertNotNull(blocked.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void updateAvailability_shouldCheckOverlapsOnTheNewDay() {
+        LocalDate newDate = availability.getDate().plusDays(1);
+        Availability other = new Availability();
+        other.setSlotId(2L);
+        other.setDate(newDate);
+        other.setStartTime(LocalTime.of(10, 30));
+        other.setEndTime(LocalTime.of(11, 30));
+        when(availabilityRepository.findByDateForUpdate(newDate)).thenReturn(List.of(other));
+        when(availabilityRepository.findById(1L)).thenReturn(Optional.of(availability));
+
+        Availability moved = new Availability();
+        moved.setDate(newDate);
+        moved.setStartTime(LocalTime.of(10, 0));
+        moved.setEndTime(LocalTime.of(11, 0));
+
+        assertTrue(availabilityService.updateAvailability(1L, moved).isEmpty());
+        verify(availabilityRepository, never()).save(any());
+    }
+
+    @Test
+    void getAvailableSlotsInRange_shouldUseSingleRangeQuery() {
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(6);
+        when(availabilityRepository.findByIsBookedFalseAndDateBetweenOrderByDateAscStartTimeAsc(from, to))
+                .thenReturn(List.of(availability));
+
+        List<Availability> result = availabilityService.getAvailableSlotsInRange(from, to);
+        assertEquals(1, result.size());
+        verify(availabilityRepository, never()).findByIsBookedFalseAndDate(any());
+    }
+
+    @Test
+    void getAvailableSlotsInRange_shouldRejectInvalidWindows() {
+        LocalDate from = LocalDate.now();
+
+        assertNull(availabilityService.getAvailableSlotsInRange(from, from.minusDays(1)));
+        assertNull(availabilityService.getAvailableSlotsInRange(from, from.plusDays(AvailabilityService.MAX_RANGE_DAYS)));
+        assertNull(availabilityService.getAvailableSlotsInRange(null, from));
+        assertNotNull(availabilityService.getAvailableSlotsInRange(from, from.plusDays(AvailabilityService.MAX_RANGE_DAYS - 1)));
+        verify(availabilityRepository, times(1))
+                .findByIsBookedFalseAndDateBetweenOrderByDateAscStartTimeAsc(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateFromTemplate_shouldBatchInsertNonOverlappingSlots() {
+        LocalDate monday = LocalDate.now().plusWeeks(1).with(DayOfWeek.MONDAY);
+        AvailabilityTemplateRequest template = template(monday, monday.plusDays(6), Set.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY));
+
+        // existing slot on Tuesday 10:00-11:00 clashes with the 09:00-10:30 and 10:30-12:00 template slots
+        Availability existing = new Availability();
+        existing.setSlotId(3L);
+        existing.setDate(monday.plusDays(1));
+        existing.setStartTime(LocalTime.of(10, 0));
+        existing.setEndTime(LocalTime.of(11, 0));
+        when(availabilityRepository.findByDateInForUpdate(Set.of(monday.plusDays(1), monday.plusDays(5))))
+                .thenReturn(List.of(existing));
+
+        AvailabilityTemplateResult result = availabilityService.generateFromTemplate(template);
+
+        // 09:00-17:00 in 90-minute slots gives 5 per day, on 2 days
+        assertEquals(8, result.getCreated());
+        assertEquals(2, result.getSkipped());
+
+        ArgumentCaptor<Collection<Availability>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), eq(AvailabilityService.TEMPLATE_BATCH_SIZE),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(8, rows.getValue().size());
+        assertTrue(rows.getValue().stream().allMatch(slot -> slot.getEndTime().isBefore(LocalTime.of(17, 1))));
+        verify(availabilityRepository, never()).findByDateForUpdate(any());
+        verify(availabilityRepository, never()).save(any());
+    }
+
+    @Test
+    void generateFromTemplate_shouldRejectInvalidTemplates() {
+        LocalDate from = LocalDate.now().plusDays(1);
+
+        AvailabilityTemplateRequest endBeforeStart = template(from, from.plusDays(7), Set.of(DayOfWeek.MONDAY));
+        endBeforeStart.setEndTime(LocalTime.of(8, 0));
+        assertNull(availabilityService.generateFromTemplate(endBeforeStart));
+
+        assertNull(availabilityService.generateFromTemplate(template(LocalDate.now().minusDays(1), from, Set.of(DayOfWeek.MONDAY))));
+        assertNull(availabilityService.generateFromTemplate(template(from, from.plusDays(AvailabilityService.MAX_TEMPLATE_DAYS), Set.of(DayOfWeek.MONDAY))));
+        assertNull(availabilityService.generateFromTemplate(template(from, from.plusDays(7), Set.of())));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void generateFromTemplate_shouldRejectTemplatesOverSlotLimit() {
+        LocalDate from = LocalDate.now().plusDays(1);
+        AvailabilityTemplateRequest template = template(from, from.plusDays(AvailabilityService.MAX_TEMPLATE_DAYS - 1), Set.of(DayOfWeek.values()));
+        template.setStartTime(LocalTime.of(0, 0));
+        template.setEndTime(LocalTime.of(23, 0));
+        template.setSlotMinutes(5);
+
+        assertNull(availabilityService.generateFromTemplate(template));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private AvailabilityTemplateRequest template(LocalDate from, LocalDate to, Set<DayOfWeek> days) {
+        AvailabilityTemplateRequest template = new AvailabilityTemplateRequest();
+        template.setDaysOfWeek(days);
+        template.setStartTime(LocalTime.of(9, 0));
+        template.setEndTime(LocalTime.of(17, 0));
+        template.setSlotMinutes(90);
+        template.setFromDate(from);
+        template.setToDate(to);
+        return template;
     }
-}
\ No newline at end of file
+}
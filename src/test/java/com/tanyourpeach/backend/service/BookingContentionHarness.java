@@ -0,0 +1,267 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.Availability;
+import com.tanyourpeach.backend.model.TanService;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.AvailabilityRepository;
+import com.tanyourpeach.backend.repository.TanServiceRepository;
+import com.tanyourpeach.backend.util.TestDataCleaner;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Load harness for slot contention in createAppointment; not picked up by a plain `mvn test`.
+// Run with: ./mvnw test -Dtest=BookingContentionHarness [-Dload.clients=200 -Dload.slots=8 -Dload.rounds=5 ...]
+// Seeds a Saturday of slots into in-memory H2 (MySQL mode), releases all clients at once through the
+// real service and transaction layer, and prints throughput, lock wait, latency and double bookings.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking_contention;MODE=MySQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=30000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=${load.pool-size:20}",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.flyway.enabled=false"
+})
+class BookingContentionHarness {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 200);
+    private static final int SLOTS = Integer.getInteger("load.slots", 8);
+    private static final int ROUNDS = Integer.getInteger("load.rounds", 5);
+    private static final int WARMUP_ROUNDS = Integer.getInteger("load.warmup-rounds", 1);
+    private static final int THREADS = Integer.getInteger("load.threads", CLIENTS);
+
+    @Autowired private AppointmentService appointmentService;
+    @Autowired private AvailabilityRepository availabilityRepository;
+    @Autowired private AppointmentRepository appointmentRepository;
+    @Autowired private TanServiceRepository tanServiceRepository;
+    @Autowired private TestDataCleaner testDataCleaner;
+    @Autowired private LockWaitRecorder lockWaitRecorder;
+
+    // Times every locked slot read issued by the service
+    @TestConfiguration
+    static class HarnessConfig {
+
+        @Bean
+        LockWaitRecorder lockWaitRecorder() {
+            return new LockWaitRecorder();
+        }
+
+        @Bean
+        static BeanPostProcessor lockWaitTimer(LockWaitRecorder recorder) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof AvailabilityRepository)) return bean;
+                    ProxyFactory proxy = new ProxyFactory(bean);
+                    proxy.addAdvice((MethodInterceptor) invocation -> {
+                        if (!invocation.getMethod().getName().equals("findBySlotIdForUpdate")) {
+                            return invocation.proceed();
+                        }
+                        long start = System.nanoTime();
+                        Object result = invocation.proceed();
+                        recorder.record(System.nanoTime() - start, result instanceof Optional<?> o && o.isEmpty());
+                        return result;
+                    });
+                    return proxy.getProxy();
+                }
+            };
+        }
+    }
+
+    static class LockWaitRecorder {
+        final ConcurrentLinkedQueue<Long> waitsNanos = new ConcurrentLinkedQueue<>();
+        final LongAdder lockedReadMisses = new LongAdder();
+
+        void record(long nanos, boolean miss) {
+            waitsNanos.add(nanos);
+            if (miss) lockedReadMisses.increment();
+        }
+
+        void reset() {
+            waitsNanos.clear();
+            lockedReadMisses.reset();
+        }
+    }
+
+    private record Attempt(long slotId, long latencyNanos, boolean booked, String error) {}
+
+    @BeforeEach
+    void setUp() {
+        testDataCleaner.cleanAll();
+    }
+
+    @Test
+    void bookingStorm() throws Exception {
+        TanService service = saveService();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            System.out.printf("%nBooking contention: %d clients x %d slots, %d rounds (+%d warm-up), %d threads%n",
+                    CLIENTS, SLOTS, ROUNDS, WARMUP_ROUNDS, THREADS);
+
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                boolean warmup = round < WARMUP_ROUNDS;
+                List<Availability> slots = seedSlots(round);
+                lockWaitRecorder.reset();
+
+                long started = System.nanoTime();
+                List<Attempt> attempts = storm(pool, service, slots);
+                long elapsed = System.nanoTime() - started;
+
+                int violations = report(warmup ? "warm-up" : "round " + (round - WARMUP_ROUNDS + 1),
+                        attempts, slots, elapsed);
+                assertEquals(0, violations, "slot booked more than once");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Attempt> storm(ExecutorService pool, TanService service, List<Availability> slots) throws Exception {
+        // only the first wave can be parked at the gate when there are fewer threads than clients
+        CountDownLatch ready = new CountDownLatch(Math.min(CLIENTS, THREADS));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Attempt>> futures = new ArrayList<>(CLIENTS);
+
+        for (int i = 0; i < CLIENTS; i++) {
+            int client = i;
+            long slotId = slots.get(i % slots.size()).getSlotId();
+            futures.add(pool.submit(() -> {
+                ready.countDown();
+                start.await();
+                return book(client, service.getServiceId(), slotId);
+            }));
+        }
+
+        ready.await(30, TimeUnit.SECONDS);
+        start.countDown();
+
+        List<Attempt> attempts = new ArrayList<>(CLIENTS);
+        for (Future<Attempt> future : futures) {
+            attempts.add(future.get(5, TimeUnit.MINUTES));
+        }
+        return attempts;
+    }
+
+    private Attempt book(int client, Long serviceId, long slotId) {
+        Appointment appointment = new Appointment();
+        TanService serviceRef = new TanService();
+        serviceRef.setServiceId(serviceId);
+        Availability slotRef = new Availability();
+        slotRef.setSlotId(slotId);
+        appointment.setService(serviceRef);
+        appointment.setAvailability(slotRef);
+        appointment.setClientName("Load Client " + client);
+        appointment.setClientEmail("load" + client + "@example.com");
+        appointment.setClientAddress("123 Peach St");
+        appointment.setTravelFee(5.0);
+
+        long started = System.nanoTime();
+        try {
+            boolean booked = appointmentService.createAppointment(appointment).isPresent();
+            return new Attempt(slotId, System.nanoTime() - started, booked, null);
+        } catch (RuntimeException e) {
+            return new Attempt(slotId, System.nanoTime() - started, false, e.getClass().getSimpleName());
+        }
+    }
+
+    private int report(String label, List<Attempt> attempts, List<Availability> slots, long elapsedNanos) {
+        Map<Long, Integer> bookedPerSlot = new HashMap<>();
+        Map<String, Integer> errors = new HashMap<>();
+        for (Attempt attempt : attempts) {
+            if (attempt.booked()) bookedPerSlot.merge(attempt.slotId(), 1, Integer::sum);
+            if (attempt.error() != null) errors.merge(attempt.error(), 1, Integer::sum);
+        }
+        int booked = bookedPerSlot.values().stream().mapToInt(Integer::intValue).sum();
+
+        // Violations seen by callers (two successful returns for one slot) and by the database
+        int callerViolations = bookedPerSlot.values().stream().mapToInt(n -> Math.max(0, n - 1)).sum();
+        Map<Long, Long> rowsPerSlot = appointmentRepository.findAll().stream()
+                .filter(a -> slots.stream().anyMatch(s -> s.getSlotId().equals(a.getAvailability().getSlotId())))
+                .collect(Collectors.groupingBy(a -> a.getAvailability().getSlotId(), Collectors.counting()));
+        int dbViolations = rowsPerSlot.values().stream().mapToInt(n -> (int) Math.max(0, n - 1)).sum();
+
+        long[] latencies = attempts.stream().mapToLong(Attempt::latencyNanos).sorted().toArray();
+        long[] waits = lockWaitRecorder.waitsNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.printf(
+                "%-8s booked=%d/%d slots  rejected=%d  errors=%s  bookings/s=%.1f  attempts/s=%.1f%n"
+                        + "         latency ms p50=%.2f p99=%.2f max=%.2f%n"
+                        + "         lock wait ms p50=%.2f p99=%.2f total=%.1f  locked-read misses=%d%n"
+                        + "         double bookings: callers=%d db=%d%n",
+                label, booked, slots.size(), attempts.size() - booked - errors.values().stream().mapToInt(Integer::intValue).sum(),
+                errors.isEmpty() ? "0" : errors, booked / seconds, attempts.size() / seconds,
+                millis(percentile(latencies, 50)), millis(percentile(latencies, 99)), millis(percentile(latencies, 100)),
+                millis(percentile(waits, 50)), millis(percentile(waits, 99)), millis(Arrays.stream(waits).sum()),
+                lockWaitRecorder.lockedReadMisses.sum(),
+                callerViolations, dbViolations);
+
+        return callerViolations + dbViolations;
+    }
+
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private TanService saveService() {
+        TanService service = new TanService();
+        service.setName("Load Glow");
+        service.setBasePrice(50.0);
+        service.setDurationMinutes(30);
+        service.setIsActive(true);
+        return tanServiceRepository.save(service);
+    }
+
+    // One Saturday per round, 30-minute slots from 9:00
+    private List<Availability> seedSlots(int round) {
+        LocalDate saturday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY)).plusWeeks(round);
+        List<Availability> slots = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            LocalTime start = LocalTime.of(9, 0).plusMinutes(30L * i);
+            Availability slot = new Availability();
+            slot.setDate(saturday);
+            slot.setStartTime(start);
+            slot.setEndTime(start.plusMinutes(30));
+            slot.setIsBooked(false);
+            slots.add(slot);
+        }
+        return availabilityRepository.saveAll(slots);
+    }
+}
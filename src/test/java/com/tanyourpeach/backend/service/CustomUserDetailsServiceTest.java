@@ -2,6 +2,7 @@ package com.tanyourpeach.backend.service;
 
 import com.tanyourpeach.backend.model.User;
 import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -118,4 +119,53 @@ class CustomUserDetailsServiceTest {
 
         assertEquals("admin@example.com", userDetails.getUsername());
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUserByUsername_shouldServeRepeatLookupsFromCache() {
+        User mockUser = new User();
+        mockUser.setUserId(7L);
+        mockUser.setEmail("cached@example.com");
+        mockUser.setPasswordHash("pass");
+        mockUser.setIsAdmin(true);
+
+        when(userRepository.findByEmail("cached@example.com")).thenReturn(Optional.of(mockUser));
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("cached@example.com");
+        UserDetails second = customUserDetailsService.loadUserByUsername("Cached@Example.com");
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByEmail("cached@example.com");
+
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, first);
+        assertEquals(7L, principal.getUserId());
+        assertTrue(principal.isAdmin());
+    }
+
+    @Test
+    void evictUser_shouldForceReloadOnNextLookup() {
+        User mockUser = new User();
+        mockUser.setEmail("evict@example.com");
+        mockUser.setPasswordHash("pass");
+        mockUser.setIsAdmin(false);
+
+        when(userRepository.findByEmail("evict@example.com")).thenReturn(Optional.of(mockUser));
+
+        customUserDetailsService.loadUserByUsername("evict@example.com");
+        customUserDetailsService.evictUser("EVICT@example.com");
+        customUserDetailsService.loadUserByUsername("evict@example.com");
+
+        verify(userRepository, times(2)).findByEmail("evict@example.com");
+    }
+
+    @Test
+    void loadUserByUsername_shouldNotCacheMisses() {
+        when(userRepository.findByEmail("ghost@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> customUserDetailsService.loadUserByUsername("ghost@example.com"));
+        assertThrows(UsernameNotFoundException.class,
+                () -> customUserDetailsService.loadUserByUsername("ghost@example.com"));
+
+        verify(userRepository, times(2)).findByEmail("ghost@example.com");
+    }
+}
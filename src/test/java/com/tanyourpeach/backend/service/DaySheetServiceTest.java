@@ -0,0 +1,186 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tanyourpeach.backend.dto.DaySheet;
+import com.tanyourpeach.backend.dto.ReceiptSummary;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.Availability;
+import com.tanyourpeach.backend.model.Inventory;
+import com.tanyourpeach.backend.model.ServiceInventoryUsage;
+import com.tanyourpeach.backend.model.ServiceInventoryUsageKey;
+import com.tanyourpeach.backend.model.TanService;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.ReceiptRepository;
+import com.tanyourpeach.backend.repository.ServiceInventoryUsageRepository;
+import com.tanyourpeach.backend.service.ServiceCatalogCache.CachedJson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class DaySheetServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 17);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ReceiptRepository receiptRepository;
+
+    @Mock
+    private ServiceInventoryUsageRepository usageRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private DaySheetService daySheetService;
+
+    private TanService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new TanService();
+        service.setServiceId(5L);
+        service.setName("Full Body Tan");
+        service.setDurationMinutes(45);
+    }
+
+    @Test
+    void build_shouldCombineAppointmentsReceiptsAndInventory() {
+        Appointment paid = appointment(1L, 10, Appointment.Status.CONFIRMED, 60.0);
+        Appointment unpaid = appointment(2L, 12, Appointment.Status.CONFIRMED, 50.0);
+        Appointment cancelled = appointment(3L, 14, Appointment.Status.CANCELLED, 40.0);
+        when(appointmentRepository.findDaySheetAppointments(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()))
+                .thenReturn(List.of(paid, unpaid, cancelled));
+        when(receiptRepository.findSummariesByAppointmentIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new ReceiptSummary(100L, 1L, BigDecimal.valueOf(60), "Card", LocalDateTime.now()),
+                new ReceiptSummary(101L, 2L, BigDecimal.valueOf(50), "Unpaid", LocalDateTime.now())));
+        when(usageRepository.findWithItemsByServiceIdIn(anyCollection())).thenReturn(List.of(usage(7L, "Solution", 2)));
+
+        DaySheet sheet = daySheetService.build(DAY);
+
+        assertEquals(3, sheet.getAppointmentCount());
+        assertEquals(1, sheet.getPaidCount());
+        assertEquals(110.0, sheet.getExpectedRevenue());
+        assertTrue(sheet.getAppointments().get(0).paid());
+        assertFalse(sheet.getAppointments().get(1).paid());
+        assertNull(sheet.getAppointments().get(2).receipt());
+        assertEquals("Full Body Tan", sheet.getAppointments().get(0).serviceName());
+        assertEquals(LocalTime.of(11, 0), sheet.getAppointments().get(0).endsAt());
+        // two non-cancelled bookings, two units each
+        assertEquals(List.of(new DaySheet.InventoryNeed(7L, "Solution", 4)), sheet.getInventory());
+    }
+
+    @Test
+    void build_shouldSkipFollowUpQueries_forEmptyDay() {
+        when(appointmentRepository.findDaySheetAppointments(any(), any())).thenReturn(List.of());
+
+        DaySheet sheet = daySheetService.build(DAY);
+
+        assertEquals(0, sheet.getAppointmentCount());
+        verifyNoInteractions(receiptRepository, usageRepository);
+    }
+
+    @Test
+    void getDaySheet_shouldServeCachedBytes_untilEvicted() {
+        when(appointmentRepository.findDaySheetAppointments(any(), any())).thenReturn(List.of());
+
+        CachedJson first = daySheetService.getDaySheet(DAY);
+        CachedJson second = daySheetService.getDaySheet(DAY);
+        assertSame(first, second);
+        verify(appointmentRepository, times(1)).findDaySheetAppointments(any(), any());
+
+        daySheetService.evictAfterCommit(DAY.atTime(9, 0));
+        CachedJson rebuilt = daySheetService.getDaySheet(DAY);
+        assertNotSame(first, rebuilt);
+        // same content, same validator
+        assertEquals(first.etag(), rebuilt.etag());
+        verify(appointmentRepository, times(2)).findDaySheetAppointments(any(), any());
+    }
+
+    @Test
+    void evictAfterCommit_shouldOnlyDropTheGivenDays() {
+        when(appointmentRepository.findDaySheetAppointments(any(), any())).thenReturn(List.of());
+        daySheetService.getDaySheet(DAY);
+        daySheetService.getDaySheet(DAY.plusDays(1));
+
+        daySheetService.evictAfterCommit(DAY.plusDays(1).atTime(10, 0), null);
+        daySheetService.getDaySheet(DAY);
+        daySheetService.getDaySheet(DAY.plusDays(1));
+
+        verify(appointmentRepository, times(3)).findDaySheetAppointments(any(), any());
+    }
+
+    @Test
+    void evictDaysAfterCommit_shouldOnlyDropTheGivenDays() {
+        when(appointmentRepository.findDaySheetAppointments(any(), any())).thenReturn(List.of());
+        daySheetService.getDaySheet(DAY);
+        daySheetService.getDaySheet(DAY.plusDays(1));
+
+        daySheetService.evictDaysAfterCommit(DAY.plusDays(1), null);
+        daySheetService.getDaySheet(DAY);
+        daySheetService.getDaySheet(DAY.plusDays(1));
+
+        verify(appointmentRepository, times(3)).findDaySheetAppointments(any(), any());
+    }
+
+    @Test
+    void evictAllAfterCommit_shouldDropEveryDay() {
+        when(appointmentRepository.findDaySheetAppointments(any(), any())).thenReturn(List.of());
+        daySheetService.getDaySheet(DAY);
+        daySheetService.getDaySheet(DAY.plusDays(1));
+
+        daySheetService.evictAllAfterCommit();
+        daySheetService.getDaySheet(DAY);
+        daySheetService.getDaySheet(DAY.plusDays(1));
+
+        verify(appointmentRepository, times(4)).findDaySheetAppointments(any(), any());
+    }
+
+    private Appointment appointment(Long id, int hour, Appointment.Status status, double total) {
+        Availability slot = new Availability();
+        slot.setDate(DAY);
+        slot.setStartTime(LocalTime.of(hour, 0));
+        slot.setEndTime(LocalTime.of(hour + 1, 0));
+
+        Appointment appointment = new Appointment();
+        appointment.setAppointmentId(id);
+        appointment.setAppointmentDateTime(DAY.atTime(hour, 0));
+        appointment.setStatus(status);
+        appointment.setService(service);
+        appointment.setAvailability(slot);
+        appointment.setClientName("Client " + id);
+        appointment.setTotalPrice(total);
+        return appointment;
+    }
+
+    private ServiceInventoryUsage usage(Long itemId, String itemName, int quantityUsed) {
+        Inventory item = new Inventory();
+        item.setItemId(itemId);
+        item.setItemName(itemName);
+
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setId(new ServiceInventoryUsageKey(service.getServiceId(), itemId));
+        usage.setService(service);
+        usage.setItem(item);
+        usage.setQuantityUsed(quantityUsed);
+        return usage;
+    }
+}
@@ -0,0 +1,118 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.util.TestDataCleaner;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class FinancialLogExportServiceTest {
+
+    @Autowired
+    private FinancialLogExportService exportService;
+
+    @Autowired
+    private FinancialLogRepository financialLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestDataCleaner testDataCleaner;
+
+    @BeforeEach
+    void setUp() {
+        testDataCleaner.cleanAll();
+    }
+
+    @Test
+    void export_shouldIncludeBothEndDatesAndNothingOutside() throws IOException {
+        save(FinancialLog.Type.revenue, "before", LocalDateTime.of(2024, 12, 31, 23, 59));
+        FinancialLog first = save(FinancialLog.Type.revenue, "first day", LocalDateTime.of(2025, 1, 1, 0, 0));
+        FinancialLog last = save(FinancialLog.Type.expense, "last day", LocalDateTime.of(2025, 1, 31, 23, 59));
+        save(FinancialLog.Type.revenue, "after", LocalDateTime.of(2025, 2, 1, 0, 0));
+
+        String[] lines = export(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null,
+                FinancialLogExportService.Format.CSV).split("\r\n");
+
+        assertEquals(3, lines.length);
+        assertEquals(FinancialLogExportService.CSV_HEADER, lines[0]);
+        assertEquals(first.getLogId() + ",2025-01-01T00:00,revenue,test,,first day,10.00", lines[1]);
+        assertEquals(last.getLogId() + ",2025-01-31T23:59,expense,test,,last day,10.00", lines[2]);
+    }
+
+    @Test
+    void export_shouldQuoteCsvFieldsThatNeedIt() throws IOException {
+        save(FinancialLog.Type.revenue, "said \"hi\",\nthen left", LocalDateTime.of(2025, 1, 1, 9, 0));
+
+        String csv = export(null, null, null, FinancialLogExportService.Format.CSV);
+
+        assertTrue(csv.endsWith(",\"said \"\"hi\"\",\nthen left\",10.00\r\n"));
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLine() throws IOException {
+        save(FinancialLog.Type.revenue, "one", LocalDateTime.of(2025, 1, 1, 9, 0));
+        save(FinancialLog.Type.expense, "two", LocalDateTime.of(2025, 1, 2, 9, 0));
+
+        String ndjson = export(null, null, FinancialLog.Type.expense, FinancialLogExportService.Format.NDJSON);
+
+        assertTrue(ndjson.startsWith("{\"logId\":"));
+        assertTrue(ndjson.endsWith(",\"logDate\":\"2025-01-02T09:00\",\"type\":\"expense\",\"source\":\"test\","
+                + "\"referenceId\":null,\"description\":\"two\",\"amount\":10.00}\n"));
+        assertEquals(1, ndjson.split("\n").length);
+    }
+
+    @Test
+    void export_shouldStopWhenClientGoesAway() {
+        for (int i = 0; i < 20; i++) {
+            save(FinancialLog.Type.revenue, "row " + i, LocalDateTime.of(2025, 1, 1, 9, i));
+        }
+
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class,
+                () -> exportService.export(null, null, null, FinancialLogExportService.Format.CSV, broken));
+    }
+
+    private String export(LocalDate from, LocalDate to, FinancialLog.Type type,
+                          FinancialLogExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(from, to, type, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // log_date is database-managed, so it is set with plain SQL after the insert
+    private FinancialLog save(FinancialLog.Type type, String description, LocalDateTime logDate) {
+        FinancialLog log = new FinancialLog();
+        log.setType(type);
+        log.setSource("test");
+        log.setDescription(description);
+        log.setAmount(new BigDecimal("10.00"));
+        FinancialLog saved = financialLogRepository.save(log);
+        jdbcTemplate.update("UPDATE financial_log SET log_date = ? WHERE log_id = ?",
+                Timestamp.valueOf(logDate), saved.getLogId());
+        return saved;
+    }
+}
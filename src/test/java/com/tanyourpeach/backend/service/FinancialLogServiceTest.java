@@ -9,6 +9,7 @@ import org.mockito.*;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,9 @@ class FinancialLogServiceTest {
     @Mock
     private FinancialLogRepository financialLogRepository;
 
+    @Mock
+    private FinancialRollupService financialRollupService;
+
     @InjectMocks
     private FinancialLogService financialLogService;
 
@@ -77,6 +81,7 @@ class FinancialLogServiceTest {
         when(financialLogRepository.save(log)).thenReturn(log);
         FinancialLog created = financialLogService.createLog(log);
         assertEquals(log.getLogId(), created.getLogId());
+        verify(financialRollupService).recordCreated(log);
     }
 
     @Test
@@ -215,18 +220,43 @@ class FinancialLogServiceTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void updateLog_shouldMoveRollupFromOldToNewValues() {
+        FinancialLog updated = new FinancialLog();
+        updated.setType(FinancialLog.Type.expense);
+        updated.setSource("inventory");
+        updated.setAmount(BigDecimal.valueOf(80.0));
+
+        List<FinancialLog.Type> removedTypes = new ArrayList<>();
+        doAnswer(i -> removedTypes.add(((FinancialLog) i.getArgument(0)).getType()))
+                .when(financialRollupService).recordRemoved(any());
+        when(financialLogRepository.findById(1L)).thenReturn(Optional.of(log));
+        when(financialLogRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        financialLogService.updateLog(1L, updated);
+
+        // the old values leave the rollup before the entity is mutated
+        assertEquals(List.of(FinancialLog.Type.revenue), removedTypes);
+        InOrder inOrder = inOrder(financialRollupService, financialLogRepository);
+        inOrder.verify(financialRollupService).recordRemoved(log);
+        inOrder.verify(financialLogRepository).save(log);
+        inOrder.verify(financialRollupService).recordCreated(log);
+    }
+
     @Test
     void deleteLog_shouldDelete_whenExists() {
-        when(financialLogRepository.existsById(1L)).thenReturn(true);
+        when(financialLogRepository.findById(1L)).thenReturn(Optional.of(log));
         boolean deleted = financialLogService.deleteLog(1L);
         assertTrue(deleted);
-        verify(financialLogRepository).deleteById(1L);
+        verify(financialLogRepository).delete(log);
+        verify(financialRollupService).recordRemoved(log);
     }
 
     @Test
     void deleteLog_shouldReturnFalse_whenNotFound() {
-        when(financialLogRepository.existsById(99L)).thenReturn(false);
+        when(financialLogRepository.findById(99L)).thenReturn(Optional.empty());
         boolean deleted = financialLogService.deleteLog(99L);
         assertFalse(deleted);
+        verifyNoInteractions(financialRollupService);
     }
 }
\ No newline at end of file
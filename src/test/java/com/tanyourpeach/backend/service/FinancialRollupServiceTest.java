@@ -0,0 +1,110 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.model.FinancialMonthlyRollup;
+import com.tanyourpeach.backend.model.FinancialMonthlyRollupKey;
+import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.repository.FinancialMonthlyRollupRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FinancialRollupServiceTest {
+
+    @Mock
+    private FinancialMonthlyRollupRepository rollupRepository;
+
+    @Mock
+    private FinancialLogRepository financialLogRepository;
+
+    @InjectMocks
+    private FinancialRollupService financialRollupService;
+
+    private FinancialLog log;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        log = new FinancialLog();
+        log.setType(FinancialLog.Type.revenue);
+        log.setSource("appointment");
+        log.setAmount(new BigDecimal("40.00"));
+        // log_date is database-managed, so there is no setter
+        ReflectionTestUtils.setField(log, "logDate", LocalDateTime.of(2025, 3, 14, 10, 0));
+    }
+
+    @Test
+    void recordCreated_shouldAddAmountAndCountToLogMonth() {
+        financialRollupService.recordCreated(log);
+
+        verify(rollupRepository).applyDelta("2025-03", "revenue", "appointment", new BigDecimal("40.00"), 1L);
+    }
+
+    @Test
+    void recordRemoved_shouldSubtractAmountAndCount() {
+        financialRollupService.recordRemoved(log);
+
+        verify(rollupRepository).applyDelta("2025-03", "revenue", "appointment", new BigDecimal("-40.00"), -1L);
+    }
+
+    @Test
+    void recordCreated_shouldUseCurrentMonthAndBlankSource_whenUnset() {
+        ReflectionTestUtils.setField(log, "logDate", null);
+        log.setSource(null);
+
+        financialRollupService.recordCreated(log);
+
+        verify(rollupRepository).applyDelta(YearMonth.now().toString(), "revenue", "", new BigDecimal("40.00"), 1L);
+    }
+
+    @Test
+    void recordCreated_shouldIgnoreIncompleteLogs() {
+        log.setAmount(null);
+
+        financialRollupService.recordCreated(log);
+        financialRollupService.recordRemoved(log);
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_shouldReplaceRowsAndMergeNullWithBlankSource() {
+        List<Object[]> aggregates = new ArrayList<>();
+        aggregates.add(new Object[] {2025, 3, FinancialLog.Type.revenue, null, new BigDecimal("10.00"), 1L});
+        aggregates.add(new Object[] {2025, 3, FinancialLog.Type.revenue, "", new BigDecimal("5.00"), 2L});
+        aggregates.add(new Object[] {2025, 4, FinancialLog.Type.expense, "inventory", new BigDecimal("7.50"), 1L});
+        when(financialLogRepository.aggregateByMonthTypeAndSource()).thenReturn(aggregates);
+
+        int rows = financialRollupService.rebuild();
+
+        assertEquals(2, rows);
+        ArgumentCaptor<Iterable<FinancialMonthlyRollup>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(rollupRepository).deleteAllInBatch();
+        verify(rollupRepository).saveAll(captor.capture());
+
+        List<FinancialMonthlyRollup> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        FinancialMonthlyRollup merged = saved.get(0);
+        assertEquals(new FinancialMonthlyRollupKey("2025-03", FinancialLog.Type.revenue, ""), merged.getId());
+        assertEquals(new BigDecimal("15.00"), merged.getTotalAmount());
+        assertEquals(3L, merged.getEntryCount());
+        assertEquals("2025-04", saved.get(1).getId().getMonth());
+    }
+}
@@ -0,0 +1,157 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.model.IdempotencyKey;
+import com.tanyourpeach.backend.model.IdempotencyKeyId;
+import com.tanyourpeach.backend.repository.IdempotencyKeyRepository;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import com.tanyourpeach.backend.security.CurrentUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final IdempotencyKeyId KEY = new IdempotencyKeyId("guest:client@example.com", "key-1");
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private CurrentUser currentUser;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        when(currentUser.get()).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void normalizeKey_shouldTrim_andRejectBlankOrTooLong() {
+        assertEquals("abc", idempotencyService.normalizeKey("  abc "));
+
+        ResponseStatusException blank = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.normalizeKey("   "));
+        assertEquals(HttpStatus.BAD_REQUEST, blank.getStatusCode());
+        assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.normalizeKey("k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1)));
+    }
+
+    @Test
+    void scopedKey_shouldScopeToUser_orToGuestEmail() {
+        assertEquals(new IdempotencyKeyId("guest:client@example.com", "abc"),
+                idempotencyService.scopedKey(" abc ", " Client@Example.com "));
+
+        when(currentUser.get()).thenReturn(Optional.of(new AuthenticatedUser(5L, "user@example.com", "hash", false)));
+        assertEquals(new IdempotencyKeyId("user:5", "abc"), idempotencyService.scopedKey("abc", "client@example.com"));
+    }
+
+    @Test
+    void requestHash_shouldDependOnBodyAndCaller() {
+        String anonymous = idempotencyService.requestHash(Map.of("slot", 1));
+
+        assertEquals(anonymous, idempotencyService.requestHash(Map.of("slot", 1)));
+        assertNotEquals(anonymous, idempotencyService.requestHash(Map.of("slot", 2)));
+
+        when(currentUser.get()).thenReturn(Optional.of(new AuthenticatedUser(5L, "user@example.com", "hash", false)));
+        assertNotEquals(anonymous, idempotencyService.requestHash(Map.of("slot", 1)));
+    }
+
+    @Test
+    void findResponse_shouldReturnEmpty_whenKeyUnknown() {
+        when(idempotencyKeyRepository.findById(KEY)).thenReturn(Optional.empty());
+
+        assertTrue(idempotencyService.findResponse(KEY, "hash").isEmpty());
+    }
+
+    @Test
+    void findResponse_shouldLoadOnce_thenServeFromCache() {
+        when(idempotencyKeyRepository.findById(KEY)).thenReturn(Optional.of(row("hash", LocalDateTime.now().plusHours(1))));
+
+        Optional<byte[]> first = idempotencyService.findResponse(KEY, "hash");
+        Optional<byte[]> second = idempotencyService.findResponse(KEY, "hash");
+
+        assertEquals("{\"appointmentId\":1}", new String(first.orElseThrow(), StandardCharsets.UTF_8));
+        assertSame(first.get(), second.orElseThrow());
+        verify(idempotencyKeyRepository, times(1)).findById(KEY);
+    }
+
+    @Test
+    void findResponse_shouldIgnoreExpiredRow() {
+        when(idempotencyKeyRepository.findById(KEY)).thenReturn(Optional.of(row("hash", LocalDateTime.now().minusMinutes(1))));
+
+        assertTrue(idempotencyService.findResponse(KEY, "hash").isEmpty());
+    }
+
+    @Test
+    void findResponse_shouldReturn422_whenKeyReusedForDifferentRequest() {
+        when(idempotencyKeyRepository.findById(KEY)).thenReturn(Optional.of(row("hash", LocalDateTime.now().plusHours(1))));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.findResponse(KEY, "other"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ex.getStatusCode());
+    }
+
+    @Test
+    void record_shouldInsertSerializedResponseWithExpiry() {
+        ReflectionTestUtils.setField(idempotencyService, "ttlMs", 60_000L);
+        LocalDateTime before = LocalDateTime.now();
+
+        idempotencyService.record(KEY, "hash", Map.of("appointmentId", 1));
+
+        ArgumentCaptor<LocalDateTime> createdAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> expiresAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyKeyRepository).insert(eq("guest:client@example.com"), eq("key-1"), eq("hash"),
+                eq("{\"appointmentId\":1}"), createdAt.capture(), expiresAt.capture());
+        assertFalse(createdAt.getValue().isBefore(before));
+        assertEquals(createdAt.getValue().plusMinutes(1), expiresAt.getValue());
+    }
+
+    @Test
+    void record_shouldFreeAnExpiredRowForTheKeyBeforeInserting() {
+        idempotencyService.record(KEY, "hash", Map.of("appointmentId", 1));
+
+        InOrder inOrder = inOrder(idempotencyKeyRepository);
+        inOrder.verify(idempotencyKeyRepository).deleteIfExpired(eq(KEY), any(LocalDateTime.class));
+        inOrder.verify(idempotencyKeyRepository).insert(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteRowsPastExpiry() {
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyKeyRepository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    private static IdempotencyKey row(String requestHash, LocalDateTime expiresAt) {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setId(KEY);
+        row.setRequestHash(requestHash);
+        row.setResponseBody("{\"appointmentId\":1}");
+        row.setCreatedAt(LocalDateTime.now().minusHours(1));
+        row.setExpiresAt(expiresAt);
+        return row;
+    }
+}
@@ -0,0 +1,135 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.dto.InventoryForecast;
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.Inventory;
+import com.tanyourpeach.backend.model.ServiceInventoryUsage;
+import com.tanyourpeach.backend.model.ServiceInventoryUsageKey;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.InventoryRepository;
+import com.tanyourpeach.backend.repository.ServiceInventoryUsageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class InventoryForecastServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 17, 8, 0);
+    private static final LocalDate TODAY = NOW.toLocalDate();
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private ServiceInventoryUsageRepository usageRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @InjectMocks
+    private InventoryForecastService forecastService;
+
+    private Inventory solution;
+    private Inventory gloves;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        solution = item(1L, "Solution", 10, 4);
+        gloves = item(2L, "Gloves", 50, 10);
+        when(inventoryRepository.findAll()).thenReturn(List.of(gloves, solution));
+    }
+
+    @Test
+    void compute_shouldProjectLowStockAndStockOutDays_fromPendingBookings() {
+        // service 5 uses 3 solution + 2 gloves, service 6 uses 1 solution
+        when(appointmentRepository.countGroupedByDayServiceAndStatus(any(), anyCollection())).thenReturn(rows(
+                row(TODAY.plusDays(1), 5L, Appointment.Status.PENDING, 1),  // solution 10 -> 7
+                row(TODAY.plusDays(2), 5L, Appointment.Status.PENDING, 1),  // 7 -> 4, at threshold
+                row(TODAY.plusDays(2), 6L, Appointment.Status.PENDING, 2),  // 4 -> 2
+                row(TODAY.plusDays(3), 5L, Appointment.Status.PENDING, 1),  // 2 -> -1, out
+                row(TODAY.plusDays(3), 5L, Appointment.Status.CONFIRMED, 4)));
+        when(usageRepository.findWithItemsByServiceIdIn(anyCollection())).thenReturn(List.of(
+                usage(5L, solution, 3), usage(5L, gloves, 2), usage(6L, solution, 1)));
+
+        List<InventoryForecast> forecast = forecastService.compute(NOW);
+
+        InventoryForecast first = forecast.get(0);
+        assertEquals("Solution", first.getItemName());
+        assertEquals(11, first.getPendingDemand());
+        assertEquals(12, first.getConfirmedDemand()); // reported, already deducted
+        assertEquals(-1, first.getProjectedRemaining());
+        assertEquals(TODAY.plusDays(2), first.getLowStockDate());
+        assertEquals(TODAY.plusDays(3), first.getStockOutDate());
+
+        InventoryForecast second = forecast.get(1);
+        assertEquals("Gloves", second.getItemName());
+        assertEquals(6, second.getPendingDemand());
+        assertEquals(44, second.getProjectedRemaining());
+        assertNull(second.getLowStockDate());
+        assertNull(second.getStockOutDate());
+    }
+
+    @Test
+    void compute_shouldMarkItemsAlreadyLowAsLowToday_andSkipUsageQueryWithoutBookings() {
+        solution.setQuantity(3);
+        when(appointmentRepository.countGroupedByDayServiceAndStatus(any(), anyCollection())).thenReturn(List.of());
+
+        List<InventoryForecast> forecast = forecastService.compute(NOW);
+
+        assertEquals("Solution", forecast.get(0).getItemName());
+        assertEquals(TODAY, forecast.get(0).getLowStockDate());
+        assertNull(forecast.get(0).getStockOutDate());
+        verifyNoInteractions(usageRepository);
+    }
+
+    @Test
+    void getForecast_shouldBeCached_untilInvalidated() {
+        when(appointmentRepository.countGroupedByDayServiceAndStatus(any(), anyCollection())).thenReturn(List.of());
+
+        List<InventoryForecast> first = forecastService.getForecast();
+        assertSame(first, forecastService.getForecast());
+        verify(inventoryRepository, times(1)).findAll();
+
+        forecastService.invalidateAfterCommit();
+        forecastService.getForecast();
+        verify(inventoryRepository, times(2)).findAll();
+    }
+
+    private static Inventory item(Long id, String name, int quantity, int threshold) {
+        Inventory item = new Inventory();
+        item.setItemId(id);
+        item.setItemName(name);
+        item.setQuantity(quantity);
+        item.setLowStockThreshold(threshold);
+        return item;
+    }
+
+    private static ServiceInventoryUsage usage(Long serviceId, Inventory item, int units) {
+        ServiceInventoryUsage usage = new ServiceInventoryUsage();
+        usage.setId(new ServiceInventoryUsageKey(serviceId, item.getItemId()));
+        usage.setItem(item);
+        usage.setQuantityUsed(units);
+        return usage;
+    }
+
+    private static Object[] row(LocalDate day, Long serviceId, Appointment.Status status, long count) {
+        return new Object[] {day, serviceId, status, count};
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -28,6 +29,18 @@ class InventoryServiceTest {
     @Mock
     private FinancialLogRepository financialLogRepository;
 
+    @Mock
+    private FinancialRollupService financialRollupService;
+
+    @Mock
+    private DaySheetService daySheetService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InventoryForecastService inventoryForecastService;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -301,6 +314,22 @@ class InventoryServiceTest {
         assertEquals(5, item.getQuantity());
     }
 
+    @Test
+    void deductQuantity_shouldPublishLowStockEvent_onlyWhenCrossingThreshold() {
+        item.setLowStockThreshold(5);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(inventoryRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        inventoryService.deductQuantity(1L, 4); // 10 -> 6, still above
+        verifyNoInteractions(eventPublisher);
+
+        inventoryService.deductQuantity(1L, 2); // 6 -> 4, crosses
+        verify(eventPublisher).publishEvent(new InventoryLowStockEvent(item.getItemId(), item.getItemName(), 4, 5));
+
+        inventoryService.deductQuantity(1L, 1); // already low
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
     @Test
     void deductQuantity_shouldFail_whenNotEnoughStock() {
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(item));
@@ -362,6 +391,31 @@ class InventoryServiceTest {
         assertFalse(result);
     }
 
+    @Test
+    void removeQuantity_shouldPublishLowStockEvent_whenCrossingThreshold() {
+        item.setLowStockThreshold(5);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(inventoryRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        assertTrue(inventoryService.removeQuantity(1L, 5));
+
+        verify(eventPublisher).publishEvent(any(InventoryLowStockEvent.class));
+    }
+
+    @Test
+    void updateInventory_shouldPublishLowStockEvent_whenThresholdIsRaisedPastQuantity() {
+        item.setLowStockThreshold(5);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(inventoryRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        Inventory update = new Inventory();
+        update.setItemName(item.getItemName());
+        update.setLowStockThreshold(12);
+        inventoryService.updateInventory(1L, update);
+
+        verify(eventPublisher).publishEvent(new InventoryLowStockEvent(item.getItemId(), item.getItemName(), 10, 12));
+    }
+
     @Test
     void removeQuantity_shouldSucceed_whenValid() {
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(item));
@@ -1,5 +1,9 @@
 package com.tanyourpeach.backend.service;
 
+import com.tanyourpeach.backend.security.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 
@@ -12,6 +16,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -32,9 +37,16 @@ class JwtAuthenticationFilterTest {
     @Mock
     private CustomUserDetailsService userDetailsService;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @Mock
     private FilterChain filterChain;
 
+    private static Claims claimsFor(String subject) {
+        return Jwts.claims().setSubject(subject);
+    }
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -49,9 +61,10 @@ class JwtAuthenticationFilterTest {
 
         UserDetails userDetails = new User("user@example.com", "password", Collections.emptyList());
 
-        when(jwtService.extractUsername("validtoken")).thenReturn("user@example.com");
+        Claims claims = claimsFor("user@example.com");
+        when(jwtService.extractVerifiedClaims("validtoken")).thenReturn(claims);
         when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("validtoken", userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -60,6 +73,77 @@ class JwtAuthenticationFilterTest {
         assert auth.getName().equals("user@example.com");
 
         verify(filterChain).doFilter(request, response);
+        // token is parsed exactly once per request
+        verify(jwtService, times(1)).extractVerifiedClaims("validtoken");
+        verify(jwtService, never()).extractUsername(any());
+    }
+
+    @Test
+    void shouldTrustClaims_withoutLoadingUser_whenTokenCarriesUserId() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer validtoken");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AuthenticatedUser principal = new AuthenticatedUser(5L, "user@example.com", null, true);
+        Claims claims = claimsFor("user@example.com");
+        when(jwtService.extractVerifiedClaims("validtoken")).thenReturn(claims);
+        when(jwtService.principalFrom(claims)).thenReturn(principal);
+        when(jwtService.isTokenValid(claims, principal)).thenReturn(true);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        assertEquals(principal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(tokenRevocationService).isRevoked(claims, 5L);
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void shouldReturn401_whenTokenIsRevoked() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer revoked");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        AuthenticatedUser principal = new AuthenticatedUser(5L, "user@example.com", null, true);
+        Claims claims = claimsFor("user@example.com");
+        when(jwtService.extractVerifiedClaims("revoked")).thenReturn(claims);
+        when(jwtService.principalFrom(claims)).thenReturn(principal);
+        when(jwtService.isTokenValid(claims, principal)).thenReturn(true);
+        when(tokenRevocationService.isRevoked(claims, 5L)).thenReturn(true);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(401, response.getStatus());
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void shouldRecordFilterTimeByOutcome() throws ServletException, IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(jwtFilter, "meterRegistry", registry);
+
+        UserDetails userDetails = new User("user@example.com", "password", Collections.emptyList());
+        Claims claims = claimsFor("user@example.com");
+        when(jwtService.extractVerifiedClaims("validtoken")).thenReturn(claims);
+        when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(userDetails);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
+        when(jwtService.extractVerifiedClaims("badtoken")).thenThrow(new RuntimeException("parse error"));
+
+        MockHttpServletRequest valid = new MockHttpServletRequest();
+        valid.addHeader("Authorization", "Bearer validtoken");
+        jwtFilter.doFilterInternal(valid, new MockHttpServletResponse(), filterChain);
+        SecurityContextHolder.clearContext();
+
+        MockHttpServletRequest invalid = new MockHttpServletRequest();
+        invalid.addHeader("Authorization", "Bearer badtoken");
+        jwtFilter.doFilterInternal(invalid, new MockHttpServletResponse(), filterChain);
+
+        jwtFilter.doFilterInternal(new MockHttpServletRequest(), new MockHttpServletResponse(), filterChain);
+
+        assertEquals(1, registry.get("security.jwt.filter").tag("outcome", "authenticated").timer().count());
+        assertEquals(1, registry.get("security.jwt.filter").tag("outcome", "rejected").timer().count());
+        assertEquals(1, registry.get("security.jwt.filter").tag("outcome", "anonymous").timer().count());
     }
 
     @Test
@@ -79,10 +163,11 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer invalid");
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.extractUsername("invalid")).thenReturn("user@example.com");
+        Claims claims = claimsFor("user@example.com");
+        when(jwtService.extractVerifiedClaims("invalid")).thenReturn(claims);
         UserDetails userDetails = new User("user@example.com", "password", Collections.emptyList());
         when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("invalid", userDetails)).thenReturn(false);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(false);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -113,7 +198,7 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer badtoken");
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtService.extractUsername("badtoken")).thenReturn(null);
+        when(jwtService.extractVerifiedClaims("badtoken")).thenReturn(null);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -134,7 +219,7 @@ class JwtAuthenticationFilterTest {
             new UsernamePasswordAuthenticationToken("user@example.com", null, Collections.emptyList())
         );
 
-        when(jwtService.extractUsername("validtoken")).thenReturn("user@example.com");
+        when(jwtService.extractVerifiedClaims("validtoken")).thenReturn(claimsFor("user@example.com"));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
@@ -164,7 +249,7 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer boom");
         var response = new org.springframework.mock.web.MockHttpServletResponse();
 
-        org.mockito.Mockito.when(jwtService.extractUsername("boom"))
+        org.mockito.Mockito.when(jwtService.extractVerifiedClaims("boom"))
             .thenThrow(new RuntimeException("parse error"));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
@@ -181,10 +266,11 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer badsig");
         var response = new org.springframework.mock.web.MockHttpServletResponse();
 
-        org.mockito.Mockito.when(jwtService.extractUsername("badsig")).thenReturn("user@example.com");
+        Claims claims = claimsFor("user@example.com");
+        org.mockito.Mockito.when(jwtService.extractVerifiedClaims("badsig")).thenReturn(claims);
         var userDetails = new org.springframework.security.core.userdetails.User("user@example.com", "x", java.util.Collections.emptyList());
         org.mockito.Mockito.when(userDetailsService.loadUserByUsername("user@example.com")).thenReturn(userDetails);
-        org.mockito.Mockito.when(jwtService.isTokenValid("badsig", userDetails))
+        org.mockito.Mockito.when(jwtService.isTokenValid(claims, userDetails))
             .thenThrow(new RuntimeException("signature invalid"));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
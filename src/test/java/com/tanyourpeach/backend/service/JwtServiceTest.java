@@ -10,6 +10,7 @@ import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.tanyourpeach.backend.model.User;
+import com.tanyourpeach.backend.security.AuthenticatedUser;
 import io.jsonwebtoken.io.Decoders;
 
 import java.security.Key;
@@ -67,6 +68,30 @@ class JwtServiceTest {
         assertTrue(isAdmin);
     }
 
+    @Test
+    void generateToken_shouldCarryUserIdAndUniqueId_forPrincipalFromClaims() {
+        User adminUser = new User();
+        adminUser.setUserId(42L);
+        adminUser.setEmail("admin@example.com");
+        adminUser.setIsAdmin(true);
+
+        Claims first = jwtService.extractVerifiedClaims(jwtService.generateToken(adminUser));
+        Claims second = jwtService.extractVerifiedClaims(jwtService.generateToken(adminUser));
+        AuthenticatedUser principal = jwtService.principalFrom(first);
+
+        assertEquals(42L, principal.getUserId());
+        assertEquals("admin@example.com", principal.getEmail());
+        assertTrue(principal.isAdmin());
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(first.getIssuedAt().getTime() / 1000, JwtService.issuedAtMillis(first) / 1000);
+    }
+
+    @Test
+    void principalFrom_shouldBeNull_forTokenWithoutUserId() {
+        assertNull(jwtService.principalFrom(jwtService.extractVerifiedClaims(jwtService.generateToken(appUser))));
+    }
+
     @Test
     void extractToken_shouldReturnToken_whenHeaderValid() {
         var request = new MockHttpServletRequest();
@@ -216,4 +241,71 @@ class JwtServiceTest {
 
         assertFalse(valid);
     }
-}
\ No newline at end of file
+
+    @Test
+    void extractVerifiedClaims_shouldReturnClaims_whenTokenValid() {
+        String token = jwtService.generateToken(appUser);
+
+        Claims claims = jwtService.extractVerifiedClaims(token);
+
+        assertNotNull(claims);
+        assertEquals("user@example.com", claims.getSubject());
+        assertNotNull(claims.getExpiration());
+    }
+
+    @Test
+    void extractVerifiedClaims_shouldReuseCachedClaims_forSameToken() {
+        String token = jwtService.generateToken(appUser);
+
+        Claims first = jwtService.extractVerifiedClaims(token);
+        Claims second = jwtService.extractVerifiedClaims(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void extractVerifiedClaims_shouldReturnNull_whenTokenMalformedOrBlank() {
+        assertNull(jwtService.extractVerifiedClaims("not.a.jwt"));
+        assertNull(jwtService.extractVerifiedClaims(""));
+        assertNull(jwtService.extractVerifiedClaims(null));
+    }
+
+    @Test
+    void extractVerifiedClaims_shouldReturnNull_whenTokenExpired() {
+        String token = Jwts.builder()
+                .setSubject("user@example.com")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 1000 * 60 * 60 * 2))
+                .setExpiration(new Date(System.currentTimeMillis() - 1000 * 60 * 60))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(jwtService.extractVerifiedClaims(token));
+    }
+
+    @Test
+    void extractVerifiedClaims_shouldNotTrustCachedClaims_forTamperedToken() {
+        String token = jwtService.generateToken(appUser);
+        assertNotNull(jwtService.extractVerifiedClaims(token));
+
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + parts[1] + ".invalidsignature";
+
+        assertNull(jwtService.extractVerifiedClaims(tampered));
+    }
+
+    @Test
+    void isTokenValid_withClaims_shouldMatchUserDetails() {
+        String token = jwtService.generateToken(appUser);
+        Claims claims = jwtService.extractVerifiedClaims(token);
+
+        var otherUser = org.springframework.security.core.userdetails.User
+                .withUsername("other@example.com")
+                .password("password")
+                .roles("USER")
+                .build();
+
+        assertTrue(jwtService.isTokenValid(claims, springUser));
+        assertFalse(jwtService.isTokenValid(claims, otherUser));
+        assertFalse(jwtService.isTokenValid((Claims) null, springUser));
+    }
+}
@@ -0,0 +1,165 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.Appointment;
+import com.tanyourpeach.backend.model.FinancialLog;
+import com.tanyourpeach.backend.model.OutboxEvent;
+import com.tanyourpeach.backend.model.Receipt;
+import com.tanyourpeach.backend.repository.AppointmentRepository;
+import com.tanyourpeach.backend.repository.FinancialLogRepository;
+import com.tanyourpeach.backend.repository.OutboxEventRepository;
+import com.tanyourpeach.backend.repository.ReceiptRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxProcessorTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private FinancialLogRepository financialLogRepository;
+
+    @Mock
+    private FinancialRollupService financialRollupService;
+
+    @Mock
+    private ReceiptRepository receiptRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DaySheetService daySheetService;
+
+    @InjectMocks
+    private OutboxProcessor outboxProcessor;
+
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(outboxProcessor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxProcessor, "retryBaseDelayMs", 1000L);
+
+        event = new OutboxEvent();
+        event.setEventId(7L);
+        event.setEventType(OutboxEvent.Type.APPOINTMENT_CONFIRMED);
+        event.setAppointmentId(1L);
+        event.setServiceId(20L);
+        event.setAmount(BigDecimal.valueOf(90.0));
+        event.setClientName("Peachy");
+
+        when(outboxEventRepository.findByEventIdForUpdate(7L)).thenReturn(Optional.of(event));
+        when(appointmentRepository.existsById(1L)).thenReturn(true);
+        when(appointmentRepository.getReferenceById(1L)).thenReturn(new Appointment());
+    }
+
+    @Test
+    void process_shouldLogRevenueIssueReceiptAndMarkDone() {
+        assertTrue(outboxProcessor.process(7L));
+
+        ArgumentCaptor<FinancialLog> logCaptor = ArgumentCaptor.forClass(FinancialLog.class);
+        verify(financialLogRepository).save(logCaptor.capture());
+        assertEquals(FinancialLog.Type.revenue, logCaptor.getValue().getType());
+        assertEquals(1L, logCaptor.getValue().getReferenceId());
+        assertEquals(BigDecimal.valueOf(90.0), logCaptor.getValue().getAmount());
+        assertEquals("Confirmed appointment for Peachy", logCaptor.getValue().getDescription());
+        verify(financialRollupService).recordCreated(logCaptor.getValue());
+
+        ArgumentCaptor<Receipt> receiptCaptor = ArgumentCaptor.forClass(Receipt.class);
+        verify(receiptRepository).save(receiptCaptor.capture());
+        assertEquals("Unpaid", receiptCaptor.getValue().getPaymentMethod());
+        assertEquals(BigDecimal.valueOf(90.0), receiptCaptor.getValue().getTotalAmount());
+
+        assertEquals(OutboxEvent.Status.DONE, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertNotNull(event.getProcessedAt());
+    }
+
+    @Test
+    void process_shouldSkipEventAlreadyDone() {
+        event.setStatus(OutboxEvent.Status.DONE);
+
+        assertFalse(outboxProcessor.process(7L));
+
+        verify(financialLogRepository, never()).save(any());
+        verify(receiptRepository, never()).save(any());
+    }
+
+    @Test
+    void process_shouldSkipMissingEvent() {
+        when(outboxEventRepository.findByEventIdForUpdate(8L)).thenReturn(Optional.empty());
+
+        assertFalse(outboxProcessor.process(8L));
+        verify(financialLogRepository, never()).save(any());
+    }
+
+    @Test
+    void process_shouldNotIssueSecondReceipt() {
+        when(receiptRepository.findByAppointment_AppointmentId(1L)).thenReturn(new Receipt());
+
+        assertTrue(outboxProcessor.process(7L));
+
+        verify(receiptRepository, never()).save(any());
+        verify(financialLogRepository).save(any());
+    }
+
+    @Test
+    void process_shouldSkipReceipt_whenAppointmentDeleted() {
+        when(appointmentRepository.existsById(1L)).thenReturn(false);
+
+        assertTrue(outboxProcessor.process(7L));
+
+        verify(receiptRepository, never()).save(any());
+    }
+
+    @Test
+    void process_shouldLeaveEventPending_whenSideEffectFails() {
+        when(financialLogRepository.save(any())).thenThrow(new IllegalStateException("boom"));
+
+        // the exception rolls back the event's transaction, so it stays pending
+        assertThrows(IllegalStateException.class, () -> outboxProcessor.process(7L));
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        verify(receiptRepository, never()).save(any());
+    }
+
+    @Test
+    void recordFailure_shouldScheduleRetryWithBackoff() {
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxProcessor.recordFailure(7L, "boom");
+        assertEquals(1, event.getAttempts());
+        assertEquals("boom", event.getLastError());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        assertFalse(event.getNextAttemptAt().isBefore(before.plusSeconds(1)));
+
+        outboxProcessor.recordFailure(7L, "boom");
+        assertFalse(event.getNextAttemptAt().isBefore(before.plusSeconds(2)));
+    }
+
+    @Test
+    void recordFailure_shouldGiveUpAfterMaxAttempts() {
+        event.setAttempts(2);
+
+        outboxProcessor.recordFailure(7L, "x".repeat(600));
+
+        assertEquals(OutboxEvent.Status.FAILED, event.getStatus());
+        assertEquals(3, event.getAttempts());
+        assertEquals(500, event.getLastError().length());
+    }
+}
@@ -0,0 +1,103 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.repository.OutboxEventRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutboxWorkerTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxProcessor outboxProcessor;
+
+    @InjectMocks
+    private OutboxWorker outboxWorker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(outboxWorker, "batchSize", 2);
+        ReflectionTestUtils.setField(outboxWorker, "enabled", true);
+    }
+
+    @Test
+    void drain_shouldProcessBatchesUntilNoneDue() {
+        when(outboxEventRepository.findDueIds(any(), any(Pageable.class)))
+            .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(outboxProcessor.process(any())).thenReturn(true);
+
+        assertEquals(3, outboxWorker.drain());
+
+        verify(outboxProcessor).process(1L);
+        verify(outboxProcessor).process(2L);
+        verify(outboxProcessor).process(3L);
+        verify(outboxEventRepository, times(2)).findDueIds(any(), any(Pageable.class));
+    }
+
+    @Test
+    void drain_shouldRecordFailureAndCarryOn() {
+        when(outboxEventRepository.findDueIds(any(), any(Pageable.class))).thenReturn(List.of(1L));
+        when(outboxProcessor.process(1L)).thenThrow(new IllegalStateException("Receipt write failed"));
+
+        assertEquals(0, outboxWorker.drain());
+
+        verify(outboxProcessor).recordFailure(1L, "Receipt write failed");
+    }
+
+    @Test
+    void drain_shouldStop_whenWholeBatchFails() {
+        when(outboxEventRepository.findDueIds(any(), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(outboxProcessor.process(any())).thenThrow(new IllegalStateException("down"));
+
+        assertEquals(0, outboxWorker.drain());
+
+        verify(outboxEventRepository, times(1)).findDueIds(any(), any(Pageable.class));
+        verify(outboxProcessor, times(2)).recordFailure(any(), eq("down"));
+    }
+
+    @Test
+    void poll_shouldDoNothing_whenDisabled() {
+        ReflectionTestUtils.setField(outboxWorker, "enabled", false);
+
+        outboxWorker.poll();
+
+        verifyNoInteractions(outboxEventRepository, outboxProcessor);
+    }
+
+    @Test
+    void purgeProcessed_shouldDeleteDoneEventsOlderThanRetention() {
+        ReflectionTestUtils.setField(outboxWorker, "retentionMs", 3_600_000L);
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxWorker.purgeProcessed();
+
+        verify(outboxEventRepository).deleteProcessedBefore(argThat(cutoff ->
+                !cutoff.isBefore(before.minusHours(1)) && !cutoff.isAfter(LocalDateTime.now().minusHours(1))));
+    }
+
+    @Test
+    void purgeProcessed_shouldDoNothing_whenDisabled() {
+        ReflectionTestUtils.setField(outboxWorker, "enabled", false);
+
+        outboxWorker.purgeProcessed();
+
+        verifyNoInteractions(outboxEventRepository);
+    }
+}
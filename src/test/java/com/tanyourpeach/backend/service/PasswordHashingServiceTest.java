@@ -0,0 +1,114 @@
+package com.tanyourpeach.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void encodeAndMatches_shouldRunOnHashingThreads() {
+        service = create(2, 4, 5000);
+        when(passwordEncoder.encode("secret")).thenAnswer(inv -> Thread.currentThread().getName());
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+        assertTrue(service.encode("secret").startsWith("password-hashing-"));
+        assertTrue(service.matches("secret", "hash"));
+    }
+
+    @Test
+    void matches_shouldBeFalse_forValueThatIsNotAHash() {
+        service = create(1, 1, 5000);
+        when(passwordEncoder.matches("secret", "plain")).thenThrow(new IllegalArgumentException("no id"));
+
+        assertFalse(service.matches("secret", "plain"));
+    }
+
+    @Test
+    void matchesNothing_shouldCheckAgainstDummyHash() {
+        service = create(1, 1, 5000);
+        when(passwordEncoder.encode(anyString())).thenReturn("{bcrypt}dummy");
+
+        service.matchesNothing("guess");
+        service.matchesNothing("guess");
+
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(passwordEncoder, times(2)).matches("guess", "{bcrypt}dummy");
+    }
+
+    @Test
+    void shouldReject503Immediately_whenPoolAndQueueAreFull() throws Exception {
+        service = create(1, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "hash";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("one"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = new CompletableFuture<>();
+        Thread second = new Thread(() -> queued.complete(service.encode("two")));
+        second.start();
+        waitUntilWaiting(second);
+
+        long start = System.nanoTime();
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.encode("three"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldReturn503_whenHashingTakesTooLong() {
+        service = create(1, 1, 50);
+        when(passwordEncoder.matches(any(), any())).thenAnswer(inv -> {
+            release.await(10, TimeUnit.SECONDS);
+            return true;
+        });
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.matches("a", "b"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+    }
+
+    @SuppressWarnings("unchecked")
+    private PasswordHashingService create(int threads, int queueCapacity, long timeoutMs) {
+        return new PasswordHashingService(passwordEncoder, threads, queueCapacity, timeoutMs, mock(ObjectProvider.class));
+    }
+
+    // A caller parks in a timed wait once its task is queued behind the running one
+    private static void waitUntilWaiting(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 500 && thread.getState() != Thread.State.TIMED_WAITING; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+    }
+}
@@ -1,5 +1,6 @@
 package com.tanyourpeach.backend.service;
 
+import com.tanyourpeach.backend.dto.ReceiptSummary;
 import com.tanyourpeach.backend.model.Appointment;
 import com.tanyourpeach.backend.model.Receipt;
 import com.tanyourpeach.backend.repository.AppointmentRepository;
@@ -9,10 +10,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +33,9 @@ class ReceiptServiceTest {
     @Mock
     private AppointmentRepository appointmentRepository;
 
+    @Mock
+    private DaySheetService daySheetService;
+
     @InjectMocks
     private ReceiptService receiptService;
 
@@ -255,4 +264,41 @@ class ReceiptServiceTest {
         assertFalse(result);
         verify(receiptRepository, never()).deleteById(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldQueryDistinctIdsOnce_forAdmin() {
+        List<ReceiptSummary> summaries = List.of(mock(ReceiptSummary.class));
+        when(receiptRepository.findSummariesByAppointmentIds(Set.of(1L, 2L))).thenReturn(summaries);
+
+        List<ReceiptSummary> result = receiptService.getReceiptsByAppointmentIds(Arrays.asList(1L, 2L, 1L, null), null);
+
+        assertSame(summaries, result);
+        verify(receiptRepository).findSummariesByAppointmentIds(Set.of(1L, 2L));
+        verify(receiptRepository, never()).findSummariesByAppointmentIdsAndClientEmail(any(), any());
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldFilterByEmail_forClient() {
+        receiptService.getReceiptsByAppointmentIds(List.of(3L), "user@example.com");
+
+        verify(receiptRepository).findSummariesByAppointmentIdsAndClientEmail(Set.of(3L), "user@example.com");
+        verify(receiptRepository, never()).findSummariesByAppointmentIds(any());
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldSkipQuery_whenNoIds() {
+        assertTrue(receiptService.getReceiptsByAppointmentIds(List.of(), null).isEmpty());
+        verifyNoInteractions(receiptRepository);
+    }
+
+    @Test
+    void getReceiptsByAppointmentIds_shouldRejectOversizedBatch() {
+        List<Long> ids = LongStream.rangeClosed(1, ReceiptService.MAX_BULK_LOOKUP + 1).boxed().toList();
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> receiptService.getReceiptsByAppointmentIds(ids, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(receiptRepository);
+    }
+}
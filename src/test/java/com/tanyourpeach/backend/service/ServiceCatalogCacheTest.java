@@ -0,0 +1,125 @@
+package com.tanyourpeach.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tanyourpeach.backend.model.ServiceType;
+import com.tanyourpeach.backend.model.TanService;
+import com.tanyourpeach.backend.repository.TanServiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ServiceCatalogCacheTest {
+
+    @Mock
+    private TanServiceRepository serviceRepository;
+
+    private AtomicLong now;
+    private ServiceCatalogCache cache;
+    private TanService mainService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        now = new AtomicLong(1_000L);
+        cache = new ServiceCatalogCache(serviceRepository, new ObjectMapper(), 60_000L, now::get);
+
+        mainService = new TanService();
+        mainService.setServiceId(1L);
+        mainService.setName("Peach Cobbler");
+        mainService.setSlug("peach-cobbler");
+        mainService.setServiceType(ServiceType.MAIN_SERVICE);
+        mainService.setIsActive(true);
+
+        TanService addOn = new TanService();
+        addOn.setServiceId(2L);
+        addOn.setName("pH Spray");
+        addOn.setServiceType(ServiceType.ADD_ON);
+        addOn.setIsActive(true);
+
+        when(serviceRepository.findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE))
+                .thenReturn(List.of(mainService));
+        when(serviceRepository.findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.ADD_ON))
+                .thenReturn(List.of(addOn));
+    }
+
+    @Test
+    void views_shouldBeServedFromOneLoad() {
+        String main = new String(cache.mainServices().body(), StandardCharsets.UTF_8);
+        assertTrue(main.startsWith("[") && main.contains("Peach Cobbler"));
+        assertTrue(new String(cache.addOns().body(), StandardCharsets.UTF_8).contains("pH Spray"));
+        assertNotNull(cache.activeById(2L));
+        assertSame(cache.activeById(1L), cache.activeBySlug("peach-cobbler"));
+        assertNull(cache.activeById(99L));
+        assertNull(cache.activeBySlug("missing"));
+
+        verify(serviceRepository, times(1))
+                .findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE);
+    }
+
+    @Test
+    void etag_shouldBeStrongAndChangeWithContent() {
+        String before = cache.mainServices().etag();
+        assertTrue(before.startsWith("\"") && before.endsWith("\""));
+        assertEquals(before, cache.mainServices().etag());
+
+        mainService.setName("Blackberry Cobbler");
+        cache.invalidate();
+
+        assertNotEquals(before, cache.mainServices().etag());
+    }
+
+    @Test
+    void invalidate_shouldReloadOnNextRead() {
+        cache.mainServices();
+        cache.invalidate();
+        cache.mainServices();
+
+        verify(serviceRepository, times(2))
+                .findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE);
+    }
+
+    @Test
+    void snapshot_shouldReloadAfterTtl() {
+        cache.mainServices();
+        now.addAndGet(60_000L);
+        cache.mainServices();
+
+        verify(serviceRepository, times(2))
+                .findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE);
+    }
+
+    @Test
+    void load_thatRacesWithInvalidate_shouldNotBePublished() {
+        // a write lands while the snapshot is being built from the old rows
+        when(serviceRepository.findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.ADD_ON))
+                .thenAnswer(i -> {
+                    cache.invalidate();
+                    return List.of();
+                })
+                .thenReturn(List.of());
+
+        cache.mainServices();
+        cache.mainServices();
+
+        verify(serviceRepository, times(2))
+                .findByIsActiveTrueAndServiceTypeOrderByDisplayOrderAscNameAsc(ServiceType.MAIN_SERVICE);
+    }
+
+    @Test
+    void matches_shouldFollowIfNoneMatchRules() {
+        assertTrue(ServiceCatalogCache.matches("\"a\"", "\"a\""));
+        assertTrue(ServiceCatalogCache.matches("W/\"a\"", "\"a\""));
+        assertTrue(ServiceCatalogCache.matches("\"b\", \"a\"", "\"a\""));
+        assertTrue(ServiceCatalogCache.matches("*", "\"a\""));
+        assertFalse(ServiceCatalogCache.matches("\"b\"", "\"a\""));
+        assertFalse(ServiceCatalogCache.matches(null, "\"a\""));
+    }
+}
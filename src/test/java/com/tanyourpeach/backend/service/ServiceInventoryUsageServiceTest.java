@@ -31,6 +31,12 @@ class ServiceInventoryUsageServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private DaySheetService daySheetService;
+
+    @Mock
+    private InventoryForecastService inventoryForecastService;
+
     @InjectMocks
     private ServiceInventoryUsageService service;
 
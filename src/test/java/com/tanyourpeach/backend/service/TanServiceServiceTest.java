@@ -25,6 +25,12 @@ class TanServiceServiceTest {
     @Mock
     private TanServiceRepository serviceRepository;
 
+    @Mock
+    private ServiceCatalogCache catalogCache;
+
+    @Mock
+    private DaySheetService daySheetService;
+
     @InjectMocks
     private TanServiceService tanServiceService;
 
@@ -151,6 +157,7 @@ class TanServiceServiceTest {
         assertEquals(ServiceType.MAIN_SERVICE, result.getServiceType());
         assertEquals(1, result.getDisplayOrder());
         verify(serviceRepository).save(any(TanService.class));
+        verify(catalogCache).invalidate();
     }
 
     @Test
@@ -189,6 +196,7 @@ class TanServiceServiceTest {
         assertEquals(409, ex.getStatusCode().value());
         assertEquals("Service slug already exists", ex.getReason());
         verify(serviceRepository, never()).save(any());
+        verify(catalogCache, never()).invalidate();
     }
 
     @Test
@@ -212,6 +220,7 @@ class TanServiceServiceTest {
         assertEquals(70.0, result.get().getBasePrice());
         assertEquals(45, result.get().getDurationMinutes());
         assertFalse(result.get().getIsActive());
+        verify(catalogCache).invalidate();
     }
 
     @Test
@@ -237,6 +246,7 @@ class TanServiceServiceTest {
         assertEquals(409, ex.getStatusCode().value());
         assertEquals("Service slug already exists", ex.getReason());
         verify(serviceRepository, never()).save(any());
+        verify(catalogCache, never()).invalidate();
     }
 
     @Test
@@ -248,6 +258,7 @@ class TanServiceServiceTest {
         assertTrue(result);
         assertFalse(mainService.getIsActive());
         verify(serviceRepository).save(mainService);
+        verify(catalogCache).invalidate();
     }
 
     @Test
@@ -267,6 +278,7 @@ class TanServiceServiceTest {
 
         assertTrue(result);
         verify(serviceRepository).deleteById(1L);
+        verify(catalogCache).invalidate();
     }
 
     @Test
@@ -276,6 +288,7 @@ class TanServiceServiceTest {
         boolean result = tanServiceService.deleteServicePermanently(1L);
 
         assertFalse(result);
+        verify(catalogCache, never()).invalidate();
     }
 
     private ServiceCreateRequest validCreateRequest() {
@@ -0,0 +1,116 @@
+package com.tanyourpeach.backend.service;
+
+import com.tanyourpeach.backend.model.TokenRevocation;
+import com.tanyourpeach.backend.repository.TokenRevocationRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(tokenRevocationRepository.save(any(TokenRevocation.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void revokeToken_shouldRevokeThatTokenOnly() {
+        tokenRevocationService.revokeToken("jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        assertTrue(tokenRevocationService.isRevoked(claims("jti-1", System.currentTimeMillis()), 1L));
+        assertFalse(tokenRevocationService.isRevoked(claims("jti-2", System.currentTimeMillis()), 1L));
+
+        ArgumentCaptor<TokenRevocation> row = ArgumentCaptor.forClass(TokenRevocation.class);
+        verify(tokenRevocationRepository).save(row.capture());
+        assertEquals("jti-1", row.getValue().getJti());
+        assertNull(row.getValue().getUserId());
+    }
+
+    @Test
+    void revokeUser_shouldRevokeTokensIssuedBefore_butNotAfter() throws InterruptedException {
+        long issuedBefore = System.currentTimeMillis() - 1000;
+
+        tokenRevocationService.revokeUser(7L);
+        Thread.sleep(2);
+        long issuedAfter = System.currentTimeMillis();
+
+        assertTrue(tokenRevocationService.isRevoked(claims("a", issuedBefore), 7L));
+        assertFalse(tokenRevocationService.isRevoked(claims("b", issuedAfter), 7L));
+        assertFalse(tokenRevocationService.isRevoked(claims("c", issuedBefore), 8L));
+        assertFalse(tokenRevocationService.isRevoked(claims("d", issuedBefore), null));
+    }
+
+    @Test
+    void reload_shouldLoadEverythingLiveFirst_thenOnlyNewRows() {
+        TokenRevocation row = new TokenRevocation();
+        row.setUserId(3L);
+        row.setRevokedAt(LocalDateTime.now());
+        row.setExpiresAt(LocalDateTime.now().plusDays(1));
+        when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of(row));
+
+        tokenRevocationService.reload();
+        tokenRevocationService.reload();
+
+        verify(tokenRevocationRepository, times(1)).findByExpiresAtAfter(any());
+        verify(tokenRevocationRepository, times(1)).findByRevokedAtAfter(any());
+        assertTrue(tokenRevocationService.isRevoked(claims("a", System.currentTimeMillis() - 1000), 3L));
+    }
+
+    @Test
+    void reload_shouldDropEntriesWhoseTokensHaveAllExpired() {
+        TokenRevocation row = new TokenRevocation();
+        row.setJti("old");
+        row.setRevokedAt(LocalDateTime.now().minusHours(2));
+        row.setExpiresAt(LocalDateTime.now().minusHours(1));
+        when(tokenRevocationRepository.findByExpiresAtAfter(any())).thenReturn(List.of(row));
+
+        tokenRevocationService.reload();
+
+        assertFalse(tokenRevocationService.isRevoked(claims("old", System.currentTimeMillis()), null));
+    }
+
+    @Test
+    void purgeExpired_shouldDeleteRowsPastExpiry() {
+        tokenRevocationService.purgeExpired();
+
+        verify(tokenRevocationRepository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    @Test
+    void issuedAt_shouldFallBackToWholeSeconds_forOlderTokens() {
+        LocalDateTime issued = LocalDateTime.now().minusMinutes(1).withNano(0);
+        Claims older = Jwts.claims().setId("x")
+                .setIssuedAt(Date.from(issued.atZone(ZoneId.systemDefault()).toInstant()));
+
+        tokenRevocationService.revokeUser(9L);
+
+        assertTrue(tokenRevocationService.isRevoked(older, 9L));
+    }
+
+    private static Claims claims(String jti, long issuedAtMs) {
+        Claims claims = Jwts.claims().setId(jti);
+        claims.put(JwtService.ISSUED_AT_MS_CLAIM, issuedAtMs);
+        return claims;
+    }
+}
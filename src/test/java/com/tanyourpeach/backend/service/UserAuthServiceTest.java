@@ -3,20 +3,23 @@ package com.tanyourpeach.backend.service;
 import com.tanyourpeach.backend.dto.AuthenticationRequest;
 import com.tanyourpeach.backend.dto.AuthenticationResponse;
 import com.tanyourpeach.backend.dto.RegisterRequest;
+import com.tanyourpeach.backend.exception.TooManyRequestsException;
 import com.tanyourpeach.backend.model.User;
 import com.tanyourpeach.backend.repository.UserRepository;
+import com.tanyourpeach.backend.web.TokenBucketLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,10 +36,10 @@ class UserAuthServiceTest {
     private JwtService jwtService;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private TokenRevocationService tokenRevocationService;
 
     @InjectMocks
     private UserAuthService userAuthService;
@@ -66,7 +69,7 @@ class UserAuthServiceTest {
         request.setAddress("123 Main St");
         request.setIsAdmin(null);
 
-        when(passwordEncoder.encode("password")).thenReturn(encodedPassword);
+        when(passwordHashingService.encode("password")).thenReturn(encodedPassword);
         when(jwtService.generateToken(any())).thenReturn("mock-token");
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -84,7 +87,7 @@ class UserAuthServiceTest {
         request.setIsAdmin(false);
         request.setAddress("123 Address St");
 
-        when(passwordEncoder.encode("plain")).thenReturn("hashed");
+        when(passwordHashingService.encode("plain")).thenReturn("hashed");
         when(jwtService.generateToken(any())).thenReturn("jwt");
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -92,6 +95,26 @@ class UserAuthServiceTest {
         assertEquals("jwt", response.getToken());
     }
 
+    @Test
+    void register_shouldStoreEmailTrimmedAndLowercased() {
+        RegisterRequest request = new RegisterRequest();
+        request.setName("Mixed");
+        request.setEmail("  Mixed.Case@Example.com ");
+        request.setPassword("plain");
+        request.setAddress("123 Address St");
+
+        when(passwordHashingService.encode("plain")).thenReturn("hashed");
+        when(jwtService.generateToken(any())).thenReturn("jwt");
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        userAuthService.register(request);
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertEquals("mixed.case@example.com", saved.getValue().getEmail());
+        verify(userRepository).findByEmail("mixed.case@example.com");
+    }
+
     @Test
     void register_shouldHandleDuplicateEmail() {
         RegisterRequest request = new RegisterRequest();
@@ -127,7 +150,7 @@ class UserAuthServiceTest {
         request.setIsAdmin(true);
 
         when(userRepository.findByEmail("test-admin-flag@example.com")).thenReturn(Optional.empty());
-        when(passwordEncoder.encode("password")).thenReturn(encodedPassword);
+        when(passwordHashingService.encode("password")).thenReturn(encodedPassword);
         when(jwtService.generateToken(any(User.class))).thenReturn("mock-token");
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
@@ -247,10 +270,13 @@ class UserAuthServiceTest {
         user.setIsAdmin(false);
 
         when(userRepository.findByEmail("valid@example.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("password", "encoded")).thenReturn(true);
         when(jwtService.generateToken(user)).thenReturn("token");
 
         AuthenticationResponse response = userAuthService.authenticate(request);
         assertEquals("token", response.getToken());
+        // a single lookup serves both the password check and the token
+        verify(userRepository, times(1)).findByEmail("valid@example.com");
     }
 
     @Test
@@ -259,9 +285,8 @@ class UserAuthServiceTest {
         request.setEmail("wrong@example.com");
         request.setPassword("bad");
 
-        doThrow(new org.springframework.security.authentication.BadCredentialsException("Bad creds"))
-                .when(authenticationManager)
-                .authenticate(any(UsernamePasswordAuthenticationToken.class));
+        when(userRepository.findByEmail("wrong@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("bad", encodedPassword)).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(
                 ResponseStatusException.class,
@@ -287,5 +312,74 @@ class UserAuthServiceTest {
 
         assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
         assertEquals("Invalid email or password", ex.getReason());
+        // the password is still checked, against a dummy hash, so the miss takes as long as a hit
+        verify(passwordHashingService).matchesNothing("any");
+        verify(jwtService, never()).generateToken(any());
+    }
+
+    @Test
+    void authenticate_shouldLookUpNormalizedEmail() {
+        AuthenticationRequest request = new AuthenticationRequest();
+        request.setEmail("  Valid@Example.COM ");
+        request.setPassword("password");
+        when(userRepository.findByEmail("valid@example.com")).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("password", encodedPassword)).thenReturn(true);
+        when(jwtService.generateToken(testUser)).thenReturn("token");
+
+        assertEquals("token", userAuthService.authenticate(request).getToken());
+    }
+
+    @Test
+    void authenticate_shouldReturn429BeforeCheckingPassword_whenAccountOverLimit() {
+        ReflectionTestUtils.setField(userAuthService, "loginAccountLimiter", new TokenBucketLimiter(1, 1, 100, () -> 0L));
+        AuthenticationRequest request = new AuthenticationRequest();
+        request.setEmail("Target@Example.com");
+        request.setPassword("guess");
+        when(userRepository.findByEmail("target@example.com")).thenReturn(Optional.of(testUser));
+
+        assertThrows(ResponseStatusException.class, () -> userAuthService.authenticate(request));
+
+        request.setEmail(" target@example.com");
+        TooManyRequestsException ex = assertThrows(
+                TooManyRequestsException.class,
+                () -> userAuthService.authenticate(request)
+        );
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatusCode());
+        assertEquals(60, ex.getRetryAfterSeconds());
+        verify(passwordHashingService, times(1)).matches(any(), any());
+    }
+
+    @Test
+    void logout_shouldRevokeThePresentedToken() {
+        Claims claims = Jwts.claims().setSubject("test@example.com").setId("jti-1")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        when(jwtService.extractVerifiedClaims("token")).thenReturn(claims);
+
+        userAuthService.logout("token");
+
+        verify(tokenRevocationService).revokeToken("jti-1", claims.getExpiration());
+        verify(tokenRevocationService, never()).revokeUser(any());
+    }
+
+    @Test
+    void logout_shouldRevokeAllUserTokens_whenTokenHasNoId() {
+        testUser.setUserId(3L);
+        when(jwtService.extractVerifiedClaims("old")).thenReturn(Jwts.claims().setSubject("test@example.com"));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+
+        userAuthService.logout("old");
+
+        verify(tokenRevocationService).revokeUser(3L);
+    }
+
+    @Test
+    void logout_shouldReturn401_whenTokenInvalid() {
+        when(jwtService.extractVerifiedClaims(null)).thenReturn(null);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> userAuthService.logout(null));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, ex.getStatusCode());
+        verifyNoInteractions(tokenRevocationService);
     }
-}
\ No newline at end of file
+}
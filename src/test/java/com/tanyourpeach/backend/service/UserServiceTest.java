@@ -11,7 +11,6 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.List;
 import java.util.Optional;
@@ -29,7 +28,13 @@ class UserServiceTest {
     private UserService userService;
 
     @Mock
-    private PasswordEncoder passwordEncoder;   
+    private PasswordHashingService passwordHashingService;   
+
+    @Mock
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     private User testUser;
 
@@ -45,8 +50,8 @@ class UserServiceTest {
         testUser.setAddress("Peach St, GA");
         testUser.setIsAdmin(false);
 
-        when(passwordEncoder.encode("pw")).thenReturn("encoded-pw");
-        when(passwordEncoder.encode("new_hash")).thenReturn("encoded-new-hash");
+        when(passwordHashingService.encode("pw")).thenReturn("encoded-pw");
+        when(passwordHashingService.encode("new_hash")).thenReturn("encoded-new-hash");
     }
 
     @Test
@@ -90,7 +95,7 @@ class UserServiceTest {
         assertEquals("brenna@example.com", result.getEmail());
         assertEquals("encoded-pw", result.getPasswordHash());
 
-        verify(passwordEncoder).encode("pw");
+        verify(passwordHashingService).encode("pw");
         verify(userRepository).save(any(User.class));
     }
 
@@ -129,8 +134,47 @@ class UserServiceTest {
         assertEquals("encoded-new-hash", result.getPasswordHash());
         assertTrue(result.getIsAdmin());
 
-        verify(passwordEncoder).encode("new_hash");
+        verify(passwordHashingService).encode("new_hash");
         verify(userRepository).save(any(User.class));
+        verify(customUserDetailsService).evictUser("updated@example.com");
+        verify(tokenRevocationService).revokeUser(1L);
+    }
+
+    @Test
+    void updateUser_shouldKeepHash_whenPasswordUnchanged() {
+        UserUpdateDto dto = new UserUpdateDto();
+        dto.setName("Updated");
+        dto.setEmail(testUser.getEmail());
+        dto.setPassword("same-password");
+
+        String storedHash = testUser.getPasswordHash();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("same-password", storedHash)).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        User result = userService.updateUser(1L, dto);
+
+        assertEquals(storedHash, result.getPasswordHash());
+        verify(passwordHashingService, never()).encode(any());
+        // same email, password and role: existing tokens stay valid
+        verify(tokenRevocationService, never()).revokeUser(any());
+    }
+
+    @Test
+    void updateUser_shouldRevokeTokens_whenOnlyRoleChanges() {
+        UserUpdateDto dto = new UserUpdateDto();
+        dto.setName(testUser.getName());
+        dto.setEmail(testUser.getEmail());
+        dto.setPassword("same-password");
+        dto.setIsAdmin(true);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(passwordHashingService.matches("same-password", testUser.getPasswordHash())).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        userService.updateUser(1L, dto);
+
+        verify(tokenRevocationService).revokeUser(1L);
     }
 
     @Test
@@ -161,24 +205,28 @@ class UserServiceTest {
                 () -> userService.updateUser(1L, dto));
         assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
         verify(userRepository, never()).save(any());
+        verify(customUserDetailsService, never()).evictUser(any());
     }
 
     @Test
     void deleteUser_shouldSucceed_whenExists() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        doNothing().when(userRepository).delete(testUser);
 
         assertDoesNotThrow(() -> userService.deleteUser(1L));
-        verify(userRepository).deleteById(1L);
+        verify(userRepository).delete(testUser);
+        verify(customUserDetailsService).evictUser(testUser.getEmail());
+        verify(tokenRevocationService).revokeUser(1L);
     }
 
     @Test
     void deleteUser_shouldThrow404_whenMissing() {
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> userService.deleteUser(999L));
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(userRepository, never()).delete(any(User.class));
         verify(userRepository, never()).deleteById(anyLong());
     }
 }
\ No newline at end of file
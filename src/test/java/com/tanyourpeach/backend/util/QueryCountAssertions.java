@@ -0,0 +1,30 @@
+package com.tanyourpeach.backend.util;
+
+import com.tanyourpeach.backend.web.QueryCounter;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Fails when an action (usually a MockMvc request) runs more SQL statements than allowed.
+// Counts everything on the calling thread, including lazy loads during serialization.
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertMaxQueries(int max, ThrowingSupplier<T> action) throws Throwable {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            T result = action.get();
+            assertTrue(scope.count() <= max,
+                    "expected at most " + max + " SQL statements but ran " + scope.count());
+            return result;
+        }
+    }
+
+    public static int countQueries(ThrowingSupplier<?> action) throws Throwable {
+        try (QueryCounter.Scope scope = QueryCounter.open()) {
+            action.get();
+            return scope.count();
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.tanyourpeach.backend.util;
 
 import com.tanyourpeach.backend.repository.*;
+import com.tanyourpeach.backend.service.AppointmentCounters;
+import com.tanyourpeach.backend.service.DaySheetService;
+import com.tanyourpeach.backend.service.InventoryForecastService;
+import com.tanyourpeach.backend.service.CustomUserDetailsService;
+import com.tanyourpeach.backend.service.IdempotencyService;
+import com.tanyourpeach.backend.service.ServiceCatalogCache;
+import com.tanyourpeach.backend.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class TestDataCleaner {
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
     @Autowired
     private AppointmentStatusHistoryRepository appointmentStatusHistoryRepository;
 
@@ -16,6 +26,9 @@ public class TestDataCleaner {
     @Autowired
     private FinancialLogRepository financialLogRepository;
 
+    @Autowired
+    private FinancialMonthlyRollupRepository financialMonthlyRollupRepository;
+
     @Autowired
     private ServiceInventoryUsageRepository serviceInventoryUsageRepository;
 
@@ -34,15 +47,53 @@ public class TestDataCleaner {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private ServiceCatalogCache serviceCatalogCache;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AppointmentCounters appointmentCounters;
+
+    @Autowired
+    private DaySheetService daySheetService;
+
+    @Autowired
+    private InventoryForecastService inventoryForecastService;
+
     public void cleanAll() {
+        outboxEventRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+        tokenRevocationRepository.deleteAll();
         appointmentStatusHistoryRepository.deleteAll();
         receiptRepository.deleteAll();
         financialLogRepository.deleteAll();
+        financialMonthlyRollupRepository.deleteAll();
         serviceInventoryUsageRepository.deleteAll();
         appointmentRepository.deleteAll();
         availabilityRepository.deleteAll();
         inventoryRepository.deleteAll();
         tanServiceRepository.deleteAll();
         userRepository.deleteAll();
+        customUserDetailsService.evictAll(); // users were removed behind the principal cache
+        serviceCatalogCache.invalidate(); // and the pre-serialized service catalog
+        idempotencyService.evictAll(); // and replayable booking responses
+        tokenRevocationService.evictAll(); // and revoked tokens
+        appointmentCounters.reconcile(); // and live appointment counts
+        daySheetService.evictAll(); // and pre-rendered day sheets
+        inventoryForecastService.invalidate(); // and the stock-out forecast
     }
 }
\ No newline at end of file
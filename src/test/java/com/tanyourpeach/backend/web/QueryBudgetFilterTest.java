@@ -0,0 +1,75 @@
+package com.tanyourpeach.backend.web;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetFilterTest {
+
+    @Test
+    void shouldSendCountBeforeBodyIsWritten() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            QueryCounter.record(1_000_000);
+            QueryCounter.record(2_000_000);
+            res.getWriter().write("[]");
+            res.flushBuffer();
+            QueryCounter.record(1_000_000); // after commit: logged, not in the header
+        };
+
+        new QueryBudgetFilter(25, true).doFilter(new MockHttpServletRequest("GET", "/api/services"), response, chain);
+
+        assertEquals("2", response.getHeader(QueryBudgetFilter.COUNT_HEADER));
+        assertEquals("3", response.getHeader(QueryBudgetFilter.TIME_HEADER));
+    }
+
+    @Test
+    void shouldSendCount_whenResponseHasNoBody() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            QueryCounter.record(0);
+            ((jakarta.servlet.http.HttpServletResponse) res).setStatus(204);
+        };
+
+        new QueryBudgetFilter(25, true).doFilter(new MockHttpServletRequest("DELETE", "/api/services/1"), response, chain);
+
+        assertEquals(204, response.getStatus());
+        assertEquals("1", response.getHeader(QueryBudgetFilter.COUNT_HEADER));
+    }
+
+    @Test
+    void shouldNotSendHeaders_whenDisabled() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            QueryCounter.record(0);
+            res.getWriter().write("[]");
+        };
+
+        new QueryBudgetFilter(25, false).doFilter(new MockHttpServletRequest("GET", "/api/services"), response, chain);
+
+        assertNull(response.getHeader(QueryBudgetFilter.COUNT_HEADER));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void scopes_shouldNestAndCountIntoEveryOpenScope() {
+        try (QueryCounter.Scope outer = QueryCounter.open()) {
+            QueryCounter.record(0);
+            try (QueryCounter.Scope inner = QueryCounter.open()) {
+                QueryCounter.record(0);
+                QueryCounter.record(0);
+                assertEquals(2, inner.count());
+            }
+            QueryCounter.record(0);
+            assertEquals(4, outer.count());
+        }
+    }
+
+    @Test
+    void record_shouldBeNoOp_withoutOpenScope() {
+        assertDoesNotThrow(() -> QueryCounter.record(0));
+    }
+}
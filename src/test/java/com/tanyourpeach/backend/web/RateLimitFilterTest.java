@@ -0,0 +1,65 @@
+package com.tanyourpeach.backend.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicInteger passed = new AtomicInteger();
+
+    private final FilterChain chain = (req, res) -> passed.incrementAndGet();
+
+    private final RateLimitFilter filter = new RateLimitFilter(
+            List.of(new RateLimitFilter.Rule("POST", "/api/auth/login", new TokenBucketLimiter(2, 1, 100, () -> 0L))),
+            new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    @Test
+    void shouldReturn429WithRetryAfter_onceBucketIsEmpty() throws Exception {
+        filter.doFilter(login("10.0.0.1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(login("10.0.0.1"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.1"), refused, chain);
+
+        assertEquals(2, passed.get());
+        assertEquals(429, refused.getStatus());
+        assertEquals("60", refused.getHeader("Retry-After"));
+        assertTrue(refused.getContentAsString().contains("\"message\":\"Too many requests\""));
+    }
+
+    @Test
+    void shouldLimitEachAddressSeparately() throws Exception {
+        filter.doFilter(login("10.0.0.1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(login("10.0.0.1"), new MockHttpServletResponse(), chain);
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(login("10.0.0.2"), other, chain);
+
+        assertEquals(3, passed.get());
+        assertEquals(200, other.getStatus());
+    }
+
+    @Test
+    void shouldIgnoreRoutesWithoutRule() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/login");
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/appointments"), new MockHttpServletResponse(), chain);
+        }
+
+        assertEquals(10, passed.get());
+    }
+
+    private static MockHttpServletRequest login(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
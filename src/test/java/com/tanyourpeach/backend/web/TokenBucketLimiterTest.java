@@ -0,0 +1,112 @@
+package com.tanyourpeach.backend.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenRefuseUntilRefilled() {
+        // 3 tokens, one back every 20 seconds
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 3, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        long wait = limiter.tryAcquire("a");
+        assertEquals(TimeUnit.SECONDS.toNanos(20), wait);
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void tryAcquire_shouldKeepClientsApart() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 100, clock::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void tryAcquire_shouldNotBankTokensBeyondCapacity() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 60, 100, clock::get);
+        limiter.tryAcquire("a");
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void sweep_shouldDropRefilledBuckets() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 60, 100, clock::get);
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        assertEquals(50, limiter.size());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        limiter.tryAcquire("late");
+
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_shouldShareOverflowBucket_whenTableFull() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 2, clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertTrue(limiter.tryAcquire("d") > 0);
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void tryAcquire_shouldNeverAdmitMoreThanCapacityUnderContention() throws Exception {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(100, 1, 100, clock::get);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        try {
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("hot") == 0) admitted.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(100, admitted.get());
+    }
+
+    @Test
+    void retryAfterSeconds_shouldRoundUp() {
+        assertEquals(1, TokenBucketLimiter.retryAfterSeconds(1));
+        assertEquals(1, TokenBucketLimiter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+        assertEquals(2, TokenBucketLimiter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+    }
+}